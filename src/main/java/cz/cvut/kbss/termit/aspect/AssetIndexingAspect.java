@@ -0,0 +1,80 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.aspect;
+
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.persistence.dao.AssetIndex;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link AssetIndex}es up to date with modifications of terms and vocabularies done via DAOs.
+ */
+@Aspect
+public class AssetIndexingAspect {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssetIndexingAspect.class);
+
+    @Autowired
+    private ObjectProvider<AssetIndex> indexes;
+
+    @Pointcut(value = "(target(cz.cvut.kbss.termit.persistence.dao.TermDao) " +
+            "|| target(cz.cvut.kbss.termit.persistence.dao.VocabularyDao)) " +
+            "&& (execution(public void persist(..)) || execution(public * update(..)) " +
+            "|| execution(public void remove(..)))")
+    public void indexedAssetModification() {
+    }
+
+    @Pointcut(value = "execution(public void persistAll(..)) && target(cz.cvut.kbss.termit.persistence.dao.TermDao)")
+    public void indexedAssetsPersist() {
+    }
+
+    @AfterReturning(value = "indexedAssetModification() && args(asset, ..)", argNames = "asset")
+    public void reindexAsset(HasIdentifier asset) {
+        reindex(Collections.singleton(asset.getUri()));
+    }
+
+    @AfterReturning(value = "indexedAssetModification() && args(id)", argNames = "id")
+    public void reindexRemovedAsset(URI id) {
+        reindex(Collections.singleton(id));
+    }
+
+    @AfterReturning(value = "indexedAssetsPersist() && args(assets, ..)", argNames = "assets")
+    public void reindexAssets(Collection<Term> assets) {
+        reindex(assets.stream().map(Term::getUri).collect(Collectors.toList()));
+    }
+
+    private void reindex(Collection<URI> ids) {
+        if (indexes == null) {
+            return;
+        }
+        LOG.trace("Scheduling reindexing of assets {}.", ids);
+        indexes.orderedStream().forEach(index -> index.reindex(ids));
+    }
+}
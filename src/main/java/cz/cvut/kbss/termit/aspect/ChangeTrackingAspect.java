@@ -13,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+
 /**
  * Records changes to assets based on modification operations.
  */
@@ -37,6 +39,10 @@ public class ChangeTrackingAspect {
     public void persistTermOperation() {
     }
 
+    @Pointcut(value = "execution(public void persistAll(..)) && target(cz.cvut.kbss.termit.persistence.dao.TermDao)")
+    public void persistTermsOperation() {
+    }
+
     @Pointcut(value = "execution(public * update(..)) && target(cz.cvut.kbss.termit.persistence.dao.GenericDao) " +
             "&& @args(cz.cvut.kbss.termit.model.changetracking.Audited)")
     public void updateOperation() {
@@ -54,6 +60,12 @@ public class ChangeTrackingAspect {
         changeTracker.recordAddEvent(asset);
     }
 
+    @After(value = "persistTermsOperation() && args(assets, voc)", argNames = "assets,voc")
+    public void recordTermsPersist(Collection<Term> assets, Vocabulary voc) {
+        LOG.trace("Recording creation of {} terms.", assets.size());
+        changeTracker.recordAddEvents(assets);
+    }
+
     @Before(value = "updateOperation() && args(asset)")
     public void recordAssetUpdate(Asset asset) {
         LOG.trace("Recording update of asset {}.", asset);
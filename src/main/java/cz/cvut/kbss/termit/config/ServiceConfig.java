@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.termit.aspect.AssetIndexingAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.service.Services;
 import org.apache.http.client.HttpClient;
@@ -30,6 +31,7 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
@@ -39,6 +41,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 @Configuration
+@EnableScheduling
 @ComponentScan(basePackageClasses = {Services.class})
 public class ServiceConfig {
 
@@ -59,6 +62,8 @@ public class ServiceConfig {
                                                        .setRedirectStrategy(new LaxRedirectStrategy())
                                                        .build();
         factory.setHttpClient(httpClient);
+        // Do not buffer request bodies in memory, they may be large (e.g., documents sent to text analysis)
+        factory.setBufferRequestBody(false);
         restTemplate.setRequestFactory(factory);
 
         final MappingJackson2HttpMessageConverter jacksonConverter = new MappingJackson2HttpMessageConverter();
@@ -87,4 +92,9 @@ public class ServiceConfig {
         // Need to create the aspect as a bean, so that it can be injected into
         return Aspects.aspectOf(ChangeTrackingAspect.class);
     }
+
+    @Bean
+    AssetIndexingAspect assetIndexingAspect() {
+        return Aspects.aspectOf(AssetIndexingAspect.class);
+    }
 }
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.jsonld.jackson.JsonLdModule;
+import cz.cvut.kbss.termit.rest.util.StreamingResourceHttpMessageConverter;
 import cz.cvut.kbss.termit.util.AdjustedUriTemplateProxyServlet;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import org.springframework.context.annotation.Bean;
@@ -28,6 +29,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -123,7 +125,11 @@ public class WebAppConfig implements WebMvcConfigurer {
         converters.add(createDefaultMessageConverter());
         final StringHttpMessageConverter stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
         converters.add(stringConverter);
+        // Streams generated content (e.g., exports) without buffering it, has to precede the default resource converter
+        converters.add(new StreamingResourceHttpMessageConverter());
         converters.add(new ResourceHttpMessageConverter());
+        // Supports HTTP Range requests for resources
+        converters.add(new ResourceRegionHttpMessageConverter());
     }
 
     private HttpMessageConverter<?> createJsonLdMessageConverter() {
@@ -0,0 +1,102 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Typeahead suggestion of an asset whose label starts with (or contains a word starting with) a prefix.
+ */
+public class Suggestion implements Serializable {
+
+    private final URI uri;
+
+    private final String label;
+
+    private final String type;
+
+    private final URI vocabulary;
+
+    private final int popularity;
+
+    public Suggestion(URI uri, String label, String type, URI vocabulary, int popularity) {
+        this.uri = Objects.requireNonNull(uri);
+        this.label = Objects.requireNonNull(label);
+        this.type = type;
+        this.vocabulary = vocabulary;
+        this.popularity = popularity;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Type of the suggested asset, i.e., term or vocabulary.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Vocabulary the suggested asset belongs to. For vocabularies, it is the vocabulary itself.
+     */
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Popularity of the asset used to rank suggestions. For terms, it is the number of their assignments and
+     * occurrences.
+     */
+    public int getPopularity() {
+        return popularity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Suggestion)) {
+            return false;
+        }
+        Suggestion that = (Suggestion) o;
+        return Objects.equals(uri, that.uri) && Objects.equals(label, that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uri, label);
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{" +
+                "<" + uri + ">, " +
+                "label='" + label + '\'' +
+                ", popularity=" + popularity +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of an import of terms from tabular data.
+ * <p>
+ * Rows which could not be imported are reported as errors. To keep the report bounded for large inputs, at most {@link
+ * #MAX_REPORTED_ERRORS} errors are listed, the total number of errors is available in {@link #getErrorCount()}.
+ */
+public class TermImportReport implements Serializable {
+
+    /**
+     * Maximum number of row errors listed in the report
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int importedTermCount;
+
+    private int parentLinkCount;
+
+    private int errorCount;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Number of terms imported.
+     */
+    public int getImportedTermCount() {
+        return importedTermCount;
+    }
+
+    public void termImported() {
+        importedTermCount++;
+    }
+
+    /**
+     * Number of parent links between terms imported.
+     */
+    public int getParentLinkCount() {
+        return parentLinkCount;
+    }
+
+    public void parentLinkImported() {
+        parentLinkCount++;
+    }
+
+    /**
+     * Total number of row errors, including those not listed in {@link #getErrors()}.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Records an error in the specified row.
+     *
+     * @param row     Number of the row in the source
+     * @param message Error description
+     */
+    public void addError(int row, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TermImportReport{" +
+                "importedTermCount=" + importedTermCount +
+                ", parentLinkCount=" + parentLinkCount +
+                ", errorCount=" + errorCount +
+                '}';
+    }
+
+    /**
+     * Error which prevented (part of) a row from being imported.
+     */
+    public static class RowError implements Serializable {
+
+        private final int row;
+
+        private final String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * Number of the row in the source, starting at 1.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "RowError{row=" + row + ", message='" + message + "'}";
+        }
+    }
+}
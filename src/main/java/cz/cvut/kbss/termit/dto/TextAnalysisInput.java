@@ -92,10 +92,10 @@ public class TextAnalysisInput {
 
     @Override
     public String toString() {
-        assert content != null;
         return "TextAnalysisInput{" +
-                "content='" + (content.length() > 50 ? content.substring(0, 50) + "..." : content) + '\'' +
-                ", vocabularyRepository=" + vocabularyRepository +
+                (content != null ?
+                 "content='" + (content.length() > 50 ? content.substring(0, 50) + "..." : content) + "', " : "") +
+                "vocabularyRepository=" + vocabularyRepository +
                 ", vocabularyContexts=" + vocabularyContexts +
                 ", language=" + language +
                 '}';
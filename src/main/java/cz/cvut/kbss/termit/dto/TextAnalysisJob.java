@@ -0,0 +1,239 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents an asynchronously executed text analysis job and its current state.
+ * <p>
+ * A job may process one or more items (files). Its progress is given by the ratio of processed items to the total
+ * number of items. Failure to process an item does not fail the whole job, it is recorded in the job's failures
+ * instead.
+ * <p>
+ * Instances are thread-safe, since they are updated by the worker executing the job and read by clients querying job
+ * status.
+ */
+public class TextAnalysisJob {
+
+    /**
+     * Job lifecycle states.
+     */
+    public enum Status {
+        QUEUED, RUNNING, FINISHED, FAILED, CANCELLED
+    }
+
+    private final String id;
+
+    private final URI resource;
+
+    private final Date created;
+
+    private volatile Date started;
+
+    private volatile Date finished;
+
+    private volatile Status status = Status.QUEUED;
+
+    private final int total;
+
+    private final AtomicInteger processed = new AtomicInteger();
+
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    private volatile String error;
+
+    private final Map<URI, String> failures = new ConcurrentHashMap<>();
+
+    public TextAnalysisJob(String id, URI resource, int total) {
+        this.id = Objects.requireNonNull(id);
+        this.resource = Objects.requireNonNull(resource);
+        this.total = total;
+        this.created = new Date();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets identifier of the resource this job analyzes.
+     *
+     * @return Resource identifier
+     */
+    public URI getResource() {
+        return resource;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public Date getStarted() {
+        return started;
+    }
+
+    public Date getFinished() {
+        return finished;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Gets the number of items which were not analyzed because they did not change since their latest analysis.
+     * <p>
+     * Skipped items are included in the number of processed items.
+     *
+     * @return Number of skipped items
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Gets progress of this job as a number between 0 and 1.
+     *
+     * @return Job progress
+     */
+    public double getProgress() {
+        return total > 0 ? (double) processed.get() / total : 0.0;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Gets items whose processing failed, together with the corresponding error messages.
+     *
+     * @return Map of failed item identifiers to error messages
+     */
+    public Map<URI, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Whether this job has already ended, either successfully or not.
+     *
+     * @return {@code true} if the job is finished, failed or cancelled, {@code false} otherwise
+     */
+    public boolean isDone() {
+        final Status current = status;
+        return current == Status.FINISHED || current == Status.FAILED || current == Status.CANCELLED;
+    }
+
+    /**
+     * Marks this job as running.
+     *
+     * @return {@code false} if the job has been cancelled in the meantime and should not run, {@code true} otherwise
+     */
+    public synchronized boolean markRunning() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        this.status = Status.RUNNING;
+        this.started = new Date();
+        return true;
+    }
+
+    /**
+     * Records that one item of this job has been processed.
+     */
+    public void itemProcessed() {
+        processed.incrementAndGet();
+    }
+
+    /**
+     * Records that one item of this job has been skipped, because it did not need to be analyzed.
+     */
+    public void itemSkipped() {
+        skipped.incrementAndGet();
+        processed.incrementAndGet();
+    }
+
+    /**
+     * Records that processing of the specified item of this job has failed.
+     * <p>
+     * The item is still counted as processed.
+     *
+     * @param item  Identifier of the failed item
+     * @param error Error message
+     */
+    public void itemFailed(URI item, String error) {
+        Objects.requireNonNull(item);
+        failures.put(item, error != null ? error : "Unknown error");
+        processed.incrementAndGet();
+    }
+
+    public synchronized void markFinished() {
+        if (!isDone()) {
+            this.status = Status.FINISHED;
+            this.finished = new Date();
+        }
+    }
+
+    public synchronized void markFailed(String error) {
+        if (!isDone()) {
+            this.status = Status.FAILED;
+            this.error = error;
+            this.finished = new Date();
+        }
+    }
+
+    /**
+     * Marks this job as cancelled, unless it has already ended.
+     *
+     * @return Whether the job was cancelled
+     */
+    public synchronized boolean markCancelled() {
+        if (isDone()) {
+            return false;
+        }
+        this.status = Status.CANCELLED;
+        this.finished = new Date();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "TextAnalysisJob{" +
+                "id='" + id + '\'' +
+                ", resource=" + resource +
+                ", status=" + status +
+                ", processed=" + processed + "/" + total +
+                ", skipped=" + skipped +
+                ", failed=" + failures.size() +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.exception;
+
+/**
+ * Indicates that file content exceeds the maximum allowed size.
+ *
+ * @see cz.cvut.kbss.termit.util.ConfigParam#FILE_MAX_SIZE
+ */
+public class FileSizeLimitExceededException extends TermItException {
+
+    public FileSizeLimitExceededException(String message) {
+        super(message);
+    }
+}
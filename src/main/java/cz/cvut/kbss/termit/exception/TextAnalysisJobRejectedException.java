@@ -0,0 +1,28 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.exception;
+
+/**
+ * Indicates that a text analysis job could not be accepted, e.g., because the job queue is full.
+ */
+public class TextAnalysisJobRejectedException extends TermItException {
+
+    public TextAnalysisJobRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -32,7 +32,7 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Audited
 @OWLClass(iri = SKOS.CONCEPT)
@@ -194,13 +194,11 @@ public class Term extends Asset implements HasTypes, Serializable {
         }
         sb.append(',');
         if (parentTerms != null && !parentTerms.isEmpty()) {
-            sb.append(exportCollection(
-                    parentTerms.stream().map(pt -> pt.getUri().toString()).collect(Collectors.toSet())));
+            sb.append(CsvUtils.sanitizeString(joinIdentifiers(parentTerms, Term::getUri)));
         }
         sb.append(',');
         if (subTerms != null && !subTerms.isEmpty()) {
-            sb.append(
-                    exportCollection(subTerms.stream().map(ti -> ti.getUri().toString()).collect(Collectors.toSet())));
+            sb.append(CsvUtils.sanitizeString(joinIdentifiers(subTerms, TermInfo::getUri)));
         }
         return sb.toString();
     }
@@ -209,6 +207,21 @@ public class Term extends Asset implements HasTypes, Serializable {
         return CsvUtils.sanitizeString(String.join(";", col));
     }
 
+    /**
+     * Joins identifiers of the specified items using semicolons, without creating intermediate collections (exports
+     * call this for every term).
+     */
+    private static <T> String joinIdentifiers(Collection<T> items, Function<T, URI> identifier) {
+        final StringBuilder sb = new StringBuilder();
+        for (T item : items) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(identifier.apply(item));
+        }
+        return sb.toString();
+    }
+
     /**
      * Generates an Excel line (line with tab separated values) representing this term.
      * <p>
@@ -233,14 +246,10 @@ public class Term extends Asset implements HasTypes, Serializable {
             row.createCell(5).setCellValue(String.join(";", sources));
         }
         if (parentTerms != null) {
-            row.createCell(6)
-               .setCellValue(String.join(";",
-                       parentTerms.stream().map(pt -> pt.getUri().toString()).collect(Collectors.toSet())));
+            row.createCell(6).setCellValue(joinIdentifiers(parentTerms, Term::getUri));
         }
         if (subTerms != null) {
-            row.createCell(7)
-               .setCellValue(String.join(";",
-                       subTerms.stream().map(ti -> ti.getUri().toString()).collect(Collectors.toSet())));
+            row.createCell(7).setCellValue(joinIdentifiers(subTerms, TermInfo::getUri));
         }
     }
 
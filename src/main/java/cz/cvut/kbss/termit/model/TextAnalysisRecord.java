@@ -25,6 +25,7 @@ import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.util.Vocabulary;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Objects;
 import java.util.Set;
@@ -44,6 +45,12 @@ public class TextAnalysisRecord extends AbstractEntity {
     @OWLObjectProperty(iri = Vocabulary.s_p_ma_slovnik_pro_analyzu)
     private Set<URI> vocabularies;
 
+    @OWLDataProperty(iri = Vocabulary.s_p_ma_otisk_obsahu)
+    private String contentHash;
+
+    @OWLDataProperty(iri = Vocabulary.s_p_ma_verzi_slovniku_pro_analyzu)
+    private Instant vocabularyVersion;
+
     public TextAnalysisRecord() {
     }
 
@@ -76,6 +83,34 @@ public class TextAnalysisRecord extends AbstractEntity {
         this.vocabularies = vocabularies;
     }
 
+    /**
+     * Gets hash of the analyzed resource's content after the analysis.
+     *
+     * @return Content hash, {@code null} for records created before content hashes were introduced
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Gets version stamp of the vocabularies used in the analysis.
+     * <p>
+     * It corresponds to the last modification of the vocabularies or their terms tracked by the application.
+     *
+     * @return Vocabulary version stamp, possibly {@code null}
+     */
+    public Instant getVocabularyVersion() {
+        return vocabularyVersion;
+    }
+
+    public void setVocabularyVersion(Instant vocabularyVersion) {
+        this.vocabularyVersion = vocabularyVersion;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -101,6 +136,7 @@ public class TextAnalysisRecord extends AbstractEntity {
                 "date=" + date +
                 ",analyzedResource=" + analyzedResource +
                 ",vocabularies=" + vocabularies +
+                ",contentHash=" + contentHash +
                 "}";
     }
 }
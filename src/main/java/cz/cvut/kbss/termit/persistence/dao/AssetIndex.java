@@ -0,0 +1,39 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import java.net.URI;
+import java.util.Collection;
+
+/**
+ * Index of asset data maintained alongside the repository to speed up lookups (e.g., full text search).
+ * <p>
+ * Indexes are notified of assets modified via DAOs (see {@link cz.cvut.kbss.termit.aspect.AssetIndexingAspect}).
+ */
+public interface AssetIndex {
+
+    /**
+     * Updates the index with the current state of the specified assets in the repository.
+     * <p>
+     * If invoked in a transaction, the index should be updated only after the transaction commits. Assets which no
+     * longer exist should be removed from the index.
+     *
+     * @param ids Identifiers of the modified assets
+     */
+    void reindex(Collection<URI> ids);
+}
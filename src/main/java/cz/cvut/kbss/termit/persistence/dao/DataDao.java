@@ -20,27 +20,32 @@ import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
 import cz.cvut.kbss.termit.dto.RdfsResource;
+import cz.cvut.kbss.termit.exception.DataImportException;
 import cz.cvut.kbss.termit.exception.PersistenceException;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.persistence.dao.skos.BatchedStatementWriter;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.Turtle;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
-import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Repository
@@ -147,14 +152,73 @@ public class DataDao {
      * @return Resource containing the exported data in Turtle
      */
     public TypeAwareResource exportDataAsTurtle(URI... contexts) {
+        return new TypeAwareStreamingResource(out -> exportData(RDFFormat.TURTLE, out, contexts), Turtle.MEDIA_TYPE,
+                Turtle.FILE_EXTENSION);
+    }
+
+    /**
+     * Exports the specified repository contexts in the specified format.
+     * <p>
+     * Statements are written into the output stream as they are read from the repository, so the export is never held
+     * in memory. If the format supports named graphs (e.g., binary RDF, N-Quads, TriG), contexts of the statements are
+     * preserved.
+     *
+     * @param format   Target serialization format
+     * @param out      Stream to write the data into. It is not closed
+     * @param contexts The contexts to export. If empty, the whole repository is exported
+     */
+    public void exportData(RDFFormat format, OutputStream out, URI... contexts) {
+        Objects.requireNonNull(format);
+        Objects.requireNonNull(out);
         final org.eclipse.rdf4j.repository.Repository repo = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
         try (final RepositoryConnection con = repo.getConnection()) {
             final ValueFactory vf = con.getValueFactory();
-            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            RDFHandler writer = Rio.createWriter(RDFFormat.TURTLE, bos);
-            con.export(writer,
+            con.export(Rio.createWriter(format, out),
                     Arrays.stream(contexts).map(u -> vf.createIRI(u.toString())).toArray(Resource[]::new));
-            return new TypeAwareByteArrayResource(bos.toByteArray(), Turtle.MEDIA_TYPE, Turtle.FILE_EXTENSION);
+        }
+    }
+
+    /**
+     * Imports data in the specified format from the specified stream.
+     * <p>
+     * Statements are added into the repository as they are parsed. Contexts of the statements (and blank node
+     * identifiers) are preserved. Each context present in the data is cleared before the first statement is added into
+     * it, so importing a previously exported dump replaces the dumped contexts.
+     * <p>
+     * The whole import is done in a single transaction, so the repository is left unchanged if it fails. The second
+     * level cache is cleared after the import, as it bypasses the persistence context.
+     *
+     * @param format Format of the data
+     * @param in     Stream to read the data from. It is not closed
+     * @return Number of imported statements
+     */
+    public long importData(RDFFormat format, InputStream in) {
+        Objects.requireNonNull(format);
+        Objects.requireNonNull(in);
+        final org.eclipse.rdf4j.repository.Repository repo = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
+        // A partially restored repository would be inconsistent, so the data are not committed in batches
+        try (final RepositoryConnection con = repo.getConnection();
+             final BatchedStatementWriter writer = new BatchedStatementWriter(con, 0)) {
+            final RDFParser parser = Rio.createParser(format, con.getValueFactory());
+            parser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+            final Set<Resource> clearedContexts = new HashSet<>();
+            parser.setRDFHandler(new AbstractRDFHandler() {
+                @Override
+                public void handleStatement(Statement st) {
+                    if (clearedContexts.add(st.getContext())) {
+                        writer.clear(st.getContext());
+                    }
+                    writer.add(st);
+                }
+            });
+            parser.parse(in, "");
+            writer.flush();
+            em.getEntityManagerFactory().getCache().evictAll();
+            return writer.getStatementCount();
+        } catch (IOException e) {
+            throw new DataImportException("Unable to read data to import.", e);
+        } catch (RDFParseException e) {
+            throw new DataImportException("Unable to parse data to import.", e);
         }
     }
 }
@@ -0,0 +1,238 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.termit.dto.Suggestion;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index of asset labels in one language.
+ * <p>
+ * Each label is indexed under every word it contains, so that, e.g., "Building permit" is found by both "bui" and
+ * "perm". Keys are normalized (lower case, without diacritics) and put into buckets by their first one to {@link
+ * #BUCKET_PREFIX_LENGTH} characters. Entries of each bucket are ordered by {@link #RANKING}, so a lookup scans the
+ * bucket from the best suggestion and stops as soon as it has enough matches. Suggestions found are therefore always
+ * the top ones, even when the lookup is cut short by its deadline.
+ * <p>
+ * Updates produce a new instance sharing the unaffected buckets, so the index can be read concurrently without locking.
+ */
+final class LabelIndex {
+
+    static final LabelIndex EMPTY = new LabelIndex(Collections.emptyMap(), Collections.emptyMap(), 0);
+
+    /**
+     * The most popular suggestions go first, ties are broken by preferring shorter labels.
+     */
+    static final Comparator<Suggestion> RANKING = Comparator.comparingInt(Suggestion::getPopularity).reversed()
+                                                            .thenComparingInt(s -> s.getLabel().length())
+                                                            .thenComparing(Suggestion::getLabel);
+
+    /**
+     * Maximum length of prefixes by which entries are put into buckets.
+     * <p>
+     * Longer prefixes are looked up in the bucket of their first characters.
+     */
+    static final int BUCKET_PREFIX_LENGTH = 3;
+
+    /**
+     * How many entries are scanned between checks of the lookup deadline.
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing((Entry e) -> e.value, RANKING)
+                                                                   .thenComparing(e -> e.key);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Entry[]> buckets;
+    private final Map<URI, List<Suggestion>> suggestions;
+    private final int size;
+
+    private LabelIndex(Map<String, Entry[]> buckets, Map<URI, List<Suggestion>> suggestions, int size) {
+        this.buckets = buckets;
+        this.suggestions = suggestions;
+        this.size = size;
+    }
+
+    /**
+     * Number of keys in the index.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Builds index of the specified suggestions.
+     *
+     * @param suggestions Suggestions to index
+     * @return New index
+     */
+    static LabelIndex build(Collection<Suggestion> suggestions) {
+        return EMPTY.update(Collections.emptySet(), suggestions);
+    }
+
+    /**
+     * Creates a new index from this one, without suggestions of the removed assets and with the added suggestions.
+     * <p>
+     * Only the buckets containing the removed or added suggestions are rebuilt, each by merging the added entries into
+     * the already ordered remaining ones.
+     *
+     * @param removed Identifiers of assets whose suggestions should be removed
+     * @param added   Suggestions to add. Suggestions of the same assets already in the index should be removed
+     * @return New index
+     */
+    LabelIndex update(Set<URI> removed, Collection<Suggestion> added) {
+        final Map<URI, List<Suggestion>> newSuggestions = new HashMap<>(suggestions);
+        final Set<String> affected = new HashSet<>();
+        int newSize = size;
+        for (URI uri : removed) {
+            for (Suggestion s : newSuggestions.getOrDefault(uri, Collections.emptyList())) {
+                for (Entry e : entries(s)) {
+                    affected.addAll(bucketKeys(e.key));
+                    newSize--;
+                }
+            }
+            newSuggestions.remove(uri);
+        }
+        final Map<String, List<Entry>> addedEntries = new HashMap<>();
+        for (Suggestion s : added) {
+            newSuggestions.merge(s.getUri(), Collections.singletonList(s), (a, b) -> {
+                final List<Suggestion> merged = new ArrayList<>(a);
+                merged.addAll(b);
+                return merged;
+            });
+            for (Entry e : entries(s)) {
+                bucketKeys(e.key).forEach(b -> addedEntries.computeIfAbsent(b, k -> new ArrayList<>()).add(e));
+                newSize++;
+            }
+        }
+        affected.addAll(addedEntries.keySet());
+        final Map<String, Entry[]> newBuckets = new HashMap<>(buckets);
+        for (String bucket : affected) {
+            final Entry[] merged = merge(buckets.getOrDefault(bucket, new Entry[0]), removed,
+                    addedEntries.getOrDefault(bucket, Collections.emptyList()));
+            if (merged.length > 0) {
+                newBuckets.put(bucket, merged);
+            } else {
+                newBuckets.remove(bucket);
+            }
+        }
+        return new LabelIndex(newBuckets, newSuggestions, newSize);
+    }
+
+    private static List<Entry> entries(Suggestion suggestion) {
+        final String normalized = normalize(suggestion.getLabel());
+        final List<Entry> result = new ArrayList<>(2);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, i)) {
+                result.add(new Entry(normalized.substring(i), suggestion));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> bucketKeys(String key) {
+        final int max = Math.min(BUCKET_PREFIX_LENGTH, key.length());
+        final List<String> result = new ArrayList<>(max);
+        for (int i = 1; i <= max; i++) {
+            result.add(key.substring(0, i));
+        }
+        return result;
+    }
+
+    private static Entry[] merge(Entry[] existing, Set<URI> removed, List<Entry> added) {
+        added.sort(ENTRY_ORDER);
+        final Entry[] result = new Entry[existing.length + added.size()];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < existing.length || j < added.size()) {
+            if (i < existing.length && removed.contains(existing[i].value.getUri())) {
+                i++;
+                continue;
+            }
+            if (j >= added.size() || i < existing.length && ENTRY_ORDER.compare(existing[i], added.get(j)) <= 0) {
+                result[count++] = existing[i++];
+            } else {
+                result[count++] = added.get(j++);
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Finds the top suggestions whose label contains a word starting with the specified prefix.
+     * <p>
+     * If the deadline passes before enough suggestions are found, the ones found so far are returned. They are still
+     * the top ones, only fewer than requested.
+     *
+     * @param prefix        Prefix to look up
+     * @param filter        Suggestions not matching the filter are skipped
+     * @param limit         Maximum number of suggestions to return
+     * @param deadlineNanos Value of {@link System#nanoTime()} after which the lookup is terminated
+     * @return Matching suggestions, ordered by {@link #RANKING}
+     */
+    List<Suggestion> find(String prefix, Predicate<Suggestion> filter, int limit, long deadlineNanos) {
+        final String key = normalize(prefix).trim();
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        final Entry[] bucket = buckets.get(key.substring(0, Math.min(BUCKET_PREFIX_LENGTH, key.length())));
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        final List<Suggestion> result = new ArrayList<>(Math.min(limit, bucket.length));
+        final Set<URI> seen = new HashSet<>();
+        for (int i = 0; i < bucket.length && result.size() < limit; i++) {
+            if (i % DEADLINE_CHECK_INTERVAL == DEADLINE_CHECK_INTERVAL - 1 && System.nanoTime() - deadlineNanos > 0) {
+                break;
+            }
+            final Entry candidate = bucket[i];
+            if (candidate.key.startsWith(key) && filter.test(candidate.value) &&
+                    seen.add(candidate.value.getUri())) {
+                result.add(candidate.value);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isWordStart(String str, int index) {
+        return Character.isLetterOrDigit(str.charAt(index)) &&
+                (index == 0 || !Character.isLetterOrDigit(str.charAt(index - 1)));
+    }
+
+    static String normalize(String str) {
+        return DIACRITICS.matcher(Normalizer.normalize(str, Normalizer.Form.NFD)).replaceAll("")
+                         .toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Suggestion value;
+
+        private Entry(String key, Suggestion value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
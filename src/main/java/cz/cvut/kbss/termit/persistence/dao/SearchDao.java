@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Term;
@@ -24,6 +25,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
@@ -36,7 +40,7 @@ import java.util.stream.Collectors;
 import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
 
 @Repository
-@Profile("!lucene")
+@Profile("!lucene & !lucene-embedded")
 public class SearchDao {
 
     private static final String FTS_QUERY_FILE = "fulltextsearch.rq";
@@ -76,16 +80,53 @@ public class SearchDao {
      *
      * @param searchString The string to search by
      * @return List of matching results
+     * @see #fullTextSearch(String, Pageable)
      */
     public List<FullTextSearchResult> fullTextSearch(String searchString) {
+        return fullTextSearch(searchString, Constants.DEFAULT_PAGE_SPEC).getContent();
+    }
+
+    /**
+     * Finds a page of terms and vocabularies which match the specified search string.
+     * <p>
+     * The paging is pushed down into the query, so that the repository may stop evaluating it once the page is filled.
+     * Total number of elements of the returned page is a lower bound estimate - it is exact on the last page, otherwise
+     * it only indicates that there are further results.
+     *
+     * @param searchString The string to search by
+     * @param pageSpec     Page specification
+     * @return Page of matching results
+     */
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
         Objects.requireNonNull(searchString);
-        LOG.trace("Running full text search for search string \"{}\".", searchString);
-        return (List<FullTextSearchResult>) em.createNativeQuery(ftsQuery, "FullTextSearchResult")
-                                              .setParameter("term", URI.create(getOwlClassForEntity(Term.class)))
-                                              .setParameter("vocabulary", URI.create(getOwlClassForEntity(
-                                                      cz.cvut.kbss.termit.model.Vocabulary.class)))
-                                              .setParameter("inVocabulary",
-                                                      URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                              .setParameter("searchString", searchString, null).getResultList();
+        Objects.requireNonNull(pageSpec);
+        LOG.trace("Running full text search for search string \"{}\", page {}.", searchString, pageSpec);
+        final Query query = em.createNativeQuery(ftsQuery, "FullTextSearchResult")
+                              .setParameter("term", URI.create(getOwlClassForEntity(Term.class)))
+                              .setParameter("vocabulary", URI.create(getOwlClassForEntity(
+                                      cz.cvut.kbss.termit.model.Vocabulary.class)))
+                              .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                              .setParameter("searchString", searchString, null);
+        return executePaged(query, pageSpec);
+    }
+
+    /**
+     * Executes the specified full text search query, restricting it to the specified page.
+     * <p>
+     * One result more than the page size is requested, so that it can be determined whether there are further
+     * results.
+     *
+     * @param query    Full text search query, with all parameters except paging set
+     * @param pageSpec Page specification
+     * @return Page of results
+     */
+    protected static Page<FullTextSearchResult> executePaged(Query query, Pageable pageSpec) {
+        final List<FullTextSearchResult> results = (List<FullTextSearchResult>) query
+                .setUntypedParameter("offset", pageSpec.getOffset())
+                .setUntypedParameter("limit", pageSpec.getPageSize() + 1L)
+                .getResultList();
+        final int pageSize = pageSpec.getPageSize();
+        final List<FullTextSearchResult> content = results.size() > pageSize ? results.subList(0, pageSize) : results;
+        return new PageImpl<>(content, pageSpec, pageSpec.getOffset() + results.size());
     }
 }
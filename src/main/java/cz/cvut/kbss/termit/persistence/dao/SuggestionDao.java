@@ -0,0 +1,343 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.dto.Suggestion;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
+
+/**
+ * Provides typeahead suggestions of terms and vocabularies based on their labels.
+ * <p>
+ * Labels are held in memory in a {@link LabelIndex} per language, built from the repository on startup. The index is
+ * then updated incrementally with assets modified via DAOs. Bulk modifications bypassing DAOs (announced by {@link
+ * RefreshLastModifiedEvent}) cause the index to be rebuilt in the background. Lookups are served by the current index
+ * until the rebuilt one replaces it, they never wait for the repository.
+ * <p>
+ * Vocabulary imports are held in memory together with the labels, so that suggestions restricted to a vocabulary and
+ * the vocabularies it imports are resolved without accessing the repository as well.
+ */
+@org.springframework.stereotype.Repository
+public class SuggestionDao implements AssetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestionDao.class);
+
+    private static final String SUGGESTIONS_QUERY = "suggestions.rq";
+
+    private static final String IMPORTS_QUERY =
+            "SELECT ?vocabulary ?imported WHERE { ?vocabulary ?imports ?imported . }";
+
+    private final EntityManagerFactory emf;
+
+    private final String defaultLanguage;
+
+    private final long timeBudgetNanos;
+
+    private final int maxCount;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "suggestion-index-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final Object rebuildLock = new Object();
+
+    private String query;
+
+    private Repository repository;
+
+    /**
+     * Label index per language
+     */
+    private volatile Map<String, LabelIndex> indexes = Collections.emptyMap();
+
+    /**
+     * Vocabularies directly imported by each vocabulary, updated together with {@link #indexes}
+     */
+    private volatile Map<URI, Set<URI>> imports = Collections.emptyMap();
+
+    /**
+     * Assets reindexed while a rebuild is running, {@code null} if no rebuild is running. Guarded by {@code this}
+     */
+    private Set<URI> reindexedDuringRebuild;
+
+    @Autowired
+    public SuggestionDao(EntityManagerFactory emf, Configuration config) {
+        this.emf = emf;
+        this.defaultLanguage = config.get(ConfigParam.LANGUAGE);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(config.get(ConfigParam.SUGGESTION_TIME_BUDGET)));
+        this.maxCount = Integer.parseInt(config.get(ConfigParam.SUGGESTION_MAX_COUNT));
+    }
+
+    /**
+     * Finds the most popular terms and vocabularies with a label containing a word starting with the specified prefix.
+     * <p>
+     * The lookup, including resolution of vocabulary imports, is bounded by {@link
+     * ConfigParam#SUGGESTION_TIME_BUDGET}. If the budget is exhausted, the best suggestions found so far are returned.
+     *
+     * @param prefix     Prefix to look up
+     * @param language   Language of the labels. Optional, defaults to the persistence unit language
+     * @param vocabulary Vocabulary to which suggestions are restricted, together with the vocabularies it
+     *                   (transitively) imports. Optional, {@code null} means no restriction
+     * @param limit      Maximum number of suggestions to return. It is capped at {@link
+     *                   ConfigParam#SUGGESTION_MAX_COUNT}
+     * @return Suggestions ordered by popularity
+     */
+    public List<Suggestion> suggest(String prefix, String language, URI vocabulary, int limit) {
+        Objects.requireNonNull(prefix);
+        final long deadline = System.nanoTime() + timeBudgetNanos;
+        final String lang = language != null ? language.toLowerCase(Locale.ROOT) : defaultLanguage;
+        final LabelIndex index = indexes.getOrDefault(lang, LabelIndex.EMPTY);
+        final Predicate<Suggestion> filter;
+        if (vocabulary != null) {
+            final Set<URI> scope = resolveImportClosure(vocabulary);
+            filter = s -> scope.contains(s.getVocabulary());
+        } else {
+            filter = s -> true;
+        }
+        return index.find(prefix, filter, Math.min(limit, maxCount), deadline);
+    }
+
+    private Set<URI> resolveImportClosure(URI vocabulary) {
+        final Map<URI, Set<URI>> currentImports = imports;
+        final Set<URI> result = new HashSet<>();
+        final Deque<URI> toVisit = new ArrayDeque<>();
+        toVisit.push(vocabulary);
+        while (!toVisit.isEmpty()) {
+            final URI v = toVisit.pop();
+            if (result.add(v)) {
+                currentImports.getOrDefault(v, Collections.emptySet()).forEach(toVisit::push);
+            }
+        }
+        return result;
+    }
+
+    @PostConstruct
+    void open() {
+        final EntityManager em = emf.createEntityManager();
+        try {
+            this.repository = em.unwrap(Repository.class);
+        } finally {
+            em.close();
+        }
+        this.query = Utils.loadQuery(SUGGESTIONS_QUERY);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOG.error("Unable to build typeahead suggestion index. Suggestions will be empty until it is rebuilt.", e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Builds the index anew from the repository content and replaces the current one with it.
+     * <p>
+     * Assets reindexed while the rebuild is running are reindexed again in the new index, so that their changes are not
+     * lost.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                this.reindexedDuringRebuild = new HashSet<>();
+            }
+            try {
+                final long start = System.currentTimeMillis();
+                final Map<String, List<Suggestion>> suggestions = new HashMap<>();
+                final Map<URI, Set<URI>> loadedImports = new HashMap<>();
+                try (final RepositoryConnection conn = repository.getConnection()) {
+                    loadSuggestions(conn, null, suggestions);
+                    loadImports(conn, null, loadedImports);
+                } catch (RuntimeException e) {
+                    throw new PersistenceException(e);
+                }
+                final Map<String, LabelIndex> result = new HashMap<>(suggestions.size());
+                suggestions.forEach((lang, list) -> result.put(lang, LabelIndex.build(list)));
+                synchronized (this) {
+                    final Set<URI> toReindex = reindexedDuringRebuild;
+                    this.reindexedDuringRebuild = null;
+                    this.indexes = result;
+                    this.imports = loadedImports;
+                    if (!toReindex.isEmpty()) {
+                        reindexNow(toReindex);
+                    }
+                }
+                LOG.debug("Typeahead suggestion index rebuilt in {} ms.", System.currentTimeMillis() - start);
+            } finally {
+                synchronized (this) {
+                    this.reindexedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules rebuild of the index in the background.
+     * <p>
+     * Requests for rebuild issued while another one is still waiting to be executed are coalesced.
+     */
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    LOG.error("Background rebuild of typeahead suggestion index failed.", e);
+                }
+            });
+        }
+    }
+
+    private void loadSuggestions(RepositoryConnection conn, URI entity, Map<String, List<Suggestion>> target) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery tq = conn.prepareTupleQuery(query);
+        tq.setBinding("term", vf.createIRI(getOwlClassForEntity(Term.class)));
+        tq.setBinding("vocabulary",
+                vf.createIRI(getOwlClassForEntity(cz.cvut.kbss.termit.model.Vocabulary.class)));
+        tq.setBinding("inVocabulary", vf.createIRI(Vocabulary.s_p_je_pojmem_ze_slovniku));
+        tq.setBinding("isAssignmentOf", vf.createIRI(Vocabulary.s_p_je_prirazenim_termu));
+        if (entity != null) {
+            tq.setBinding("entity", vf.createIRI(entity.toString()));
+        }
+        try (final TupleQueryResult result = tq.evaluate()) {
+            while (result.hasNext()) {
+                final BindingSet row = result.next();
+                final Value label = row.getValue("label");
+                final Value vocabulary = row.getValue("vocabularyUri");
+                final Suggestion suggestion = new Suggestion(URI.create(row.getValue("entity").stringValue()),
+                        label.stringValue(), row.getValue("type").stringValue(),
+                        vocabulary != null ? URI.create(vocabulary.stringValue()) : null,
+                        ((Literal) row.getValue("popularity")).intValue());
+                target.computeIfAbsent(languageOf(label), k -> new ArrayList<>()).add(suggestion);
+            }
+        }
+    }
+
+    private void loadImports(RepositoryConnection conn, URI vocabulary, Map<URI, Set<URI>> target) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery tq = conn.prepareTupleQuery(IMPORTS_QUERY);
+        tq.setBinding("imports", vf.createIRI(Vocabulary.s_p_importuje_slovnik));
+        if (vocabulary != null) {
+            tq.setBinding("vocabulary", vf.createIRI(vocabulary.toString()));
+        }
+        try (final TupleQueryResult result = tq.evaluate()) {
+            while (result.hasNext()) {
+                final BindingSet row = result.next();
+                target.computeIfAbsent(URI.create(row.getValue("vocabulary").stringValue()), k -> new HashSet<>())
+                      .add(URI.create(row.getValue("imported").stringValue()));
+            }
+        }
+    }
+
+    private static String languageOf(Value value) {
+        return value instanceof Literal ?
+               ((Literal) value).getLanguage().map(lang -> lang.toLowerCase(Locale.ROOT)).orElse("") : "";
+    }
+
+    @Override
+    public void reindex(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+        final Set<URI> toReindex = new HashSet<>(ids);
+        TransactionUtils.runAfterCommit(() -> {
+            try {
+                reindexNow(toReindex);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to update typeahead suggestion index, it will be rebuilt.", e);
+                scheduleRebuild();
+            }
+        });
+    }
+
+    private synchronized void reindexNow(Set<URI> ids) {
+        if (reindexedDuringRebuild != null) {
+            reindexedDuringRebuild.addAll(ids);
+        }
+        final Map<String, LabelIndex> current = indexes;
+        final Map<URI, Set<URI>> currentImports = imports;
+        final Map<String, List<Suggestion>> added = new HashMap<>();
+        final Map<URI, Set<URI>> updatedImports = new HashMap<>(currentImports);
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            ids.forEach(id -> loadSuggestions(conn, id, added));
+            // Imports of reindexed vocabularies (including removed ones) may have changed
+            final String vocabularyType = getOwlClassForEntity(cz.cvut.kbss.termit.model.Vocabulary.class);
+            final Set<URI> vocabularies = new HashSet<>();
+            added.values().forEach(list -> list.stream().filter(s -> vocabularyType.equals(s.getType()))
+                                               .forEach(s -> vocabularies.add(s.getUri())));
+            ids.stream().filter(currentImports::containsKey).forEach(vocabularies::add);
+            vocabularies.forEach(v -> {
+                updatedImports.remove(v);
+                loadImports(conn, v, updatedImports);
+            });
+        }
+        final Set<String> languages = new HashSet<>(current.keySet());
+        languages.addAll(added.keySet());
+        final Map<String, LabelIndex> updated = new HashMap<>(languages.size());
+        languages.forEach(lang -> updated.put(lang, current.getOrDefault(lang, LabelIndex.EMPTY).update(ids,
+                added.getOrDefault(lang, Collections.emptyList()))));
+        this.indexes = updated;
+        this.imports = updatedImports;
+    }
+
+    @EventListener
+    public void onRefreshLastModified(RefreshLastModifiedEvent event) {
+        TransactionUtils.runAfterCommit(this::scheduleRebuild);
+    }
+}
@@ -15,18 +15,24 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
+import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.PersistenceUtils;
+import cz.cvut.kbss.termit.persistence.dao.skos.TermStatementWriter;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
@@ -36,7 +42,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Repository
-public class TermDao extends AssetDao<Term> {
+public class TermDao extends AssetDao<Term> implements SupportsLastModification {
 
     private static final URI LABEL_PROP = URI.create(SKOS.PREF_LABEL);
 
@@ -44,12 +50,15 @@ public class TermDao extends AssetDao<Term> {
 
     private final PersistenceUtils persistenceUtils;
 
+    private volatile long lastModified;
+
     @Autowired
     public TermDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
                    VocabularyDao vocabularyDao, PersistenceUtils persistenceUtils) {
         super(Term.class, em, config, descriptorFactory);
         this.vocabularyDao = vocabularyDao;
         this.persistenceUtils = persistenceUtils;
+        refreshLastModified();
     }
 
     @Override
@@ -91,6 +100,7 @@ public class TermDao extends AssetDao<Term> {
      * @param entity     The term to persist
      * @param vocabulary Vocabulary which shall contain the persisted term
      */
+    @ModifiesData
     public void persist(Term entity, Vocabulary vocabulary) {
         Objects.requireNonNull(entity);
         Objects.requireNonNull(vocabulary);
@@ -98,11 +108,95 @@ public class TermDao extends AssetDao<Term> {
         try {
             entity.setGlossary(vocabulary.getGlossary().getUri());
             em.persist(entity, descriptorFactory.termDescriptor(vocabulary));
+            vocabularyDao.refreshLastModified(vocabulary.getUri());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Persists all the specified terms into the specified vocabulary.
+     * <p>
+     * This is a bulk version of {@link #persist(Term, Vocabulary)}, the terms share a single persistence descriptor.
+     *
+     * @param entities   Terms to persist
+     * @param vocabulary Vocabulary which shall contain the persisted terms
+     */
+    @ModifiesData
+    public void persistAll(Collection<Term> entities, Vocabulary vocabulary) {
+        Objects.requireNonNull(entities);
+        Objects.requireNonNull(vocabulary);
+
+        try {
+            final Descriptor descriptor = descriptorFactory.termDescriptor(vocabulary);
+            final URI glossary = vocabulary.getGlossary().getUri();
+            for (Term entity : entities) {
+                entity.setGlossary(glossary);
+                em.persist(entity, descriptor);
+            }
+            vocabularyDao.refreshLastModified(vocabulary.getUri());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Opens a writer which stores terms of the specified vocabulary directly as RDF statements.
+     * <p>
+     * This bypasses the persistence context (and change tracking), so that large amounts of terms can be written in
+     * batches. The caller is responsible for closing the writer and for evicting the vocabulary context from the cache
+     * afterwards (see {@link #evictVocabularyContext(Vocabulary)}).
+     *
+     * @param vocabulary Vocabulary into which terms will be written
+     * @return New statement writer
+     */
+    public TermStatementWriter openStatementWriter(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final org.eclipse.rdf4j.repository.Repository repo = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
+        return new TermStatementWriter(repo.getConnection(), vocabulary,
+                persistenceUtils.resolveVocabularyContext(vocabulary.getUri()), config.get(ConfigParam.LANGUAGE));
+    }
+
+    /**
+     * Evicts data from the context of the specified vocabulary from the second level cache.
+     * <p>
+     * This has to be done after terms of the vocabulary were written bypassing the persistence context, e.g., using
+     * {@link #openStatementWriter(Vocabulary)}, so that cached instances (glossary, parent terms) are not stale.
+     *
+     * @param vocabulary Vocabulary whose context to evict
+     */
+    public void evictVocabularyContext(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        em.getEntityManagerFactory().getCache().evict(persistenceUtils.resolveVocabularyContext(vocabulary.getUri()));
+    }
+
+    /**
+     * Finds which of the specified identifiers already belong to existing terms.
+     * <p>
+     * All the identifiers are checked using a single query.
+     *
+     * @param ids Identifiers to check
+     * @return Subset of the specified identifiers which are already used by terms
+     * @see #exists(URI)
+     */
+    public Set<URI> findExistingIdentifiers(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final String values = ids.stream().map(id -> "<" + id + ">").collect(Collectors.joining(" "));
+        try {
+            final List<URI> result = em.createNativeQuery("SELECT DISTINCT ?x WHERE {" +
+                    "VALUES ?x { " + values + " }" +
+                    "?x a ?type . }", URI.class)
+                                       .setParameter("type", typeUri).getResultList();
+            return new HashSet<>(result);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    @ModifiesData
     @Override
     public Term update(Term entity) {
         Objects.requireNonNull(entity);
@@ -111,7 +205,37 @@ public class TermDao extends AssetDao<Term> {
         try {
             // Evict possibly cached instance loaded from default context
             em.getEntityManagerFactory().getCache().evict(Term.class, entity.getUri(), null);
-            return em.merge(entity, descriptorFactory.termDescriptor(entity.getVocabulary()));
+            final Term result = em.merge(entity, descriptorFactory.termDescriptor(entity.getVocabulary()));
+            vocabularyDao.refreshLastModified(entity.getVocabulary());
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @ModifiesData
+    @Override
+    public void remove(Term entity) {
+        Objects.requireNonNull(entity);
+        try {
+            // The term may be just a reference, so resolve its vocabulary before it is removed
+            final URI vocabulary = resolveVocabularyIri(entity.getUri());
+            em.remove(em.merge(entity, descriptorFactory.termDescriptor(vocabulary)));
+            vocabularyDao.refreshLastModified(vocabulary);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @ModifiesData
+    @Override
+    public void remove(URI id) {
+        Objects.requireNonNull(id);
+        try {
+            find(id).ifPresent(t -> {
+                em.remove(t);
+                vocabularyDao.refreshLastModified(t.getVocabulary());
+            });
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -128,29 +252,56 @@ public class TermDao extends AssetDao<Term> {
     public List<Term> findAll(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            final TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                    "GRAPH ?g { " +
-                    "?term a ?type ;" +
-                    "?hasLabel ?label ." +
-                    "FILTER (lang(?label) = ?labelLang) ." +
-                    "}" +
-                    "?term ?inVocabulary ?vocabulary. } ORDER BY ?label", Term.class)
-                                             .setParameter("type", typeUri)
-                                             .setParameter("vocabulary", vocabulary.getUri())
-                                             .setParameter("g",
-                                                     persistenceUtils.resolveVocabularyContext(vocabulary.getUri()))
-                                             .setParameter("hasLabel", LABEL_PROP)
-                                             .setParameter("inVocabulary",
-                                                     URI.create(
-                                                             cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                             .setParameter("labelLang", config.get(ConfigParam.LANGUAGE));
-            query.setDescriptor(descriptorFactory.termDescriptor(vocabulary));
-            return executeQueryAndLoadSubTerms(query);
+            return executeQueryAndLoadSubTerms(createFindAllQuery(vocabulary));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Streams all terms in the specified vocabulary.
+     * <p>
+     * Terms are read from a single query result as the stream is consumed, so that large vocabularies can be processed
+     * without loading all their terms at once. The stream has to be consumed and closed within the transaction in which
+     * it was obtained.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @return Stream of matching terms, ordered by label
+     * @see #findAll(Vocabulary)
+     */
+    public Stream<Term> streamAll(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            return createFindAllQuery(vocabulary).getResultStream().map(t -> {
+                loadSubTerms(t);
+                return t;
+            });
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    private TypedQuery<Term> createFindAllQuery(Vocabulary vocabulary) {
+        final TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                "GRAPH ?g { " +
+                "?term a ?type ;" +
+                "?hasLabel ?label ." +
+                "FILTER (lang(?label) = ?labelLang) ." +
+                "}" +
+                "?term ?inVocabulary ?vocabulary. } ORDER BY ?label", Term.class)
+                                         .setParameter("type", typeUri)
+                                         .setParameter("vocabulary", vocabulary.getUri())
+                                         .setParameter("g",
+                                                 persistenceUtils.resolveVocabularyContext(vocabulary.getUri()))
+                                         .setParameter("hasLabel", LABEL_PROP)
+                                         .setParameter("inVocabulary",
+                                                 URI.create(
+                                                         cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                         .setParameter("labelLang", config.get(ConfigParam.LANGUAGE));
+        query.setDescriptor(descriptorFactory.termDescriptor(vocabulary));
+        return query;
+    }
+
     private List<Term> executeQueryAndLoadSubTerms(TypedQuery<Term> query) {
         final List<Term> terms = query.getResultList();
         terms.forEach(this::loadSubTerms);
@@ -358,4 +509,62 @@ public class TermDao extends AssetDao<Term> {
             throw new PersistenceException(e);
         }
     }
+
+    /**
+     * Gets preferred and alternative labels of all terms in the specified vocabulary.
+     * <p>
+     * Only labels in the configured language are returned. A term with multiple labels is represented by multiple
+     * {@link TermInfo} instances, one for each label.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of term labels
+     */
+    public List<TermInfo> findAllLabels(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            return em.createNativeQuery("SELECT ?entity ?label ?vocabulary WHERE {" +
+                    "GRAPH ?g { " +
+                    "?entity a ?type ." +
+                    "{ ?entity ?hasLabel ?label . } UNION { ?entity ?hasAltLabel ?label . }" +
+                    "FILTER (lang(?label) = ?labelLang) ." +
+                    "}" +
+                    "?entity ?inVocabulary ?vocabulary . }", "TermInfo")
+                     .setParameter("type", typeUri)
+                     .setParameter("g", persistenceUtils.resolveVocabularyContext(vocabulary))
+                     .setParameter("hasLabel", LABEL_PROP)
+                     .setParameter("hasAltLabel", URI.create(SKOS.ALT_LABEL))
+                     .setParameter("inVocabulary",
+                             URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                     .setParameter("vocabulary", vocabulary)
+                     .setParameter("labelLang", config.get(ConfigParam.LANGUAGE)).getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When called within a transaction, the value is refreshed once more after the transaction commits (see {@link
+     * TransactionUtils#runNowAndAfterCommit(Runnable)}).
+     */
+    @Override
+    public void refreshLastModified() {
+        TransactionUtils.runNowAndAfterCommit(this::updateLastModified);
+    }
+
+    private synchronized void updateLastModified() {
+        // Ensure the value changes even when refreshed repeatedly within the same millisecond
+        this.lastModified = Math.max(System.currentTimeMillis(), lastModified + 1);
+    }
+
+    @EventListener
+    public void refreshLastModified(RefreshLastModifiedEvent event) {
+        refreshLastModified();
+    }
 }
@@ -27,6 +27,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -72,4 +73,34 @@ public class TextAnalysisRecordDao {
             return Optional.empty();
         }
     }
+
+    /**
+     * Gets {@link TextAnalysisRecord}s which are the latest records of their respective resources and whose analysis
+     * used the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of matching records
+     */
+    public List<TextAnalysisRecord> findLatestByVocabulary(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            return em.createNativeQuery("SELECT DISTINCT ?x WHERE { " +
+                    "?x a ?type ;" +
+                    "?hasResource ?resource ;" +
+                    "?hasDateCreated ?dateCreated ;" +
+                    "?hasVocabulary ?vocabulary ." +
+                    "FILTER NOT EXISTS { " +
+                    "?y a ?type ;" +
+                    "?hasResource ?resource ;" +
+                    "?hasDateCreated ?laterDate ." +
+                    "FILTER (?laterDate > ?dateCreated) } }", TextAnalysisRecord.class)
+                     .setParameter("type", URI.create(Vocabulary.s_c_zaznam_o_textove_analyze))
+                     .setParameter("hasResource", URI.create(Vocabulary.s_p_ma_analyzovany_zdroj))
+                     .setParameter("hasDateCreated", URI.create(Vocabulary.s_p_ma_datum_a_cas_vytvoreni))
+                     .setParameter("hasVocabulary", URI.create(Vocabulary.s_p_ma_slovnik_pro_analyzu))
+                     .setParameter("vocabulary", vocabulary).getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
 }
@@ -32,6 +32,8 @@ import org.springframework.stereotype.Repository;
 
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Repository
 public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastModification {
@@ -40,10 +42,21 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
 
     private volatile long lastModified;
 
+    /**
+     * Last modification timestamps of individual vocabularies (including their terms)
+     */
+    private final ConcurrentMap<URI, Long> vocabularyLastModified = new ConcurrentHashMap<>();
+
+    /**
+     * Last modification timestamp of data of any vocabulary, e.g., by an import
+     */
+    private volatile long bulkLastModified;
+
     @Autowired
     public VocabularyDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory) {
         super(Vocabulary.class, em, config, descriptorFactory);
         refreshLastModified();
+        this.bulkLastModified = System.currentTimeMillis();
     }
 
     @Override
@@ -133,7 +146,9 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         try {
             // Evict possibly cached instance loaded from default context
             em.getEntityManagerFactory().getCache().evict(Vocabulary.class, entity.getUri(), null);
-            return em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
+            final Vocabulary result = em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
+            refreshLastModified(entity.getUri());
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -145,6 +160,7 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         Objects.requireNonNull(entity);
         try {
             em.persist(entity, descriptorFactory.vocabularyDescriptor(entity));
+            refreshLastModified(entity.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -161,7 +177,9 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
      */
     public Glossary updateGlossary(Vocabulary entity) {
         Objects.requireNonNull(entity);
-        return em.merge(entity.getGlossary(), descriptorFactory.glossaryDescriptor(entity));
+        final Glossary result = em.merge(entity.getGlossary(), descriptorFactory.glossaryDescriptor(entity));
+        refreshLastModified(entity.getUri());
+        return result;
     }
 
     /**
@@ -203,8 +221,48 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         this.lastModified = System.currentTimeMillis();
     }
 
+    /**
+     * Gets timestamp of the last modification of the specified vocabulary, including modifications of its terms.
+     * <p>
+     * Bulk modifications of the repository data (e.g., imports, see {@link RefreshLastModifiedEvent}) are considered
+     * to modify every vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Timestamp of last modification in millis since epoch
+     */
+    public long getLastModified(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return Math.max(bulkLastModified, vocabularyLastModified.getOrDefault(vocabulary, 0L));
+    }
+
+    /**
+     * Refreshes the last modification timestamp of the specified vocabulary.
+     * <p>
+     * When called within a transaction, the value is refreshed once more after the transaction commits (see {@link
+     * TransactionUtils#runNowAndAfterCommit(Runnable)}).
+     *
+     * @param vocabulary Identifier of the modified vocabulary
+     */
+    public void refreshLastModified(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        TransactionUtils.runNowAndAfterCommit(() -> updateLastModified(vocabulary));
+    }
+
+    private synchronized void updateLastModified(URI vocabulary) {
+        // Ensure the value changes even when refreshed repeatedly within the same millisecond
+        vocabularyLastModified.compute(vocabulary, (v, previous) -> Math.max(System.currentTimeMillis(),
+                Math.max(previous != null ? previous : 0L, bulkLastModified) + 1));
+    }
+
+    private synchronized void updateBulkLastModified() {
+        final long latest = vocabularyLastModified.values().stream().reduce(bulkLastModified, Math::max);
+        this.bulkLastModified = Math.max(System.currentTimeMillis(), latest + 1);
+        vocabularyLastModified.clear();
+    }
+
     @EventListener
     public void refreshLastModified(RefreshLastModifiedEvent event) {
         refreshLastModified();
+        TransactionUtils.runNowAndAfterCommit(this::updateBulkLastModified);
     }
 }
@@ -9,7 +9,10 @@ import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import org.springframework.stereotype.Repository;
 
+import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Repository
@@ -42,6 +45,31 @@ public class ChangeRecordDao {
         }
     }
 
+    /**
+     * Persists the specified change records, each into the change tracking context of the asset it relates to.
+     * <p>
+     * Persistence descriptors are shared by records stored in the same context.
+     *
+     * @param records Map of changed assets to records to save
+     */
+    public void persistAll(Map<? extends Asset, ? extends AbstractChangeRecord> records) {
+        Objects.requireNonNull(records);
+        final Map<URI, EntityDescriptor> descriptors = new HashMap<>();
+        try {
+            records.forEach((changedAsset, record) -> {
+                final EntityDescriptor descriptor = descriptors
+                        .computeIfAbsent(contextResolver.resolveChangeTrackingContext(changedAsset), ctx -> {
+                            final EntityDescriptor d = new EntityDescriptor(ctx);
+                            d.addAttributeDescriptor(AbstractChangeRecord.getAuthorField(), new EntityDescriptor());
+                            return d;
+                        });
+                em.persist(record, descriptor);
+            });
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Finds all change records to the specified asset.
      *
@@ -0,0 +1,61 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Objects;
+
+/**
+ * {@link SearchDao} extension using the {@link FullTextIndex} embedded in the application.
+ * <p>
+ * Unlike {@link LuceneSearchDao}, this does not require the repository to provide a full text index, so ranked search
+ * with highlighted snippets is available with any repository.
+ */
+@Repository
+@Profile("lucene-embedded")  // Corresponds to a profile set in pom.xml
+public class EmbeddedLuceneSearchDao extends SearchDao {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedLuceneSearchDao.class);
+
+    private final FullTextIndex index;
+
+    @Autowired
+    public EmbeddedLuceneSearchDao(EntityManager em, FullTextIndex index) {
+        super(em);
+        this.index = index;
+    }
+
+    @Override
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        LOG.trace("Running full text search for search string \"{}\" in embedded index, page {}.", searchString,
+                pageSpec);
+        return index.search(searchString, pageSpec);
+    }
+}
@@ -0,0 +1,540 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.dao.AssetIndex;
+import cz.cvut.kbss.termit.persistence.dao.TransactionUtils;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
+import org.apache.lucene.analysis.cz.CzechAnalyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
+
+/**
+ * Full text index of terms and vocabularies embedded in the application.
+ * <p>
+ * Term labels and definitions and vocabulary titles are indexed per language, each language with its own analyzer
+ * (Czech and English text is stemmed, other languages are only tokenized). Assets modified via DAOs are reindexed once
+ * the corresponding transaction commits (see {@link cz.cvut.kbss.termit.aspect.AssetIndexingAspect}). Bulk
+ * operations bypassing DAOs (e.g., vocabulary imports) announce themselves by a {@link RefreshLastModifiedEvent}, upon
+ * which the index is rebuilt in the background.
+ * <p>
+ * The index is stored in the directory specified by {@link ConfigParam#LUCENE_INDEX_DIRECTORY}. If it is not
+ * configured, the index is held in memory and built from the repository on startup.
+ */
+@Component
+@Profile("lucene-embedded")
+public class FullTextIndex implements AssetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FullTextIndex.class);
+
+    private static final String INDEXED_ASSETS_QUERY = "lucene" + File.separator + "indexedAssets.rq";
+
+    static final String FIELD_URI = "uri";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_VOCABULARY = "vocabulary";
+    static final String FIELD_DISPLAY_LABEL = "displayLabel";
+
+    /**
+     * Snippet field names correspond to the ones used by repository-based Lucene indexes.
+     */
+    static final String SNIPPET_FIELD_LABEL = "label";
+    static final String SNIPPET_FIELD_DEFINITION = "definition";
+
+    /**
+     * Separates language tag in the name of a language-specific field, e.g. {@code label_cs}.
+     */
+    static final char LANGUAGE_SEPARATOR = '_';
+
+    /**
+     * Matches in labels are more relevant than matches in definitions.
+     */
+    private static final float LABEL_BOOST = 2.0f;
+
+    private final EntityManagerFactory emf;
+
+    private final Configuration config;
+
+    private final String language;
+
+    private final LanguageAnalyzer analyzer = new LanguageAnalyzer();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "fulltext-index-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private Repository repository;
+
+    private String indexedAssetsQuery;
+
+    private Directory directory;
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    @Autowired
+    public FullTextIndex(EntityManagerFactory emf, Configuration config) {
+        this.emf = emf;
+        this.config = config;
+        this.language = config.get(ConfigParam.LANGUAGE);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        final EntityManager em = emf.createEntityManager();
+        try {
+            this.repository = em.unwrap(Repository.class);
+        } finally {
+            em.close();
+        }
+        this.indexedAssetsQuery = Utils.loadQuery(INDEXED_ASSETS_QUERY);
+        this.directory = config.contains(ConfigParam.LUCENE_INDEX_DIRECTORY) ?
+                         FSDirectory.open(Paths.get(config.get(ConfigParam.LUCENE_INDEX_DIRECTORY))) :
+                         new ByteBuffersDirectory();
+        this.writer = new IndexWriter(directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        if (size() == 0) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOG.error("Unable to build full text index. Search results will be empty until it is rebuilt.", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        rebuildExecutor.shutdownNow();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    /**
+     * Gets the number of assets in the index.
+     *
+     * @return Number of indexed assets
+     */
+    public int size() {
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to read full text index.", e);
+        }
+    }
+
+    /**
+     * Drops the index and builds it anew from the repository content.
+     */
+    public synchronized void rebuild() {
+        LOG.info("Rebuilding full text index...");
+        final long start = System.currentTimeMillis();
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            writer.deleteAll();
+            final int count = writeDocuments(prepareQuery(conn));
+            writer.commit();
+            searcherManager.maybeRefresh();
+            LOG.info("Full text index rebuilt. Indexed {} assets in {} ms.", count,
+                    System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to rebuild full text index.", e);
+        }
+    }
+
+    /**
+     * Schedules rebuild of the index in the background.
+     * <p>
+     * Requests for rebuild issued while another one is still waiting to be executed are coalesced.
+     */
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    LOG.error("Background rebuild of full text index failed.", e);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onRefreshLastModified(RefreshLastModifiedEvent event) {
+        TransactionUtils.runAfterCommit(this::scheduleRebuild);
+    }
+
+    @Override
+    public void reindex(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+        final List<URI> toReindex = new ArrayList<>(ids);
+        TransactionUtils.runAfterCommit(() -> {
+            try {
+                reindexNow(toReindex);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to update full text index. It may be out of date until it is rebuilt.", e);
+            }
+        });
+    }
+
+    private synchronized void reindexNow(List<URI> ids) {
+        LOG.trace("Reindexing {} assets.", ids.size());
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            final TupleQuery query = prepareQuery(conn);
+            final ValueFactory vf = conn.getValueFactory();
+            for (URI id : ids) {
+                writer.deleteDocuments(new Term(FIELD_URI, id.toString()));
+                query.setBinding("entity", vf.createIRI(id.toString()));
+                writeDocuments(query);
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to update full text index.", e);
+        }
+    }
+
+    private TupleQuery prepareQuery(RepositoryConnection conn) {
+        final ValueFactory vf = conn.getValueFactory();
+        final TupleQuery query = conn.prepareTupleQuery(indexedAssetsQuery);
+        query.setBinding("term", vf.createIRI(getOwlClassForEntity(cz.cvut.kbss.termit.model.Term.class)));
+        query.setBinding("vocabulary",
+                vf.createIRI(getOwlClassForEntity(cz.cvut.kbss.termit.model.Vocabulary.class)));
+        query.setBinding("inVocabulary", vf.createIRI(Vocabulary.s_p_je_pojmem_ze_slovniku));
+        return query;
+    }
+
+    /**
+     * Streams query results into the index, one asset at a time. Relies on the results being ordered by entity.
+     */
+    private int writeDocuments(TupleQuery query) throws IOException {
+        int count = 0;
+        try (final TupleQueryResult result = query.evaluate()) {
+            AssetDocument current = null;
+            while (result.hasNext()) {
+                final BindingSet row = result.next();
+                final String uri = row.getValue("entity").stringValue();
+                if (current == null || !current.uri.equals(uri)) {
+                    if (current != null) {
+                        current.write();
+                        count++;
+                    }
+                    current = new AssetDocument(uri, row.getValue("type").stringValue());
+                }
+                current.add(row);
+            }
+            if (current != null) {
+                current.write();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds a page of assets matching the specified search string.
+     * <p>
+     * All words of the search string are matched against labels and definitions in all indexed languages, the last word
+     * is additionally treated as a prefix of a label word, so that incomplete words are matched as well.
+     * <p>
+     * Only the top hits needed to fill the requested page are collected, which allows Lucene to skip documents that
+     * cannot make it to the page. As a consequence, total number of elements of the returned page is an estimate (a
+     * lower bound) when there are many matches.
+     *
+     * @param searchString String to search by
+     * @param pageSpec     Page specification
+     * @return Page of matching assets ordered by descending score
+     */
+    public Page<FullTextSearchResult> search(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final Query query = buildQuery(searchString, searcher.getIndexReader());
+                final int maxDoc = searcher.getIndexReader().maxDoc();
+                if (query == null || maxDoc == 0 || pageSpec.getOffset() >= maxDoc) {
+                    return new PageImpl<>(Collections.emptyList(), pageSpec, 0);
+                }
+                final int numHits = (int) Math.min(pageSpec.getOffset() + pageSpec.getPageSize(), maxDoc);
+                // Count hits exactly at least one past the page, so that it is known whether there are further results
+                final TopScoreDocCollector collector = TopScoreDocCollector.create(numHits, numHits + 1);
+                searcher.search(query, collector);
+                final TopDocs hits = collector.topDocs((int) pageSpec.getOffset(), pageSpec.getPageSize());
+                final List<FullTextSearchResult> result = new ArrayList<>(hits.scoreDocs.length);
+                for (ScoreDoc hit : hits.scoreDocs) {
+                    result.add(toResult(searcher.doc(hit.doc), hit.score, query));
+                }
+                return new PageImpl<>(result, pageSpec, hits.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to search full text index.", e);
+        }
+    }
+
+    private Query buildQuery(String searchString, IndexReader reader) {
+        final String[] tokens = searchString.trim().split("\\s+");
+        final String lastToken = tokens[tokens.length - 1];
+        final QueryBuilder builder = new QueryBuilder(analyzer);
+        final BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean empty = true;
+        for (FieldInfo field : FieldInfos.getMergedFieldInfos(reader)) {
+            final boolean label = isTextField(field.name, SNIPPET_FIELD_LABEL);
+            if (!label && !isTextField(field.name, SNIPPET_FIELD_DEFINITION)) {
+                continue;
+            }
+            final Query fieldQuery = builder.createBooleanQuery(field.name, searchString);
+            if (fieldQuery != null) {
+                query.add(label ? new BoostQuery(fieldQuery, LABEL_BOOST) : fieldQuery, BooleanClause.Occur.SHOULD);
+                empty = false;
+            }
+            if (label && !lastToken.isEmpty()) {
+                query.add(new PrefixQuery(new Term(field.name, analyzer.normalize(field.name, lastToken))),
+                        BooleanClause.Occur.SHOULD);
+                empty = false;
+            }
+        }
+        return empty ? null : query.build();
+    }
+
+    private static boolean isTextField(String fieldName, String prefix) {
+        return fieldName.length() > prefix.length() && fieldName.startsWith(prefix) &&
+                fieldName.charAt(prefix.length()) == LANGUAGE_SEPARATOR;
+    }
+
+    private FullTextSearchResult toResult(Document doc, float score, Query query) throws IOException {
+        String snippetField = SNIPPET_FIELD_LABEL;
+        String snippetText = highlight(doc, SNIPPET_FIELD_LABEL, query);
+        if (snippetText == null) {
+            snippetText = highlight(doc, SNIPPET_FIELD_DEFINITION, query);
+            if (snippetText != null) {
+                snippetField = SNIPPET_FIELD_DEFINITION;
+            } else {
+                snippetText = doc.get(FIELD_DISPLAY_LABEL);
+            }
+        }
+        final String vocabulary = doc.get(FIELD_VOCABULARY);
+        return new FullTextSearchResult(URI.create(doc.get(FIELD_URI)), doc.get(FIELD_DISPLAY_LABEL),
+                vocabulary != null ? URI.create(vocabulary) : null, doc.get(FIELD_TYPE), snippetField, snippetText,
+                (double) score);
+    }
+
+    private String highlight(Document doc, String fieldPrefix, Query query) throws IOException {
+        for (IndexableField field : doc.getFields()) {
+            if (!isTextField(field.name(), fieldPrefix)) {
+                continue;
+            }
+            final Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<em>", "</em>"),
+                    new QueryScorer(query, field.name()));
+            highlighter.setTextFragmenter(new SimpleFragmenter(Constants.SEARCH_SNIPPET_SIZE));
+            try {
+                final String fragment = highlighter.getBestFragment(analyzer, field.name(), field.stringValue());
+                if (fragment != null) {
+                    return fragment;
+                }
+            } catch (InvalidTokenOffsetsException e) {
+                LOG.warn("Unable to highlight match in field {} of asset {}.", field.name(), doc.get(FIELD_URI), e);
+            }
+        }
+        return null;
+    }
+
+    private static String languageOf(Value value) {
+        if (!(value instanceof Literal)) {
+            return "";
+        }
+        return ((Literal) value).getLanguage().map(lang -> lang.split("-")[0].toLowerCase()).orElse("");
+    }
+
+    /**
+     * Lucene document representing one indexed asset, built from query result rows.
+     */
+    private final class AssetDocument {
+
+        private final String uri;
+        private final Document document = new Document();
+        private final Set<String> values = new HashSet<>();
+        private String displayLabel;
+        private boolean displayLabelInLanguage;
+
+        private AssetDocument(String uri, String type) {
+            this.uri = uri;
+            document.add(new StringField(FIELD_URI, uri, Field.Store.YES));
+            document.add(new StringField(FIELD_TYPE, type, Field.Store.YES));
+        }
+
+        private void add(BindingSet row) {
+            if (row.hasBinding("vocabularyUri") && document.get(FIELD_VOCABULARY) == null) {
+                document.add(new StringField(FIELD_VOCABULARY, row.getValue("vocabularyUri").stringValue(),
+                        Field.Store.YES));
+            }
+            if (row.hasBinding("label")) {
+                final Value label = row.getValue("label");
+                addText(SNIPPET_FIELD_LABEL, label);
+                final boolean inLanguage = language.equals(languageOf(label));
+                if (displayLabel == null || inLanguage && !displayLabelInLanguage) {
+                    this.displayLabel = label.stringValue();
+                    this.displayLabelInLanguage = inLanguage;
+                }
+            }
+            if (row.hasBinding("definition")) {
+                addText(SNIPPET_FIELD_DEFINITION, row.getValue("definition"));
+            }
+        }
+
+        private void addText(String fieldPrefix, Value value) {
+            final String field = fieldPrefix + LANGUAGE_SEPARATOR + languageOf(value);
+            if (values.add(field + LANGUAGE_SEPARATOR + value.stringValue())) {
+                document.add(new TextField(field, value.stringValue(), Field.Store.YES));
+            }
+        }
+
+        private void write() throws IOException {
+            if (displayLabel != null) {
+                document.add(new StoredField(FIELD_DISPLAY_LABEL, displayLabel));
+            }
+            writer.updateDocument(new Term(FIELD_URI, uri), document);
+        }
+    }
+
+    /**
+     * Analyzes language-specific fields with an analyzer suitable for the language. The language is determined from the
+     * field name suffix.
+     */
+    static final class LanguageAnalyzer extends DelegatingAnalyzerWrapper {
+
+        private final Map<String, Analyzer> analyzers = new ConcurrentHashMap<>();
+
+        LanguageAnalyzer() {
+            super(PER_FIELD_REUSE_STRATEGY);
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            final int separatorIndex = fieldName.lastIndexOf(LANGUAGE_SEPARATOR);
+            final String lang = separatorIndex >= 0 ? fieldName.substring(separatorIndex + 1) : "";
+            return analyzers.computeIfAbsent(lang, LanguageAnalyzer::createAnalyzer);
+        }
+
+        static Analyzer createAnalyzer(String language) {
+            switch (language) {
+                case "cs":
+                    return new CzechAnalyzer();
+                case "en":
+                    return new EnglishAnalyzer();
+                default:
+                    return new StandardAnalyzer();
+            }
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            analyzers.values().forEach(Analyzer::close);
+        }
+    }
+}
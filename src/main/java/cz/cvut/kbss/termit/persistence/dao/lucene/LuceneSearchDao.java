@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.persistence.dao.lucene;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
@@ -24,10 +25,11 @@ import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
-import java.util.List;
 import java.util.Objects;
 
 import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
@@ -55,21 +57,21 @@ public class LuceneSearchDao extends SearchDao {
     }
 
     @Override
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
         Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
         final String wildcardString = addWildcard(searchString);
-        LOG.trace("Running full text search for search string \"{}\", using wildcard variant \"{}\".", searchString,
-                wildcardString);
-        return (List<FullTextSearchResult>) em.createNativeQuery(ftsQuery, "FullTextSearchResult")
-                                              .setParameter("term", URI.create(getOwlClassForEntity(Term.class)))
-                                              .setParameter("vocabulary", URI.create(getOwlClassForEntity(
-                                                      cz.cvut.kbss.termit.model.Vocabulary.class)))
-                                              .setParameter("inVocabulary",
-                                                      URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                              .setParameter("searchString", searchString, null)
-                                              .setParameter("wildCardSearchString", wildcardString, null)
-                                              .setParameter("langTag", config.get(ConfigParam.LANGUAGE), null)
-                                              .getResultList();
+        LOG.trace("Running full text search for search string \"{}\", using wildcard variant \"{}\", page {}.",
+                searchString, wildcardString, pageSpec);
+        final Query query = em.createNativeQuery(ftsQuery, "FullTextSearchResult")
+                              .setParameter("term", URI.create(getOwlClassForEntity(Term.class)))
+                              .setParameter("vocabulary", URI.create(getOwlClassForEntity(
+                                      cz.cvut.kbss.termit.model.Vocabulary.class)))
+                              .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                              .setParameter("searchString", searchString, null)
+                              .setParameter("wildCardSearchString", wildcardString, null)
+                              .setParameter("langTag", config.get(ConfigParam.LANGUAGE), null);
+        return executePaged(query, pageSpec);
     }
 
     private static String addWildcard(String searchString) {
@@ -0,0 +1,163 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+/**
+ * Adds (or removes) statements into a repository context, committing them in batches of configurable size.
+ * <p>
+ * Each batch is committed in a separate transaction, so that the repository does not have to hold the whole data in a
+ * single transaction. Non-positive batch size means all the statements are committed in one transaction.
+ * <p>
+ * If the writer has no target context, statements are written into their own contexts.
+ * <p>
+ * Changes made after the last commit are discarded when the writer is closed without {@link #flush()}.
+ */
+public class BatchedStatementWriter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchedStatementWriter.class);
+
+    private final RepositoryConnection connection;
+    private final Resource context;
+    private final int batchSize;
+
+    private int pending;
+    private long count;
+    private long removedCount;
+
+    public BatchedStatementWriter(RepositoryConnection connection, Resource context, int batchSize) {
+        this.connection = Objects.requireNonNull(connection);
+        this.context = Objects.requireNonNull(context);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a writer which preserves contexts of the written statements.
+     *
+     * @param connection Repository connection to write through
+     * @param batchSize  Number of statements committed in one transaction
+     */
+    public BatchedStatementWriter(RepositoryConnection connection, int batchSize) {
+        this.connection = Objects.requireNonNull(connection);
+        this.context = null;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds the specified statement into the target context, committing the current batch if it is full.
+     *
+     * @param statement Statement to add
+     */
+    public void add(Statement statement) {
+        beginIfNecessary();
+        if (context != null) {
+            connection.add(statement, context);
+        } else {
+            connection.add(statement);
+        }
+        count++;
+        statementWritten();
+    }
+
+    /**
+     * Removes the specified statement from the target context, committing the current batch if it is full.
+     * <p>
+     * Context of the statement itself is ignored, unless the writer has no target context.
+     *
+     * @param statement Statement to remove
+     */
+    public void remove(Statement statement) {
+        beginIfNecessary();
+        connection.remove(statement.getSubject(), statement.getPredicate(), statement.getObject(),
+                context != null ? context : statement.getContext());
+        removedCount++;
+        statementWritten();
+    }
+
+    /**
+     * Removes all statements from the specified context as part of the current batch.
+     *
+     * @param context Context to clear, {@code null} represents the default context
+     */
+    public void clear(Resource context) {
+        beginIfNecessary();
+        connection.clear(context);
+    }
+
+    private void beginIfNecessary() {
+        if (!connection.isActive()) {
+            connection.begin();
+        }
+    }
+
+    private void statementWritten() {
+        pending++;
+        if (batchSize > 0 && pending >= batchSize) {
+            commit();
+        }
+    }
+
+    /**
+     * Commits statements added since the last commit.
+     */
+    public void flush() {
+        if (connection.isActive()) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        connection.commit();
+        pending = 0;
+        LOG.debug("Committed {} added and {} removed statements{}.", count, removedCount,
+                context != null ? " in context <" + context + ">" : "");
+    }
+
+    /**
+     * Gets the number of statements added by this writer so far.
+     *
+     * @return Number of statements
+     */
+    public long getStatementCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of statements removed by this writer so far.
+     *
+     * @return Number of statements
+     */
+    public long getRemovedStatementCount() {
+        return removedCount;
+    }
+
+    @Override
+    public void close() {
+        if (connection.isActive()) {
+            LOG.warn("Discarding {} uncommitted changes.", pending);
+            connection.rollback();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import org.eclipse.rdf4j.model.Resource;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Index of SKOS concepts and their hierarchy used to identify top concepts of an imported glossary.
+ * <p>
+ * The index is built in a single pass over the imported statements. Each resource is assigned a numeric index, concept
+ * flags are stored in a bitmap and hierarchy links in plain integer arrays. Top concepts are then resolved in time
+ * linear to the number of concepts and links, regardless of the order in which the statements arrive.
+ * <p>
+ * A concept is top if it has no broader concept, i.e., it is neither the subject of {@code skos:broader} nor the object
+ * of {@code skos:narrower} linking it to another concept.
+ */
+class ConceptHierarchyIndex {
+
+    private final Map<Resource, Integer> indices = new HashMap<>();
+    private final List<Resource> resources = new ArrayList<>();
+
+    private final BitSet concepts = new BitSet();
+
+    private int[] linkChildren = new int[1024];
+    private int[] linkParents = new int[1024];
+    private int linkCount;
+
+    private int indexOf(Resource resource) {
+        final Integer index = indices.get(resource);
+        if (index != null) {
+            return index;
+        }
+        final int newIndex = resources.size();
+        resources.add(resource);
+        indices.put(resource, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Registers the specified resource as a concept.
+     *
+     * @param concept Concept resource
+     * @return {@code true} if the resource was not known as a concept before
+     */
+    boolean addConcept(Resource concept) {
+        final int index = indexOf(concept);
+        if (concepts.get(index)) {
+            return false;
+        }
+        concepts.set(index);
+        return true;
+    }
+
+    /**
+     * Checks whether the specified resource is registered as a concept.
+     *
+     * @param resource Resource to check
+     * @return {@code true} if the resource is a known concept
+     */
+    boolean isConcept(Resource resource) {
+        final Integer index = indices.get(resource);
+        return index != null && concepts.get(index);
+    }
+
+    /**
+     * Registers a {@code skos:broader} link between the specified resources.
+     *
+     * @param child  Narrower resource
+     * @param parent Broader resource
+     */
+    void addBroader(Resource child, Resource parent) {
+        addLink(child, parent);
+    }
+
+    /**
+     * Registers a {@code skos:narrower} link between the specified resources.
+     *
+     * @param parent Broader resource
+     * @param child  Narrower resource
+     */
+    void addNarrower(Resource parent, Resource child) {
+        addLink(child, parent);
+    }
+
+    private void addLink(Resource child, Resource parent) {
+        if (linkCount == linkChildren.length) {
+            linkChildren = Arrays.copyOf(linkChildren, linkCount * 2);
+            linkParents = Arrays.copyOf(linkParents, linkCount * 2);
+        }
+        linkChildren[linkCount] = indexOf(child);
+        linkParents[linkCount] = indexOf(parent);
+        linkCount++;
+    }
+
+    /**
+     * Passes top concepts to the specified consumer.
+     *
+     * @param consumer Top concept consumer
+     */
+    void forEachTopConcept(Consumer<Resource> consumer) {
+        final BitSet nonTop = new BitSet();
+        for (int i = 0; i < linkCount; i++) {
+            if (concepts.get(linkParents[i])) {
+                nonTop.set(linkChildren[i]);
+            }
+        }
+        for (int i = concepts.nextSetBit(0); i >= 0; i = concepts.nextSetBit(i + 1)) {
+            if (!nonTop.get(i)) {
+                consumer.accept(resources.get(i));
+            }
+        }
+    }
+}
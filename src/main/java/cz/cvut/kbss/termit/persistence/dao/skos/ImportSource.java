@@ -0,0 +1,83 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Single source of data for vocabulary import, e.g., one file of a multi-file vocabulary bundle.
+ * <p>
+ * The data may be read repeatedly, every call to {@link #openStream()} has to provide a fresh stream.
+ */
+public class ImportSource {
+
+    private final String name;
+
+    private final String mediaType;
+
+    private final StreamProvider streamProvider;
+
+    /**
+     * Creates new import source.
+     *
+     * @param name           Name of the source (e.g., file name), used for logging
+     * @param mediaType      Media type of the data
+     * @param streamProvider Provides streams with the data
+     */
+    public ImportSource(String name, String mediaType, StreamProvider streamProvider) {
+        this.name = Objects.requireNonNull(name);
+        this.mediaType = mediaType;
+        this.streamProvider = Objects.requireNonNull(streamProvider);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Opens a new stream with the data of this source.
+     * <p>
+     * The caller is responsible for closing the stream.
+     *
+     * @return New input stream
+     * @throws IOException If the stream cannot be opened
+     */
+    public InputStream openStream() throws IOException {
+        return streamProvider.open();
+    }
+
+    @Override
+    public String toString() {
+        return "ImportSource{" + name + ", mediaType='" + mediaType + "'}";
+    }
+
+    /**
+     * Provides streams with source data.
+     */
+    @FunctionalInterface
+    public interface StreamProvider {
+
+        InputStream open() throws IOException;
+    }
+}
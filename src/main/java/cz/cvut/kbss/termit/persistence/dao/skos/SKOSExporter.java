@@ -3,9 +3,8 @@ package cz.cvut.kbss.termit.persistence.dao.skos;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.util.Utils;
-import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.ValueFactory;
-import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.model.vocabulary.OWL;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
@@ -13,14 +12,17 @@ import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.query.*;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFWriter;
 import org.eclipse.rdf4j.rio.Rio;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Repository
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -32,59 +34,67 @@ public class SKOSExporter {
     private final org.eclipse.rdf4j.repository.Repository repository;
     private final ValueFactory vf;
 
-    private final Model model = new LinkedHashModel();
-
     @Autowired
     public SKOSExporter(EntityManager em) {
         this.repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
         vf = repository.getValueFactory();
     }
 
-    public void exportGlossaryInstance(Vocabulary vocabulary) {
+    /**
+     * Exports glossary of the specified vocabulary and its terms into the specified output stream.
+     * <p>
+     * Namespaces are resolved up front, statements are then written as they are retrieved from the repository, so the
+     * export is never held in memory. All the data are read in a single repository transaction, so that the glossary
+     * and the terms are consistent. The output stream is not closed.
+     *
+     * @param vocabulary Vocabulary whose glossary to export
+     * @param format     Target RDF serialization format
+     * @param out        Stream to write the export into
+     */
+    public void exportGlossary(Vocabulary vocabulary, RDFFormat format, OutputStream out) {
+        final RDFWriter writer = Rio.createWriter(format, out);
         try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
-            resolvePrefixes(vocabulary, conn);
+            conn.begin();
+            try {
+                writer.startRDF();
+                resolvePrefixes(vocabulary, conn).forEach(writer::handleNamespace);
+                final IRI vocabularyIri = vf.createIRI(vocabulary.getUri().toString());
+                evaluateAndWrite(conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY)), vocabularyIri, writer);
+                evaluateAndWrite(conn.prepareGraphQuery(Utils.loadQuery(TERMS_EXPORT_QUERY)), vocabularyIri, writer);
+                writer.endRDF();
+            } finally {
+                // Nothing was written, so there is nothing to commit
+                conn.rollback();
+            }
         }
     }
 
-    private void evaluateAndAddToModel(GraphQuery gq) {
+    private static void evaluateAndWrite(GraphQuery gq, IRI vocabularyIri, RDFWriter writer) {
+        gq.setBinding("vocabulary", vocabularyIri);
         try (GraphQueryResult gqResult = gq.evaluate()) {
             while (gqResult.hasNext()) {
-                model.add(gqResult.next());
+                writer.handleStatement(gqResult.next());
             }
         }
     }
 
-    private void resolvePrefixes(Vocabulary vocabulary, RepositoryConnection connection) {
+    private Map<String, String> resolvePrefixes(Vocabulary vocabulary, RepositoryConnection connection) {
+        final Map<String, String> namespaces = new LinkedHashMap<>();
         final TupleQuery tq = connection.prepareTupleQuery("SELECT ?prefix ?namespace WHERE {\n" +
                 "?glossary <http://purl.org/vocab/vann/preferredNamespacePrefix> ?prefix ;\n" +
                 "<http://purl.org/vocab/vann/preferredNamespaceUri> ?namespace .\n" +
                 "}");
         tq.setBinding("glossary", vf.createIRI(vocabulary.getGlossary().getUri().toString()));
-        final TupleQueryResult result = tq.evaluate();
-        while (result.hasNext()) {
-            final BindingSet binding = result.next();
-            model.setNamespace(binding.getValue("prefix").stringValue(), binding.getValue("namespace").stringValue());
-        }
-        model.setNamespace(SKOS.PREFIX, SKOS.NAMESPACE);
-        model.setNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
-        model.setNamespace(OWL.PREFIX, OWL.NAMESPACE);
-        model.setNamespace(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
-    }
-
-    public void exportGlossaryTerms(Vocabulary vocabulary) {
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(TERMS_EXPORT_QUERY));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
+        try (final TupleQueryResult result = tq.evaluate()) {
+            while (result.hasNext()) {
+                final BindingSet binding = result.next();
+                namespaces.put(binding.getValue("prefix").stringValue(), binding.getValue("namespace").stringValue());
+            }
         }
-    }
-
-    public byte[] exportAsTtl() {
-        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        Rio.write(model, bos, RDFFormat.TURTLE);
-        return bos.toByteArray();
+        namespaces.put(SKOS.PREFIX, SKOS.NAMESPACE);
+        namespaces.put(RDFS.PREFIX, RDFS.NAMESPACE);
+        namespaces.put(OWL.PREFIX, OWL.NAMESPACE);
+        namespaces.put(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
+        return namespaces;
     }
 }
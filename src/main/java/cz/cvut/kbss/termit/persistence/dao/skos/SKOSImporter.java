@@ -1,8 +1,11 @@
 package cz.cvut.kbss.termit.persistence.dao.skos;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
 import cz.cvut.kbss.termit.exception.DataImportException;
 import cz.cvut.kbss.termit.exception.UnsupportedImportMediaTypeException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
@@ -19,10 +22,12 @@ import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
 import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,17 +35,41 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Imports vocabularies in SKOS.
+ * <p>
+ * The import is streamed, so that large vocabularies can be imported without loading them into memory. The input data
+ * are first scanned to resolve the vocabulary identifier (which determines the target repository context). Then they
+ * are parsed again and statements are added into the target context in batches (see {@link
+ * ConfigParam#IMPORT_BATCH_SIZE}), together with statements derived on the fly (term membership in the vocabulary, top
+ * concepts of the glossary). If such an import fails, the batches committed so far are removed by clearing the target
+ * context. Therefore, data are imported in batches only into an empty context, import into a context already containing
+ * data is done in a single transaction.
+ * <p>
+ * When multiple sources are imported, they are parsed in parallel (up to {@link ConfigParam#IMPORT_PARALLELISM} at a
+ * time), each with its own parser. Parsing threads pass the statements in chunks to the importing thread, which is the
+ * only one writing into the repository.
+ * <p>
+ * An existing vocabulary can also be re-imported differentially (see {@link #reimportVocabulary(List)}), so that only
+ * the statements which actually changed are written. The difference is applied in a single transaction.
+ */
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class SKOSImporter {
@@ -50,81 +79,346 @@ public class SKOSImporter {
 
     private static final Logger LOG = LoggerFactory.getLogger(SKOSImporter.class);
 
+    /**
+     * Number of statements a parsing thread buffers before passing them to the importing thread
+     */
+    private static final int PARSE_BUFFER_SIZE = 1000;
+
+    /**
+     * Marks the end of statements parsed from one source
+     */
+    private static final List<Statement> END_OF_SOURCE = Collections.unmodifiableList(new ArrayList<>());
+
     private final Configuration config;
     private final PersistenceUtils persistenceUtils;
     private final ChangeRecordDao changeRecordDao;
 
+    private final EntityManagerFactory emf;
     private final Repository repository;
     private final ValueFactory vf;
 
-    private final Model model = new LinkedHashModel();
+    private final int parallelism;
+
+    /**
+     * Statements about the imported vocabulary needed to construct its instance
+     */
+    private final Model vocabularyMetadata = new LinkedHashModel();
 
     private String vocabularyIri;
 
+    private Value glossary;
+
     @Autowired
     public SKOSImporter(Configuration config, PersistenceUtils persistenceUtils,
                         ChangeRecordDao changeRecordDao, EntityManager em) {
         this.config = config;
         this.persistenceUtils = persistenceUtils;
         this.changeRecordDao = changeRecordDao;
+        this.emf = em.getEntityManagerFactory();
         this.repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
         vf = repository.getValueFactory();
+        this.parallelism = Math.max(1, Integer.parseInt(config.get(ConfigParam.IMPORT_PARALLELISM)));
     }
 
+    /**
+     * Imports vocabulary from the specified input streams.
+     * <p>
+     * The streams are read only once, their content is stored in temporary files for the duration of the import.
+     *
+     * @param mediaType    Media type of the data in all the streams
+     * @param inputStreams Streams with the data to import
+     * @return The imported vocabulary
+     */
     public Vocabulary importVocabulary(String mediaType, InputStream... inputStreams) {
         if (inputStreams.length == 0) {
             throw new IllegalArgumentException("No input provided for importing vocabulary.");
         }
-        LOG.debug("Vocabulary import started.");
-        parseDataFromStreams(mediaType, inputStreams);
-        resolveVocabularyIri();
-        LOG.trace("Vocabulary identifier resolved to {}.", vocabularyIri);
-        insertTermVocabularyMembership();
-        insertTopConceptAssertions();
-        addDataIntoRepository();
-        generatePersistChangeRecord();
-        LOG.debug("Vocabulary import successfully finished.");
-        return constructVocabularyInstance();
+        resolveFormat(mediaType);
+        // Input is parsed twice, so it is stored in temporary files instead of memory
+        final List<Path> files = storeInput(inputStreams);
+        try {
+            return importVocabulary(files.stream().map(f -> new ImportSource(f.getFileName().toString(), mediaType,
+                    () -> Files.newInputStream(f))).collect(Collectors.toList()));
+        } finally {
+            deleteFiles(files);
+        }
     }
 
-    private void parseDataFromStreams(String mediaType, InputStream... inputStreams) {
-        final RDFFormat rdfFormat = Rio.getParserFormatForMIMEType(mediaType).orElseThrow(
+    /**
+     * Imports vocabulary from the specified sources.
+     * <p>
+     * Each source is parsed according to its own media type. Sources are read twice, first to resolve the vocabulary
+     * identifier, then to import the data.
+     *
+     * @param sources Sources of the data to import
+     * @return The imported vocabulary
+     */
+    public Vocabulary importVocabulary(List<ImportSource> sources) {
+        return importVocabulary(sources, false);
+    }
+
+    /**
+     * Re-imports vocabulary from the specified sources, applying only the difference against its current version.
+     * <p>
+     * The imported data (including derived statements) are compared with the current content of the vocabulary
+     * context. Only statements which are missing are added and only statements which are not in the imported data are
+     * removed. Change records are generated for affected terms.
+     * <p>
+     * Note that this means any data in the vocabulary context which are not in the imported data are removed.
+     * <p>
+     * The difference is applied in a single transaction, so the vocabulary is left unchanged if the re-import fails.
+     *
+     * @param sources Sources of the data to import
+     * @return The re-imported vocabulary
+     */
+    public Vocabulary reimportVocabulary(List<ImportSource> sources) {
+        return importVocabulary(sources, true);
+    }
+
+    private Vocabulary importVocabulary(List<ImportSource> sources, boolean delta) {
+        Objects.requireNonNull(sources);
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No input provided for importing vocabulary.");
+        }
+        final Map<ImportSource, RDFFormat> formats = new LinkedHashMap<>();
+        sources.forEach(s -> formats.put(s, resolveFormat(s.getMediaType())));
+        LOG.debug("Vocabulary import of {} source(s) started.", sources.size());
+        final ExecutorService executor = createParserExecutor(Math.min(parallelism, sources.size()));
+        try {
+            resolveVocabularyIri(formats, executor);
+            LOG.trace("Vocabulary identifier resolved to {}.", vocabularyIri);
+            if (!delta) {
+                addDataIntoRepository(formats, executor);
+                generatePersistChangeRecord();
+            } else if (!applyDataDifference(formats, executor)) {
+                // The vocabulary did not exist before
+                generatePersistChangeRecord();
+            }
+            LOG.debug("Vocabulary import successfully finished.");
+            return constructVocabularyInstance();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RDFFormat resolveFormat(String mediaType) {
+        return Rio.getParserFormatForMIMEType(mediaType).orElseThrow(
                 () -> new UnsupportedImportMediaTypeException("Media type" + mediaType + "not supported."));
-        final RDFParser p = Rio.createParser(rdfFormat);
-        final StatementCollector collector = new StatementCollector(model);
-        p.setRDFHandler(collector);
-        for (InputStream is : inputStreams) {
+    }
+
+    private static ExecutorService createParserExecutor(int threadCount) {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threadCount, r -> {
+            final Thread t = new Thread(r, "skos-import-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static List<Path> storeInput(InputStream... inputStreams) {
+        final List<Path> files = new ArrayList<>(inputStreams.length);
+        try {
+            for (InputStream is : inputStreams) {
+                final Path file = Files.createTempFile("vocabulary-import", ".tmp");
+                files.add(file);
+                Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return files;
+        } catch (IOException e) {
+            deleteFiles(files);
+            throw new DataImportException("Unable to read data for import.", e);
+        }
+    }
+
+    private static void deleteFiles(List<Path> files) {
+        for (Path file : files) {
             try {
-                p.parse(is, "");
+                Files.deleteIfExists(file);
             } catch (IOException e) {
-                throw new DataImportException("Unable to parse data for import.", e);
+                LOG.warn("Unable to delete temporary import file {}.", file, e);
             }
         }
     }
 
-    private void addDataIntoRepository() {
+    private static void parse(ImportSource source, RDFFormat rdfFormat, RDFHandler handler) {
+        LOG.trace("Parsing {}.", source);
+        final RDFParser p = Rio.createParser(rdfFormat);
+        p.setRDFHandler(handler);
+        try (final InputStream is = new BufferedInputStream(source.openStream())) {
+            p.parse(is, "");
+        } catch (IOException e) {
+            throw new DataImportException("Unable to parse data for import.", e);
+        }
+    }
+
+    private void resolveVocabularyIri(Map<ImportSource, RDFFormat> sources, ExecutorService executor) {
+        final List<Future<VocabularyResolver>> futures = new ArrayList<>(sources.size());
+        sources.forEach((source, format) -> futures.add(executor.submit(() -> {
+            final VocabularyResolver sourceResolver = new VocabularyResolver();
+            parse(source, format, sourceResolver);
+            return sourceResolver;
+        })));
+        // Merged in the order of sources, so that the result does not depend on which source was parsed first
+        final VocabularyResolver resolver = new VocabularyResolver();
+        for (Future<VocabularyResolver> f : futures) {
+            resolver.merge(await(f));
+        }
+        if (resolver.vocabularies.size() == 1) {
+            this.vocabularyIri = resolver.vocabularies.iterator().next().stringValue();
+        } else if (resolver.ontologies.size() == 1) {
+            this.vocabularyIri = resolver.ontologies.iterator().next().stringValue();
+        } else {
+            throw new IllegalArgumentException(
+                    "No vocabulary or ontology found in the provided data. This means target storage context cannot be determined.");
+        }
+        this.glossary = resolver.glossaries.get(vf.createIRI(vocabularyIri));
+    }
+
+    private void addDataIntoRepository(Map<ImportSource, RDFFormat> sources, ExecutorService executor) {
+        final IRI targetContext = vf.createIRI(generateContextIri(vocabularyIri));
+        LOG.debug("Importing vocabulary into context <{}>.", targetContext);
         try (final RepositoryConnection conn = repository.getConnection()) {
-            conn.begin();
-            final String targetContext = generateContextIri(vocabularyIri);
-            LOG.debug("Importing vocabulary into context <{}>.", targetContext);
-            conn.add(model, vf.createIRI(targetContext));
-            conn.commit();
+            // Committed batches can be discarded by clearing the context only if it contains no other data
+            final boolean emptyContext = !conn.hasStatement(null, null, null, false, targetContext);
+            final int batchSize = emptyContext ? Integer.parseInt(config.get(ConfigParam.IMPORT_BATCH_SIZE)) : 0;
+            try (final BatchedStatementWriter writer = new BatchedStatementWriter(conn, targetContext, batchSize)) {
+                final ImportHandler handler = parseInto(sources, executor, writer::add);
+                insertTopConceptAssertions(handler, writer::add);
+                writer.flush();
+                LOG.debug("Imported {} statements.", writer.getStatementCount());
+            } catch (RuntimeException e) {
+                if (emptyContext) {
+                    discardImportedData(conn, targetContext, e);
+                }
+                throw e;
+            }
         }
     }
 
-    private void resolveVocabularyIri() {
-        final Model resVocabulary = model.filter(null, RDF.TYPE, vf.createIRI(VOCABULARY_TYPE));
-        if (resVocabulary.size() == 1) {
-            this.vocabularyIri = resVocabulary.iterator().next().getSubject().stringValue();
-            return;
+    private static void discardImportedData(RepositoryConnection conn, IRI context, RuntimeException cause) {
+        LOG.debug("Vocabulary import failed, removing data already imported into context <{}>.", context);
+        try {
+            conn.clear(context);
+        } catch (RuntimeException e) {
+            LOG.error("Unable to remove partially imported data from context <{}>.", context, e);
+            cause.addSuppressed(e);
         }
-        final Model res = model.filter(null, RDF.TYPE, OWL.ONTOLOGY);
-        if (res.size() == 1) {
-            this.vocabularyIri = res.iterator().next().getSubject().stringValue();
-            return;
+    }
+
+    /**
+     * Applies the difference between the imported data and the current content of the vocabulary context.
+     *
+     * @return Whether the vocabulary context contained any data before the import
+     */
+    private boolean applyDataDifference(Map<ImportSource, RDFFormat> sources, ExecutorService executor) {
+        final IRI targetContext = vf.createIRI(generateContextIri(vocabularyIri));
+        LOG.debug("Importing difference of vocabulary in context <{}>.", targetContext);
+        try (final RepositoryConnection conn = repository.getConnection();
+             // The difference is usually small and a partially applied one could not be undone
+             final BatchedStatementWriter writer = new BatchedStatementWriter(conn, targetContext, 0);
+             final StatementDiff diff = new StatementDiff(vf)) {
+            final ImportHandler handler = parseInto(sources, executor, diff::addIncoming);
+            insertTopConceptAssertions(handler, diff::addIncoming);
+            final Set<Resource> existingTerms = new HashSet<>();
+            boolean existed = false;
+            try (final RepositoryResult<Statement> existing = conn
+                    .getStatements(null, null, null, false, targetContext)) {
+                while (existing.hasNext()) {
+                    final Statement st = existing.next();
+                    existed = true;
+                    diff.addExisting(st);
+                    if (RDF.TYPE.equals(st.getPredicate()) && SKOS.CONCEPT.equals(st.getObject())) {
+                        existingTerms.add(st.getSubject());
+                    }
+                }
+            }
+            final TermChangeCollector changes = new TermChangeCollector(handler.hierarchy::isConcept,
+                    existingTerms::contains);
+            diff.compute(st -> {
+                writer.add(st);
+                changes.statementAdded(st);
+            }, st -> {
+                writer.remove(st);
+                changes.statementRemoved(st);
+            });
+            writer.flush();
+            // Data of existing terms and the vocabulary were changed bypassing the persistence context
+            emf.getCache().evict(URI.create(targetContext.stringValue()));
+            LOG.debug("Added {} and removed {} statements.", writer.getStatementCount(),
+                    writer.getRemovedStatementCount());
+            persistTermChangeRecords(changes);
+            return existed;
+        }
+    }
+
+    /**
+     * Parses the specified sources in parallel and passes the parsed statements (together with the derived ones) to
+     * the specified sink in the current thread.
+     */
+    private ImportHandler parseInto(Map<ImportSource, RDFFormat> sources, ExecutorService executor,
+                                    Consumer<Statement> sink) {
+        final ImportHandler handler = new ImportHandler(sink);
+        // Bounded, so that parsing cannot get arbitrarily ahead of writing
+        final BlockingQueue<List<Statement>> chunks = new ArrayBlockingQueue<>(2 * parallelism);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final List<Future<?>> futures = new ArrayList<>(sources.size());
+        sources.forEach((source, format) -> futures.add(executor.submit(() -> {
+            try {
+                parse(source, format, new BufferingHandler(chunks));
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                enqueue(chunks, END_OF_SOURCE);
+            }
+        })));
+        int remaining = sources.size();
+        while (remaining > 0) {
+            final List<Statement> chunk = take(chunks);
+            if (chunk == END_OF_SOURCE) {
+                remaining--;
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+            } else {
+                chunk.forEach(handler::handleStatement);
+            }
+        }
+        for (Future<?> f : futures) {
+            await(f);
+        }
+        return handler;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataImportException("Vocabulary import interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataImportException("Unable to parse data for import.", e.getCause());
+        }
+    }
+
+    private static void enqueue(BlockingQueue<List<Statement>> chunks, List<Statement> chunk) {
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataImportException("Vocabulary import interrupted.", e);
+        }
+    }
+
+    private static List<Statement> take(BlockingQueue<List<Statement>> chunks) {
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataImportException("Vocabulary import interrupted.", e);
         }
-        throw new IllegalArgumentException(
-                "No vocabulary or ontology found in the provided data. This means target storage context cannot be determined.");
     }
 
     private String generateContextIri(String baseIri) {
@@ -134,7 +428,7 @@ public class SKOSImporter {
     private Vocabulary constructVocabularyInstance() {
         final Vocabulary instance = new Vocabulary();
         instance.setUri(URI.create(vocabularyIri));
-        final Set<Statement> labels = model.filter(vf.createIRI(vocabularyIri), DCTERMS.TITLE, null);
+        final Set<Statement> labels = vocabularyMetadata.filter(vf.createIRI(vocabularyIri), DCTERMS.TITLE, null);
         labels.stream().filter(s -> {
             assert s.getObject() instanceof Literal;
             return Objects.equals(config.get(ConfigParam.LANGUAGE),
@@ -143,47 +437,37 @@ public class SKOSImporter {
         return instance;
     }
 
-    private void insertTermVocabularyMembership() {
-        LOG.trace("Generating vocabulary membership statements for terms.");
-        final IRI vocabularyId = vf.createIRI(vocabularyIri);
-        model.addAll(model.filter(null, RDF.TYPE, SKOS.CONCEPT).stream()
-                          .map(s -> vf.createStatement(s.getSubject(), vf.createIRI(
-                                  cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku), vocabularyId))
-                          .collect(Collectors.toList()));
-    }
-
-    private void insertTopConceptAssertions() {
-        LOG.trace("Generating top concept assertions.");
-        final IRI vocabularyId = vf.createIRI(vocabularyIri);
-        final List<Value> glossary = model
-                .filter(vocabularyId, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar), null).stream()
-                .map(Statement::getObject).collect(Collectors.toList());
-        if (glossary.size() == 0) {
+    private void insertTopConceptAssertions(ImportHandler handler, Consumer<Statement> sink) {
+        if (glossary == null) {
             LOG.debug("No glossary found for imported vocabulary {}, top concepts will not be identified.",
-                    vocabularyId);
+                    vocabularyIri);
             return;
         }
-        assert glossary.size() == 1;
-        final List<Resource> terms = model.filter(null, RDF.TYPE, SKOS.CONCEPT).stream().map(Statement::getSubject)
-                                          .collect(Collectors.toList());
-        terms.forEach(t -> {
-            final List<Value> broader = model.filter(t, SKOS.BROADER, null).stream().map(Statement::getObject)
-                                             .collect(Collectors.toList());
-            final boolean hasBroader = broader.stream()
-                                              .anyMatch(p -> model.contains((Resource) p, RDF.TYPE, SKOS.CONCEPT));
-            final List<Value> narrower = model.filter(null, SKOS.NARROWER, t).stream().map(Statement::getObject)
-                                              .collect(Collectors.toList());
-            final boolean isNarrower = narrower.stream()
-                                               .anyMatch(p -> model.contains((Resource) p, RDF.TYPE, SKOS.CONCEPT));
-            if (!hasBroader && !isNarrower) {
-                model.add((Resource) glossary.get(0), SKOS.HAS_TOP_CONCEPT, t);
-            }
-        });
+        LOG.trace("Generating top concept assertions.");
+        handler.hierarchy.forEachTopConcept(
+                t -> sink.accept(vf.createStatement((Resource) glossary, SKOS.HAS_TOP_CONCEPT, t)));
+    }
+
+    private void persistTermChangeRecords(TermChangeCollector changes) {
+        final List<AbstractChangeRecord> records = changes.getChangeRecords();
+        final User author = SecurityUtils.currentUser().toUser();
+        final Instant timestamp = Instant.now();
+        final URI vocabularyId = URI.create(vocabularyIri);
+        for (AbstractChangeRecord record : records) {
+            record.setAuthor(author);
+            record.setTimestamp(timestamp);
+            final Term term = new Term();
+            term.setUri(record.getChangedEntity());
+            term.setVocabulary(vocabularyId);
+            changeRecordDao.persist(record, term);
+        }
+        LOG.debug("Recorded {} term changes.", records.size());
     }
 
     private void generatePersistChangeRecord() {
-        final List<Value> created = model.filter(vf.createIRI(vocabularyIri), DCTERMS.CREATED, null).stream()
-                                         .map(Statement::getObject).collect(Collectors.toList());
+        final List<Value> created = vocabularyMetadata.filter(vf.createIRI(vocabularyIri), DCTERMS.CREATED, null)
+                                                      .stream().map(Statement::getObject)
+                                                      .collect(Collectors.toList());
         if (created.isEmpty()) {
             LOG.trace("No vocabulary creation date available.");
             return;
@@ -214,4 +498,105 @@ public class SKOSImporter {
                   .orElseThrow(() -> new UnsupportedImportMediaTypeException("Unsupported type of file " + fileName))
                   .getDefaultMIMEType();
     }
+
+    /**
+     * Finds candidates for the imported vocabulary and their glossaries.
+     */
+    private static class VocabularyResolver extends AbstractRDFHandler {
+
+        private final Set<Resource> vocabularies = new HashSet<>();
+        private final Set<Resource> ontologies = new HashSet<>();
+        private final Map<Resource, Value> glossaries = new HashMap<>();
+
+        @Override
+        public void handleStatement(Statement st) {
+            if (RDF.TYPE.equals(st.getPredicate())) {
+                if (VOCABULARY_TYPE.equals(st.getObject().stringValue())) {
+                    vocabularies.add(st.getSubject());
+                } else if (OWL.ONTOLOGY.equals(st.getObject())) {
+                    ontologies.add(st.getSubject());
+                }
+            } else if (cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar.equals(st.getPredicate().stringValue())) {
+                glossaries.putIfAbsent(st.getSubject(), st.getObject());
+            }
+        }
+
+        private void merge(VocabularyResolver other) {
+            vocabularies.addAll(other.vocabularies);
+            ontologies.addAll(other.ontologies);
+            other.glossaries.forEach(glossaries::putIfAbsent);
+        }
+    }
+
+    /**
+     * Buffers parsed statements and passes them in chunks to the importing thread.
+     */
+    private static class BufferingHandler extends AbstractRDFHandler {
+
+        private final BlockingQueue<List<Statement>> chunks;
+
+        private List<Statement> buffer = new ArrayList<>(PARSE_BUFFER_SIZE);
+
+        private BufferingHandler(BlockingQueue<List<Statement>> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public void handleStatement(Statement st) {
+            buffer.add(st);
+            if (buffer.size() >= PARSE_BUFFER_SIZE) {
+                passBuffer();
+            }
+        }
+
+        @Override
+        public void endRDF() {
+            if (!buffer.isEmpty()) {
+                passBuffer();
+            }
+        }
+
+        private void passBuffer() {
+            enqueue(chunks, buffer);
+            buffer = new ArrayList<>(PARSE_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Passes parsed statements to the target sink, adding vocabulary membership statements for terms.
+     * <p>
+     * It also collects data needed to identify top concepts and to construct the imported vocabulary instance.
+     */
+    private class ImportHandler extends AbstractRDFHandler {
+
+        private final Consumer<Statement> sink;
+        private final IRI vocabularyId;
+        private final IRI inVocabulary;
+
+        private final ConceptHierarchyIndex hierarchy = new ConceptHierarchyIndex();
+
+        private ImportHandler(Consumer<Statement> sink) {
+            this.sink = sink;
+            this.vocabularyId = vf.createIRI(vocabularyIri);
+            this.inVocabulary = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+        }
+
+        @Override
+        public void handleStatement(Statement st) {
+            sink.accept(st);
+            final IRI predicate = st.getPredicate();
+            if (RDF.TYPE.equals(predicate) && SKOS.CONCEPT.equals(st.getObject())) {
+                if (hierarchy.addConcept(st.getSubject())) {
+                    sink.accept(vf.createStatement(st.getSubject(), inVocabulary, vocabularyId));
+                }
+            } else if (SKOS.BROADER.equals(predicate) && st.getObject() instanceof Resource) {
+                hierarchy.addBroader(st.getSubject(), (Resource) st.getObject());
+            } else if (SKOS.NARROWER.equals(predicate) && st.getObject() instanceof Resource) {
+                hierarchy.addNarrower(st.getSubject(), (Resource) st.getObject());
+            } else if (vocabularyId.equals(st.getSubject()) &&
+                    (DCTERMS.TITLE.equals(predicate) || DCTERMS.CREATED.equals(predicate))) {
+                vocabularyMetadata.add(st);
+            }
+        }
+    }
 }
@@ -0,0 +1,305 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.exception.DataImportException;
+import org.eclipse.rdf4j.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Computes the difference between a set of incoming statements and a set of existing statements.
+ * <p>
+ * Contexts of the statements are ignored. Statements are kept in memory until either side exceeds the spill threshold.
+ * Then both sides are hash-partitioned into temporary files, so that each partition can be compared separately and
+ * only one partition of the incoming statements has to be held in memory at a time.
+ * <p>
+ * Note that blank nodes are compared by their identifiers, which are generated anew every time data are parsed. So
+ * statements with blank nodes are always reported as changed.
+ */
+class StatementDiff implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementDiff.class);
+
+    /**
+     * Default number of statements of one side kept in memory before they are spilled to disk.
+     */
+    static final int DEFAULT_SPILL_THRESHOLD = 100_000;
+
+    /**
+     * Number of partitions statements are spilled into.
+     */
+    static final int PARTITION_COUNT = 64;
+
+    // Value type markers in spilled partitions
+    private static final int IRI_VALUE = 'I';
+    private static final int BNODE_VALUE = 'B';
+    private static final int LITERAL_VALUE = 'L';
+    private static final int LANG_LITERAL_VALUE = 'G';
+
+    private final ValueFactory vf;
+
+    private final int spillThreshold;
+
+    private final Side incoming = new Side("incoming");
+
+    private final Side existing = new Side("existing");
+
+    StatementDiff(ValueFactory vf) {
+        this(vf, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    StatementDiff(ValueFactory vf, int spillThreshold) {
+        this.vf = Objects.requireNonNull(vf);
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Adds a statement to the incoming side.
+     *
+     * @param statement Incoming statement
+     */
+    void addIncoming(Statement statement) {
+        add(incoming, statement);
+    }
+
+    /**
+     * Adds a statement to the existing side.
+     *
+     * @param statement Existing statement
+     */
+    void addExisting(Statement statement) {
+        add(existing, statement);
+    }
+
+    private void add(Side side, Statement statement) {
+        final Statement st = statement.getContext() != null ?
+                             vf.createStatement(statement.getSubject(), statement.getPredicate(),
+                                     statement.getObject()) : statement;
+        if (side.partitions == null) {
+            side.buffer.add(st);
+            if (side.buffer.size() > spillThreshold) {
+                spill(side);
+            }
+        } else {
+            side.write(st);
+        }
+    }
+
+    private static void spill(Side side) {
+        LOG.debug("Spilling {} {} statements to disk.", side.buffer.size(), side.name);
+        side.openPartitions();
+        side.buffer.forEach(side::write);
+        side.buffer.clear();
+    }
+
+    /**
+     * Computes the difference and passes it to the specified consumers.
+     * <p>
+     * No more statements may be added afterwards.
+     *
+     * @param additions Receives incoming statements which do not exist
+     * @param removals  Receives existing statements which are not incoming
+     */
+    void compute(Consumer<Statement> additions, Consumer<Statement> removals) {
+        if (incoming.partitions == null && existing.partitions == null) {
+            compare(new HashSet<>(incoming.buffer), existing.buffer, additions, removals);
+            return;
+        }
+        if (incoming.partitions == null) {
+            spill(incoming);
+        }
+        if (existing.partitions == null) {
+            spill(existing);
+        }
+        incoming.closePartitions();
+        existing.closePartitions();
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            final Set<Statement> incomingPartition = new HashSet<>();
+            incoming.read(i, incomingPartition::add);
+            final List<Statement> existingPartition = new ArrayList<>();
+            existing.read(i, existingPartition::add);
+            compare(incomingPartition, existingPartition, additions, removals);
+        }
+    }
+
+    private static void compare(Set<Statement> incoming, Iterable<Statement> existing, Consumer<Statement> additions,
+                                Consumer<Statement> removals) {
+        for (Statement st : existing) {
+            if (!incoming.remove(st)) {
+                removals.accept(st);
+            }
+        }
+        incoming.forEach(additions);
+    }
+
+    @Override
+    public void close() {
+        incoming.discard();
+        existing.discard();
+    }
+
+    /**
+     * One side of the difference.
+     */
+    private class Side {
+
+        private final String name;
+
+        private final List<Statement> buffer = new ArrayList<>();
+
+        private Path[] partitions;
+
+        private DataOutputStream[] outputs;
+
+        private Side(String name) {
+            this.name = name;
+        }
+
+        private void openPartitions() {
+            this.partitions = new Path[PARTITION_COUNT];
+            this.outputs = new DataOutputStream[PARTITION_COUNT];
+            try {
+                for (int i = 0; i < PARTITION_COUNT; i++) {
+                    partitions[i] = Files.createTempFile("import-diff-" + name, ".bin");
+                    outputs[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partitions[i])));
+                }
+            } catch (IOException e) {
+                throw new DataImportException("Unable to create temporary file for import difference.", e);
+            }
+        }
+
+        private void write(Statement statement) {
+            final DataOutputStream out = outputs[(statement.hashCode() & Integer.MAX_VALUE) % PARTITION_COUNT];
+            try {
+                writeValue(out, statement.getSubject());
+                writeValue(out, statement.getPredicate());
+                writeValue(out, statement.getObject());
+            } catch (IOException e) {
+                throw new DataImportException("Unable to write import difference to disk.", e);
+            }
+        }
+
+        private void closePartitions() {
+            try {
+                for (DataOutputStream out : outputs) {
+                    out.close();
+                }
+            } catch (IOException e) {
+                throw new DataImportException("Unable to write import difference to disk.", e);
+            }
+            this.outputs = null;
+        }
+
+        private void read(int partition, Consumer<Statement> consumer) {
+            try (final DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(partitions[partition])))) {
+                int type;
+                while ((type = in.read()) != -1) {
+                    final Resource subject = (Resource) readValue(in, type);
+                    final IRI predicate = (IRI) readValue(in, in.read());
+                    final Value object = readValue(in, in.read());
+                    consumer.accept(vf.createStatement(subject, predicate, object));
+                }
+            } catch (IOException e) {
+                throw new DataImportException("Unable to read import difference from disk.", e);
+            }
+        }
+
+        private void discard() {
+            buffer.clear();
+            if (partitions == null) {
+                return;
+            }
+            if (outputs != null) {
+                for (DataOutputStream out : outputs) {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        LOG.trace("Unable to close partition output stream.", e);
+                    }
+                }
+            }
+            for (Path file : partitions) {
+                try {
+                    if (file != null) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Unable to delete temporary import difference file {}.", file, e);
+                }
+            }
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Value value) throws IOException {
+        if (value instanceof IRI) {
+            out.write(IRI_VALUE);
+            writeString(out, value.stringValue());
+        } else if (value instanceof BNode) {
+            out.write(BNODE_VALUE);
+            writeString(out, ((BNode) value).getID());
+        } else {
+            final Literal literal = (Literal) value;
+            if (literal.getLanguage().isPresent()) {
+                out.write(LANG_LITERAL_VALUE);
+                writeString(out, literal.getLabel());
+                writeString(out, literal.getLanguage().get());
+            } else {
+                out.write(LITERAL_VALUE);
+                writeString(out, literal.getLabel());
+                writeString(out, literal.getDatatype().stringValue());
+            }
+        }
+    }
+
+    // DataOutputStream.writeUTF is limited to 64 KB, which may not be enough for long literals
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private Value readValue(DataInputStream in, int type) throws IOException {
+        switch (type) {
+            case IRI_VALUE:
+                return vf.createIRI(readString(in));
+            case BNODE_VALUE:
+                return vf.createBNode(readString(in));
+            case LANG_LITERAL_VALUE:
+                return vf.createLiteral(readString(in), readString(in));
+            case LITERAL_VALUE:
+                return vf.createLiteral(readString(in), vf.createIRI(readString(in)));
+            default:
+                throw new DataImportException("Corrupted import difference file, unknown value type " + type);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Collects changes of terms applied by a differential vocabulary import and turns them into change records.
+ * <p>
+ * Each new term gets a persist record. Each changed property of an existing (or removed) term gets an update record
+ * with the removed values as original values and the added values as new values.
+ */
+class TermChangeCollector {
+
+    private final Predicate<Resource> isIncomingTerm;
+    private final Predicate<Resource> isExistingTerm;
+
+    private final Set<IRI> newTerms = new LinkedHashSet<>();
+    private final Map<IRI, Map<IRI, UpdateChangeRecord>> updates = new LinkedHashMap<>();
+
+    /**
+     * @param isIncomingTerm Whether a resource is a term in the imported data
+     * @param isExistingTerm Whether a resource is a term in the current version of the vocabulary
+     */
+    TermChangeCollector(Predicate<Resource> isIncomingTerm, Predicate<Resource> isExistingTerm) {
+        this.isIncomingTerm = isIncomingTerm;
+        this.isExistingTerm = isExistingTerm;
+    }
+
+    void statementAdded(Statement statement) {
+        getUpdateRecord(statement).ifPresent(r -> r.getNewValue().add(toValue(statement.getObject())));
+    }
+
+    void statementRemoved(Statement statement) {
+        getUpdateRecord(statement).ifPresent(r -> r.getOriginalValue().add(toValue(statement.getObject())));
+    }
+
+    private Optional<UpdateChangeRecord> getUpdateRecord(Statement statement) {
+        if (!(statement.getSubject() instanceof IRI)) {
+            return Optional.empty();
+        }
+        final IRI subject = (IRI) statement.getSubject();
+        final boolean existing = isExistingTerm.test(subject);
+        if (!existing) {
+            if (isIncomingTerm.test(subject)) {
+                // New terms are recorded as a whole
+                newTerms.add(subject);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(updates.computeIfAbsent(subject, k -> new LinkedHashMap<>())
+                                  .computeIfAbsent(statement.getPredicate(), p -> {
+                                      final UpdateChangeRecord record = new UpdateChangeRecord();
+                                      record.setChangedEntity(URI.create(subject.stringValue()));
+                                      record.setChangedAttribute(URI.create(p.stringValue()));
+                                      record.setOriginalValue(new HashSet<>());
+                                      record.setNewValue(new HashSet<>());
+                                      return record;
+                                  }));
+    }
+
+    private static Object toValue(Value value) {
+        if (value instanceof IRI) {
+            return URI.create(value.stringValue());
+        }
+        return value instanceof Literal ? ((Literal) value).getLabel() : value.stringValue();
+    }
+
+    /**
+     * Gets the collected change records.
+     * <p>
+     * Author and timestamp of the records are not set.
+     *
+     * @return List of change records
+     */
+    List<AbstractChangeRecord> getChangeRecords() {
+        final List<AbstractChangeRecord> records = new ArrayList<>();
+        newTerms.forEach(t -> {
+            final PersistChangeRecord record = new PersistChangeRecord();
+            record.setChangedEntity(URI.create(t.stringValue()));
+            records.add(record);
+        });
+        updates.values().forEach(m -> m.values().forEach(r -> {
+            if (r.getOriginalValue().isEmpty()) {
+                r.setOriginalValue(null);
+            }
+            if (r.getNewValue().isEmpty()) {
+                r.setNewValue(null);
+            }
+            records.add(r);
+        }));
+        return records;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.Update;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes terms of a vocabulary directly as RDF statements into the vocabulary context.
+ * <p>
+ * The statements correspond to the mapping of {@link Term}. They are committed only on {@link #flush()}, so that each
+ * flushed batch is written atomically. This allows importing large amounts of terms without holding them in a
+ * persistence context.
+ * <p>
+ * The writer owns its repository connection and closes it in {@link #close()}, discarding changes which have not been
+ * flushed.
+ */
+public class TermStatementWriter implements AutoCloseable {
+
+    private final RepositoryConnection connection;
+    private final ValueFactory vf;
+    private final BatchedStatementWriter writer;
+    private final String language;
+
+    private final IRI context;
+    private final IRI vocabulary;
+    private final IRI glossary;
+    private final IRI inVocabulary;
+
+    public TermStatementWriter(RepositoryConnection connection, Vocabulary vocabulary, URI context, String language) {
+        this.connection = Objects.requireNonNull(connection);
+        this.vf = connection.getValueFactory();
+        this.context = vf.createIRI(context.toString());
+        // Batches are delimited by explicit flushes
+        this.writer = new BatchedStatementWriter(connection, this.context, 0);
+        this.language = language;
+        this.vocabulary = vf.createIRI(vocabulary.getUri().toString());
+        this.glossary = vf.createIRI(vocabulary.getGlossary().getUri().toString());
+        this.inVocabulary = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+    }
+
+    /**
+     * Finds which of the specified identifiers already belong to existing terms (in any vocabulary).
+     * <p>
+     * Terms written by this writer are taken into account once they are flushed.
+     *
+     * @param ids Identifiers to check
+     * @return Subset of the specified identifiers which are already used by terms
+     */
+    public Set<URI> findExisting(Collection<URI> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final String values = ids.stream().map(id -> "<" + id + ">").collect(Collectors.joining(" "));
+        final Set<URI> result = new HashSet<>();
+        try (final TupleQueryResult qr = connection.prepareTupleQuery("SELECT DISTINCT ?x WHERE {" +
+                "VALUES ?x { " + values + " }" +
+                "?x a <" + SKOS.CONCEPT + "> . }").evaluate()) {
+            while (qr.hasNext()) {
+                final BindingSet bs = qr.next();
+                result.add(URI.create(bs.getValue("x").stringValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds statements representing the specified term into the vocabulary context.
+     * <p>
+     * The term is added into the vocabulary glossary. Parent terms of the instance are ignored, use {@link
+     * #addParent(URI, URI)}.
+     *
+     * @param term Term to add, its identifier must be set
+     */
+    public void addTerm(Term term) {
+        Objects.requireNonNull(term.getUri());
+        final IRI subject = vf.createIRI(term.getUri().toString());
+        writer.add(vf.createStatement(subject, RDF.TYPE, SKOS.CONCEPT));
+        if (term.getTypes() != null) {
+            term.getTypes().forEach(t -> writer.add(vf.createStatement(subject, RDF.TYPE, vf.createIRI(t))));
+        }
+        writer.add(vf.createStatement(subject, SKOS.PREF_LABEL, vf.createLiteral(term.getLabel(), language)));
+        if (term.getDefinition() != null) {
+            writer.add(vf.createStatement(subject, SKOS.DEFINITION, vf.createLiteral(term.getDefinition(), language)));
+        }
+        if (term.getDescription() != null) {
+            writer.add(
+                    vf.createStatement(subject, SKOS.SCOPE_NOTE, vf.createLiteral(term.getDescription(), language)));
+        }
+        if (term.getSources() != null) {
+            term.getSources()
+                .forEach(s -> writer.add(vf.createStatement(subject, DCTERMS.SOURCE, vf.createLiteral(s))));
+        }
+        writer.add(vf.createStatement(subject, SKOS.IN_SCHEME, glossary));
+        writer.add(vf.createStatement(subject, inVocabulary, vocabulary));
+    }
+
+    /**
+     * Adds a parent link between the specified terms into the vocabulary context.
+     *
+     * @param term   Child term identifier
+     * @param parent Parent term identifier
+     */
+    public void addParent(URI term, URI parent) {
+        writer.add(vf.createStatement(vf.createIRI(term.toString()), SKOS.BROADER, vf.createIRI(parent.toString())));
+    }
+
+    /**
+     * Makes all terms in the glossary which do not have a parent term in the same glossary its top concepts.
+     * <p>
+     * The update is evaluated in the repository, so it does not require the terms to be loaded.
+     */
+    public void assignTopConcepts() {
+        writer.flush();
+        connection.begin();
+        final Update update = connection.prepareUpdate("INSERT { GRAPH ?g { ?glossary ?hasTopConcept ?t . } } " +
+                "WHERE { GRAPH ?g { ?t ?inScheme ?glossary . " +
+                "FILTER NOT EXISTS { ?t ?broader ?parent . ?parent ?inScheme ?glossary . } } }");
+        update.setBinding("g", context);
+        update.setBinding("glossary", glossary);
+        update.setBinding("hasTopConcept", SKOS.HAS_TOP_CONCEPT);
+        update.setBinding("inScheme", SKOS.IN_SCHEME);
+        update.setBinding("broader", SKOS.BROADER);
+        update.execute();
+        connection.commit();
+    }
+
+    /**
+     * Commits statements added since the last flush.
+     */
+    public void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Gets the number of statements added by this writer so far.
+     *
+     * @return Number of statements
+     */
+    public long getStatementCount() {
+        return writer.getStatementCount();
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -23,21 +23,31 @@ import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.service.repository.DataRepositoryService;
+import cz.cvut.kbss.termit.util.Constants.BinaryRdf;
+import cz.cvut.kbss.termit.util.Constants.NQuads;
+import cz.cvut.kbss.termit.util.Constants.TriG;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Provides access to general data from repository.
  * <p>
- * Note that this endpoint is currently not secured.
+ * Note that this endpoint is currently not secured, except for data dump and restore, which are available only to
+ * administrators.
  */
 @RestController
 @RequestMapping("/data")
@@ -45,6 +55,12 @@ public class DataController {
 
     private static final Logger LOG = LoggerFactory.getLogger(DataController.class);
 
+    /**
+     * Media types of data dumps, in the order of preference.
+     */
+    private static final List<MediaType> DUMP_MEDIA_TYPES = Arrays.asList(MediaType.valueOf(BinaryRdf.MEDIA_TYPE),
+            MediaType.valueOf(NQuads.MEDIA_TYPE), MediaType.valueOf(TriG.MEDIA_TYPE));
+
     private final DataRepositoryService dataService;
 
     @Autowired
@@ -84,4 +100,78 @@ public class DataController {
         return dataService.getLabel(id).orElseThrow(
                 () -> new NotFoundException("Resource with id " + id + " not found or it has no matching label."));
     }
+
+    /**
+     * Dumps repository data in binary RDF, N-Quads or TriG (based on HTTP content type negotiation).
+     * <p>
+     * The dump preserves repository contexts and it is streamed directly into the response.
+     *
+     * @param contexts   Contexts to dump. Optional
+     * @param workspace  Whether to dump the current workspace (ignored if contexts are specified). If neither contexts
+     *                   nor workspace are specified, the whole repository is dumped
+     * @param acceptType Requested media types, binary RDF is used by default
+     * @return The dump
+     */
+    @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
+    @GetMapping(value = "/dump", produces = {BinaryRdf.MEDIA_TYPE, NQuads.MEDIA_TYPE, TriG.MEDIA_TYPE})
+    public ResponseEntity<TypeAwareResource> dump(
+            @RequestParam(name = "context", required = false) List<URI> contexts,
+            @RequestParam(name = "workspace", required = false) boolean workspace,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptType) {
+        final String mediaType = resolveDumpMediaType(acceptType);
+        final TypeAwareResource dump;
+        if (contexts != null && !contexts.isEmpty()) {
+            dump = dataService.exportData(mediaType, contexts);
+        } else if (workspace) {
+            dump = dataService.exportWorkspaceData(mediaType);
+        } else {
+            dump = dataService.exportData(mediaType, Collections.emptyList());
+        }
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType(dump.getMediaType().orElse(mediaType)))
+                             .header(HttpHeaders.CONTENT_DISPOSITION,
+                                     "attachment; filename=\"termit-dump" + dump.getFileExtension().orElse("") +
+                                             "\"")
+                             .body(dump);
+    }
+
+    /**
+     * Picks the dump media type most preferred by the specified Accept header value.
+     * <p>
+     * Binary RDF is used when the header is missing or does not prefer any specific dump format.
+     */
+    private static String resolveDumpMediaType(String acceptType) {
+        if (acceptType == null) {
+            return BinaryRdf.MEDIA_TYPE;
+        }
+        final List<MediaType> accepted = MediaType.parseMediaTypes(acceptType);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType supported : DUMP_MEDIA_TYPES) {
+                if (type.includes(supported)) {
+                    return supported.toString();
+                }
+            }
+        }
+        return BinaryRdf.MEDIA_TYPE;
+    }
+
+    /**
+     * Restores repository data from a dump in binary RDF, N-Quads or TriG sent as the request body.
+     * <p>
+     * Contexts contained in the dump replace the existing ones.
+     *
+     * @param contentType Media type of the dump
+     * @param data        Request body stream
+     */
+    @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
+    @PostMapping(value = "/restore", consumes = {BinaryRdf.MEDIA_TYPE, NQuads.MEDIA_TYPE, TriG.MEDIA_TYPE})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void restore(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream data) {
+        final long count = dataService.importData(contentType, data);
+        LOG.debug("Restored {} statements.", count);
+    }
 }
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Term;
@@ -23,8 +24,10 @@ import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.ResourceService;
+import cz.cvut.kbss.termit.service.document.TextAnalysisEngine;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
@@ -99,12 +102,20 @@ public class ResourceController extends BaseController {
     public ResponseEntity<org.springframework.core.io.Resource> getContent(
             @PathVariable String normalizedName,
             @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
-            @RequestParam(name = "attachment", required = false) boolean asAttachment) {
+            @RequestParam(name = "attachment", required = false) boolean asAttachment,
+            ServletWebRequest webRequest) {
         final Resource resource = getResource(normalizedName, namespace);
         try {
             final TypeAwareResource content = resourceService.getContent(resource);
+            final String eTag = "\"" + resourceService.getContentHash(resource) + "\"";
+            final long lastModified = content.lastModified();
+            if (webRequest.checkNotModified(eTag, lastModified)) {
+                return null;
+            }
+            // Content length and range requests (status 206) are handled by the resource message converters
             final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
-                                                                     .contentLength(content.contentLength())
+                                                                     .eTag(eTag)
+                                                                     .lastModified(lastModified)
                                                                      .contentType(MediaType.parseMediaType(
                                                                              content.getMediaType()
                                                                                     .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)));
@@ -180,6 +191,72 @@ public class ResourceController extends BaseController {
         LOG.debug("Text analysis finished for resource {}.", resource);
     }
 
+    /**
+     * Schedules asynchronous text analysis of the specified resource.
+     * <p>
+     * The response is returned immediately, its body contains the scheduled job whose status can be then retrieved
+     * from the location in the response.
+     * <p>
+     * If the resource is a document, all its files are analyzed.
+     *
+     * @param normalizedName Normalized name used to identify the resource
+     * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
+     *                       configured namespace is used
+     * @param vocabularies   Identifiers of vocabularies to be used as sources of Terms for the text analysis
+     * @param force          Whether to analyze files even if neither they nor the vocabularies changed since their
+     *                       latest analysis
+     * @param engine         Text analysis engine to use ({@code REMOTE} or {@code LOCAL}). Optional, if not specified,
+     *                       the configured engine is used
+     * @return The scheduled job
+     */
+    @PostMapping(value = "/{normalizedName}/text-analysis/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TextAnalysisJob> scheduleTextAnalysis(@PathVariable String normalizedName,
+                                                                @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                                                @RequestParam(name = "vocabulary", required = false, defaultValue = "") Set<URI> vocabularies,
+                                                                @RequestParam(name = "force", required = false, defaultValue = "false") boolean force,
+                                                                @RequestParam(name = "engine", required = false) TextAnalysisEngine engine) {
+        final Resource resource = getResource(normalizedName, namespace);
+        final TextAnalysisJob job = resourceService.scheduleTextAnalysis(resource, vocabularies, force, engine);
+        LOG.debug("Text analysis of resource {} scheduled as job {}.", resource, job.getId());
+        return ResponseEntity.accepted().location(RestUtils.createLocationFromCurrentUriWithPath("/{id}", job.getId()))
+                             .body(job);
+    }
+
+    /**
+     * Gets the current state of a text analysis job.
+     *
+     * @param normalizedName Normalized name used to identify the resource
+     * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
+     *                       configured namespace is used
+     * @param jobId          Job identifier
+     * @return Text analysis job
+     */
+    @GetMapping(value = "/{normalizedName}/text-analysis/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TextAnalysisJob getTextAnalysisJob(@PathVariable String normalizedName,
+                                              @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                              @PathVariable String jobId) {
+        final URI identifier = resolveIdentifier(namespace, normalizedName, NAMESPACE_RESOURCE);
+        return resourceService.findTextAnalysisJob(resourceService.getRequiredReference(identifier), jobId);
+    }
+
+    /**
+     * Cancels a text analysis job.
+     *
+     * @param normalizedName Normalized name used to identify the resource
+     * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
+     *                       configured namespace is used
+     * @param jobId          Job identifier
+     */
+    @DeleteMapping(value = "/{normalizedName}/text-analysis/jobs/{jobId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelTextAnalysisJob(@PathVariable String normalizedName,
+                                      @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                      @PathVariable String jobId) {
+        final URI identifier = resolveIdentifier(namespace, normalizedName, NAMESPACE_RESOURCE);
+        resourceService.cancelTextAnalysisJob(resourceService.getRequiredReference(identifier), jobId);
+        LOG.debug("Text analysis job {} cancelled.", jobId);
+    }
+
     /**
      * Gets the latest text analysis record for the specified resource.
      *
@@ -19,16 +19,23 @@ package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.Suggestion;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -43,9 +50,54 @@ public class SearchController extends BaseController {
         this.searchService = searchService;
     }
 
+    /**
+     * Runs full text search.
+     * <p>
+     * Results are paged, the (possibly estimated) total number of matches is returned in the {@link
+     * Constants#X_TOTAL_COUNT_HEADER} response header.
+     *
+     * @param searchString String to search by
+     * @param pageSize     Limit the number of results in the returned page. Optional, defaults to {@link
+     *                     Constants#DEFAULT_SEARCH_PAGE_SIZE}
+     * @param pageNo       Number of the page to return. Optional
+     * @return Page of matching assets
+     */
     @RequestMapping(value = "/fts", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE,
             JsonLd.MEDIA_TYPE})
-    public List<FullTextSearchResult> fullTextSearch(@RequestParam(name = "searchString") String searchString) {
-        return searchService.fullTextSearch(searchString);
+    public ResponseEntity<List<FullTextSearchResult>> fullTextSearch(
+            @RequestParam(name = "searchString") String searchString,
+            @RequestParam(name = QueryParams.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo) {
+        final Page<FullTextSearchResult> result = searchService.fullTextSearch(searchString,
+                createPageRequest(pageSize != null ? pageSize : Constants.DEFAULT_SEARCH_PAGE_SIZE, pageNo));
+        return ResponseEntity.ok().header(Constants.X_TOTAL_COUNT_HEADER, Long.toString(result.getTotalElements()))
+                             .body(result.getContent());
+    }
+
+    /**
+     * Gets typeahead suggestions of terms and vocabularies with a label containing a word starting with the specified
+     * prefix.
+     *
+     * @param prefix               Prefix to look up
+     * @param vocabularyIdFragment Local name of the vocabulary to which the suggestions should be restricted, together
+     *                             with the vocabularies it imports. Optional
+     * @param namespace            Vocabulary identifier namespace. Optional
+     * @param language             Language of the labels. Optional, defaults to the persistence unit language
+     * @param limit                Maximum number of suggestions. Optional, defaults to {@link
+     *                             Constants#DEFAULT_SUGGESTION_COUNT}, capped at {@link
+     *                             ConfigParam#SUGGESTION_MAX_COUNT}
+     * @return Suggestions ordered by popularity
+     */
+    @RequestMapping(value = "/suggest", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Suggestion> suggest(@RequestParam(name = "prefix") String prefix,
+                                    @RequestParam(name = "vocabulary", required = false) String vocabularyIdFragment,
+                                    @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                    @RequestParam(name = "language", required = false) String language,
+                                    @RequestParam(name = "limit", required = false) Integer limit) {
+        final URI vocabulary = vocabularyIdFragment != null ?
+                               resolveIdentifier(namespace, vocabularyIdFragment, ConfigParam.NAMESPACE_VOCABULARY) :
+                               null;
+        return searchService.suggest(prefix, language, vocabulary,
+                limit != null ? limit : Constants.DEFAULT_SUGGESTION_COUNT);
     }
 }
@@ -23,10 +23,15 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
+import cz.cvut.kbss.termit.service.export.util.CachedExportResource;
+import cz.cvut.kbss.termit.service.importer.CsvTermReader;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants.BinaryRdf;
 import cz.cvut.kbss.termit.util.Constants.Excel;
+import cz.cvut.kbss.termit.util.Constants.NTriples;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
+import cz.cvut.kbss.termit.util.Constants.RdfXml;
 import cz.cvut.kbss.termit.util.Constants.Turtle;
 import cz.cvut.kbss.termit.util.CsvUtils;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
@@ -39,11 +44,16 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/")
@@ -66,8 +76,9 @@ public class TermController extends BaseController {
     /**
      * Get all terms from vocabulary with the specified identification.
      * <p>
-     * This method also allows to export the terms into CSV or Excel by using HTTP content type negotiation or filter
-     * terms by a search string.
+     * This method also allows to export the terms into CSV, Excel or SKOS (Turtle, N-Triples, RDF/XML, binary RDF) by
+     * using HTTP content type negotiation or filter terms by a search string. Exports support conditional requests
+     * based on the version of the vocabulary data.
      *
      * @param vocabularyIdFragment Vocabulary name
      * @param namespace            Vocabulary namespace. Optional
@@ -79,39 +90,58 @@ public class TermController extends BaseController {
                     JsonLd.MEDIA_TYPE,
                     CsvUtils.MEDIA_TYPE,
                     Excel.MEDIA_TYPE,
-                    Turtle.MEDIA_TYPE})
+                    Turtle.MEDIA_TYPE,
+                    NTriples.MEDIA_TYPE,
+                    RdfXml.MEDIA_TYPE,
+                    BinaryRdf.MEDIA_TYPE})
     public ResponseEntity<?> getAll(@PathVariable String vocabularyIdFragment,
                                     @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
                                     @RequestParam(name = "searchString", required = false) String searchString,
                                     @RequestParam(name = "includeImported", required = false) boolean includeImported,
-                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptType) {
+                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptType,
+                                    ServletWebRequest webRequest) {
         URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
         if (searchString != null) {
             return ResponseEntity.ok(includeImported ?
                                      termService.findAllIncludingImported(searchString, getVocabulary(vocabularyUri)) :
                                      termService.findAll(searchString, getVocabulary(vocabularyUri)));
         }
-        final Optional<ResponseEntity<?>> export = exportTerms(vocabularyUri, vocabularyIdFragment, acceptType);
-        return export.orElse(ResponseEntity.ok(termService.findAll(getVocabulary(vocabularyUri))));
+        final Optional<TypeAwareResource> export = termService.exportGlossary(getVocabulary(vocabularyUri), acceptType);
+        if (export.isPresent()) {
+            return exportTerms(export.get(), vocabularyIdFragment, acceptType, webRequest);
+        }
+        return ResponseEntity.ok(termService.findAll(getVocabulary(vocabularyUri)));
     }
 
-    private Optional<ResponseEntity<?>> exportTerms(URI vocabularyUri, String vocabularyNormalizedName,
-                                                    String mediaType) {
-        final Optional<TypeAwareResource> content =
-                termService.exportGlossary(getVocabulary(vocabularyUri), mediaType);
-        return content.map(r -> {
-            try {
-                return ResponseEntity.ok()
-                                     .contentLength(r.contentLength())
-                                     .contentType(MediaType.parseMediaType(mediaType))
-                                     .header(HttpHeaders.CONTENT_DISPOSITION,
-                                             "attachment; filename=\"" + vocabularyNormalizedName +
-                                                     r.getFileExtension().orElse("") + "\"")
-                                     .body(r);
-            } catch (IOException e) {
-                throw new TermItException("Unable to export terms.", e);
+    private ResponseEntity<?> exportTerms(TypeAwareResource content, String vocabularyNormalizedName,
+                                          String mediaType, ServletWebRequest webRequest) {
+        try {
+            final ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (content instanceof CachedExportResource) {
+                final CachedExportResource cached = (CachedExportResource) content;
+                // Keep the cached export until the response has been written
+                RequestContextHolder.currentRequestAttributes()
+                                    .registerDestructionCallback(cached.getTag(), cached::release,
+                                            RequestAttributes.SCOPE_REQUEST);
+                final String eTag = "\"" + cached.getTag() + "\"";
+                if (webRequest.checkNotModified(eTag, cached.getVersion())) {
+                    return null;
+                }
+                builder.eTag(eTag).lastModified(cached.getVersion());
+            }
+            builder.contentType(MediaType.parseMediaType(mediaType))
+                   .header(HttpHeaders.CONTENT_DISPOSITION,
+                           "attachment; filename=\"" + vocabularyNormalizedName +
+                                   content.getFileExtension().orElse("") + "\"");
+            // Streamed exports do not know their length in advance
+            final long contentLength = content.contentLength();
+            if (contentLength >= 0) {
+                builder.contentLength(contentLength);
             }
-        });
+            return builder.body(content);
+        } catch (IOException e) {
+            throw new TermItException("Unable to export terms.", e);
+        }
     }
 
     private Vocabulary getVocabulary(URI vocabularyUri) {
@@ -167,6 +197,52 @@ public class TermController extends BaseController {
         return ResponseEntity.created(generateLocation(term.getUri(), ConfigParam.NAMESPACE_VOCABULARY)).build();
     }
 
+    /**
+     * Creates new root terms in the specified vocabulary in one batch.
+     * <p>
+     * Either all the terms are created, or none of them is.
+     *
+     * @param vocabularyIdFragment Vocabulary name
+     * @param namespace            Vocabulary namespace. Optional
+     * @param terms                Terms to create
+     * @return Identifiers of the created terms, in the order in which the terms were submitted
+     * @see #createRootTermsFromCsv(String, String, InputStream)
+     */
+    @PostMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<URI> createRootTerms(@PathVariable String vocabularyIdFragment,
+                                     @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                     @RequestBody List<Term> terms) {
+        return persistRoots(getVocabularyUri(namespace, vocabularyIdFragment), terms);
+    }
+
+    /**
+     * Creates new root terms in the specified vocabulary in one batch, reading them from CSV.
+     * <p>
+     * The CSV uses the same column layout as the CSV export, see {@link CsvTermReader}.
+     *
+     * @param vocabularyIdFragment Vocabulary name
+     * @param namespace            Vocabulary namespace. Optional
+     * @param data                 Request body stream containing the CSV
+     * @return Identifiers of the created terms, in the order of rows in the CSV
+     * @see #createRootTerms(String, String, List)
+     */
+    @PostMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/bulk", consumes = CsvUtils.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<URI> createRootTermsFromCsv(@PathVariable String vocabularyIdFragment,
+                                            @RequestParam(name = QueryParams.NAMESPACE, required = false)
+                                                    String namespace,
+                                            InputStream data) {
+        return persistRoots(getVocabularyUri(namespace, vocabularyIdFragment), CsvTermReader.read(data));
+    }
+
+    private List<URI> persistRoots(URI vocabularyUri, List<Term> terms) {
+        termService.persistRoots(terms, getVocabulary(vocabularyUri));
+        LOG.debug("{} root terms created in vocabulary {}.", terms.size(), vocabularyUri);
+        return terms.stream().map(Term::getUri).collect(Collectors.toList());
+    }
+
     /**
      * Gets term by its identifier fragment and vocabulary in which it is.
      *
@@ -15,10 +15,15 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TermImportReport;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.service.business.ResourceService;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
+import cz.cvut.kbss.termit.service.document.TextAnalysisEngine;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
@@ -45,11 +50,14 @@ public class VocabularyController extends BaseController {
 
     private final VocabularyService vocabularyService;
 
+    private final ResourceService resourceService;
+
     @Autowired
-    public VocabularyController(VocabularyService vocabularyService, IdentifierResolver idResolver,
-                                Configuration config) {
+    public VocabularyController(VocabularyService vocabularyService, ResourceService resourceService,
+                                IdentifierResolver idResolver, Configuration config) {
         super(idResolver, config);
         this.vocabularyService = vocabularyService;
+        this.resourceService = resourceService;
     }
 
     @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
@@ -69,18 +77,50 @@ public class VocabularyController extends BaseController {
 
     /**
      * Allows to import a vocabulary (or its  glossary) from the specified file.
+     * <p>
+     * In delta mode, an existing vocabulary is re-imported and only the difference against its current version is
+     * applied.
+     * <p>
+     * A new vocabulary is imported in batches (see {@link ConfigParam#IMPORT_BATCH_SIZE}), so already imported data
+     * may be visible before the import finishes. If the import fails, data imported so far are removed. Re-import in
+     * delta mode is applied in a single transaction, i.e., the vocabulary remains unchanged if it fails.
      *
-     * @param file File containing data to import
+     * @param file  File containing data to import
+     * @param delta Whether to apply only the difference against the current version of the vocabulary
      */
     @PostMapping("/import")
-    public ResponseEntity<Void> createVocabulary(@RequestParam(name = "file") MultipartFile file) {
-        final Vocabulary vocabulary = vocabularyService.importVocabulary(file);
-        LOG.debug("Vocabulary {} created.", vocabulary);
+    public ResponseEntity<Void> createVocabulary(@RequestParam(name = "file") MultipartFile file,
+                                                 @RequestParam(name = "delta", required = false,
+                                                               defaultValue = "false") boolean delta) {
+        final Vocabulary vocabulary = delta ? vocabularyService.reimportVocabulary(file) :
+                                      vocabularyService.importVocabulary(file);
+        LOG.debug("Vocabulary {} {}.", vocabulary, delta ? "re-imported" : "created");
         final URI location = generateLocation(vocabulary.getUri(), ConfigParam.NAMESPACE_VOCABULARY);
         final String adjustedLocation = location.toString().replace("/import/", "/");
         return ResponseEntity.created(URI.create(adjustedLocation)).build();
     }
 
+    /**
+     * Imports terms from the specified CSV or MS Excel file into the vocabulary with the specified identification.
+     * <p>
+     * The file uses the same column layout as the CSV and MS Excel exports. Rows which cannot be imported are skipped
+     * and listed in the returned report.
+     *
+     * @param fragment  Vocabulary name
+     * @param namespace Vocabulary namespace. Optional
+     * @param file      File containing the terms
+     * @return Report of the import
+     */
+    @PostMapping(value = "/{fragment}/terms/import", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TermImportReport importTerms(@PathVariable String fragment,
+                                        @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                        @RequestParam(name = "file") MultipartFile file) {
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(resolveVocabularyUri(fragment, namespace));
+        final TermImportReport report = vocabularyService.importTerms(vocabulary, file);
+        LOG.debug("Terms imported into vocabulary {}: {}.", vocabulary, report);
+        return report;
+    }
+
     @GetMapping(value = "/{fragment}", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
     public Vocabulary getById(@PathVariable String fragment,
                               @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace) {
@@ -123,6 +163,68 @@ public class VocabularyController extends BaseController {
         LOG.debug("Vocabulary {} updated.", update);
     }
 
+    /**
+     * Schedules asynchronous text analysis of all files whose latest analysis used the specified vocabulary.
+     * <p>
+     * The response is returned immediately, its body contains the scheduled job whose status can be then retrieved
+     * from the location in the response.
+     *
+     * @param fragment  Normalized name used to identify the vocabulary
+     * @param namespace Namespace used for vocabulary identifier resolution. Optional, if not specified, the configured
+     *                  namespace is used
+     * @param force     Whether to analyze files even if neither they nor the vocabulary changed since their latest
+     *                  analysis
+     * @param engine    Text analysis engine to use ({@code REMOTE} or {@code LOCAL}). Optional, if not specified, the
+     *                  configured engine is used
+     * @return The scheduled job
+     */
+    @PostMapping(value = "/{fragment}/text-analysis/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TextAnalysisJob> scheduleTextAnalysis(@PathVariable String fragment,
+                                                                @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                                                @RequestParam(name = "force", required = false, defaultValue = "false") boolean force,
+                                                                @RequestParam(name = "engine", required = false) TextAnalysisEngine engine) {
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(resolveVocabularyUri(fragment, namespace));
+        final TextAnalysisJob job = resourceService.scheduleTextAnalysis(vocabulary, force, engine);
+        LOG.debug("Text analysis of files of vocabulary {} scheduled as job {}.", vocabulary, job.getId());
+        return ResponseEntity.accepted().location(RestUtils.createLocationFromCurrentUriWithPath("/{id}", job.getId()))
+                             .body(job);
+    }
+
+    /**
+     * Gets the current state of a vocabulary text analysis job.
+     *
+     * @param fragment  Normalized name used to identify the vocabulary
+     * @param namespace Namespace used for vocabulary identifier resolution. Optional, if not specified, the configured
+     *                  namespace is used
+     * @param jobId     Job identifier
+     * @return Text analysis job
+     */
+    @GetMapping(value = "/{fragment}/text-analysis/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TextAnalysisJob getTextAnalysisJob(@PathVariable String fragment,
+                                              @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                              @PathVariable String jobId) {
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(resolveVocabularyUri(fragment, namespace));
+        return resourceService.findTextAnalysisJob(vocabulary, jobId);
+    }
+
+    /**
+     * Cancels a vocabulary text analysis job.
+     *
+     * @param fragment  Normalized name used to identify the vocabulary
+     * @param namespace Namespace used for vocabulary identifier resolution. Optional, if not specified, the configured
+     *                  namespace is used
+     * @param jobId     Job identifier
+     */
+    @DeleteMapping(value = "/{fragment}/text-analysis/jobs/{jobId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelTextAnalysisJob(@PathVariable String fragment,
+                                      @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                      @PathVariable String jobId) {
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(resolveVocabularyUri(fragment, namespace));
+        resourceService.cancelTextAnalysisJob(vocabulary, jobId);
+        LOG.debug("Text analysis job {} cancelled.", jobId);
+    }
+
     /**
      * Returns identifier which would be generated by the application for the specified vocabulary name (using the
      * configured namespace).
@@ -109,6 +109,20 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(errorInfo(request, e), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(TextAnalysisJobRejectedException.class)
+    public ResponseEntity<ErrorInfo> textAnalysisJobRejectedException(HttpServletRequest request,
+                                                                      TextAnalysisJobRejectedException e) {
+        logException(e);
+        return new ResponseEntity<>(errorInfo(request, e), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(FileSizeLimitExceededException.class)
+    public ResponseEntity<ErrorInfo> fileSizeLimitExceededException(HttpServletRequest request,
+                                                                    FileSizeLimitExceededException e) {
+        logException(e);
+        return new ResponseEntity<>(errorInfo(request, e), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @ExceptionHandler(TermItException.class)
     public ResponseEntity<ErrorInfo> termItException(HttpServletRequest request,
                                                      TermItException e) {
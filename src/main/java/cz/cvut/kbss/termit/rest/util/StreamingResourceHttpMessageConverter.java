@@ -0,0 +1,51 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link TypeAwareStreamingResource}s directly into the response body as their content is generated.
+ * <p>
+ * The default {@link ResourceHttpMessageConverter} would read the content via {@link Resource#getInputStream()}, which
+ * generates the whole content into memory first. This converter has to be registered before the default one. It
+ * supports only writing of streaming resources, other resources are left to the default converter.
+ */
+public class StreamingResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TypeAwareStreamingResource.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+        ((TypeAwareStreamingResource) resource).writeTo(outputMessage.getBody());
+    }
+}
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
@@ -26,8 +27,11 @@ import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
+import cz.cvut.kbss.termit.service.document.TextAnalysisEngine;
+import cz.cvut.kbss.termit.service.document.TextAnalysisJobManager;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
@@ -58,17 +62,20 @@ public class ResourceService
 
     private final TextAnalysisService textAnalysisService;
 
+    private final TextAnalysisJobManager textAnalysisJobManager;
+
     private final VocabularyService vocabularyService;
 
     private final ChangeRecordService changeRecordService;
 
     @Autowired
     public ResourceService(ResourceRepositoryService repositoryService, DocumentManager documentManager,
-                           TextAnalysisService textAnalysisService, VocabularyService vocabularyService,
-                           ChangeRecordService changeRecordService) {
+                           TextAnalysisService textAnalysisService, TextAnalysisJobManager textAnalysisJobManager,
+                           VocabularyService vocabularyService, ChangeRecordService changeRecordService) {
         this.repositoryService = repositoryService;
         this.documentManager = documentManager;
         this.textAnalysisService = textAnalysisService;
+        this.textAnalysisJobManager = textAnalysisJobManager;
         this.vocabularyService = vocabularyService;
         this.changeRecordService = changeRecordService;
     }
@@ -173,6 +180,23 @@ public class ResourceService
         return documentManager.getAsResource((File) resource);
     }
 
+    /**
+     * Gets hash of the content of the specified resource.
+     * <p>
+     * The hash changes whenever the content changes, so it can be used as the content's entity tag.
+     *
+     * @param resource Resource whose content hash should be retrieved
+     * @return Content hash
+     * @throws UnsupportedAssetOperationException When content of the specified resource cannot be retrieved
+     */
+    public String getContentHash(Resource resource) {
+        Objects.requireNonNull(resource);
+        if (!(resource instanceof File)) {
+            throw new UnsupportedAssetOperationException("Content retrieval is not supported for resource " + resource);
+        }
+        return documentManager.getContentHash((File) resource);
+    }
+
     /**
      * Saves content of the specified resource.
      *
@@ -269,6 +293,98 @@ public class ResourceService
         }
     }
 
+    /**
+     * Schedules asynchronous text analysis of the specified resource's content.
+     * <p>
+     * The analysis is executed in the background and the returned job can be used to track its progress.
+     * <p>
+     * If the specified resource is a {@link Document}, all its files are analyzed in bulk.
+     * <p>
+     * Unless {@code force} is specified, files which did not change since their latest analysis (and neither did the
+     * vocabularies) are skipped.
+     *
+     * @param resource     Resource to analyze
+     * @param vocabularies Set of identifiers of vocabularies to use as Term sources for the analysis. Possibly empty
+     * @param force        Whether to analyze files even if they have not changed since their latest analysis
+     * @param engine       Text analysis engine to use. If {@code null}, the configured one is used
+     * @return The scheduled text analysis job
+     * @throws UnsupportedAssetOperationException If text analysis is not supported for the specified resource
+     * @see #runTextAnalysis(Resource, Set)
+     */
+    public TextAnalysisJob scheduleTextAnalysis(Resource resource, Set<URI> vocabularies, boolean force,
+                                                TextAnalysisEngine engine) {
+        Objects.requireNonNull(resource);
+        Objects.requireNonNull(vocabularies);
+        if (resource instanceof Document) {
+            return scheduleDocumentTextAnalysis((Document) resource, vocabularies, force, engine);
+        }
+        if (!(resource instanceof File)) {
+            throw new UnsupportedAssetOperationException("Text analysis is not supported for resource " + resource);
+        }
+        LOG.trace("Scheduling text analysis of resource {}.", resource);
+        return textAnalysisJobManager.submit((File) resource, vocabularies, force, engine);
+    }
+
+    private TextAnalysisJob scheduleDocumentTextAnalysis(Document document, Set<URI> vocabularies, boolean force,
+                                                         TextAnalysisEngine engine) {
+        LOG.trace("Scheduling bulk text analysis of files in document {}.", document);
+        final Set<URI> sources = vocabularies.isEmpty() && document.getVocabulary() != null ?
+                                 Collections.singleton(document.getVocabulary()) : vocabularies;
+        final Map<File, Set<URI>> files = new LinkedHashMap<>();
+        getFiles(document).forEach(f -> files.put(f, sources));
+        return textAnalysisJobManager.submitBulk(document.getUri(), files, force, engine);
+    }
+
+    /**
+     * Schedules asynchronous text analysis of all files whose latest analysis used the specified vocabulary.
+     * <p>
+     * This allows to refresh term occurrences after the vocabulary has changed. Each file is analyzed with the same
+     * vocabularies as in its latest analysis. Unless {@code force} is specified, files which did not change since
+     * their latest analysis (and neither did the vocabularies) are skipped.
+     *
+     * @param vocabulary Vocabulary whose files to analyze
+     * @param force      Whether to analyze files even if they have not changed since their latest analysis
+     * @param engine     Text analysis engine to use. If {@code null}, the configured one is used
+     * @return The scheduled text analysis job
+     */
+    public TextAnalysisJob scheduleTextAnalysis(Vocabulary vocabulary, boolean force, TextAnalysisEngine engine) {
+        Objects.requireNonNull(vocabulary);
+        LOG.trace("Scheduling bulk text analysis of files analyzed with vocabulary {}.", vocabulary);
+        final Map<File, Set<URI>> files = new LinkedHashMap<>();
+        textAnalysisService.findLatestAnalysisRecords(vocabulary.getUri()).stream()
+                           .filter(r -> r.getAnalyzedResource() instanceof File)
+                           .forEach(r -> files.put((File) r.getAnalyzedResource(), r.getVocabularies()));
+        return textAnalysisJobManager.submitBulk(vocabulary.getUri(), files, force, engine);
+    }
+
+    /**
+     * Gets text analysis job with the specified identifier.
+     *
+     * @param resource Asset (resource or vocabulary) analyzed by the job
+     * @param jobId    Job identifier
+     * @return Matching job
+     * @throws NotFoundException If no such job exists for the specified asset
+     */
+    public TextAnalysisJob findTextAnalysisJob(HasIdentifier resource, String jobId) {
+        Objects.requireNonNull(resource);
+        return textAnalysisJobManager.find(jobId).filter(j -> j.getResource().equals(resource.getUri())).orElseThrow(
+                () -> new NotFoundException("Text analysis job " + jobId + " not found for " + resource));
+    }
+
+    /**
+     * Cancels text analysis job with the specified identifier.
+     *
+     * @param resource Asset (resource or vocabulary) analyzed by the job
+     * @param jobId    Job identifier
+     * @throws NotFoundException If no such job exists for the specified asset
+     */
+    public void cancelTextAnalysisJob(HasIdentifier resource, String jobId) {
+        final TextAnalysisJob job = findTextAnalysisJob(resource, jobId);
+        if (!textAnalysisJobManager.cancel(job.getId())) {
+            LOG.trace("Text analysis job {} already ended, nothing to cancel.", job);
+        }
+    }
+
     /**
      * Gets the latest {@link TextAnalysisRecord} for the specified Resource.
      *
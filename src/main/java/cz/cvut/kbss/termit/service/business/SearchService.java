@@ -18,10 +18,15 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.Suggestion;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.persistence.dao.SuggestionDao;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
 import java.util.List;
 
 @Service
@@ -29,18 +34,38 @@ public class SearchService {
 
     private final SearchDao searchDao;
 
+    private final SuggestionDao suggestionDao;
+
     @Autowired
-    public SearchService(SearchDao searchDao) {
+    public SearchService(SearchDao searchDao, SuggestionDao suggestionDao) {
         this.searchDao = searchDao;
+        this.suggestionDao = suggestionDao;
     }
 
     /**
      * Executes full text search in assets.
      *
      * @param searchString String to search by
-     * @return Matching assets
+     * @param pageSpec     Page specification
+     * @return Page of matching assets, with a (possibly estimated) total number of matches
+     */
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        return searchDao.fullTextSearch(searchString, pageSpec);
+    }
+
+    /**
+     * Finds typeahead suggestions of terms and vocabularies with a label containing a word starting with the specified
+     * prefix.
+     *
+     * @param prefix     Prefix to look up
+     * @param language   Language of the labels. Optional, defaults to the persistence unit language
+     * @param vocabulary Identifier of the vocabulary to which the suggestions should be restricted, together with the
+     *                   vocabularies it (transitively) imports. Optional
+     * @param limit      Maximum number of suggestions, capped at the configured maximum
+     * @return Suggestions ordered by popularity
+     * @see SuggestionDao#suggest(String, String, URI, int)
      */
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        return searchDao.fullTextSearch(searchString);
+    public List<Suggestion> suggest(String prefix, String language, URI vocabulary, int limit) {
+        return suggestionDao.suggest(prefix, language, vocabulary, limit);
     }
 }
@@ -249,6 +249,21 @@ public class TermService implements ChangeRecordProvider<Term> {
         repositoryService.addRootTermToVocabulary(term, owner);
     }
 
+    /**
+     * Persists the specified terms as root terms in the specified vocabulary's glossary.
+     * <p>
+     * All the terms are persisted in a single transaction, either all of them are created or none.
+     *
+     * @param terms Terms to persist
+     * @param owner Vocabulary to add the terms to
+     */
+    @Transactional
+    public void persistRoots(List<Term> terms, Vocabulary owner) {
+        Objects.requireNonNull(terms);
+        Objects.requireNonNull(owner);
+        repositoryService.addRootTermsToVocabulary(terms, owner);
+    }
+
     /**
      * Persists the specified term as a child of the specified parent term.
      *
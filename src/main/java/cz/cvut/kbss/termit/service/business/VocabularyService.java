@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
+import cz.cvut.kbss.termit.dto.TermImportReport;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import org.springframework.web.multipart.MultipartFile;
@@ -49,9 +50,35 @@ public interface VocabularyService
      * <p>
      * The file could be a text file containing RDF, or it could be a ZIP file containing separate vocabulary, glossary
      * and model files.
+     * <p>
+     * Data of a new vocabulary are committed in batches. If the import fails, data imported so far are removed.
      *
      * @param file File from which to import the vocabulary
      * @return The imported vocabulary metadata
      */
     Vocabulary importVocabulary(MultipartFile file);
+
+    /**
+     * Re-imports vocabulary from the specified file, applying only the difference against its current version.
+     * <p>
+     * Only statements which changed are written into the vocabulary context and change records are generated for the
+     * affected terms. Data in the vocabulary context which are not in the file are removed. The difference is applied
+     * in a single transaction.
+     *
+     * @param file File from which to import the vocabulary (same formats as in {@link #importVocabulary(MultipartFile)})
+     * @return The re-imported vocabulary metadata
+     */
+    Vocabulary reimportVocabulary(MultipartFile file);
+
+    /**
+     * Imports terms from the specified CSV or MS Excel file into the specified vocabulary.
+     * <p>
+     * The file uses the same column layout as the CSV and MS Excel vocabulary exports. Rows which cannot be imported
+     * are skipped and reported, they do not abort the import.
+     *
+     * @param vocabulary Vocabulary to import the terms into
+     * @param file       File containing the terms
+     * @return Report of the import
+     */
+    TermImportReport importTerms(Vocabulary vocabulary, MultipartFile file);
 }
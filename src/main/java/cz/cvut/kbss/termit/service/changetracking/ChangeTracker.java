@@ -11,6 +11,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -43,6 +46,28 @@ public class ChangeTracker {
         changeRecordDao.persist(changeRecord, added);
     }
 
+    /**
+     * Records addition of the specified assets to the repository.
+     * <p>
+     * All the records share the same author and timestamp and are written in one batch.
+     *
+     * @param added The added assets
+     */
+    @Transactional
+    public void recordAddEvents(Collection<? extends Asset> added) {
+        Objects.requireNonNull(added);
+        final Instant now = Instant.now();
+        final User user = SecurityUtils.currentUser().toUser();
+        final Map<Asset, AbstractChangeRecord> records = new LinkedHashMap<>(added.size());
+        added.forEach(asset -> {
+            final AbstractChangeRecord changeRecord = new PersistChangeRecord(asset);
+            changeRecord.setAuthor(user);
+            changeRecord.setTimestamp(now);
+            records.put(asset, changeRecord);
+        });
+        changeRecordDao.persistAll(records);
+    }
+
     /**
      * Records an asset update.
      * <p>
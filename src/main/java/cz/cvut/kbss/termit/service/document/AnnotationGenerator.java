@@ -36,7 +36,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -86,13 +88,29 @@ public class AnnotationGenerator {
      */
     @Transactional
     public void generateAnnotations(InputStream content, File source) {
+        generateAnnotations(content, source, new TermExistenceCache());
+    }
+
+    /**
+     * Generates annotations (term occurrences) for terms identified in the specified document.
+     * <p>
+     * This version allows to share term existence checks between multiple documents analyzed with the same
+     * vocabularies.
+     *
+     * @param content   Content of file with identified term occurrences
+     * @param source    Source file of the annotated document
+     * @param termCache Cache of term existence checks
+     */
+    @Transactional
+    public void generateAnnotations(InputStream content, File source, TermExistenceCache termCache) {
         final TermOccurrenceResolver occurrenceResolver = findResolverFor(source);
+        occurrenceResolver.setTermExistenceCache(termCache);
         LOG.debug("Resolving annotations of file {}.", source);
         occurrenceResolver.parseContent(content, source);
         final List<TermOccurrence> occurrences = occurrenceResolver.findTermOccurrences();
         saveOccurrences(occurrences, source);
         generateAssignments(occurrences, source);
-        saveAnnotatedContent(source, occurrenceResolver.getContent());
+        saveAnnotatedContent(source, occurrenceResolver);
         LOG.trace("Finished generating annotations for file {}.", source);
     }
 
@@ -110,7 +128,8 @@ public class AnnotationGenerator {
         LOG.trace("Saving term occurrences for file {}.", source);
         // Bug #928 - Remove old suggested occurrences in one go
         termOccurrenceDao.removeSuggested(source);
-        final List<TermOccurrence> existing = termOccurrenceDao.findAll(source);
+        final Map<URI, List<TermOccurrence>> existing = termOccurrenceDao.findAll(source).stream().collect(
+                Collectors.groupingBy(TermAssignment::getTerm));
         occurrences.stream().filter(o -> isNew(o, existing)).forEach(o -> {
             o.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_navrzeny_vyskyt_termu);
             targetDao.persist(o.getTarget());
@@ -125,17 +144,14 @@ public class AnnotationGenerator {
      * source file, and the target contains at least one equal selector.
      *
      * @param occurrence The supposedly new occurrence to check
-     * @param existing   Existing occurrences relevant to the specified file
+     * @param existing   Existing occurrences relevant to the specified file, grouped by term
      * @return Whether the occurrence is truly new
      */
-    private static boolean isNew(TermOccurrence occurrence, List<TermOccurrence> existing) {
+    private static boolean isNew(TermOccurrence occurrence, Map<URI, List<TermOccurrence>> existing) {
         final OccurrenceTarget target = occurrence.getTarget();
         assert target != null;
         final Set<TermSelector> selectors = target.getSelectors();
-        for (TermOccurrence to : existing) {
-            if (!to.getTerm().equals(occurrence.getTerm())) {
-                continue;
-            }
+        for (TermOccurrence to : existing.getOrDefault(occurrence.getTerm(), Collections.emptyList())) {
             final OccurrenceTarget fileTarget = to.getTarget();
             assert fileTarget != null;
             assert fileTarget.getSource().equals(target.getSource());
@@ -158,7 +174,7 @@ public class AnnotationGenerator {
         assignmentService.addToResourceSuggested(source, termsToAssign);
     }
 
-    private void saveAnnotatedContent(File file, InputStream input) {
-        documentManager.saveFileContent(file, input);
+    private void saveAnnotatedContent(File file, TermOccurrenceResolver resolver) {
+        documentManager.writeFileContent(file, resolver::writeContent);
     }
 }
@@ -0,0 +1,252 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Index of file backups in storage directories.
+ * <p>
+ * There is one index per storage directory, so that backups of a file can be found without listing the directory. The
+ * indexes are stored outside of the indexed directories, one line per backup. Directories without an index (e.g.,
+ * those created by previous versions) are indexed by listing them when first accessed.
+ * <p>
+ * Callers are expected to hold the directory's {@link #lock(Path)} while working with its index.
+ */
+class BackupIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackupIndex.class);
+
+    /**
+     * Directory in the file storage containing the indexes.
+     */
+    static final String INDEX_DIRECTORY = ".backup-index";
+
+    /**
+     * Separates file name from the backup timestamp in backup names.
+     */
+    static final char BACKUP_SEPARATOR = '~';
+
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String UNKNOWN_HASH = "-";
+
+    private final Configuration config;
+
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    BackupIndex(Configuration config) {
+        this.config = config;
+    }
+
+    /**
+     * Gets lock guarding index of the specified directory.
+     *
+     * @param directory Storage directory
+     * @return Lock object
+     */
+    Object lock(Path directory) {
+        return locks.computeIfAbsent(directory.toAbsolutePath(), k -> new Object());
+    }
+
+    private Path indexFile(Path directory) {
+        return Paths.get(config.get(ConfigParam.FILE_STORAGE), INDEX_DIRECTORY)
+                    .resolve(directory.getFileName().toString());
+    }
+
+    /**
+     * Reads backups in the specified directory.
+     *
+     * @param directory Storage directory
+     * @return List of backup entries, in the order in which they were added
+     * @throws IOException If unable to read the index
+     */
+    List<Entry> read(Path directory) throws IOException {
+        final Path index = indexFile(directory);
+        if (!Files.exists(index)) {
+            final List<Entry> entries = scan(directory);
+            write(directory, entries);
+            return entries;
+        }
+        final List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                entries.add(Entry.parse(line));
+            }
+        }
+        return entries;
+    }
+
+    private static List<Entry> scan(Path directory) throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        LOG.debug("Indexing backups in directory {}.", directory);
+        try (final Stream<Path> files = Files.list(directory)) {
+            final Iterator<Path> it = files.iterator();
+            while (it.hasNext()) {
+                final Path p = it.next();
+                final String name = p.getFileName().toString();
+                final int separatorIndex = name.lastIndexOf(BACKUP_SEPARATOR);
+                if (separatorIndex > 0 && !name.endsWith(DefaultDocumentManager.TEMP_FILE_SUFFIX)) {
+                    entries.add(new Entry(name.substring(0, separatorIndex), name,
+                            Files.getLastModifiedTime(p).toMillis(), null));
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::getCreated));
+        return entries;
+    }
+
+    /**
+     * Adds the specified backup entry to index of the specified directory.
+     *
+     * @param directory Storage directory
+     * @param entry     Entry to add
+     * @throws IOException If unable to write the index
+     */
+    void add(Path directory, Entry entry) throws IOException {
+        final Path index = indexFile(directory);
+        if (!Files.exists(index)) {
+            // Index the existing backups first, the new backup is among them already
+            final List<Entry> entries = scan(directory);
+            entries.removeIf(e -> e.getBackupName().equals(entry.getBackupName()));
+            entries.add(entry);
+            write(directory, entries);
+            return;
+        }
+        try (final BufferedWriter writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(entry.toString());
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Replaces index of the specified directory with the specified entries.
+     *
+     * @param directory Storage directory
+     * @param entries   Backup entries
+     * @throws IOException If unable to write the index
+     */
+    void write(Path directory, List<Entry> entries) throws IOException {
+        final Path index = indexFile(directory);
+        Files.createDirectories(index.getParent());
+        final Path temp = Files.createTempFile(index.getParent(), index.getFileName().toString(),
+                DefaultDocumentManager.TEMP_FILE_SUFFIX);
+        try {
+            try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Entry e : entries) {
+                    writer.write(e.toString());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Removes index of the specified directory.
+     *
+     * @param directory Storage directory
+     * @throws IOException If unable to remove the index
+     */
+    void remove(Path directory) throws IOException {
+        Files.deleteIfExists(indexFile(directory));
+        locks.remove(directory.toAbsolutePath());
+    }
+
+    /**
+     * Backup record in the index.
+     */
+    static class Entry {
+
+        private final String fileName;
+        private final String backupName;
+        private final long created;
+        private final String hash;
+
+        Entry(String fileName, String backupName, long created, String hash) {
+            this.fileName = fileName;
+            this.backupName = backupName;
+            this.created = created;
+            this.hash = hash;
+        }
+
+        /**
+         * Name of the backed up file.
+         */
+        String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Name of the backup file.
+         */
+        String getBackupName() {
+            return backupName;
+        }
+
+        /**
+         * Backup creation timestamp, in milliseconds since epoch.
+         */
+        long getCreated() {
+            return created;
+        }
+
+        /**
+         * Hash of the backed up content, {@code null} if not known.
+         */
+        String getHash() {
+            return hash;
+        }
+
+        boolean isCompressed() {
+            return backupName.endsWith(FileBackups.COMPRESSED_EXTENSION);
+        }
+
+        Entry withBackupName(String newName) {
+            return new Entry(fileName, newName, created, hash);
+        }
+
+        private static Entry parse(String line) {
+            final String[] fields = line.split(FIELD_SEPARATOR);
+            return new Entry(fields[0], fields[1], Long.parseLong(fields[2]),
+                    UNKNOWN_HASH.equals(fields[3]) ? null : fields[3]);
+        }
+
+        @Override
+        public String toString() {
+            return fileName + FIELD_SEPARATOR + backupName + FIELD_SEPARATOR + created + FIELD_SEPARATOR +
+                    (hash != null ? hash : UNKNOWN_HASH);
+        }
+    }
+}
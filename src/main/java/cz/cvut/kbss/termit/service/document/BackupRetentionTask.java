@@ -0,0 +1,51 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically applies file backup retention policy.
+ *
+ * @see DefaultDocumentManager#applyBackupRetentionPolicy()
+ * @see ConfigParam#FILE_BACKUP_RETENTION_INTERVAL
+ */
+@Component
+public class BackupRetentionTask implements SchedulingConfigurer {
+
+    private final DefaultDocumentManager documentManager;
+
+    private final Configuration config;
+
+    @Autowired
+    public BackupRetentionTask(DefaultDocumentManager documentManager, Configuration config) {
+        this.documentManager = documentManager;
+        this.config = config;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        final long interval = Long.parseLong(config.get(ConfigParam.FILE_BACKUP_RETENTION_INTERVAL));
+        taskRegistrar.addFixedDelayTask(documentManager::applyBackupRetentionPolicy, interval);
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store of file content versions (backups).
+ * <p>
+ * Content is stored in blobs named by its hash, so identical content is stored only once regardless of how many
+ * versions of how many files refer to it. A version is a hard link to the blob, so creating it does not copy any data.
+ * Blobs no longer referenced by any version are removed by {@link #removeIfUnreferenced(String)} or by the periodic
+ * {@link #removeUnreferenced()}.
+ * <p>
+ * Blobs are created as hard links to the versioned files themselves. This relies on stored files being replaced, not
+ * overwritten in place, when their content changes, which is how {@link DefaultDocumentManager} writes them.
+ * <p>
+ * If the file system does not support hard links (or link counts cannot be determined), versions are plain copies of
+ * the content.
+ */
+class BlobStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStore.class);
+
+    /**
+     * Directory in the file storage containing the blobs.
+     */
+    static final String BLOB_DIRECTORY = ".blobs";
+
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+    private final Configuration config;
+
+    private volatile boolean linksSupported =
+            FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    BlobStore(Configuration config) {
+        this.config = config;
+    }
+
+    private Path blobDirectory() {
+        return Paths.get(config.get(ConfigParam.FILE_STORAGE), BLOB_DIRECTORY);
+    }
+
+    private Path resolveBlob(String hash) {
+        // Shard blobs into subdirectories to keep directory sizes reasonable
+        return blobDirectory().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Creates a version of the specified file.
+     *
+     * @param source  File whose version to create
+     * @param hash    Hash of the file content
+     * @param version Path of the version to create
+     * @throws IOException If unable to create the version, e.g., when it already exists
+     */
+    void createVersion(Path source, String hash, Path version) throws IOException {
+        if (linksSupported) {
+            final Path blob;
+            try {
+                blob = storeBlob(source, hash);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOG.warn("Unable to create hard link in {}, versions of files will be stored as copies.",
+                        blobDirectory(), e);
+                this.linksSupported = false;
+                Files.copy(source, version);
+                return;
+            }
+            LOG.trace("Linking version {} to blob {}.", version, blob);
+            try {
+                Files.createLink(version, blob);
+            } catch (FileAlreadyExistsException e) {
+                throw e;
+            } catch (FileSystemException e) {
+                // E.g., maximum number of links to the blob reached
+                LOG.warn("Unable to link version {} to blob {}, copying the content instead.", version, blob, e);
+                Files.copy(source, version);
+            }
+        } else {
+            Files.copy(source, version);
+        }
+    }
+
+    private Path storeBlob(Path source, String hash) throws IOException {
+        final Path blob = resolveBlob(hash);
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.createLink(blob, source);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently, the content is the same
+                LOG.trace("Blob {} already exists.", blob);
+            }
+        }
+        return blob;
+    }
+
+    /**
+     * Creates a gzip-compressed copy of the specified version.
+     * <p>
+     * The compressed content is stored in a blob as well (if the hash is known), so that it is shared by all
+     * compressed versions with the same content. The content is compressed in a streaming manner.
+     *
+     * @param version           Version to compress
+     * @param hash              Hash of the version content, possibly {@code null}
+     * @param compressedVersion Path of the compressed version to create
+     * @throws IOException If unable to compress the version
+     */
+    void createCompressedVersion(Path version, String hash, Path compressedVersion) throws IOException {
+        if (!linksSupported || hash == null) {
+            compress(version, compressedVersion);
+            return;
+        }
+        final Path blob = resolveBlob(hash + FileBackups.COMPRESSED_EXTENSION);
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            final Path temp = Files.createTempFile(blob.getParent(), hash, DefaultDocumentManager.TEMP_FILE_SUFFIX);
+            try {
+                compress(version, temp);
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                LOG.trace("Blob {} already exists.", blob);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        try {
+            Files.createLink(compressedVersion, blob);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (FileSystemException e) {
+            LOG.warn("Unable to link version {} to blob {}, copying the content instead.", compressedVersion, blob,
+                    e);
+            Files.copy(blob, compressedVersion);
+        }
+    }
+
+    private static void compress(Path source, Path target) throws IOException {
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            Files.copy(source, out);
+        }
+    }
+
+    /**
+     * Removes blobs with the specified content hash (both plain and compressed) if they are no longer referenced by
+     * any file version.
+     *
+     * @param hash Content hash
+     */
+    void removeIfUnreferenced(String hash) {
+        if (!linksSupported) {
+            return;
+        }
+        removeIfUnreferenced(resolveBlob(hash));
+        removeIfUnreferenced(resolveBlob(hash + FileBackups.COMPRESSED_EXTENSION));
+    }
+
+    private static void removeIfUnreferenced(Path blob) {
+        try {
+            if (Files.exists(blob) && ((Number) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE)).intValue() == 1) {
+                LOG.trace("Removing unreferenced blob {}.", blob);
+                Files.delete(blob);
+            }
+        } catch (IOException e) {
+            LOG.error("Unable to remove blob {}.", blob, e);
+        }
+    }
+
+    /**
+     * Removes blobs which are not referenced by any file version.
+     * <p>
+     * This goes through all the blobs, so it should be used only for periodic cleanup.
+     */
+    void removeUnreferenced() {
+        final Path dir = blobDirectory();
+        if (!linksSupported || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (final Stream<Path> blobs = Files.walk(dir, 2)) {
+            blobs.filter(p -> Files.isRegularFile(p) &&
+                    !p.getFileName().toString().endsWith(DefaultDocumentManager.TEMP_FILE_SUFFIX))
+                 .forEach(BlobStore::removeIfUnreferenced);
+        } catch (IOException e) {
+            LOG.error("Unable to remove unreferenced blobs from {}.", dir, e);
+        }
+    }
+}
@@ -17,31 +17,40 @@
  */
 package cz.cvut.kbss.termit.service.document;
 
+import cz.cvut.kbss.termit.exception.FileSizeLimitExceededException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.service.document.util.MediaTypeDetector;
 import cz.cvut.kbss.termit.service.document.util.TypeAwareFileSystemResource;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Default document manager uses files on filesystem to store content.
@@ -51,13 +60,25 @@ public class DefaultDocumentManager implements DocumentManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultDocumentManager.class);
 
-    private final DateFormat dateFormat = new SimpleDateFormat("YYYY-MM-dd_HHmmss");
+    /**
+     * Suffix of temporary files into which content is written before replacing the actual file.
+     */
+    static final String TEMP_FILE_SUFFIX = ".tmp";
+
 
     private final Configuration config;
 
+    /**
+     * Hashes of file content computed when the content was written (or read), keyed by file path.
+     */
+    private final Map<Path, ContentFingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    private final FileBackups backups;
+
     @Autowired
     public DefaultDocumentManager(Configuration config) {
         this.config = config;
+        this.backups = new FileBackups(config);
     }
 
     private java.io.File resolveFile(File file, boolean verifyExists) {
@@ -93,46 +114,196 @@ public class DefaultDocumentManager implements DocumentManager {
     private String getMediaType(File file) {
         final java.io.File content = resolveFile(file, true);
         try {
-            return Files.probeContentType(content.toPath());
+            return getMediaType(content.toPath());
         } catch (IOException e) {
             throw new TermItException("Unable to determine file content type.", e);
         }
     }
 
+    /**
+     * Gets media type of the specified file.
+     * <p>
+     * The media type is detected when the file content is written and remembered until the content changes.
+     */
+    private String getMediaType(Path path) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final ContentFingerprint fingerprint = fingerprints.get(path);
+        if (fingerprint != null && fingerprint.matches(attributes)) {
+            return fingerprint.mediaType;
+        }
+        // Content was modified outside of this manager or the fingerprint is not known (e.g., after restart)
+        final String mediaType = detectMediaType(path);
+        fingerprints.put(path, new ContentFingerprint(attributes, null, mediaType));
+        return mediaType;
+    }
+
+    private static String detectMediaType(Path path) throws IOException {
+        LOG.trace("Detecting media type of {}.", path);
+        final byte[] header = new byte[MediaTypeDetector.HEADER_LENGTH];
+        int length = 0;
+        try (final InputStream in = Files.newInputStream(path)) {
+            int read;
+            while (length < header.length && (read = in.read(header, length, header.length - length)) != -1) {
+                length += read;
+            }
+        }
+        return MediaTypeDetector.detect(header, length, path.getFileName().toString()).orElse(null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The content is streamed into a temporary file, which is synced to disk and then atomically moved over the target
+     * file. Readers thus never see partially written content.
+     *
+     * @throws FileSizeLimitExceededException If the content exceeds {@link ConfigParam#FILE_MAX_SIZE}
+     */
     @Override
     public void saveFileContent(File file, InputStream content) {
+        Objects.requireNonNull(content);
+        final java.io.File target = resolveFile(file, false);
+        Path tempFile = null;
         try {
-            final java.io.File target = resolveFile(file, false);
-            LOG.debug("Saving file content to {}.", target);
             Files.createDirectories(target.getParentFile().toPath());
-            Files.copy(content, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tempFile = Files.createTempFile(target.getParentFile().toPath(), target.getName(), TEMP_FILE_SUFFIX);
+            LOG.debug("Saving file content to {} via temporary file {}.", target, tempFile);
+            final MessageDigest digest = Utils.createContentDigest();
+            try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                final OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest);
+                copyWithLimit(content, out, Long.parseLong(config.get(ConfigParam.FILE_MAX_SIZE)));
+                channel.force(true);
+            }
+            // Replaces the existing file instead of overwriting it, so that backups linked to it remain intact
+            replaceWith(tempFile, target.toPath());
+            tempFile = null;
+            rememberFingerprint(target.toPath(), digest);
         } catch (IOException e) {
             throw new TermItException("Unable to write out file content.", e);
+        } finally {
+            deleteTempFile(tempFile);
+        }
+    }
+
+    private static void copyWithLimit(InputStream in, OutputStream out, long maxSize) throws IOException {
+        final byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (maxSize > 0 && total > maxSize) {
+                throw new FileSizeLimitExceededException(
+                        "File content exceeds the maximum allowed size of " + maxSize + " bytes.");
+            }
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void writeFileContent(File file, Consumer<Writer> contentWriter) {
+        Objects.requireNonNull(contentWriter);
+        final java.io.File target = resolveFile(file, false);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(target.getParentFile().toPath());
+            // Temp file in the same directory, so that it can be atomically moved over the target
+            tempFile = Files.createTempFile(target.getParentFile().toPath(), target.getName(), TEMP_FILE_SUFFIX);
+            LOG.debug("Writing file content to {} via temporary file {}.", target, tempFile);
+            final MessageDigest digest = Utils.createContentDigest();
+            try (final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new DigestOutputStream(Files.newOutputStream(tempFile), digest), StandardCharsets.UTF_8))) {
+                contentWriter.accept(writer);
+            }
+            replaceWith(tempFile, target.toPath());
+            tempFile = null;
+            rememberFingerprint(target.toPath(), digest);
+        } catch (IOException e) {
+            throw new TermItException("Unable to write out file content.", e);
+        } finally {
+            deleteTempFile(tempFile);
+        }
+    }
+
+    private static void replaceWith(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOG.warn("Atomic move not supported by file system, falling back to regular move of {} to {}.", source,
+                    target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            LOG.error("Unable to delete temporary file {}.", tempFile, e);
         }
     }
 
+    private String rememberFingerprint(Path path, MessageDigest digest) throws IOException {
+        final String hash = Utils.toHexString(digest.digest());
+        fingerprints.put(path, new ContentFingerprint(Files.readAttributes(path, BasicFileAttributes.class), hash,
+                detectMediaType(path)));
+        return hash;
+    }
+
+    @Override
+    public String getContentHash(File file) {
+        final Path path = resolveFile(file, true).toPath();
+        try {
+            final ContentFingerprint fingerprint = fingerprints.get(path);
+            if (fingerprint != null && fingerprint.hash != null &&
+                    fingerprint.matches(Files.readAttributes(path, BasicFileAttributes.class))) {
+                return fingerprint.hash;
+            }
+            // Content was modified outside of this manager or the fingerprint is not known (e.g., after restart)
+            LOG.trace("Computing content hash of {}.", path);
+            final MessageDigest digest = Utils.createContentDigest();
+            try (final InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                final byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // Just read through the content
+                }
+            }
+            return rememberFingerprint(path, digest);
+        } catch (IOException e) {
+            throw new TermItException("Unable to compute file content hash.", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Backups are stored in a content-addressed blob store, so backing up content which has already been backed up
+     * (of this or any other file) does not consume additional space. Backup file name consists of the original file
+     * name + ~ + the current time stamp in a predefined format.
+     */
     @Override
     public void createBackup(File file) {
         try {
             final java.io.File toBackup = resolveFile(file, true);
-            final java.io.File backupFile = new java.io.File(
-                    toBackup.getParent() + java.io.File.separator + generateBackupFileName(file));
-            LOG.debug("Backing up file {} to {}.", toBackup, backupFile);
-            Files.copy(toBackup.toPath(), backupFile.toPath());
+            backups.create(toBackup.toPath(), getContentHash(file));
         } catch (IOException e) {
             throw new TermItException("Unable to backup file.", e);
         }
     }
 
     /**
-     * Backup file name consists of the original file name + ~ + the current time stamp in a predefined format
+     * Applies the configured backup retention policy to all stored files.
+     * <p>
+     * Old backups are removed and the retained ones (except for the most recent ones) are compressed.
      *
-     * @param file File for which backup file name should be generated
-     * @return Backup name
+     * @see ConfigParam#FILE_BACKUP_MAX_COUNT
+     * @see ConfigParam#FILE_BACKUP_MAX_AGE
+     * @see ConfigParam#FILE_BACKUP_UNCOMPRESSED_COUNT
      */
-    private String generateBackupFileName(File file) {
-        final String origName = IdentifierResolver.sanitizeFileName(file.getLabel());
-        return origName + "~" + dateFormat.format(new Date());
+    public void applyBackupRetentionPolicy() {
+        backups.applyRetentionPolicy();
     }
 
     @Override
@@ -144,7 +315,7 @@ public class DefaultDocumentManager implements DocumentManager {
     public Optional<String> getContentType(File file) {
         final java.io.File physicalFile = resolveFile(file, true);
         try {
-            return Optional.ofNullable(Files.probeContentType(physicalFile.toPath()));
+            return Optional.ofNullable(getMediaType(physicalFile.toPath()));
         } catch (IOException e) {
             LOG.error("Exception caught when determining content type of file {}.", file, e);
             return Optional.empty();
@@ -168,26 +339,17 @@ public class DefaultDocumentManager implements DocumentManager {
         if (!physicalFile.exists()) {
             return;
         }
-        removeBackups(file, physicalFile);
         physicalFile.delete();
+        fingerprints.remove(physicalFile.toPath());
+        // Remove backups after the file, so that content blobs shared with the file are released as well
+        backups.removeAll(physicalFile.toPath());
         removeParentIfNotInDocument(file, physicalFile);
     }
 
-    private void removeBackups(File file, java.io.File physicalFile) {
-        LOG.trace("Removing backups of file {}.", physicalFile);
-        final String backupStartPattern = IdentifierResolver.sanitizeFileName(file.getLabel()) + "~";
-        final java.io.File[] backups = physicalFile.getParentFile()
-                                                   .listFiles((f, fn) -> fn.startsWith(backupStartPattern));
-        if (backups != null) {
-            for (java.io.File backup : backups) {
-                backup.delete();
-            }
-        }
-    }
-
     private void removeParentIfNotInDocument(File file, java.io.File physicalFile) {
         if (file.getDocument() == null) {
             LOG.trace("Removing directory of document-less file {}.", file);
+            backups.removeDirectory(physicalFile.getParentFile().toPath());
             physicalFile.getParentFile().delete();
         }
     }
@@ -204,7 +366,33 @@ public class DefaultDocumentManager implements DocumentManager {
                     f.delete();
                 }
             }
+            backups.removeDirectory(result.toPath());
             result.delete();
+            fingerprints.keySet().removeIf(p -> p.startsWith(result.toPath()));
+        }
+    }
+
+    /**
+     * Hash and media type of file content, valid as long as the file's size and modification time do not change.
+     * <p>
+     * Hash may be {@code null} when it has not been computed yet.
+     */
+    private static class ContentFingerprint {
+
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+        private final String mediaType;
+
+        private ContentFingerprint(BasicFileAttributes attributes, String hash, String mediaType) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.hash = hash;
+            this.mediaType = mediaType;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
         }
     }
 }
@@ -23,7 +23,9 @@ import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 
 import java.io.InputStream;
+import java.io.Writer;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Manages the physical aspect of documents supported by the system, i.e., mainly the files stored for each document.
@@ -68,6 +70,30 @@ public interface DocumentManager {
      */
     void saveFileContent(File file, InputStream content);
 
+    /**
+     * Saves content produced by the specified writer callback to a physical location represented by the specified
+     * file.
+     * <p>
+     * The content is written in UTF-8 and it replaces the existing content (if any) only after it has been completely
+     * written out, so readers never see partially written content. The writer passed to the callback should not be
+     * closed by it.
+     *
+     * @param file          File representing the physical item
+     * @param contentWriter Callback writing the content into the provided writer
+     */
+    void writeFileContent(File file, Consumer<Writer> contentWriter);
+
+    /**
+     * Gets hash (fingerprint) of the content of the specified file.
+     * <p>
+     * The hash is a hexadecimal string of the SHA-256 digest of the content. It can be used to detect content changes.
+     *
+     * @param file File representing the physical item
+     * @return Content hash
+     * @throws NotFoundException If the file cannot be found
+     */
+    String getContentHash(File file);
+
     /**
      * Creates backup of the specified file.
      * <p>
@@ -0,0 +1,249 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Manages backups of stored files.
+ * <p>
+ * Backups are placed next to the backed up file, their names consist of the file name, {@code ~} and the backup
+ * timestamp. Their content is deduplicated by {@link BlobStore} and they are tracked by {@link BackupIndex}, so that
+ * the storage directories need not be listed.
+ * <p>
+ * Backups are subject to a retention policy (see {@link #applyRetentionPolicy()}), which removes old backups and
+ * compresses the retained ones except for the most recent ones.
+ */
+class FileBackups {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileBackups.class);
+
+    /**
+     * Extension of compressed backups.
+     */
+    static final String COMPRESSED_EXTENSION = ".gz";
+
+    // Thread-safe, backups may be created concurrently by bulk text analysis
+    private static final DateTimeFormatter BACKUP_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss");
+
+    private final Configuration config;
+
+    private final BlobStore blobStore;
+
+    private final BackupIndex index;
+
+    FileBackups(Configuration config) {
+        this.config = config;
+        this.blobStore = new BlobStore(config);
+        this.index = new BackupIndex(config);
+    }
+
+    /**
+     * Creates backup of the specified file.
+     *
+     * @param file Path to the file to back up
+     * @param hash Hash of the file content
+     * @throws IOException If unable to create the backup
+     */
+    void create(Path file, String hash) throws IOException {
+        final Path directory = file.getParent();
+        final String fileName = file.getFileName().toString();
+        synchronized (index.lock(directory)) {
+            final String backupName = fileName + BackupIndex.BACKUP_SEPARATOR +
+                    BACKUP_TIMESTAMP_FORMAT.format(LocalDateTime.now());
+            Path backup = directory.resolve(backupName);
+            // Backups are cheap, so multiple backups may be created within the same second
+            for (int i = 1; Files.exists(backup); i++) {
+                backup = directory.resolve(backupName + "-" + i);
+            }
+            LOG.debug("Backing up file {} to {}.", file, backup);
+            blobStore.createVersion(file, hash, backup);
+            index.add(directory, new BackupIndex.Entry(fileName, backup.getFileName().toString(),
+                    System.currentTimeMillis(), hash));
+        }
+    }
+
+    /**
+     * Removes all backups of the specified file.
+     *
+     * @param file Path to the file whose backups to remove
+     */
+    void removeAll(Path file) {
+        final Path directory = file.getParent();
+        final String fileName = file.getFileName().toString();
+        LOG.trace("Removing backups of file {}.", file);
+        final Set<String> hashes = new HashSet<>();
+        synchronized (index.lock(directory)) {
+            try {
+                final List<BackupIndex.Entry> entries = index.read(directory);
+                final List<BackupIndex.Entry> remaining = new ArrayList<>(entries.size());
+                for (BackupIndex.Entry e : entries) {
+                    if (e.getFileName().equals(fileName)) {
+                        delete(directory, e, hashes);
+                    } else {
+                        remaining.add(e);
+                    }
+                }
+                index.write(directory, remaining);
+            } catch (IOException e) {
+                LOG.error("Unable to remove backups of file {}.", file, e);
+            }
+        }
+        hashes.forEach(blobStore::removeIfUnreferenced);
+    }
+
+    /**
+     * Removes all backups in the specified directory, together with the directory's backup index.
+     *
+     * @param directory Storage directory
+     */
+    void removeDirectory(Path directory) {
+        LOG.trace("Removing backups in directory {}.", directory);
+        final Set<String> hashes = new HashSet<>();
+        synchronized (index.lock(directory)) {
+            try {
+                for (BackupIndex.Entry e : index.read(directory)) {
+                    delete(directory, e, hashes);
+                }
+                index.remove(directory);
+            } catch (IOException e) {
+                LOG.error("Unable to remove backups in directory {}.", directory, e);
+            }
+        }
+        hashes.forEach(blobStore::removeIfUnreferenced);
+    }
+
+    private static void delete(Path directory, BackupIndex.Entry entry, Set<String> hashes) throws IOException {
+        Files.deleteIfExists(directory.resolve(entry.getBackupName()));
+        if (entry.getHash() != null) {
+            hashes.add(entry.getHash());
+        }
+    }
+
+    /**
+     * Applies backup retention policy to all storage directories.
+     * <p>
+     * For each file, backups exceeding {@link ConfigParam#FILE_BACKUP_MAX_COUNT} or older than {@link
+     * ConfigParam#FILE_BACKUP_MAX_AGE} are removed. Retained backups except for the {@link
+     * ConfigParam#FILE_BACKUP_UNCOMPRESSED_COUNT} most recent ones are compressed.
+     */
+    void applyRetentionPolicy() {
+        final Path storage = Paths.get(config.get(ConfigParam.FILE_STORAGE));
+        if (!Files.isDirectory(storage)) {
+            return;
+        }
+        final RetentionPolicy policy = new RetentionPolicy(config);
+        LOG.debug("Applying backup retention policy {} to storage {}.", policy, storage);
+        try (final DirectoryStream<Path> directories = Files.newDirectoryStream(storage,
+                p -> Files.isDirectory(p) && !p.getFileName().toString().startsWith("."))) {
+            for (Path directory : directories) {
+                applyRetentionPolicy(directory, policy);
+            }
+        } catch (IOException e) {
+            LOG.error("Unable to apply backup retention policy to storage {}.", storage, e);
+        }
+        blobStore.removeUnreferenced();
+    }
+
+    private void applyRetentionPolicy(Path directory, RetentionPolicy policy) {
+        final Set<String> hashes = new HashSet<>();
+        synchronized (index.lock(directory)) {
+            try {
+                final List<BackupIndex.Entry> entries = index.read(directory);
+                final Map<String, List<BackupIndex.Entry>> byFile = new HashMap<>();
+                // Iterate from the end, so that the most recent backups come first
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    final BackupIndex.Entry e = entries.get(i);
+                    byFile.computeIfAbsent(e.getFileName(), k -> new ArrayList<>()).add(e);
+                }
+                final Map<BackupIndex.Entry, Optional<BackupIndex.Entry>> changes = new HashMap<>();
+                for (List<BackupIndex.Entry> backups : byFile.values()) {
+                    // Stable sort keeps backups created at the same time in the order of their creation
+                    backups.sort(Comparator.comparingLong(BackupIndex.Entry::getCreated).reversed());
+                    for (int i = 0; i < backups.size(); i++) {
+                        final BackupIndex.Entry e = backups.get(i);
+                        if (policy.isExpired(i, e)) {
+                            LOG.trace("Removing expired backup {}.", e.getBackupName());
+                            delete(directory, e, hashes);
+                            changes.put(e, Optional.empty());
+                        } else if (i >= policy.uncompressedCount && !e.isCompressed()) {
+                            changes.put(e, Optional.of(compress(directory, e)));
+                        }
+                    }
+                }
+                if (!changes.isEmpty()) {
+                    final List<BackupIndex.Entry> retained = new ArrayList<>(entries.size());
+                    for (BackupIndex.Entry e : entries) {
+                        changes.getOrDefault(e, Optional.of(e)).ifPresent(retained::add);
+                    }
+                    index.write(directory, retained);
+                }
+            } catch (IOException e) {
+                LOG.error("Unable to apply backup retention policy to directory {}.", directory, e);
+            }
+        }
+        hashes.forEach(blobStore::removeIfUnreferenced);
+    }
+
+    private BackupIndex.Entry compress(Path directory, BackupIndex.Entry entry) throws IOException {
+        final Path backup = directory.resolve(entry.getBackupName());
+        final BackupIndex.Entry compressed = entry.withBackupName(entry.getBackupName() + COMPRESSED_EXTENSION);
+        LOG.trace("Compressing backup {}.", backup);
+        Files.deleteIfExists(directory.resolve(compressed.getBackupName()));
+        blobStore.createCompressedVersion(backup, entry.getHash(), directory.resolve(compressed.getBackupName()));
+        Files.delete(backup);
+        return compressed;
+    }
+
+    private static final class RetentionPolicy {
+        private final int maxCount;
+        private final Duration maxAge;
+        private final int uncompressedCount;
+        private final long now = System.currentTimeMillis();
+
+        private RetentionPolicy(Configuration config) {
+            this.maxCount = Integer.parseInt(config.get(ConfigParam.FILE_BACKUP_MAX_COUNT));
+            final String age = config.get(ConfigParam.FILE_BACKUP_MAX_AGE, "");
+            this.maxAge = age.isEmpty() ? null : Duration.parse(age);
+            this.uncompressedCount = Integer.parseInt(config.get(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT));
+        }
+
+        private boolean isExpired(int order, BackupIndex.Entry entry) {
+            return (maxCount > 0 && order >= maxCount) ||
+                    (maxAge != null && now - entry.getCreated() > maxAge.toMillis());
+        }
+
+        @Override
+        public String toString() {
+            return "{maxCount=" + maxCount + ", maxAge=" + maxAge + ", uncompressedCount=" + uncompressedCount + '}';
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Caches results of Term existence checks done when resolving term occurrences.
+ * <p>
+ * An instance can be shared by analyses of multiple files (e.g., in a bulk text analysis), so that existence of each
+ * Term is verified only once. Since Terms may be removed, an instance should not outlive such a batch.
+ * <p>
+ * This class is thread-safe.
+ */
+public class TermExistenceCache {
+
+    private final Map<URI, Boolean> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether Term with the specified identifier exists.
+     *
+     * @param termUri Term identifier
+     * @param loader  Performs the actual existence check in case the result is not cached yet
+     * @return Whether the term exists
+     */
+    public boolean exists(URI termUri, Predicate<URI> loader) {
+        Objects.requireNonNull(termUri);
+        return cache.computeIfAbsent(termUri, loader::test);
+    }
+}
@@ -22,8 +22,10 @@ import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 
 import java.io.InputStream;
+import java.io.Writer;
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Base class for resolving term occurrences in an annotated document.
@@ -32,10 +34,24 @@ public abstract class TermOccurrenceResolver {
 
     protected final TermRepositoryService termService;
 
+    private TermExistenceCache termExistenceCache = new TermExistenceCache();
+
     protected TermOccurrenceResolver(TermRepositoryService termService) {
         this.termService = termService;
     }
 
+    /**
+     * Sets cache of term existence checks to use.
+     * <p>
+     * This allows to share the checks between resolvers processing multiple documents analyzed with the same
+     * vocabularies. If not set, each resolver uses its own cache.
+     *
+     * @param termExistenceCache Cache to use
+     */
+    public void setTermExistenceCache(TermExistenceCache termExistenceCache) {
+        this.termExistenceCache = Objects.requireNonNull(termExistenceCache);
+    }
+
     /**
      * Parses the specified input into some abstract representation from which new terms and term occurrences can be
      * extracted.
@@ -48,14 +64,17 @@ public abstract class TermOccurrenceResolver {
     public abstract void parseContent(InputStream input, File source);
 
     /**
-     * Gets the content which was previously parsed and processed by this instance.
+     * Writes out the content which was previously parsed and processed by this instance.
      * <p>
-     * This may return a different data that what was originally passed in {@link #parseContent(InputStream, File)}, as
+     * This may write a different data that what was originally passed in {@link #parseContent(InputStream, File)}, as
      * the processing might have augmented the content.
+     * <p>
+     * The content is written directly into the specified writer, so that it does not have to be buffered in memory.
+     * The writer is not closed by this method.
      *
-     * @return {@code InputStream} with processed content
+     * @param writer Writer to write the processed content into
      */
-    public abstract InputStream getContent();
+    public abstract void writeContent(Writer writer);
 
     /**
      * Finds term occurrences in the input stream.
@@ -75,6 +94,16 @@ public abstract class TermOccurrenceResolver {
      */
     public abstract boolean supports(File source);
 
+    /**
+     * Checks whether a term with the specified identifier exists.
+     *
+     * @param termUri Term identifier
+     * @return Whether the term exists
+     */
+    protected boolean termExists(URI termUri) {
+        return termExistenceCache.exists(termUri, termService::exists);
+    }
+
     protected TermOccurrence createOccurrence(URI termUri) {
         final TermOccurrence occurrence = new TermOccurrence();
         occurrence.setTerm(termUri);
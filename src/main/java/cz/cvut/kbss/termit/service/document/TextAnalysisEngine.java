@@ -0,0 +1,34 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.service.document.dictionary.DictionaryAnnotator;
+
+/**
+ * Engines able to find term occurrences in file content.
+ */
+public enum TextAnalysisEngine {
+    /**
+     * Remote text analysis service.
+     */
+    REMOTE,
+    /**
+     * In-process {@link DictionaryAnnotator}.
+     */
+    LOCAL
+}
@@ -0,0 +1,366 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.exception.TextAnalysisJobRejectedException;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executes text analysis asynchronously, outside of the HTTP request which triggered it.
+ * <p>
+ * Jobs are put into a bounded queue and processed by a fixed-size pool of workers. Each job runs the analysis in its
+ * own transaction (see {@link TextAnalysisService}).
+ * <p>
+ * Bulk jobs analyze multiple files. They fan out to a pool of workers shared by all bulk jobs, so that the files are
+ * analyzed in parallel, each in its own transaction.
+ * <p>
+ * Every analysis, whether of a single job or a file of a bulk job, takes one of {@link
+ * ConfigParam#TEXT_ANALYSIS_MAX_CONCURRENT} permits, which thus caps the number of analyses concurrently running
+ * against the text analysis service.
+ * <p>
+ * Jobs can be queried for their status and cancelled. Finished jobs are kept for {@link #FINISHED_JOB_RETENTION} so
+ * that clients are able to retrieve their result.
+ */
+@Service
+public class TextAnalysisJobManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TextAnalysisJobManager.class);
+
+    /**
+     * How long (in milliseconds) are finished jobs kept available for status queries.
+     */
+    static final long FINISHED_JOB_RETENTION = TimeUnit.HOURS.toMillis(1);
+
+    private final TextAnalysisService textAnalysisService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor bulkExecutor;
+
+    private final Semaphore analysisPermits;
+
+    private final int bulkParallelism;
+
+    private final Map<String, TextAnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    private final Map<String, Future<?>> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TextAnalysisJobManager(TextAnalysisService textAnalysisService, Configuration config) {
+        this.textAnalysisService = textAnalysisService;
+        final int maxConcurrent = Integer.parseInt(config.get(ConfigParam.TEXT_ANALYSIS_MAX_CONCURRENT));
+        final int queueCapacity = Integer.parseInt(config.get(ConfigParam.TEXT_ANALYSIS_QUEUE_CAPACITY));
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory("text-analysis-"));
+        executor.allowCoreThreadTimeOut(true);
+        // More workers than permits would only wait for the permits
+        this.bulkExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new WorkerThreadFactory("text-analysis-bulk-"));
+        bulkExecutor.allowCoreThreadTimeOut(true);
+        this.analysisPermits = new Semaphore(maxConcurrent, true);
+        this.bulkParallelism = Integer.parseInt(config.get(ConfigParam.TEXT_ANALYSIS_BULK_PARALLELISM));
+    }
+
+    /**
+     * Schedules text analysis of the specified file.
+     * <p>
+     * Unless {@code force} is specified, the analysis is skipped if neither the file nor the vocabularies changed since
+     * the latest analysis of the file.
+     *
+     * @param file         File to analyze
+     * @param vocabularies Identifiers of vocabularies to use as sources of Terms. If empty, the vocabulary of the
+     *                     file's document is used
+     * @param force        Whether to analyze the file even if it has not changed
+     * @param engine       Text analysis engine to use. If {@code null}, the configured one is used
+     * @return The scheduled job
+     * @throws TextAnalysisJobRejectedException If the job queue is full
+     */
+    public TextAnalysisJob submit(File file, Set<URI> vocabularies, boolean force, TextAnalysisEngine engine) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(vocabularies);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), file.getUri(), 1);
+        return submit(job, j -> {
+            if (analyze(file, vocabularies, new TermExistenceCache(), force, engine)) {
+                j.itemProcessed();
+            } else {
+                j.itemSkipped();
+            }
+        });
+    }
+
+    /**
+     * Schedules bulk text analysis of the specified files.
+     * <p>
+     * The files are analyzed in parallel (up to {@link ConfigParam#TEXT_ANALYSIS_BULK_PARALLELISM} at a time, within
+     * the overall {@link ConfigParam#TEXT_ANALYSIS_MAX_CONCURRENT} limit), each in its own transaction. Failure to
+     * analyze a file does not stop the job, it is recorded in the job's failures instead. Files analyzed with the same
+     * set of vocabularies share term existence checks. Unless {@code force} is specified, files which did not change
+     * since their latest analysis (and neither did the vocabularies) are skipped.
+     *
+     * @param subject Identifier of the asset (e.g., document, vocabulary) whose files are analyzed
+     * @param files   Files to analyze, mapped to identifiers of vocabularies to use as sources of Terms. An empty set
+     *                means the vocabulary of the file's document is used
+     * @param force   Whether to analyze files even if they have not changed
+     * @param engine  Text analysis engine to use. If {@code null}, the configured one is used
+     * @return The scheduled job
+     * @throws TextAnalysisJobRejectedException If the job queue is full
+     */
+    public TextAnalysisJob submitBulk(URI subject, Map<File, Set<URI>> files, boolean force,
+                                      TextAnalysisEngine engine) {
+        Objects.requireNonNull(subject);
+        Objects.requireNonNull(files);
+        final Map<File, Set<URI>> toAnalyze = new LinkedHashMap<>(files);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), subject, toAnalyze.size());
+        return submit(job, j -> analyzeInParallel(j, toAnalyze, force, engine));
+    }
+
+    private void analyzeInParallel(TextAnalysisJob job, Map<File, Set<URI>> files, boolean force,
+                                   TextAnalysisEngine engine) {
+        // Limits the share of the bulk workers taken by this job
+        final Semaphore inFlight = new Semaphore(bulkParallelism);
+        // Set by the job runner in the current thread
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        final Map<Set<URI>, TermExistenceCache> termCaches = new HashMap<>();
+        final List<Future<?>> futures = new ArrayList<>(files.size());
+        try {
+            for (Map.Entry<File, Set<URI>> e : files.entrySet()) {
+                final File file = e.getKey();
+                final Set<URI> vocabularies = e.getValue();
+                final TermExistenceCache termCache = termCaches
+                        .computeIfAbsent(effectiveVocabularies(file, vocabularies), k -> new TermExistenceCache());
+                inFlight.acquire();
+                futures.add(bulkExecutor.submit(new DelegatingSecurityContextRunnable(() -> {
+                    try {
+                        analyzeBulkItem(job, file, vocabularies, termCache, force, engine, requestAttributes);
+                    } finally {
+                        inFlight.release();
+                    }
+                })));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            LOG.trace("Bulk text analysis job {} interrupted.", job);
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new TermItException("Bulk text analysis failed.", e.getCause());
+        }
+    }
+
+    private static Set<URI> effectiveVocabularies(File file, Set<URI> vocabularies) {
+        if (vocabularies.isEmpty() && file.getDocument() != null && file.getDocument().getVocabulary() != null) {
+            return Collections.singleton(file.getDocument().getVocabulary());
+        }
+        return vocabularies;
+    }
+
+    private void analyzeBulkItem(TextAnalysisJob job, File file, Set<URI> vocabularies, TermExistenceCache termCache,
+                                 boolean force, TextAnalysisEngine engine, RequestAttributes requestAttributes) {
+        if (job.isDone() || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            if (analyze(file, vocabularies, termCache, force, engine)) {
+                job.itemProcessed();
+            } else {
+                job.itemSkipped();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Text analysis of file {} in job {} failed.", file, job, e);
+            job.itemFailed(file.getUri(), e.getMessage());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Analyzes the specified file once one of the analysis permits is available.
+     */
+    private boolean analyze(File file, Set<URI> vocabularies, TermExistenceCache termCache, boolean force,
+                            TextAnalysisEngine engine) {
+        try {
+            analysisPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TermItException("Interrupted while waiting to analyze file " + file + ".", e);
+        }
+        try {
+            return textAnalysisService.analyzeFile(file, vocabularies, termCache, force, engine);
+        } finally {
+            analysisPermits.release();
+        }
+    }
+
+    /**
+     * Schedules the specified job.
+     *
+     * @param job  Job representation used for status tracking
+     * @param work The actual work done by the job
+     * @return The scheduled job
+     * @throws TextAnalysisJobRejectedException If the job queue is full
+     */
+    TextAnalysisJob submit(TextAnalysisJob job, Consumer<TextAnalysisJob> work) {
+        evictExpired();
+        final Runnable task = new DelegatingSecurityContextRunnable(
+                new JobRunner(job, work, retainRequestAttributes()));
+        jobs.put(job.getId(), job);
+        try {
+            running.put(job.getId(), executor.submit(task));
+            if (job.isDone()) {
+                // The job might have ended before its future got registered
+                running.remove(job.getId());
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new TextAnalysisJobRejectedException("Text analysis job queue is full, try again later.", e);
+        }
+        LOG.debug("Scheduled text analysis job {}.", job);
+        return job;
+    }
+
+    /**
+     * Request attributes allow the worker to access session-scoped beans (e.g., the current workspace).
+     * <p>
+     * Accessing the session id makes the attributes remember the session, so that it can be used even after the
+     * request has been completed.
+     */
+    private static RequestAttributes retainRequestAttributes() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.getSessionId();
+        }
+        return attributes;
+    }
+
+    private void evictExpired() {
+        final long threshold = System.currentTimeMillis() - FINISHED_JOB_RETENTION;
+        jobs.values().removeIf(j -> j.isDone() && j.getFinished() != null && j.getFinished().getTime() < threshold);
+    }
+
+    /**
+     * Finds job with the specified identifier.
+     *
+     * @param jobId Job identifier
+     * @return Matching job, if it exists
+     */
+    public Optional<TextAnalysisJob> find(String jobId) {
+        Objects.requireNonNull(jobId);
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Cancels job with the specified identifier.
+     * <p>
+     * A queued job will not be run at all. A running job is interrupted, but note that parts of its work which have
+     * already been committed are not reverted.
+     *
+     * @param jobId Job identifier
+     * @return Whether the job was cancelled. {@code false} is returned if the job does not exist or has already ended
+     */
+    public boolean cancel(String jobId) {
+        final TextAnalysisJob job = jobs.get(jobId);
+        if (job == null || !job.markCancelled()) {
+            return false;
+        }
+        final Future<?> future = running.remove(jobId);
+        if (future != null) {
+            future.cancel(true);
+        }
+        executor.purge();
+        LOG.debug("Cancelled text analysis job {}.", job);
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
+    private class JobRunner implements Runnable {
+
+        private final TextAnalysisJob job;
+        private final Consumer<TextAnalysisJob> work;
+        private final RequestAttributes requestAttributes;
+
+        private JobRunner(TextAnalysisJob job, Consumer<TextAnalysisJob> work, RequestAttributes requestAttributes) {
+            this.job = job;
+            this.work = work;
+            this.requestAttributes = requestAttributes;
+        }
+
+        @Override
+        public void run() {
+            if (!job.markRunning()) {
+                return;
+            }
+            LOG.trace("Running text analysis job {}.", job);
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                work.accept(job);
+                job.markFinished();
+                LOG.debug("Text analysis job {} finished.", job);
+            } catch (RuntimeException e) {
+                LOG.error("Text analysis job {} failed.", job, e);
+                job.markFailed(e.getMessage());
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+                running.remove(job.getId());
+            }
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
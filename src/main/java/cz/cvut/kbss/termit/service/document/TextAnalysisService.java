@@ -17,26 +17,39 @@
  */
 package cz.cvut.kbss.termit.service.document;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import cz.cvut.kbss.termit.dto.TextAnalysisInput;
+import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
 import cz.cvut.kbss.termit.exception.WebServiceIntegrationException;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
+import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
+import cz.cvut.kbss.termit.service.document.dictionary.DictionaryAnnotator;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.*;
 
 @Service
@@ -54,14 +67,25 @@ public class TextAnalysisService {
 
     private final TextAnalysisRecordDao recordDao;
 
+    private final VocabularyDao vocabularyDao;
+
+    private final DictionaryAnnotator dictionaryAnnotator;
+
+    private final ObjectMapper objectMapper;
+
     @Autowired
     public TextAnalysisService(RestTemplate restClient, Configuration config, DocumentManager documentManager,
-                               AnnotationGenerator annotationGenerator, TextAnalysisRecordDao recordDao) {
+                               AnnotationGenerator annotationGenerator, TextAnalysisRecordDao recordDao,
+                               VocabularyDao vocabularyDao, DictionaryAnnotator dictionaryAnnotator,
+                               @Qualifier("objectMapper") ObjectMapper objectMapper) {
         this.restClient = restClient;
         this.config = config;
         this.documentManager = documentManager;
         this.annotationGenerator = annotationGenerator;
         this.recordDao = recordDao;
+        this.vocabularyDao = vocabularyDao;
+        this.dictionaryAnnotator = dictionaryAnnotator;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -69,6 +93,8 @@ public class TextAnalysisService {
      * terms from the vocabulary associated with parent document of the specified file in the text.
      * <p>
      * The analysis result is passed to the term occurrence generator.
+     * <p>
+     * The configured text analysis engine is used, see {@link ConfigParam#TEXT_ANALYSIS_ENGINE}.
      *
      * @param file File whose content shall be analyzed
      * @see #analyzeFile(File, Set)
@@ -81,50 +107,150 @@ public class TextAnalysisService {
             throw new UnsupportedAssetOperationException("Cannot analyze file without specifying vocabulary context.");
         }
         input.addVocabularyContext(file.getDocument().getVocabulary());
-        invokeTextAnalysisService(file, input);
+        invokeTextAnalysisService(file, input, resolveVocabularyVersion(input.getVocabularyContexts()), null,
+                defaultEngine());
     }
 
+    private TextAnalysisEngine defaultEngine() {
+        return TextAnalysisEngine.valueOf(config.get(ConfigParam.TEXT_ANALYSIS_ENGINE).trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Creates text analysis input without content.
+     * <p>
+     * The content is streamed from the file directly into the request body, see {@link
+     * #writeRequestBody(TextAnalysisInput, TypeAwareResource, OutputStream)}.
+     */
     private TextAnalysisInput createAnalysisInput(File file) {
         final TextAnalysisInput input = new TextAnalysisInput();
-        input.setContent(documentManager.loadFileContent(file));
         input.setVocabularyRepository(URI.create(config.get(ConfigParam.REPOSITORY_URL)));
         input.setLanguage(config.get(ConfigParam.LANGUAGE));
         return input;
     }
 
-    private void invokeTextAnalysisService(File file, TextAnalysisInput input) {
-        final HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE);
+    /**
+     * Resolves version stamp of the specified vocabularies, i.e., the latest of their last modification timestamps.
+     *
+     * @see VocabularyDao#getLastModified(URI)
+     */
+    private Instant resolveVocabularyVersion(Collection<URI> vocabularies) {
+        final OptionalLong latest = vocabularies.stream().mapToLong(vocabularyDao::getLastModified).max();
+        return latest.isPresent() ? Instant.ofEpochMilli(latest.getAsLong()) : null;
+    }
+
+    private void invokeTextAnalysisService(File file, TextAnalysisInput input, Instant vocabularyVersion,
+                                           TermExistenceCache termCache, TextAnalysisEngine engine) {
+        if (engine == TextAnalysisEngine.LOCAL) {
+            invokeDictionaryAnnotator(file, input, vocabularyVersion, termCache);
+            return;
+        }
+        // Resolve the content before the invocation, so that missing file is not reported as service failure
+        final TypeAwareResource content = documentManager.getAsResource(file);
         try {
-            LOG.debug("Invoking text analysis on input: {}", input);
-            final ResponseEntity<Resource> resp = restClient
-                    .exchange(config.get(ConfigParam.TEXT_ANALYSIS_SERVICE_URL), HttpMethod.POST,
-                            new HttpEntity<>(input, headers), Resource.class);
-            if (!resp.hasBody()) {
-                throw new WebServiceIntegrationException("Text analysis service returned empty response.");
-            }
-            assert resp.getBody() != null;
-            documentManager.createBackup(file);
-            final Resource resource = resp.getBody();
-            try (final InputStream is = resource.getInputStream()) {
-                annotationGenerator.generateAnnotations(is, file);
-            }
-            storeTextAnalysisRecord(file, input);
+            LOG.debug("Invoking text analysis of file {} on input: {}", file, input);
+            restClient.execute(config.get(ConfigParam.TEXT_ANALYSIS_SERVICE_URL), HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_XML));
+                writeRequestBody(request, input, content);
+            }, response -> {
+                // Parse the result directly from the response stream. The stream is closed together with the response
+                final InputStream is = new BufferedInputStream(response.getBody());
+                is.mark(1);
+                if (is.read() == -1) {
+                    throw new WebServiceIntegrationException("Text analysis service returned empty response.");
+                }
+                is.reset();
+                documentManager.createBackup(file);
+                generateAnnotations(is, file, termCache);
+                return null;
+            });
+            storeTextAnalysisRecord(file, input, vocabularyVersion);
         } catch (WebServiceIntegrationException e) {
             throw e;
         } catch (RuntimeException e) {
             throw new WebServiceIntegrationException("Text analysis invocation failed.", e);
+        }
+    }
+
+    private void generateAnnotations(InputStream content, File file, TermExistenceCache termCache) {
+        if (termCache != null) {
+            annotationGenerator.generateAnnotations(content, file, termCache);
+        } else {
+            annotationGenerator.generateAnnotations(content, file);
+        }
+    }
+
+    /**
+     * Finds term occurrences using the in-process {@link DictionaryAnnotator} instead of the remote service.
+     * <p>
+     * The annotated content is streamed into the file (replacing its content once completely written) and the
+     * annotations are then generated from the stored file, so the content is never held in memory.
+     */
+    private void invokeDictionaryAnnotator(File file, TextAnalysisInput input, Instant vocabularyVersion,
+                                           TermExistenceCache termCache) {
+        final TypeAwareResource content = documentManager.getAsResource(file);
+        LOG.debug("Running dictionary annotation of file {} on input: {}", file, input);
+        documentManager.createBackup(file);
+        documentManager.writeFileContent(file, writer -> {
+            try (final InputStream is = content.getInputStream()) {
+                dictionaryAnnotator.annotate(is, input.getVocabularyContexts(), vocabularyVersion, writer);
+            } catch (IOException e) {
+                throw new AnnotationGenerationException("Unable to annotate content of file " + file, e);
+            }
+        });
+        try (final InputStream is = documentManager.getAsResource(file).getInputStream()) {
+            generateAnnotations(is, file, termCache);
         } catch (IOException e) {
-            throw new WebServiceIntegrationException("Unable to read text analysis result from response.", e);
+            throw new AnnotationGenerationException("Unable to read annotated content of file " + file, e);
+        }
+        storeTextAnalysisRecord(file, input, vocabularyVersion);
+    }
+
+    private void writeRequestBody(ClientHttpRequest request, TextAnalysisInput input, TypeAwareResource content)
+            throws IOException {
+        if (request instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) request).setBody(out -> writeRequestBody(input, content, out));
+        } else {
+            writeRequestBody(input, content, request.getBody());
         }
     }
 
-    private void storeTextAnalysisRecord(File file, TextAnalysisInput config) {
+    /**
+     * Writes JSON representation of the specified input into the specified stream.
+     * <p>
+     * The content to analyze is streamed (and escaped) from the file, so that it does not have to be held in memory.
+     * The result is the same as if the input containing the content was serialized.
+     */
+    private void writeRequestBody(TextAnalysisInput input, TypeAwareResource content, OutputStream out)
+            throws IOException {
+        final ObjectNode fields = objectMapper.valueToTree(input);
+        final JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (final Reader reader = new InputStreamReader(content.getInputStream(), StandardCharsets.UTF_8)) {
+            generator.writeStartObject();
+            generator.writeFieldName("content");
+            generator.writeString(reader, -1);
+            final Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+            while (it.hasNext()) {
+                final Map.Entry<String, JsonNode> field = it.next();
+                generator.writeFieldName(field.getKey());
+                objectMapper.writeTree(generator, field.getValue());
+            }
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+    }
+
+    private void storeTextAnalysisRecord(File file, TextAnalysisInput config, Instant vocabularyVersion) {
         LOG.trace("Creating record of text analysis event for file {}.", file);
         assert config.getVocabularyContexts() != null;
 
         final TextAnalysisRecord record = new TextAnalysisRecord(new Date(), file);
         record.setVocabularies(new HashSet<>(config.getVocabularyContexts()));
+        // Hash of the content after annotations have been written into it
+        record.setContentHash(documentManager.getContentHash(file));
+        record.setVocabularyVersion(vocabularyVersion);
         recordDao.persist(record);
     }
 
@@ -143,7 +269,66 @@ public class TextAnalysisService {
         Objects.requireNonNull(file);
         final TextAnalysisInput input = createAnalysisInput(file);
         input.setVocabularyContexts(vocabularyContexts);
-        invokeTextAnalysisService(file, input);
+        invokeTextAnalysisService(file, input, resolveVocabularyVersion(vocabularyContexts), null, defaultEngine());
+    }
+
+    /**
+     * Passes the content of the specified file to the remote text analysis service, unless neither the file content
+     * nor the vocabularies have changed since the latest analysis of the file.
+     * <p>
+     * The file is considered unchanged if the latest {@link TextAnalysisRecord} of the file has the same content hash,
+     * set of vocabularies and vocabulary version stamp. The {@code force} flag disables this check.
+     * <p>
+     * Term existence checks are shared with other analyses using the same cache. This is intended for analysis of
+     * multiple files using the same set of vocabularies.
+     *
+     * @param file               File whose content shall be analyzed
+     * @param vocabularyContexts Identifiers of repository contexts containing vocabularies intended for text analysis.
+     *                           If empty, vocabulary of the file's document is used
+     * @param termCache          Cache of term existence checks shared by the analyses
+     * @param force              Whether to analyze the file even if it has not changed since the latest analysis
+     * @param engine             Text analysis engine to use. If {@code null}, the configured one is used
+     * @return {@code true} if the file was analyzed, {@code false} if the analysis was skipped
+     * @see #analyzeFile(File, Set)
+     */
+    @Transactional
+    public boolean analyzeFile(File file, Set<URI> vocabularyContexts, TermExistenceCache termCache, boolean force,
+                               TextAnalysisEngine engine) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(vocabularyContexts);
+        Objects.requireNonNull(termCache);
+        final Set<URI> vocabularies;
+        if (vocabularyContexts.isEmpty()) {
+            if (file.getDocument() == null || file.getDocument().getVocabulary() == null) {
+                throw new UnsupportedAssetOperationException(
+                        "Cannot analyze file without specifying vocabulary context.");
+            }
+            vocabularies = Collections.singleton(file.getDocument().getVocabulary());
+        } else {
+            vocabularies = vocabularyContexts;
+        }
+        final Instant vocabularyVersion = resolveVocabularyVersion(vocabularies);
+        if (!force && isUpToDate(file, vocabularies, vocabularyVersion)) {
+            LOG.debug("Neither file {} nor vocabularies {} changed since the latest analysis, skipping it.", file,
+                    vocabularies);
+            return false;
+        }
+        final TextAnalysisInput input = createAnalysisInput(file);
+        input.setVocabularyContexts(new HashSet<>(vocabularies));
+        invokeTextAnalysisService(file, input, vocabularyVersion, termCache,
+                engine != null ? engine : defaultEngine());
+        return true;
+    }
+
+    private boolean isUpToDate(File file, Set<URI> vocabularies, Instant vocabularyVersion) {
+        final Optional<TextAnalysisRecord> latest = recordDao.findLatest(file);
+        if (!latest.isPresent() || latest.get().getContentHash() == null) {
+            return false;
+        }
+        final TextAnalysisRecord record = latest.get();
+        return Objects.equals(record.getVocabularies(), vocabularies) &&
+                Objects.equals(record.getVocabularyVersion(), vocabularyVersion) &&
+                record.getContentHash().equals(documentManager.getContentHash(file));
     }
 
     /**
@@ -155,4 +340,15 @@ public class TextAnalysisService {
     public Optional<TextAnalysisRecord> findLatestAnalysisRecord(cz.cvut.kbss.termit.model.resource.Resource resource) {
         return recordDao.findLatest(resource);
     }
+
+    /**
+     * Gets the latest {@link TextAnalysisRecord}s of resources whose most recent analysis used the specified
+     * vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of the latest analysis records
+     */
+    public List<TextAnalysisRecord> findLatestAnalysisRecords(URI vocabulary) {
+        return recordDao.findLatestByVocabulary(vocabulary);
+    }
 }
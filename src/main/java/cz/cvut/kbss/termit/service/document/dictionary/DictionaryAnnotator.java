@@ -0,0 +1,271 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.dictionary;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Annotates occurrences of term labels in HTML documents without calling the remote text analysis service.
+ * <p>
+ * Labels of terms from the selected vocabularies are compiled into a {@link LabelDictionary}, which is cached until the
+ * vocabularies change. Text of the document is scanned in one pass and the occurrences are marked with RDFa in the
+ * same format as produced by the text analysis service, so that the result can be processed by {@link
+ * cz.cvut.kbss.termit.service.document.html.HtmlTermOccurrenceResolver}.
+ * <p>
+ * Words are compared in lower case and, if a {@link Lemmatizer} is available, in their base form.
+ */
+@Service
+public class DictionaryAnnotator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DictionaryAnnotator.class);
+
+    private static final String TERM_OCCURRENCE_TYPE = Vocabulary.s_c_vyskyt_termu;
+    // Property used by the text analysis service. It is in the same namespace as the term occurrence class
+    private static final String TERM_OCCURRENCE_PROPERTY =
+            TERM_OCCURRENCE_TYPE.substring(0, TERM_OCCURRENCE_TYPE.lastIndexOf('/') + 1) + "je-výskytem-termu";
+
+    private static final String BLANK_NODE_PREFIX = "_:d";
+
+    // Attribute read by the occurrence resolver, occurrences without a score do not produce term assignments
+    private static final String SCORE_ATTRIBUTE = "score";
+
+    /**
+     * Score of a dictionary match. Labels are matched exactly (up to case and lemmatization)
+     */
+    static final double EXACT_MATCH_SCORE = 1.0;
+
+    private static final Set<String> IGNORED_ELEMENTS = new HashSet<>(
+            Arrays.asList("head", "script", "style", "textarea", "code", "pre"));
+
+    private final TermDao termDao;
+
+    private final Configuration config;
+
+    private Lemmatizer lemmatizer;
+
+    private final Map<Set<URI>, CachedDictionary> dictionaries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Set<URI>, CompletableFuture<CachedDictionary>> inProgress = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DictionaryAnnotator(TermDao termDao, Configuration config) {
+        this.termDao = termDao;
+        this.config = config;
+    }
+
+    @Autowired(required = false)
+    public void setLemmatizer(Lemmatizer lemmatizer) {
+        this.lemmatizer = lemmatizer;
+    }
+
+    /**
+     * Annotates occurrences of terms from the specified vocabularies in the specified HTML content.
+     * <p>
+     * Text already annotated with RDFa is left untouched.
+     *
+     * @param input             HTML content to annotate
+     * @param vocabularies      Identifiers of vocabularies whose terms to look for
+     * @param vocabularyVersion Version stamp of the vocabularies, used to invalidate cached dictionaries. Possibly
+     *                          {@code null}
+     * @param output            Writer into which the annotated content is written
+     * @throws IOException If unable to read the input or write the output
+     */
+    public void annotate(InputStream input, Set<URI> vocabularies, Instant vocabularyVersion, Writer output)
+            throws IOException {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(vocabularies);
+        Objects.requireNonNull(output);
+        final LabelDictionary dictionary = getDictionary(vocabularies, vocabularyVersion);
+        final Document document = Jsoup.parse(input, StandardCharsets.UTF_8.name(), "");
+        final Set<String> usedIds = new HashSet<>();
+        document.getElementsByAttribute(Constants.RDFa.ABOUT).forEach(e -> usedIds.add(e.attr(Constants.RDFa.ABOUT)));
+        final List<TextNode> textNodes = new ArrayList<>();
+        collectTextNodes(document, textNodes);
+        int counter = 0;
+        int occurrences = 0;
+        for (TextNode node : textNodes) {
+            final String text = node.getWholeText();
+            final List<LabelDictionary.Match> matches = dictionary.findMatches(text);
+            if (matches.isEmpty()) {
+                continue;
+            }
+            int position = 0;
+            for (LabelDictionary.Match m : matches) {
+                if (m.getStart() > position) {
+                    node.before(new TextNode(text.substring(position, m.getStart())));
+                }
+                String id;
+                do {
+                    id = BLANK_NODE_PREFIX + counter++;
+                } while (usedIds.contains(id));
+                node.before(createOccurrence(id, m.getTerm(), text.substring(m.getStart(), m.getEnd())));
+                position = m.getEnd();
+            }
+            if (position < text.length()) {
+                node.before(new TextNode(text.substring(position)));
+            }
+            node.remove();
+            occurrences += matches.size();
+        }
+        LOG.trace("Annotated {} term occurrences.", occurrences);
+        document.html(output);
+        output.flush();
+    }
+
+    private static void collectTextNodes(Node node, List<TextNode> result) {
+        for (Node child : node.childNodes()) {
+            if (child instanceof TextNode) {
+                if (!((TextNode) child).isBlank()) {
+                    result.add((TextNode) child);
+                }
+            } else if (child instanceof Element && !isIgnored((Element) child)) {
+                collectTextNodes(child, result);
+            }
+        }
+    }
+
+    private static boolean isIgnored(Element element) {
+        // Elements with the about attribute are existing RDFa annotations
+        return IGNORED_ELEMENTS.contains(element.tagName()) || element.hasAttr(Constants.RDFa.ABOUT);
+    }
+
+    private static Element createOccurrence(String id, URI term, String text) {
+        final Element element = new Element("span");
+        element.attr(Constants.RDFa.ABOUT, id);
+        element.attr(Constants.RDFa.PROPERTY, TERM_OCCURRENCE_PROPERTY);
+        element.attr(Constants.RDFa.RESOURCE, term.toString());
+        element.attr(Constants.RDFa.TYPE, TERM_OCCURRENCE_TYPE);
+        element.attr(SCORE_ATTRIBUTE, Double.toString(EXACT_MATCH_SCORE));
+        element.text(text);
+        return element;
+    }
+
+    /**
+     * Gets dictionary of labels of terms from the specified vocabularies.
+     * <p>
+     * The dictionary is rebuilt only if the version of the vocabularies differs from the version of the cached one.
+     * Concurrent requests for the same vocabularies share a single build.
+     *
+     * @param vocabularies      Vocabulary identifiers
+     * @param vocabularyVersion Version stamp of the vocabularies
+     * @return Label dictionary
+     */
+    LabelDictionary getDictionary(Set<URI> vocabularies, Instant vocabularyVersion) {
+        final Set<URI> key = Collections.unmodifiableSet(new HashSet<>(vocabularies));
+        while (true) {
+            final CachedDictionary cached = dictionaries.get(key);
+            if (cached != null && Objects.equals(cached.version, vocabularyVersion)) {
+                return cached.dictionary;
+            }
+            final CompletableFuture<CachedDictionary> future = new CompletableFuture<>();
+            final CompletableFuture<CachedDictionary> existing = inProgress.putIfAbsent(key, future);
+            if (existing != null) {
+                LOG.trace("Waiting for label dictionary of vocabularies {} being built by another analysis.", key);
+                final CachedDictionary built = await(existing);
+                if (Objects.equals(built.version, vocabularyVersion)) {
+                    return built.dictionary;
+                }
+                // Built for a different version, try again
+                continue;
+            }
+            try {
+                // The dictionary might have been stored by a build which finished in the meantime
+                CachedDictionary built = dictionaries.get(key);
+                if (built == null || !Objects.equals(built.version, vocabularyVersion)) {
+                    built = new CachedDictionary(vocabularyVersion, buildDictionary(key));
+                    dictionaries.put(key, built);
+                }
+                future.complete(built);
+                return built.dictionary;
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inProgress.remove(key);
+            }
+        }
+    }
+
+    private static CachedDictionary await(CompletableFuture<CachedDictionary> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TermItException("Unable to build label dictionary.", e.getCause());
+        }
+    }
+
+    private LabelDictionary buildDictionary(Set<URI> vocabularies) {
+        LOG.debug("Building label dictionary of vocabularies {}.", vocabularies);
+        final Map<String, URI> labels = new HashMap<>();
+        for (URI vocabulary : vocabularies) {
+            for (TermInfo ti : termDao.findAllLabels(vocabulary)) {
+                labels.merge(ti.getLabel(), ti.getUri(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        final String language = config.get(ConfigParam.LANGUAGE);
+        final Locale locale = Locale.forLanguageTag(language);
+        final Lemmatizer lem = lemmatizer;
+        final LabelDictionary dictionary = new LabelDictionary(labels, word -> {
+            final String normalized = Normalizer.normalize(word, Normalizer.Form.NFC).toLowerCase(locale);
+            return lem != null ? lem.lemmatize(normalized, language) : normalized;
+        });
+        LOG.debug("Label dictionary of vocabularies {} contains {} labels.", vocabularies, dictionary.size());
+        return dictionary;
+    }
+
+    private static class CachedDictionary {
+        private final Instant version;
+        private final LabelDictionary dictionary;
+
+        private CachedDictionary(Instant version, LabelDictionary dictionary) {
+            this.version = version;
+            this.dictionary = dictionary;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.dictionary;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionary of term labels allowing to find their occurrences in text.
+ * <p>
+ * The labels are compiled into an Aho-Corasick automaton over normalized words, so all occurrences of all labels are
+ * found in a single pass over the text, regardless of the number of labels. Matching is done on whole words only.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public class LabelDictionary {
+
+    private final Node root = new Node(0);
+
+    private final UnaryOperator<String> normalizer;
+
+    private final int size;
+
+    /**
+     * Creates a dictionary of the specified labels.
+     *
+     * @param labels     Map of labels to identifiers of terms they denote
+     * @param normalizer Normalizes words of labels and analyzed text (e.g., case folding, lemmatization)
+     */
+    public LabelDictionary(Map<String, URI> labels, UnaryOperator<String> normalizer) {
+        this.normalizer = Objects.requireNonNull(normalizer);
+        int count = 0;
+        for (Map.Entry<String, URI> e : labels.entrySet()) {
+            if (add(e.getKey(), e.getValue())) {
+                count++;
+            }
+        }
+        this.size = count;
+        buildFailureLinks();
+    }
+
+    private boolean add(String label, URI term) {
+        final List<Token> tokens = tokenize(label);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        Node node = root;
+        for (Token t : tokens) {
+            final Node parent = node;
+            node = node.children.computeIfAbsent(t.word, k -> new Node(parent.depth + 1));
+        }
+        // Prefer the same term regardless of the order in which ambiguous labels are added
+        if (node.term == null || term.compareTo(node.term) < 0) {
+            node.term = term;
+        }
+        return true;
+    }
+
+    private void buildFailureLinks() {
+        final Deque<Node> queue = new ArrayDeque<>();
+        root.children.values().forEach(child -> {
+            child.failure = root;
+            queue.add(child);
+        });
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            for (Map.Entry<String, Node> e : node.children.entrySet()) {
+                final Node child = e.getValue();
+                Node failure = node.failure;
+                while (failure != root && !failure.children.containsKey(e.getKey())) {
+                    failure = failure.failure;
+                }
+                child.failure = failure.children.getOrDefault(e.getKey(), root);
+                child.output = child.failure.term != null ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Number of distinct labels in this dictionary.
+     *
+     * @return Dictionary size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds occurrences of the labels of this dictionary in the specified text.
+     * <p>
+     * Overlapping occurrences are resolved by preferring the leftmost and then the longest one.
+     *
+     * @param text Text to search
+     * @return List of non-overlapping matches ordered by their position in text
+     */
+    public List<Match> findMatches(String text) {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        final List<Token> tokens = tokenize(text);
+        final List<Match> candidates = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < tokens.size(); i++) {
+            final String word = tokens.get(i).word;
+            while (node != root && !node.children.containsKey(word)) {
+                node = node.failure;
+            }
+            node = node.children.getOrDefault(word, root);
+            for (Node out = node.term != null ? node : node.output; out != null; out = out.output) {
+                final Token first = tokens.get(i - out.depth + 1);
+                candidates.add(new Match(first.start, tokens.get(i).end, out.term));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Match::getStart).thenComparing(m -> -m.getEnd()));
+        final List<Match> result = new ArrayList<>(candidates.size());
+        int lastEnd = -1;
+        for (Match m : candidates) {
+            if (m.getStart() >= lastEnd) {
+                result.add(m);
+                lastEnd = m.getEnd();
+            }
+        }
+        return result;
+    }
+
+    private List<Token> tokenize(String text) {
+        final List<Token> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(new Token(normalizer.apply(text.substring(start, i)), start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static class Token {
+        private final String word;
+        private final int start;
+        private final int end;
+
+        private Token(String word, int start, int end) {
+            this.word = word;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private final int depth;
+        private Node failure;
+        // Nearest node on the failure path which represents a label
+        private Node output;
+        private URI term;
+
+        private Node(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Occurrence of a label in text.
+     */
+    public static class Match {
+
+        private final int start;
+        private final int end;
+        private final URI term;
+
+        public Match(int start, int end, URI term) {
+            this.start = start;
+            this.end = end;
+            this.term = term;
+        }
+
+        /**
+         * Index of the first character of the occurrence in text.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Index following the last character of the occurrence in text.
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * Identifier of the term denoted by the matched label.
+         */
+        public URI getTerm() {
+            return term;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Match)) {
+                return false;
+            }
+            Match match = (Match) o;
+            return start == match.start && end == match.end && Objects.equals(term, match.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end, term);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" + start + "-" + end + ", term=" + term + '}';
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.dictionary;
+
+/**
+ * Reduces words to their base form, so that inflected occurrences of term labels can be matched.
+ * <p>
+ * If a bean implementing this interface is available, it is used by the {@link DictionaryAnnotator} both for term
+ * labels and for the analyzed text. Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface Lemmatizer {
+
+    /**
+     * Gets lemma of the specified word.
+     *
+     * @param word     Word (token) to lemmatize, already lower-cased
+     * @param language Language of the word
+     * @return Lemma of the word, the word itself if it cannot be lemmatized
+     */
+    String lemmatize(String word, String language);
+}
@@ -18,7 +18,6 @@
 package cz.cvut.kbss.termit.service.document.html;
 
 import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
-import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.OccurrenceTarget;
 import cz.cvut.kbss.termit.model.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.File;
@@ -27,6 +26,7 @@ import cz.cvut.kbss.termit.service.document.TermOccurrenceResolver;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.util.Constants;
 import org.jsoup.Jsoup;
+import org.jsoup.SerializationException;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -38,10 +38,9 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MimeTypeUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -87,12 +86,13 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
     }
 
     @Override
-    public InputStream getContent() {
+    public void writeContent(Writer writer) {
         assert document != null;
         try {
-            return new ByteArrayInputStream(document.toString().getBytes(StandardCharsets.UTF_8.name()));
-        } catch (UnsupportedEncodingException e) {
-            throw new TermItException("Fatal error, unable to find encoding UTF-8.", e);
+            // Serialize directly into the writer instead of building the whole document as a String
+            document.html(writer);
+        } catch (SerializationException e) {
+            throw new AnnotationGenerationException("Unable to write out annotated document.", e);
         }
     }
 
@@ -179,7 +179,7 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
             return Optional.empty();
         }
         final URI termUri = URI.create(termId);
-        if (!termService.exists(termUri)) {
+        if (!termExists(termUri)) {
             throw new AnnotationGenerationException(
                     "Term with id " + termId + " denoted by RDFa element " + rdfaElem + " not found.");
         }
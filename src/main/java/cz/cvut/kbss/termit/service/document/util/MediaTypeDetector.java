@@ -0,0 +1,128 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.util;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Detects media type of file content.
+ * <p>
+ * The detection is based on the leading bytes of the content (magic numbers of common binary formats, markup of HTML
+ * and XML documents). When the content is not recognized, media type is determined from the file name extension.
+ */
+public class MediaTypeDetector {
+
+    /**
+     * Number of leading content bytes sufficient for media type detection.
+     */
+    public static final int HEADER_LENGTH = 512;
+
+    private static final String PDF_MEDIA_TYPE = "application/pdf";
+    private static final String ZIP_MEDIA_TYPE = "application/zip";
+
+    private static final byte[] PDF_SIGNATURE = ascii("%PDF-");
+    private static final byte[] ZIP_SIGNATURE = {'P', 'K', 3, 4};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF87_SIGNATURE = ascii("GIF87a");
+    private static final byte[] GIF89_SIGNATURE = ascii("GIF89a");
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private static final String[] HTML_PREFIXES = {"<!doctype html", "<html", "<head", "<body", "<title", "<meta",
+                                                   "<div", "<p", "<h1", "<table"};
+    private static final String XML_PREFIX = "<?xml";
+
+    private MediaTypeDetector() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Detects media type of content with the specified leading bytes.
+     *
+     * @param header   Leading bytes of the content, at most {@link #HEADER_LENGTH} are considered
+     * @param length   Number of valid bytes in {@code header}
+     * @param fileName Name of the file containing the content, used when the content is not recognized
+     * @return Detected media type, empty if it cannot be determined
+     */
+    public static Optional<String> detect(byte[] header, int length, String fileName) {
+        final Optional<String> byExtension = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString);
+        if (startsWith(header, length, 0, PDF_SIGNATURE)) {
+            return Optional.of(PDF_MEDIA_TYPE);
+        }
+        if (startsWith(header, length, 0, ZIP_SIGNATURE)) {
+            // Office documents, EPUBs etc. are ZIP archives, only the extension can tell them apart
+            return Optional.of(byExtension.orElse(ZIP_MEDIA_TYPE));
+        }
+        if (startsWith(header, length, 0, PNG_SIGNATURE)) {
+            return Optional.of(MediaType.IMAGE_PNG_VALUE);
+        }
+        if (startsWith(header, length, 0, JPEG_SIGNATURE)) {
+            return Optional.of(MediaType.IMAGE_JPEG_VALUE);
+        }
+        if (startsWith(header, length, 0, GIF87_SIGNATURE) || startsWith(header, length, 0, GIF89_SIGNATURE)) {
+            return Optional.of(MediaType.IMAGE_GIF_VALUE);
+        }
+        final String text = leadingText(header, length);
+        for (String prefix : HTML_PREFIXES) {
+            if (text.startsWith(prefix) && isTagEnd(text, prefix.length())) {
+                return Optional.of(MimeTypeUtils.TEXT_HTML_VALUE);
+            }
+        }
+        if (text.startsWith(XML_PREFIX)) {
+            // XHTML documents are XML, let the extension decide whether the document should be treated as (X)HTML
+            return Optional.of(byExtension.filter(t -> t.contains("xml") || t.contains("html"))
+                                          .orElse(MimeTypeUtils.APPLICATION_XML_VALUE));
+        }
+        return byExtension;
+    }
+
+    private static byte[] ascii(String str) {
+        return str.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        if (length - offset < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String leadingText(byte[] header, int length) {
+        final int limit = Math.min(length, HEADER_LENGTH);
+        int start = startsWith(header, limit, 0, UTF8_BOM) ? UTF8_BOM.length : 0;
+        while (start < limit && Character.isWhitespace(header[start])) {
+            start++;
+        }
+        return new String(header, start, limit - start, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTagEnd(String text, int index) {
+        return index < text.length() && (text.charAt(index) == '>' || Character.isWhitespace(text.charAt(index)));
+    }
+}
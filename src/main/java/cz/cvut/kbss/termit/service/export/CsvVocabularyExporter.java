@@ -19,18 +19,30 @@ package cz.cvut.kbss.termit.service.export;
 
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 import static cz.cvut.kbss.termit.util.CsvUtils.FILE_EXTENSION;
 import static cz.cvut.kbss.termit.util.CsvUtils.MEDIA_TYPE;
 
+/**
+ * Exports vocabulary glossary as UTF-8 encoded CSV.
+ * <p>
+ * The export is streamed, terms are read from a single query result and written out one by one, so that large
+ * vocabularies can be exported without holding all their terms in memory.
+ */
 @Service("csv")
 public class CsvVocabularyExporter implements VocabularyExporter {
 
@@ -44,10 +56,26 @@ public class CsvVocabularyExporter implements VocabularyExporter {
     @Override
     public TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        final StringBuilder export = new StringBuilder(String.join(",", Term.EXPORT_COLUMNS));
-        final List<Term> terms = termService.findAll(vocabulary);
-        terms.forEach(t -> export.append('\n').append(t.toCsv()));
-        return new TypeAwareByteArrayResource(export.toString().getBytes(), MEDIA_TYPE, FILE_EXTENSION);
+        return new TypeAwareStreamingResource(out -> writeGlossary(vocabulary, out), MEDIA_TYPE, FILE_EXTENSION);
+    }
+
+    private void writeGlossary(Vocabulary vocabulary, OutputStream out) throws IOException {
+        // Not closing the writer, the stream is owned by the caller
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", Term.EXPORT_COLUMNS));
+        try {
+            termService.forEach(vocabulary, t -> {
+                try {
+                    writer.write('\n');
+                    writer.write(t.toCsv());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
     }
 
     @Override
@@ -17,21 +17,20 @@
  */
 package cz.cvut.kbss.termit.service.export;
 
-import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
 import java.util.Objects;
 
 import static cz.cvut.kbss.termit.util.Constants.Excel.FILE_EXTENSION;
@@ -39,6 +38,9 @@ import static cz.cvut.kbss.termit.util.Constants.Excel.MEDIA_TYPE;
 
 /**
  * Supports vocabulary export to MS Excel format
+ * <p>
+ * The workbook is generated in streaming mode, only a window of the most recent rows is kept in memory, the rest is
+ * flushed into compressed temporary files. Terms are read one by one from a single query result.
  */
 @Service("excel")
 public class ExcelVocabularyExporter implements VocabularyExporter {
@@ -48,6 +50,11 @@ public class ExcelVocabularyExporter implements VocabularyExporter {
      */
     static final String SHEET_NAME = "Glossary";
 
+    /**
+     * Number of rows kept in memory during workbook generation
+     */
+    static final int ROW_WINDOW_SIZE = 100;
+
     private final TermRepositoryService termService;
 
     @Autowired
@@ -58,15 +65,22 @@ public class ExcelVocabularyExporter implements VocabularyExporter {
     @Override
     public TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        try (final XSSFWorkbook wb = new XSSFWorkbook()) {
+        return new TypeAwareStreamingResource(out -> writeGlossary(vocabulary, out), MEDIA_TYPE, FILE_EXTENSION);
+    }
+
+    private void writeGlossary(Vocabulary vocabulary, OutputStream out) throws IOException {
+        final SXSSFWorkbook wb = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+        try {
+            wb.setCompressTempFiles(true);
             final Sheet sheet = wb.createSheet(SHEET_NAME);
             generateHeaderRow(sheet);
-            generateTermRows(termService.findAll(vocabulary), sheet);
-            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            wb.write(bos);
-            return new TypeAwareByteArrayResource(bos.toByteArray(), MEDIA_TYPE, FILE_EXTENSION);
-        } catch (IOException e) {
-            throw new TermItException("Unable to generate excel file from glossary of " + vocabulary, e);
+            generateTermRows(vocabulary, sheet);
+            // The stream is owned by the caller
+            wb.write(StreamUtils.nonClosing(out));
+        } finally {
+            // Removes the temporary files
+            wb.dispose();
+            wb.close();
         }
     }
 
@@ -77,12 +91,10 @@ public class ExcelVocabularyExporter implements VocabularyExporter {
         }
     }
 
-    private static void generateTermRows(List<Term> terms, Sheet sheet) {
+    private void generateTermRows(Vocabulary vocabulary, Sheet sheet) {
         // Row no. 0 is the header
-        for (int i = 0; i < terms.size(); i++) {
-            final Row row = sheet.createRow(i + 1);
-            terms.get(i).toExcel(row);
-        }
+        final int[] rowNumber = {1};
+        termService.forEach(vocabulary, t -> t.toExcel(sheet.createRow(rowNumber[0]++)));
     }
 
     @Override
@@ -0,0 +1,333 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.export;
+
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.PersistenceUtils;
+import cz.cvut.kbss.termit.service.export.util.CachedExportResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.service.repository.VocabularyRepositoryService;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * On-disk cache of vocabulary glossary exports.
+ * <p>
+ * Exports are keyed by the vocabulary (including the repository context it is stored in), the target media type and
+ * the version of the vocabulary data, given by the last modification timestamp of the vocabulary and its terms.
+ * Changes to the data thus make the existing entries of the vocabulary unreachable, they are eventually evicted, least
+ * recently used first, when the total size of the cache exceeds {@link ConfigParam#EXPORT_CACHE_MAX_SIZE}.
+ * <p>
+ * Exports returned by the cache are leased until they are released (see {@link CachedExportResource#release()}).
+ * Files of evicted exports are deleted only after all their leases have been released, so the cache may temporarily
+ * occupy more space than the limit.
+ * <p>
+ * Concurrent requests for the same export share a single generation.
+ * <p>
+ * The cache is stored in the {@link #CACHE_DIRECTORY} of the file storage. The data version is not persistent, so the
+ * cache is cleared on startup.
+ */
+@Service
+public class ExportCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportCache.class);
+
+    /**
+     * Name of the file storage subdirectory containing the cached exports
+     */
+    static final String CACHE_DIRECTORY = ".export-cache";
+
+    private final VocabularyRepositoryService vocabularyService;
+    private final PersistenceUtils persistenceUtils;
+    private final Configuration config;
+
+    /**
+     * Cached exports in access order, i.e., the least recently used first
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize;
+
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inProgress = new ConcurrentHashMap<>();
+
+    private volatile Path directory;
+
+    @Autowired
+    public ExportCache(VocabularyRepositoryService vocabularyService, PersistenceUtils persistenceUtils,
+                       Configuration config) {
+        this.vocabularyService = vocabularyService;
+        this.persistenceUtils = persistenceUtils;
+        this.config = config;
+    }
+
+    /**
+     * Gets export of the specified vocabulary's glossary in the specified media type.
+     * <p>
+     * If the export of the current version of the vocabulary data is not cached, it is generated using the specified
+     * generator and stored in the cache. If the cache is disabled, the generated export is returned directly.
+     * <p>
+     * Cached exports are returned as {@link CachedExportResource}s, which have to be released when they are no longer
+     * needed.
+     *
+     * @param vocabulary Exported vocabulary
+     * @param mediaType  Media type of the export
+     * @param generator  Generates the export
+     * @return Exported glossary
+     */
+    public TypeAwareResource get(Vocabulary vocabulary, String mediaType, Supplier<TypeAwareResource> generator) {
+        if (getMaxSize() <= 0) {
+            return generator.get();
+        }
+        // Read the version before the export is generated, so that concurrent changes result in a new version
+        final long version = vocabularyService.getLastModified(vocabulary);
+        final String key = createKey(vocabulary, mediaType, version);
+        while (true) {
+            Entry entry = lookup(key);
+            if (entry == null) {
+                entry = generate(key, generator);
+            }
+            if (lease(entry)) {
+                final Entry leased = entry;
+                return new CachedExportResource(entry.file, entry.mediaType, entry.fileExtension, key, version,
+                        () -> release(leased));
+            }
+            // The export has been evicted and deleted before it could be leased, get it again
+        }
+    }
+
+    private String createKey(Vocabulary vocabulary, String mediaType, long version) {
+        final MessageDigest digest = Utils.createContentDigest();
+        final String key = persistenceUtils.resolveVocabularyContext(vocabulary.getUri()) + "\n" +
+                vocabulary.getUri() + "\n" + mediaType + "\n" + version;
+        return Utils.toHexString(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private boolean lease(Entry entry) {
+        synchronized (entries) {
+            if (entry.deleted) {
+                return false;
+            }
+            entry.leases++;
+            return true;
+        }
+    }
+
+    private void release(Entry entry) {
+        synchronized (entries) {
+            entry.leases--;
+            if (entry.evicted && entry.leases == 0) {
+                delete(entry);
+            }
+        }
+    }
+
+    private Entry generate(String key, Supplier<TypeAwareResource> generator) {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final CompletableFuture<Entry> existing = inProgress.putIfAbsent(key, future);
+        if (existing != null) {
+            LOG.trace("Waiting for export {} being generated by another request.", key);
+            return await(existing);
+        }
+        try {
+            // The export might have been stored by a generation which finished in the meantime
+            Entry entry = lookup(key);
+            if (entry == null) {
+                entry = store(key, generator.get());
+            }
+            future.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inProgress.remove(key);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TermItException("Unable to generate export.", e.getCause());
+        }
+    }
+
+    private Entry store(String key, TypeAwareResource export) {
+        LOG.debug("Generating export {}.", key);
+        try {
+            // Each generation gets its own file, so that files of evicted, but still leased, entries are never reused
+            final Path file = Files.createTempFile(getDirectory(), key + "-", ".export");
+            try {
+                try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    if (export instanceof TypeAwareStreamingResource) {
+                        ((TypeAwareStreamingResource) export).writeTo(out);
+                    } else {
+                        try (final InputStream in = export.getInputStream()) {
+                            StreamUtils.copy(in, out);
+                        }
+                    }
+                }
+                final Entry entry = new Entry(file, Files.size(file), export.getMediaType().orElse(null),
+                        export.getFileExtension().orElse(null));
+                register(key, entry);
+                return entry;
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new TermItException("Unable to store export in cache.", e);
+        }
+    }
+
+    private void register(String key, Entry entry) {
+        synchronized (entries) {
+            final Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalSize -= previous.size;
+                discard(previous);
+            }
+            totalSize += entry.size;
+            evict(key);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits into its size limit.
+     * <p>
+     * The most recently added entry is never evicted. Files of leased entries are deleted when the last lease is
+     * released.
+     */
+    private void evict(String keep) {
+        final long maxSize = getMaxSize();
+        final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalSize > maxSize && it.hasNext()) {
+            final Map.Entry<String, Entry> e = it.next();
+            if (e.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            final Entry entry = e.getValue();
+            totalSize -= entry.size;
+            LOG.trace("Evicting export {} from cache.", e.getKey());
+            discard(entry);
+        }
+    }
+
+    /**
+     * Marks the specified entry as removed from the cache and deletes its file, unless the entry is leased.
+     */
+    private static void discard(Entry entry) {
+        entry.evicted = true;
+        if (entry.leases == 0) {
+            delete(entry);
+        }
+    }
+
+    private static void delete(Entry entry) {
+        entry.deleted = true;
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            LOG.warn("Unable to delete evicted export {}.", entry.file, e);
+        }
+    }
+
+    private long getMaxSize() {
+        return Long.parseLong(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE));
+    }
+
+    private Path getDirectory() throws IOException {
+        if (directory == null) {
+            synchronized (this) {
+                if (directory == null) {
+                    final Path dir = Paths.get(config.get(ConfigParam.FILE_STORAGE), CACHE_DIRECTORY);
+                    Files.createDirectories(dir);
+                    clear(dir);
+                    this.directory = dir;
+                }
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Removes exports left over from previous runs, they cannot be matched to the current data version.
+     */
+    private static void clear(Path dir) throws IOException {
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                Files.deleteIfExists(f);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Path file;
+        private final long size;
+        private final String mediaType;
+        private final String fileExtension;
+
+        // Guarded by the entries map lock
+        private int leases;
+        private boolean evicted;
+        private boolean deleted;
+
+        private Entry(Path file, long size, String mediaType, String fileExtension) {
+            this.file = file;
+            this.size = size;
+            this.mediaType = mediaType;
+            this.fileExtension = fileExtension;
+        }
+    }
+}
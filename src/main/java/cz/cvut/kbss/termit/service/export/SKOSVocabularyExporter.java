@@ -1,28 +1,41 @@
 package cz.cvut.kbss.termit.service.export;
 
+import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSExporter;
-import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.util.Constants.Turtle;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
-
-import static cz.cvut.kbss.termit.util.Constants.Turtle;
+import java.util.Optional;
 
 /**
  * Exports vocabulary glossary in a SKOS-compatible format.
+ * <p>
+ * Turtle, N-Triples, RDF/XML and binary RDF serializations are supported. The export is streamed, i.e., it is written
+ * directly into the target output stream as it is being retrieved from the repository.
  */
 @Service("skos")
 public class SKOSVocabularyExporter implements VocabularyExporter {
 
     private static final Logger LOG = LoggerFactory.getLogger(SKOSVocabularyExporter.class);
 
+    /**
+     * RDF serialization formats supported by this exporter
+     */
+    static final List<RDFFormat> SUPPORTED_FORMATS = Collections.unmodifiableList(
+            Arrays.asList(RDFFormat.TURTLE, RDFFormat.NTRIPLES, RDFFormat.RDFXML, RDFFormat.BINARY));
+
     private final ApplicationContext context;
 
     @Autowired
@@ -37,21 +50,40 @@ public class SKOSVocabularyExporter implements VocabularyExporter {
         return context.getBean(SKOSExporter.class);
     }
 
+    /**
+     * Exports the glossary of the specified vocabulary in Turtle.
+     *
+     * @param vocabulary Vocabulary whose glossary should be exported
+     * @return IO resource representing the exported glossary
+     */
     @Override
-    @Transactional
     public TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary) {
+        return exportVocabularyGlossary(vocabulary, Turtle.MEDIA_TYPE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The data are retrieved only when the returned resource is written out, using a repository connection opened by
+     * the resource itself.
+     */
+    @Override
+    public TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary, String mediaType) {
         Objects.requireNonNull(vocabulary);
-        LOG.debug("Exporting glossary of vocabular {} to SKOS.", vocabulary);
+        final RDFFormat format = resolveFormat(mediaType).orElseThrow(
+                () -> new UnsupportedOperationException("Unsupported SKOS export media type " + mediaType));
+        LOG.debug("Exporting glossary of vocabulary {} to SKOS as {}.", vocabulary, format.getName());
         final SKOSExporter skosExporter = getSKOSExporter();
-        LOG.trace("Exporting glossary.");
-        skosExporter.exportGlossaryInstance(vocabulary);
-        LOG.trace("Exporting terms.");
-        skosExporter.exportGlossaryTerms(vocabulary);
-        return new TypeAwareByteArrayResource(skosExporter.exportAsTtl(), Turtle.MEDIA_TYPE, Turtle.FILE_EXTENSION);
+        return new TypeAwareStreamingResource(out -> skosExporter.exportGlossary(vocabulary, format, out),
+                format.getDefaultMIMEType(), "." + format.getDefaultFileExtension());
+    }
+
+    private static Optional<RDFFormat> resolveFormat(String mediaType) {
+        return mediaType != null ? RDFFormat.matchMIMEType(mediaType, SUPPORTED_FORMATS) : Optional.empty();
     }
 
     @Override
     public boolean supports(String mediaType) {
-        return Objects.equals(Turtle.MEDIA_TYPE, mediaType);
+        return resolveFormat(mediaType).isPresent();
     }
 }
@@ -35,6 +35,20 @@ public interface VocabularyExporter {
      */
     TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary);
 
+    /**
+     * Gets a resource representation of the specified vocabulary's glossary in the specified media type.
+     * <p>
+     * This is useful for exporters supporting multiple media types. By default, the media type is ignored.
+     *
+     * @param vocabulary Vocabulary whose glossary should be exported
+     * @param mediaType  Target media type for the export, supported by this exporter
+     * @return IO resource representing the exported glossary
+     * @see #supports(String)
+     */
+    default TypeAwareResource exportVocabularyGlossary(Vocabulary vocabulary, String mediaType) {
+        return exportVocabularyGlossary(vocabulary);
+    }
+
     /**
      * Checks whether this exporter supports the specified media type.
      *
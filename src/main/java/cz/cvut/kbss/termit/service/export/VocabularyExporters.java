@@ -31,15 +31,20 @@ public class VocabularyExporters {
 
     private final List<VocabularyExporter> exporters;
 
+    private final ExportCache cache;
+
     @Autowired
-    public VocabularyExporters(List<VocabularyExporter> exporters) {
+    public VocabularyExporters(List<VocabularyExporter> exporters, ExportCache cache) {
         this.exporters = exporters;
+        this.cache = cache;
     }
 
     /**
      * Exports glossary of the specified vocabulary as the specified media type (if supported).
      * <p>
      * If the media type is not supported, an empty {@link Optional} is returned.
+     * <p>
+     * Exports are cached, so they are generated only when the vocabulary data change.
      *
      * @param vocabulary Vocabulary to export
      * @param mediaType  Target media type
@@ -49,6 +54,7 @@ public class VocabularyExporters {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(mediaType);
         final Optional<VocabularyExporter> exporter = exporters.stream().filter(e -> e.supports(mediaType)).findFirst();
-        return exporter.map(e -> e.exportVocabularyGlossary(vocabulary));
+        return exporter.map(
+                e -> cache.get(vocabulary, mediaType, () -> e.exportVocabularyGlossary(vocabulary, mediaType)));
     }
 }
@@ -0,0 +1,102 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.export.util;
+
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Vocabulary export stored in the export cache.
+ * <p>
+ * Besides the content, it provides information identifying the version of data the export was generated from, so that
+ * it can be used to handle conditional requests.
+ * <p>
+ * The underlying file is leased from the cache, which keeps it until the resource is {@link #release() released}.
+ * Therefore, the resource has to be released once it is no longer needed (e.g., when the response has been sent).
+ */
+public class CachedExportResource extends FileSystemResource implements TypeAwareResource {
+
+    private final String mediaType;
+    private final String fileExtension;
+    private final String tag;
+    private final long version;
+    private final Runnable onRelease;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    public CachedExportResource(Path file, String mediaType, String fileExtension, String tag, long version) {
+        this(file, mediaType, fileExtension, tag, version, () -> {
+        });
+    }
+
+    public CachedExportResource(Path file, String mediaType, String fileExtension, String tag, long version,
+                                Runnable onRelease) {
+        super(file);
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+        this.tag = Objects.requireNonNull(tag);
+        this.version = version;
+        this.onRelease = Objects.requireNonNull(onRelease);
+    }
+
+    /**
+     * Releases the lease of the underlying file, allowing the cache to delete it when it is evicted.
+     * <p>
+     * Content of the resource should not be read after it has been released. Repeated calls have no effect.
+     */
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            onRelease.run();
+        }
+    }
+
+    /**
+     * Gets a tag uniquely identifying this export, including the version of the exported data.
+     * <p>
+     * Suitable as an entity tag.
+     *
+     * @return Export tag
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Gets timestamp of the last modification of the exported data.
+     *
+     * @return Timestamp in millis since epoch
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Optional<String> getMediaType() {
+        return Optional.ofNullable(mediaType);
+    }
+
+    @Override
+    public Optional<String> getFileExtension() {
+        return Optional.ofNullable(fileExtension);
+    }
+}
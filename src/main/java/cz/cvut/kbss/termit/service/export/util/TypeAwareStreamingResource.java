@@ -0,0 +1,116 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.export.util;
+
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resource whose content is generated on demand by writing it into an output stream.
+ * <p>
+ * This allows to stream large content (e.g., vocabulary exports) directly to its destination without keeping it in
+ * memory. Consumers aware of this resource type should use {@link #writeTo(OutputStream)}, {@link #getInputStream()}
+ * has to generate the whole content into memory first.
+ * <p>
+ * Content length is not known in advance, so {@link #contentLength()} returns {@code -1}.
+ */
+public class TypeAwareStreamingResource extends AbstractResource implements TypeAwareResource {
+
+    private final ContentWriter contentWriter;
+    private final String mediaType;
+    private final String fileExtension;
+
+    public TypeAwareStreamingResource(ContentWriter contentWriter, String mediaType, String fileExtension) {
+        this.contentWriter = Objects.requireNonNull(contentWriter);
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Writes content of this resource into the specified output stream.
+     * <p>
+     * The stream is not closed.
+     *
+     * @param out Stream to write the content into
+     * @throws IOException If writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        contentWriter.write(out);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeTo(bos);
+        return new ByteArrayInputStream(bos.toByteArray());
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Streaming resource [" + mediaType + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // Content is generated on demand, so there is nothing else to compare
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public Optional<String> getMediaType() {
+        return Optional.ofNullable(mediaType);
+    }
+
+    @Override
+    public Optional<String> getFileExtension() {
+        return Optional.ofNullable(fileExtension);
+    }
+
+    /**
+     * Generates resource content.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        /**
+         * Writes the content into the specified output stream, without closing it.
+         *
+         * @param out Target stream
+         * @throws IOException If writing fails
+         */
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import com.opencsv.CSVReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads CSV files in UTF-8, one record at a time.
+ * <p>
+ * Row numbers correspond to CSV records, i.e., a quoted value spanning multiple lines does not shift them.
+ */
+public class CsvTabularReader implements TabularReader {
+
+    @Override
+    public void read(Path file, RowHandler handler) throws IOException {
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            final CSVReader csvReader = new CSVReader(reader);
+            int rowNumber = 0;
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                handler.handleRow(++rowNumber, row);
+            }
+        }
+    }
+}
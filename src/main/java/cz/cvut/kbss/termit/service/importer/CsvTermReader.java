@@ -0,0 +1,73 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import com.opencsv.CSVReader;
+import cz.cvut.kbss.termit.exception.DataImportException;
+import cz.cvut.kbss.termit.model.Term;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads terms from CSV with the column layout produced by the CSV vocabulary export.
+ * <p>
+ * The first line is expected to be a header containing names of the columns, see {@link TermRowMapper}. Columns
+ * referencing other terms ({@code Parent term}, {@code SubTerms}) are ignored.
+ * <p>
+ * All terms are read into memory, use {@link TabularTermImporter} for large files.
+ */
+public class CsvTermReader {
+
+    private CsvTermReader() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Reads all terms from the specified CSV input.
+     * <p>
+     * The stream is not closed by this method.
+     *
+     * @param input CSV input, expected to be in UTF-8
+     * @return List of terms, in the order of rows in the input
+     * @throws DataImportException If the input cannot be read, it is missing the header with the label column or it
+     *                             contains an invalid identifier
+     */
+    public static List<Term> read(InputStream input) {
+        Objects.requireNonNull(input);
+        final CSVReader csvReader = new CSVReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            final TermRowMapper mapper = new TermRowMapper(csvReader.readNext());
+            final List<Term> result = new ArrayList<>();
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                if (!TermRowMapper.isEmpty(row)) {
+                    result.add(mapper.toTerm(row));
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new DataImportException("Unable to read CSV terms.", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.exception.DataImportException;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the first sheet of an MS Excel (.xlsx) workbook using the SAX-based event API of Apache POI.
+ * <p>
+ * In contrast to the user model API, the sheet is never loaded into memory, rows are passed to the handler as they are
+ * parsed. Only the table of shared strings is kept in memory. Rows without any cells are skipped.
+ */
+public class ExcelTabularReader implements TabularReader {
+
+    @Override
+    public void read(Path file, RowHandler handler) throws IOException {
+        try (final OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            final XSSFReader reader = new XSSFReader(pkg);
+            final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            final XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(
+                    new XSSFSheetXMLHandler(reader.getStylesTable(), null, new ReadOnlySharedStringsTable(pkg),
+                            new RowCollector(handler), new DataFormatter(), false));
+            try (final InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new DataImportException("Unable to read Excel file.", e);
+        }
+    }
+
+    /**
+     * Collects cells of a row and passes them to the row handler once the row ends.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        private RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // POI numbers rows from 0
+            handler.handleRow(rowNum + 1, cells.toArray(new String[0]));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            final int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            if (column > cells.size()) {
+                // Missing cells are empty
+                cells.addAll(Collections.nCopies(column - cells.size(), ""));
+            }
+            cells.add(formattedValue != null ? formattedValue : "");
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // Headers and footers are not relevant for the data
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads tabular data (e.g., CSV or a spreadsheet) row by row, without loading the whole table into memory.
+ */
+public interface TabularReader {
+
+    /**
+     * Reads the specified file and passes its rows to the specified handler, in the order in which they appear in the
+     * file.
+     *
+     * @param file    File to read
+     * @param handler Handler receiving the rows
+     * @throws IOException If the file cannot be read
+     */
+    void read(Path file, RowHandler handler) throws IOException;
+
+    /**
+     * Receives rows read by a {@link TabularReader}.
+     */
+    @FunctionalInterface
+    interface RowHandler {
+
+        /**
+         * Handles a row.
+         *
+         * @param rowNumber Number of the row in the source, starting at 1
+         * @param cells     Cell values, empty cells are represented by empty strings
+         */
+        void handleRow(int rowNumber, String[] cells);
+    }
+}
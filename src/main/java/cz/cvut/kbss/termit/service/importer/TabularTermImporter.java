@@ -0,0 +1,255 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.dto.TermImportReport;
+import cz.cvut.kbss.termit.exception.DataImportException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.skos.TermStatementWriter;
+import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports terms into an existing vocabulary from tabular data with the column layout produced by the CSV and Excel
+ * vocabulary exports (see {@link TermRowMapper}).
+ * <p>
+ * The data are streamed, memory use does not depend on the size of the input. The import runs in two passes over the
+ * input. The first one writes the terms, the second one writes links to their parent terms, so that parents may appear
+ * anywhere in the input. In both passes, rows are processed in batches of {@link ConfigParam#IMPORT_BATCH_SIZE}, each
+ * batch is checked against the repository using a single query and committed separately. Finally, terms without a
+ * parent in the vocabulary become top concepts of its glossary.
+ * <p>
+ * Rows which cannot be imported (invalid data, already existing term identifier) are skipped and reported in the
+ * resulting {@link TermImportReport}, they do not abort the import. The same holds for invalid or unknown parent terms,
+ * the term itself is imported without them in that case. Conversely, batches committed before a fatal error (e.g.,
+ * unreadable input) are not rolled back.
+ */
+@Service
+public class TabularTermImporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TabularTermImporter.class);
+
+    private final TermDao termDao;
+
+    private final IdentifierResolver idResolver;
+
+    private final Configuration config;
+
+    private final Validator validator;
+
+    @Autowired
+    public TabularTermImporter(TermDao termDao, IdentifierResolver idResolver, Configuration config,
+                               Validator validator) {
+        this.termDao = termDao;
+        this.idResolver = idResolver;
+        this.config = config;
+        this.validator = validator;
+    }
+
+    /**
+     * Imports terms from the specified file into the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary to import the terms into
+     * @param file       File with the tabular data
+     * @param reader     Reader able to read the file
+     * @return Report of the import
+     * @throws DataImportException If the file cannot be read or it does not have a valid header
+     */
+    public TermImportReport importTerms(Vocabulary vocabulary, Path file, TabularReader reader) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(reader);
+        final ImportRun run = new ImportRun(vocabulary);
+        try (final TermStatementWriter writer = termDao.openStatementWriter(vocabulary)) {
+            reader.read(file, run.termPass(writer));
+            if (run.mapper == null) {
+                throw new DataImportException("Missing header in term data.");
+            }
+            run.writeTerms(writer);
+            reader.read(file, run.parentPass(writer));
+            run.writeParents(writer);
+            writer.assignTopConcepts();
+        } catch (IOException e) {
+            throw new DataImportException("Unable to read term data.", e);
+        } finally {
+            // Batches committed so far bypassed the persistence context
+            termDao.evictVocabularyContext(vocabulary);
+        }
+        LOG.debug("Imported terms into vocabulary {}: {}.", vocabulary, run.report);
+        return run.report;
+    }
+
+    /**
+     * State of a single import.
+     */
+    private class ImportRun {
+
+        private final TermImportReport report = new TermImportReport();
+        private final String namespace;
+        private final int batchSize;
+
+        // Rows which failed in the first pass and are skipped in the second one
+        private final BitSet failedRows = new BitSet();
+
+        private TermRowMapper mapper;
+        private int headerRow;
+        private final List<PendingRow> batch = new ArrayList<>();
+
+        private ImportRun(Vocabulary vocabulary) {
+            this.namespace = idResolver.buildNamespace(vocabulary.getUri().toString(),
+                    config.get(ConfigParam.TERM_NAMESPACE_SEPARATOR));
+            this.batchSize = Math.max(1, Integer.parseInt(config.get(ConfigParam.IMPORT_BATCH_SIZE)));
+        }
+
+        private TabularReader.RowHandler termPass(TermStatementWriter writer) {
+            return (rowNumber, cells) -> {
+                if (mapper == null) {
+                    this.mapper = new TermRowMapper(cells);
+                    this.headerRow = rowNumber;
+                    return;
+                }
+                if (TermRowMapper.isEmpty(cells)) {
+                    return;
+                }
+                try {
+                    final Term term = mapper.toTerm(cells);
+                    validate(term);
+                    if (term.getUri() == null) {
+                        term.setUri(idResolver.generateIdentifier(namespace, term.getLabel()));
+                    }
+                    batch.add(new PendingRow(rowNumber, term.getUri(), term));
+                } catch (DataImportException e) {
+                    rowFailed(rowNumber, e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    writeTerms(writer);
+                }
+            };
+        }
+
+        private void validate(Term term) {
+            final Set<ConstraintViolation<Term>> violations = validator.validate(term);
+            if (!violations.isEmpty()) {
+                throw new DataImportException(
+                        violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted()
+                                  .collect(Collectors.joining(", ")));
+            }
+        }
+
+        private void writeTerms(TermStatementWriter writer) {
+            final Set<URI> existing = writer.findExisting(batch.stream().map(r -> r.uri).collect(Collectors.toSet()));
+            final Set<URI> written = new HashSet<>(batch.size());
+            for (PendingRow row : batch) {
+                if (existing.contains(row.uri) || !written.add(row.uri)) {
+                    rowFailed(row.number, "Term with identifier " + row.uri + " already exists.");
+                    continue;
+                }
+                writer.addTerm(row.term);
+                report.termImported();
+            }
+            writer.flush();
+            batch.clear();
+        }
+
+        private void rowFailed(int rowNumber, String message) {
+            failedRows.set(rowNumber);
+            report.addError(rowNumber, message);
+        }
+
+        private TabularReader.RowHandler parentPass(TermStatementWriter writer) {
+            return (rowNumber, cells) -> {
+                if (rowNumber <= headerRow || failedRows.get(rowNumber) || TermRowMapper.isEmpty(cells)) {
+                    return;
+                }
+                try {
+                    final Set<URI> parents = mapper.parents(cells);
+                    if (!parents.isEmpty()) {
+                        final Term term = mapper.toTerm(cells);
+                        final URI uri = term.getUri() != null ? term.getUri() :
+                                        idResolver.generateIdentifier(namespace, term.getLabel());
+                        batch.add(new PendingRow(rowNumber, uri, parents));
+                    }
+                } catch (DataImportException e) {
+                    // The term itself has already been imported, only its parents are skipped
+                    report.addError(rowNumber, e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    writeParents(writer);
+                }
+            };
+        }
+
+        private void writeParents(TermStatementWriter writer) {
+            final Set<URI> existing = writer.findExisting(
+                    batch.stream().flatMap(r -> r.parents.stream()).collect(Collectors.toSet()));
+            for (PendingRow row : batch) {
+                for (URI parent : row.parents) {
+                    if (parent.equals(row.uri)) {
+                        report.addError(row.number, "Term " + row.uri + " cannot be its own parent.");
+                    } else if (!existing.contains(parent)) {
+                        report.addError(row.number, "Parent term " + parent + " not found.");
+                    } else {
+                        writer.addParent(row.uri, parent);
+                        report.parentLinkImported();
+                    }
+                }
+            }
+            writer.flush();
+            batch.clear();
+        }
+    }
+
+    /**
+     * Row waiting to be written as part of a batch.
+     */
+    private static class PendingRow {
+        private final int number;
+        private final URI uri;
+        private final Term term;
+        private final Set<URI> parents;
+
+        private PendingRow(int number, URI uri, Term term) {
+            this.number = number;
+            this.uri = uri;
+            this.term = term;
+            this.parents = Collections.emptySet();
+        }
+
+        private PendingRow(int number, URI uri, Set<URI> parents) {
+            this.number = number;
+            this.uri = uri;
+            this.term = null;
+            this.parents = parents;
+        }
+    }
+}
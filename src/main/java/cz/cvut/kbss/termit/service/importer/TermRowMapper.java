@@ -0,0 +1,143 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.exception.DataImportException;
+import cz.cvut.kbss.termit.model.Term;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Maps rows of tabular data with the column layout produced by the CSV and Excel vocabulary exports to terms.
+ * <p>
+ * Columns are resolved by names given in the header row (see {@link Term#EXPORT_COLUMNS}), regardless of their order
+ * and case. Only the {@code Label} column is mandatory. Multiple values in a cell are separated by semicolons.
+ */
+public class TermRowMapper {
+
+    static final String IRI_COLUMN = Term.EXPORT_COLUMNS.get(0);
+    static final String LABEL_COLUMN = Term.EXPORT_COLUMNS.get(1);
+    static final String DEFINITION_COLUMN = Term.EXPORT_COLUMNS.get(2);
+    static final String DESCRIPTION_COLUMN = Term.EXPORT_COLUMNS.get(3);
+    static final String TYPES_COLUMN = Term.EXPORT_COLUMNS.get(4);
+    static final String SOURCES_COLUMN = Term.EXPORT_COLUMNS.get(5);
+    static final String PARENT_COLUMN = Term.EXPORT_COLUMNS.get(6);
+
+    private static final String VALUE_SEPARATOR = ";";
+
+    /**
+     * Byte order mark, which spreadsheet applications tend to put at the beginning of CSV files
+     */
+    private static final String BOM = "\uFEFF";
+
+    private final Map<String, Integer> columns;
+
+    /**
+     * Creates a mapper for rows with the specified header.
+     *
+     * @param header Names of the columns
+     * @throws DataImportException If the header is missing or it does not contain the label column
+     */
+    public TermRowMapper(String[] header) {
+        this.columns = resolveColumns(header);
+    }
+
+    private static Map<String, Integer> resolveColumns(String[] header) {
+        if (header == null) {
+            throw new DataImportException("Missing header in term data.");
+        }
+        final Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            final String name = header[i] != null ? header[i].replace(BOM, "").trim() : "";
+            final int index = i;
+            Term.EXPORT_COLUMNS.stream().filter(name::equalsIgnoreCase).findFirst()
+                               .ifPresent(col -> columns.putIfAbsent(col, index));
+        }
+        if (!columns.containsKey(LABEL_COLUMN)) {
+            throw new DataImportException("Term data are missing the mandatory column '" + LABEL_COLUMN + "'.");
+        }
+        return columns;
+    }
+
+    /**
+     * Checks whether the specified row contains no values.
+     *
+     * @param row Row cells
+     * @return {@code true} if all cells of the row are empty
+     */
+    public static boolean isEmpty(String[] row) {
+        return Arrays.stream(row).allMatch(cell -> cell == null || cell.trim().isEmpty());
+    }
+
+    /**
+     * Maps the specified row to a term.
+     * <p>
+     * Parent terms are not set, use {@link #parents(String[])} to get them.
+     *
+     * @param row Row cells
+     * @return New term
+     * @throws DataImportException If the row contains an invalid term identifier
+     */
+    public Term toTerm(String[] row) {
+        final Term term = new Term();
+        cell(row, IRI_COLUMN).ifPresent(iri -> term.setUri(toUri(iri)));
+        cell(row, LABEL_COLUMN).ifPresent(term::setLabel);
+        cell(row, DEFINITION_COLUMN).ifPresent(term::setDefinition);
+        cell(row, DESCRIPTION_COLUMN).ifPresent(term::setDescription);
+        cell(row, TYPES_COLUMN).map(TermRowMapper::splitValues).ifPresent(term::setTypes);
+        cell(row, SOURCES_COLUMN).map(TermRowMapper::splitValues).ifPresent(term::setSources);
+        return term;
+    }
+
+    /**
+     * Gets identifiers of parent terms from the specified row.
+     *
+     * @param row Row cells
+     * @return Parent term identifiers, possibly empty
+     * @throws DataImportException If the row contains an invalid parent term identifier
+     */
+    public Set<URI> parents(String[] row) {
+        return cell(row, PARENT_COLUMN).map(TermRowMapper::splitValues).orElse(Collections.emptySet()).stream()
+                                       .map(TermRowMapper::toUri)
+                                       .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static URI toUri(String iri) {
+        try {
+            return URI.create(iri);
+        } catch (IllegalArgumentException e) {
+            throw new DataImportException("Invalid term identifier '" + iri + "'.", e);
+        }
+    }
+
+    private Optional<String> cell(String[] row, String column) {
+        final Integer index = columns.get(column);
+        if (index == null || index >= row.length || row[index] == null) {
+            return Optional.empty();
+        }
+        final String value = row[index].trim();
+        return value.isEmpty() ? Optional.empty() : Optional.of(value);
+    }
+
+    private static Set<String> splitValues(String value) {
+        return Arrays.stream(value.split(VALUE_SEPARATOR)).map(String::trim).filter(s -> !s.isEmpty())
+                     .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -1,9 +1,16 @@
 package cz.cvut.kbss.termit.service.importer;
 
+import cz.cvut.kbss.termit.dto.TermImportReport;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.exception.UnsupportedImportMediaTypeException;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.skos.ImportSource;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSImporter;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.CsvUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
@@ -11,10 +18,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Objects;
@@ -22,16 +29,21 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 /**
- * Allows to import a vocabulary from RDF.
+ * Allows to import a vocabulary from RDF, or terms of an existing vocabulary from CSV or MS Excel.
  */
 @Service
 public class VocabularyImportService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(VocabularyImportService.class);
+
     private final ApplicationContext context;
 
+    private final TabularTermImporter tabularImporter;
+
     @Autowired
-    public VocabularyImportService(ApplicationContext context) {
+    public VocabularyImportService(ApplicationContext context, TabularTermImporter tabularImporter) {
         this.context = context;
+        this.tabularImporter = tabularImporter;
     }
 
     /**
@@ -50,34 +62,122 @@ public class VocabularyImportService {
      */
     @Transactional
     public Vocabulary importVocabulary(MultipartFile file) {
+        return importVocabulary(file, false);
+    }
+
+    /**
+     * Re-imports vocabulary from the specified file, applying only the difference against its current version.
+     *
+     * @param file File containing the vocabulary to import. Can be a file containing RDF, or a ZIP containing multiple
+     *             RDF files
+     * @return {@code Vocabulary} object containing metadata of the re-imported vocabulary
+     * @see SKOSImporter#reimportVocabulary(List)
+     */
+    @Transactional
+    public Vocabulary reimportVocabulary(MultipartFile file) {
+        return importVocabulary(file, true);
+    }
+
+    private Vocabulary importVocabulary(MultipartFile file, boolean delta) {
         Objects.requireNonNull(file);
         try {
+            final Vocabulary result;
             if (Constants.ZIP_MEDIA_TYPE.equals(file.getContentType())) {
-                return importFromZipFile(file);
+                result = importFromZipFile(file, delta);
+            } else if (delta) {
+                final String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+                result = getSKOSImporter().reimportVocabulary(
+                        Collections.singletonList(new ImportSource(name, file.getContentType(), file::getInputStream)));
             } else {
-                return getSKOSImporter().importVocabulary(file.getContentType(), file.getInputStream());
+                result = getSKOSImporter().importVocabulary(file.getContentType(), file.getInputStream());
             }
+            // Data are imported directly into the repository, bypassing the DAOs tracking last modification
+            context.publishEvent(new RefreshLastModifiedEvent(this));
+            return result;
         } catch (IOException e) {
             throw new TermItException("Unable to read file with vocabulary to import.", e);
         }
     }
 
-    private Vocabulary importFromZipFile(MultipartFile file) throws IOException {
+    /**
+     * Imports terms from the specified CSV or MS Excel file into the specified vocabulary.
+     * <p>
+     * The file is expected to have the same column layout as the corresponding vocabulary export. Its format is
+     * determined from the file content type, or from its name if the content type is not recognized.
+     *
+     * @param vocabulary Vocabulary to import the terms into
+     * @param file       File containing the terms
+     * @return Report of the import, including rows which could not be imported
+     * @throws UnsupportedImportMediaTypeException If the file is neither CSV nor MS Excel
+     * @see TabularTermImporter
+     */
+    public TermImportReport importTerms(Vocabulary vocabulary, MultipartFile file) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(file);
+        final TabularReader reader = resolveTabularReader(file);
+        try {
+            final Path tempFile = Files.createTempFile("term-import", null);
+            try {
+                // The import reads the data twice
+                file.transferTo(tempFile);
+                final TermImportReport report = tabularImporter.importTerms(vocabulary, tempFile, reader);
+                // Data are imported directly into the repository, bypassing the DAOs tracking last modification
+                context.publishEvent(new RefreshLastModifiedEvent(this));
+                return report;
+            } finally {
+                Files.delete(tempFile);
+            }
+        } catch (IOException e) {
+            throw new TermItException("Unable to read file with terms to import.", e);
+        }
+    }
+
+    private static TabularReader resolveTabularReader(MultipartFile file) {
+        final String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+        if (CsvUtils.MEDIA_TYPE.equals(file.getContentType()) || name.endsWith(CsvUtils.FILE_EXTENSION)) {
+            return new CsvTabularReader();
+        } else if (Constants.Excel.MEDIA_TYPE.equals(file.getContentType()) ||
+                name.endsWith(Constants.Excel.FILE_EXTENSION)) {
+            return new ExcelTabularReader();
+        }
+        throw new UnsupportedImportMediaTypeException(
+                "Unsupported media type '" + file.getContentType() + "' of file with terms to import.");
+    }
+
+    /**
+     * Imports vocabulary from a ZIP file containing RDF files.
+     * <p>
+     * Media type of each entry is guessed from its name, entries which are not in a supported RDF format (e.g., README
+     * or OS-specific metadata files) are skipped. Entries are streamed directly from the ZIP file, so that they can be
+     * parsed in parallel without being extracted.
+     */
+    private Vocabulary importFromZipFile(MultipartFile file, boolean delta) throws IOException {
         final Path tempFile = Files.createTempFile("vocabulary-import", "zip");
         try {
             file.transferTo(tempFile);
-            final List<InputStream> lst = new ArrayList<>();
-            final ZipFile zipFile = new ZipFile(tempFile.toFile());
-            final Enumeration<? extends ZipEntry> en = zipFile.entries();
-            String mediaType = null;
-            while (en.hasMoreElements()) {
-                final ZipEntry ze = en.nextElement();
-                lst.add(zipFile.getInputStream(ze));
-                if (mediaType == null) {
-                    mediaType = SKOSImporter.guessMediaType(ze.getName());
+            try (final ZipFile zipFile = new ZipFile(tempFile.toFile())) {
+                final List<ImportSource> sources = new ArrayList<>();
+                final Enumeration<? extends ZipEntry> en = zipFile.entries();
+                while (en.hasMoreElements()) {
+                    final ZipEntry ze = en.nextElement();
+                    if (ze.isDirectory()) {
+                        continue;
+                    }
+                    final String mediaType;
+                    try {
+                        mediaType = SKOSImporter.guessMediaType(ze.getName());
+                    } catch (UnsupportedImportMediaTypeException e) {
+                        LOG.debug("Skipping ZIP entry {}, it is not in a supported RDF format.", ze.getName());
+                        continue;
+                    }
+                    sources.add(new ImportSource(ze.getName(), mediaType, () -> zipFile.getInputStream(ze)));
+                }
+                if (sources.isEmpty()) {
+                    throw new UnsupportedImportMediaTypeException("No file in a supported RDF format found in ZIP.");
                 }
+                return delta ? getSKOSImporter().reimportVocabulary(sources) :
+                       getSKOSImporter().importVocabulary(sources);
             }
-            return getSKOSImporter().importVocabulary(mediaType, lst.toArray(new InputStream[0]));
         } finally {
             Files.delete(tempFile);
         }
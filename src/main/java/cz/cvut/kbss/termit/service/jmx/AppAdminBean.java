@@ -19,8 +19,10 @@ package cz.cvut.kbss.termit.service.jmx;
 
 import cz.cvut.kbss.jopa.model.EntityManagerFactory;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.persistence.dao.lucene.FullTextIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -37,10 +39,14 @@ public class AppAdminBean {
 
     private final EntityManagerFactory emf;
 
+    private final ObjectProvider<FullTextIndex> fullTextIndex;
+
     @Autowired
-    public AppAdminBean(ApplicationEventPublisher eventPublisher, EntityManagerFactory emf) {
+    public AppAdminBean(ApplicationEventPublisher eventPublisher, EntityManagerFactory emf,
+                        ObjectProvider<FullTextIndex> fullTextIndex) {
         this.eventPublisher = eventPublisher;
         this.emf = emf;
+        this.fullTextIndex = fullTextIndex;
     }
 
     @ManagedOperation(description = "Invalidates the application caches.")
@@ -50,4 +56,14 @@ public class AppAdminBean {
         LOG.info("Refreshing last modified timestamps...");
         eventPublisher.publishEvent(new RefreshLastModifiedEvent(this));
     }
+
+    @ManagedOperation(description = "Rebuilds the embedded full text index.")
+    public void rebuildFullTextIndex() {
+        final FullTextIndex index = fullTextIndex.getIfAvailable();
+        if (index == null) {
+            LOG.warn("Embedded full text index is not enabled, nothing to rebuild.");
+            return;
+        }
+        index.rebuild();
+    }
 }
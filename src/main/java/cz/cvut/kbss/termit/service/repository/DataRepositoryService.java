@@ -18,23 +18,52 @@
 package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.dto.RdfsResource;
+import cz.cvut.kbss.termit.dto.workspace.VocabularyInfo;
+import cz.cvut.kbss.termit.dto.workspace.WorkspaceMetadata;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.exception.UnsupportedImportMediaTypeException;
+import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.persistence.dao.DataDao;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.workspace.WorkspaceMetadataCache;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class DataRepositoryService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DataRepositoryService.class);
+
+    /**
+     * RDF serialization formats supported by data dumps. They all preserve repository contexts.
+     */
+    static final List<RDFFormat> DUMP_FORMATS = Collections.unmodifiableList(
+            Arrays.asList(RDFFormat.BINARY, RDFFormat.NQUADS, RDFFormat.TRIG));
+
     private final DataDao dataDao;
 
+    private final WorkspaceMetadataCache workspaceMetadataCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    public DataRepositoryService(DataDao dataDao) {
+    public DataRepositoryService(DataDao dataDao, WorkspaceMetadataCache workspaceMetadataCache,
+                                 ApplicationEventPublisher eventPublisher) {
         this.dataDao = dataDao;
+        this.workspaceMetadataCache = workspaceMetadataCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -76,4 +105,80 @@ public class DataRepositoryService {
     public Optional<String> getLabel(URI id) {
         return dataDao.getLabel(id);
     }
+
+    /**
+     * Dumps the specified repository contexts in the specified format.
+     * <p>
+     * The dump is streamed, i.e., it is written directly into the target output stream as it is being read from the
+     * repository.
+     *
+     * @param mediaType Media type of the dump, one of {@link #DUMP_FORMATS}
+     * @param contexts  Contexts to dump. If empty, the whole repository is dumped
+     * @return Resource representing the dump
+     */
+    public TypeAwareResource exportData(String mediaType, Collection<URI> contexts) {
+        Objects.requireNonNull(contexts);
+        final RDFFormat format = resolveDumpFormat(mediaType).orElseThrow(
+                () -> new UnsupportedOperationException("Unsupported data dump media type " + mediaType));
+        final URI[] toExport = contexts.toArray(new URI[0]);
+        LOG.debug("Dumping {} as {}.", contexts.isEmpty() ? "the whole repository" : contexts, format.getName());
+        return new TypeAwareStreamingResource(out -> dataDao.exportData(format, out, toExport),
+                format.getDefaultMIMEType(), "." + format.getDefaultFileExtension());
+    }
+
+    /**
+     * Dumps the current workspace in the specified format.
+     * <p>
+     * The dump consists of the workspace metadata context and contexts of the workspace vocabularies and their change
+     * tracking.
+     *
+     * @param mediaType Media type of the dump, one of {@link #DUMP_FORMATS}
+     * @return Resource representing the dump
+     */
+    public TypeAwareResource exportWorkspaceData(String mediaType) {
+        final WorkspaceMetadata metadata = workspaceMetadataCache.getCurrentWorkspaceMetadata();
+        final Set<URI> contexts = new LinkedHashSet<>();
+        contexts.add(metadata.getWorkspace().getUri());
+        for (VocabularyInfo vocabulary : metadata.getVocabularies().values()) {
+            contexts.add(vocabulary.getContext());
+            if (vocabulary.getChangeTrackingContext() != null) {
+                contexts.add(vocabulary.getChangeTrackingContext());
+            }
+        }
+        return exportData(mediaType, contexts);
+    }
+
+    /**
+     * Restores data from a dump in the specified format.
+     * <p>
+     * Contexts are preserved, each context contained in the dump replaces the existing one. The restore is done in a
+     * single transaction, i.e., the repository remains unchanged if it fails.
+     *
+     * @param mediaType Media type of the dump, one of {@link #DUMP_FORMATS}
+     * @param data      Stream with the dump
+     * @return Number of restored statements
+     */
+    public long importData(String mediaType, InputStream data) {
+        Objects.requireNonNull(data);
+        final RDFFormat format = resolveDumpFormat(mediaType).orElseThrow(
+                () -> new UnsupportedImportMediaTypeException("Unsupported data dump media type " + mediaType));
+        final long count = dataDao.importData(format, data);
+        LOG.debug("Restored {} statements from {} dump.", count, format.getName());
+        // Data are imported directly into the repository, bypassing the DAOs tracking last modification
+        eventPublisher.publishEvent(new RefreshLastModifiedEvent(this));
+        return count;
+    }
+
+    private static Optional<RDFFormat> resolveDumpFormat(String mediaType) {
+        if (mediaType == null) {
+            return Optional.empty();
+        }
+        try {
+            // Ignore media type parameters (e.g., charset)
+            final MediaType type = MediaType.parseMediaType(mediaType);
+            return RDFFormat.matchMIMEType(type.getType() + "/" + type.getSubtype(), DUMP_FORMATS);
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+    }
 }
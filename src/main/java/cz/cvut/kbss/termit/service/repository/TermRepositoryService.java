@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
+import cz.cvut.kbss.termit.exception.ResourceExistsException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.AssetDao;
@@ -32,8 +33,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Validator;
 import java.net.URI;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
@@ -95,6 +100,48 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         termDao.persist(instance, vocabulary);
     }
 
+    /**
+     * Persists the specified terms as root terms of the specified vocabulary's glossary.
+     * <p>
+     * This is a bulk version of {@link #addRootTermToVocabulary(Term, Vocabulary)}. Missing identifiers are generated
+     * using a namespace resolved once for the whole batch, uniqueness of all identifiers is verified by a single
+     * query, all the terms are added to the glossary in one update and their change records are written together.
+     *
+     * @param instances  Terms to persist
+     * @param vocabulary Vocabulary to add the terms to
+     * @throws ResourceExistsException If any of the identifiers is already used or occurs multiple times in the batch
+     */
+    @Transactional
+    public void addRootTermsToVocabulary(List<Term> instances, Vocabulary vocabulary) {
+        Objects.requireNonNull(instances);
+        Objects.requireNonNull(vocabulary);
+        if (instances.isEmpty()) {
+            return;
+        }
+        instances.forEach(this::validate);
+
+        final String namespace = idResolver.buildNamespace(vocabulary.getUri().toString(),
+                config.get(ConfigParam.TERM_NAMESPACE_SEPARATOR));
+        final Set<URI> identifiers = new HashSet<>(instances.size());
+        for (Term instance : instances) {
+            if (instance.getUri() == null) {
+                instance.setUri(idResolver.generateIdentifier(namespace, instance.getLabel()));
+            }
+            if (!identifiers.add(instance.getUri())) {
+                throw ResourceExistsException.create(Term.class.getSimpleName(), instance.getUri());
+            }
+        }
+        final Set<URI> existing = termDao.findExistingIdentifiers(identifiers);
+        if (!existing.isEmpty()) {
+            throw ResourceExistsException.create(Term.class.getSimpleName(), existing.iterator().next());
+        }
+
+        // Load vocabulary so that it is managed and changes to it (resp. the glossary) are persisted on commit
+        final Vocabulary toUpdate = vocabularyService.getRequiredReference(vocabulary.getUri());
+        instances.forEach(toUpdate.getGlossary()::addRootTerm);
+        termDao.persistAll(instances, vocabulary);
+    }
+
     /**
      * Generates term identifier based on the specified parent vocabulary identifier and a term label.
      *
@@ -150,6 +197,25 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         return termDao.findAll(vocabulary);
     }
 
+    /**
+     * Passes all terms from a vocabulary to the specified consumer, regardless of their position in the term hierarchy.
+     * <p>
+     * The terms are read one by one from a single query result within a transaction, so that large vocabularies can be
+     * processed without loading all their terms at once.
+     *
+     * @param vocabulary Vocabulary whose terms should be processed
+     * @param consumer   Consumer of the terms, they are passed to it ordered by label
+     * @see #findAll(Vocabulary)
+     */
+    @Transactional
+    public void forEach(Vocabulary vocabulary, Consumer<Term> consumer) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(consumer);
+        try (final Stream<Term> terms = termDao.streamAll(vocabulary)) {
+            terms.forEach(consumer);
+        }
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary.
      *
@@ -14,6 +14,7 @@
  */
 package cz.cvut.kbss.termit.service.repository;
 
+import cz.cvut.kbss.termit.dto.TermImportReport;
 import cz.cvut.kbss.termit.exception.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Model;
@@ -134,8 +135,32 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return importService.importVocabulary(file);
     }
 
+    @Override
+    public Vocabulary reimportVocabulary(MultipartFile file) {
+        Objects.requireNonNull(file);
+        return importService.reimportVocabulary(file);
+    }
+
+    @Override
+    public TermImportReport importTerms(Vocabulary vocabulary, MultipartFile file) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(file);
+        return importService.importTerms(vocabulary, file);
+    }
+
     @Override
     public long getLastModified() {
         return vocabularyDao.getLastModified();
     }
+
+    /**
+     * Gets timestamp of the last modification of the specified vocabulary, including modifications of its terms.
+     *
+     * @param vocabulary Vocabulary to examine
+     * @return Timestamp of last modification in millis since epoch
+     */
+    public long getLastModified(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return vocabularyDao.getLastModified(vocabulary.getUri());
+    }
 }
@@ -84,6 +84,32 @@ public enum ConfigParam {
      */
     TEXT_ANALYSIS_SERVICE_URL("textAnalysis.url"),
 
+    /**
+     * Maximum number of text analyses running concurrently against the text analysis service.
+     * <p>
+     * This includes files analyzed in parallel by bulk text analysis jobs.
+     */
+    TEXT_ANALYSIS_MAX_CONCURRENT("textAnalysis.maxConcurrent"),
+
+    /**
+     * Maximum number of text analysis jobs waiting for execution. Further jobs are rejected.
+     */
+    TEXT_ANALYSIS_QUEUE_CAPACITY("textAnalysis.queueCapacity"),
+
+    /**
+     * Maximum number of files analyzed in parallel by a single bulk text analysis job.
+     * <p>
+     * The overall number of concurrent analyses is still limited by {@link #TEXT_ANALYSIS_MAX_CONCURRENT}.
+     */
+    TEXT_ANALYSIS_BULK_PARALLELISM("textAnalysis.bulkParallelism"),
+
+    /**
+     * Engine used for text analysis unless specified otherwise by the request.
+     * <p>
+     * {@code remote} uses the text analysis service, {@code local} uses in-process dictionary annotator.
+     */
+    TEXT_ANALYSIS_ENGINE("textAnalysis.engine"),
+
     /**
      * Specifies folder in which admin credentials are saved when his account is generated.
      *
@@ -105,6 +131,82 @@ public enum ConfigParam {
      */
     FILE_STORAGE("file.storage"),
 
+    /**
+     * Maximum size of file content (in bytes) which can be uploaded.
+     * <p>
+     * Non-positive value means no limit.
+     */
+    FILE_MAX_SIZE("file.maxSize"),
+
+    /**
+     * Maximum number of backups kept for each stored file.
+     * <p>
+     * Older backups are removed by the backup retention task. Non-positive value means no limit.
+     */
+    FILE_BACKUP_MAX_COUNT("file.backup.maxCount"),
+
+    /**
+     * Maximum age of file backups, specified as an ISO-8601 duration (e.g., {@code P30D}).
+     * <p>
+     * Older backups are removed by the backup retention task. Not set by default, i.e., backups are not removed based
+     * on their age.
+     */
+    FILE_BACKUP_MAX_AGE("file.backup.maxAge"),
+
+    /**
+     * Number of most recent backups of each file which are kept uncompressed.
+     * <p>
+     * Older retained backups are compressed by the backup retention task.
+     */
+    FILE_BACKUP_UNCOMPRESSED_COUNT("file.backup.uncompressedCount"),
+
+    /**
+     * Delay between runs of the backup retention task, in milliseconds.
+     */
+    FILE_BACKUP_RETENTION_INTERVAL("file.backup.retentionInterval"),
+
+    /**
+     * Maximum total size of glossary exports kept in the export cache, in bytes.
+     * <p>
+     * The least recently used exports are evicted when the limit is exceeded. Non-positive value disables the cache.
+     */
+    EXPORT_CACHE_MAX_SIZE("export.cache.maxSize"),
+
+    /**
+     * Number of statements committed into the repository in one transaction during vocabulary import.
+     * <p>
+     * Non-positive value means the whole vocabulary is imported in a single transaction. Batches are used only when
+     * importing into an empty vocabulary context, which is cleared if the import fails. Differential re-imports are
+     * always applied in a single transaction.
+     */
+    IMPORT_BATCH_SIZE("import.batchSize"),
+
+    /**
+     * Maximum number of files parsed in parallel when importing a multi-file vocabulary (e.g., a ZIP bundle).
+     */
+    IMPORT_PARALLELISM("import.parallelism"),
+
+    /**
+     * Directory in which the embedded full text index is stored (used only with the {@code lucene-embedded} profile).
+     * <p>
+     * If not set, the index is kept in memory and rebuilt from the repository on startup.
+     */
+    LUCENE_INDEX_DIRECTORY("lucene.indexDirectory"),
+
+    /**
+     * Maximum time spent looking up typeahead suggestions, in milliseconds.
+     * <p>
+     * When exceeded, the best suggestions found so far are returned.
+     */
+    SUGGESTION_TIME_BUDGET("suggestion.timeBudget"),
+
+    /**
+     * Maximum number of typeahead suggestions returned by a single lookup.
+     * <p>
+     * Larger requested numbers of suggestions are capped at this value.
+     */
+    SUGGESTION_MAX_COUNT("suggestion.maxCount"),
+
     /**
      * Minimal match score of a term occurrence for which a term assignment should be automatically generated.
      * <p>
@@ -107,6 +107,24 @@ public class Configuration {
         map.put(ConfigParam.WORKING_VOCABULARY_CONTEXT_EXTENSION,
                 Constants.DEFAULT_WORKING_VOCABULARY_CONTEXT_EXTENSION);
         map.put(ConfigParam.CORS_ALLOWED_ORIGIN, "*");
+        map.put(ConfigParam.TEXT_ANALYSIS_MAX_CONCURRENT,
+                Integer.toString(Constants.DEFAULT_TEXT_ANALYSIS_MAX_CONCURRENT));
+        map.put(ConfigParam.TEXT_ANALYSIS_QUEUE_CAPACITY,
+                Integer.toString(Constants.DEFAULT_TEXT_ANALYSIS_QUEUE_CAPACITY));
+        map.put(ConfigParam.TEXT_ANALYSIS_BULK_PARALLELISM,
+                Integer.toString(Constants.DEFAULT_TEXT_ANALYSIS_BULK_PARALLELISM));
+        map.put(ConfigParam.TEXT_ANALYSIS_ENGINE, Constants.DEFAULT_TEXT_ANALYSIS_ENGINE);
+        map.put(ConfigParam.FILE_MAX_SIZE, Long.toString(Constants.DEFAULT_FILE_MAX_SIZE));
+        map.put(ConfigParam.FILE_BACKUP_MAX_COUNT, Integer.toString(Constants.DEFAULT_FILE_BACKUP_MAX_COUNT));
+        map.put(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT,
+                Integer.toString(Constants.DEFAULT_FILE_BACKUP_UNCOMPRESSED_COUNT));
+        map.put(ConfigParam.FILE_BACKUP_RETENTION_INTERVAL,
+                Long.toString(Constants.DEFAULT_FILE_BACKUP_RETENTION_INTERVAL));
+        map.put(ConfigParam.EXPORT_CACHE_MAX_SIZE, Long.toString(Constants.DEFAULT_EXPORT_CACHE_MAX_SIZE));
+        map.put(ConfigParam.IMPORT_BATCH_SIZE, Integer.toString(Constants.DEFAULT_IMPORT_BATCH_SIZE));
+        map.put(ConfigParam.IMPORT_PARALLELISM, Integer.toString(Constants.DEFAULT_IMPORT_PARALLELISM));
+        map.put(ConfigParam.SUGGESTION_TIME_BUDGET, Long.toString(Constants.DEFAULT_SUGGESTION_TIME_BUDGET));
+        map.put(ConfigParam.SUGGESTION_MAX_COUNT, Integer.toString(Constants.DEFAULT_SUGGESTION_MAX_COUNT));
         return map;
     }
 }
@@ -80,6 +80,24 @@ public class Constants {
      */
     public static final Pageable DEFAULT_PAGE_SPEC = PageRequest.of(0, DEFAULT_PAGE_SIZE);
 
+    /**
+     * Default page size of full text search results.
+     * <p>
+     * Unlike regular collections, search results are paged by default, as short search strings may match a large part
+     * of the repository.
+     */
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 100;
+
+    /**
+     * Maximum length of a full text search result snippet, in characters.
+     */
+    public static final int SEARCH_SNIPPET_SIZE = 250;
+
+    /**
+     * HTTP response header carrying the (possibly estimated) total number of results of a paged request.
+     */
+    public static final String X_TOTAL_COUNT_HEADER = "X-Total-Count";
+
 
     /**
      * Default piece of text appended to vocabulary IRI for term IRI generation.
@@ -101,6 +119,81 @@ public class Constants {
      */
     public static final String DEFAULT_WORKING_VOCABULARY_CONTEXT_EXTENSION = "/aktualni";
 
+    /**
+     * Algorithm used to compute hashes (fingerprints) of stored file content.
+     */
+    public static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Default value of the {@link ConfigParam#TEXT_ANALYSIS_MAX_CONCURRENT} configuration.
+     */
+    public static final int DEFAULT_TEXT_ANALYSIS_MAX_CONCURRENT = 2;
+
+    /**
+     * Default value of the {@link ConfigParam#TEXT_ANALYSIS_QUEUE_CAPACITY} configuration.
+     */
+    public static final int DEFAULT_TEXT_ANALYSIS_QUEUE_CAPACITY = 100;
+
+    /**
+     * Default value of the {@link ConfigParam#TEXT_ANALYSIS_BULK_PARALLELISM} configuration.
+     */
+    public static final int DEFAULT_TEXT_ANALYSIS_BULK_PARALLELISM = 4;
+
+    /**
+     * Default value of the {@link ConfigParam#TEXT_ANALYSIS_ENGINE} configuration.
+     */
+    public static final String DEFAULT_TEXT_ANALYSIS_ENGINE = "remote";
+
+    /**
+     * Default value of the {@link ConfigParam#FILE_MAX_SIZE} configuration (100 MiB).
+     */
+    public static final long DEFAULT_FILE_MAX_SIZE = 100 * 1024 * 1024L;
+
+    /**
+     * Default value of the {@link ConfigParam#FILE_BACKUP_MAX_COUNT} configuration.
+     */
+    public static final int DEFAULT_FILE_BACKUP_MAX_COUNT = 10;
+
+    /**
+     * Default value of the {@link ConfigParam#FILE_BACKUP_UNCOMPRESSED_COUNT} configuration.
+     */
+    public static final int DEFAULT_FILE_BACKUP_UNCOMPRESSED_COUNT = 1;
+
+    /**
+     * Default value of the {@link ConfigParam#FILE_BACKUP_RETENTION_INTERVAL} configuration (one hour).
+     */
+    public static final long DEFAULT_FILE_BACKUP_RETENTION_INTERVAL = 60 * 60 * 1000L;
+
+    /**
+     * Default value of the {@link ConfigParam#EXPORT_CACHE_MAX_SIZE} configuration (256 MiB).
+     */
+    public static final long DEFAULT_EXPORT_CACHE_MAX_SIZE = 256 * 1024 * 1024L;
+
+    /**
+     * Default value of the {@link ConfigParam#IMPORT_BATCH_SIZE} configuration.
+     */
+    public static final int DEFAULT_IMPORT_BATCH_SIZE = 10000;
+
+    /**
+     * Default value of the {@link ConfigParam#IMPORT_PARALLELISM} configuration.
+     */
+    public static final int DEFAULT_IMPORT_PARALLELISM = 4;
+
+    /**
+     * Default value of the {@link ConfigParam#SUGGESTION_TIME_BUDGET} configuration (5 ms).
+     */
+    public static final long DEFAULT_SUGGESTION_TIME_BUDGET = 5L;
+
+    /**
+     * Default number of typeahead suggestions returned.
+     */
+    public static final int DEFAULT_SUGGESTION_COUNT = 10;
+
+    /**
+     * Default value of the {@link ConfigParam#SUGGESTION_MAX_COUNT} configuration.
+     */
+    public static final int DEFAULT_SUGGESTION_MAX_COUNT = 100;
+
     /**
      * Path to directory containing queries used by the system.
      * <p>
@@ -198,6 +291,91 @@ public class Constants {
         }
     }
 
+    public static final class NTriples {
+
+        /**
+         * Media type for RDF serialized in N-Triples.
+         */
+        public static final String MEDIA_TYPE = "application/n-triples";
+
+        /**
+         * N-Triples file extension.
+         */
+        public static final String FILE_EXTENSION = ".nt";
+
+        private NTriples() {
+            throw new AssertionError();
+        }
+    }
+
+    public static final class RdfXml {
+
+        /**
+         * Media type for RDF serialized in RDF/XML.
+         */
+        public static final String MEDIA_TYPE = "application/rdf+xml";
+
+        /**
+         * RDF/XML file extension.
+         */
+        public static final String FILE_EXTENSION = ".rdf";
+
+        private RdfXml() {
+            throw new AssertionError();
+        }
+    }
+
+    public static final class BinaryRdf {
+
+        /**
+         * Media type for RDF serialized in the RDF4J binary RDF format.
+         */
+        public static final String MEDIA_TYPE = "application/x-binary-rdf";
+
+        /**
+         * Binary RDF file extension.
+         */
+        public static final String FILE_EXTENSION = ".brf";
+
+        private BinaryRdf() {
+            throw new AssertionError();
+        }
+    }
+
+    public static final class NQuads {
+
+        /**
+         * Media type for RDF serialized in N-Quads.
+         */
+        public static final String MEDIA_TYPE = "application/n-quads";
+
+        /**
+         * N-Quads file extension.
+         */
+        public static final String FILE_EXTENSION = ".nq";
+
+        private NQuads() {
+            throw new AssertionError();
+        }
+    }
+
+    public static final class TriG {
+
+        /**
+         * Media type for RDF serialized in TriG.
+         */
+        public static final String MEDIA_TYPE = "application/trig";
+
+        /**
+         * TriG file extension.
+         */
+        public static final String FILE_EXTENSION = ".trig";
+
+        private TriG() {
+            throw new AssertionError();
+        }
+    }
+
     /**
      * Useful HTTP request query parameters used by the application REST API.
      */
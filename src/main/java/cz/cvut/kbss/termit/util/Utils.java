@@ -20,6 +20,8 @@ package cz.cvut.kbss.termit.util;
 import cz.cvut.kbss.termit.exception.TermItException;
 
 import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.stream.Collectors;
@@ -41,6 +43,34 @@ public class Utils {
         return collection == null ? Collections.emptySet() : collection;
     }
 
+    /**
+     * Creates a new digest used to compute content hashes (SHA-256).
+     *
+     * @return New message digest instance
+     */
+    public static MessageDigest createContentDigest() {
+        try {
+            return MessageDigest.getInstance(Constants.CONTENT_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new TermItException("Content hash algorithm " + Constants.CONTENT_HASH_ALGORITHM + " not available.",
+                    e);
+        }
+    }
+
+    /**
+     * Converts the specified bytes (e.g., a digest) to a lowercase hexadecimal string.
+     *
+     * @param bytes Bytes to convert
+     * @return Hexadecimal string
+     */
+    public static String toHexString(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
     public static String loadQuery(String queryFile) {
         final InputStream is = Utils.class.getClassLoader().getResourceAsStream(
                 Constants.QUERY_DIRECTORY + File.separator + queryFile);
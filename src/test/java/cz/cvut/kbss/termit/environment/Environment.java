@@ -27,6 +27,7 @@ import cz.cvut.kbss.termit.dto.workspace.WorkspaceMetadata;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.model.Workspace;
+import cz.cvut.kbss.termit.rest.util.StreamingResourceHttpMessageConverter;
 import cz.cvut.kbss.termit.workspace.WorkspaceMetadataCache;
 import cz.cvut.kbss.termit.security.model.AuthenticationToken;
 import cz.cvut.kbss.termit.security.model.TermItUserDetails;
@@ -38,6 +39,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.security.core.context.SecurityContext;
@@ -170,10 +172,18 @@ public class Environment {
         return new StringHttpMessageConverter(StandardCharsets.UTF_8);
     }
 
+    public static HttpMessageConverter<?> createStreamingResourceMessageConverter() {
+        return new StreamingResourceHttpMessageConverter();
+    }
+
     public static HttpMessageConverter<?> createResourceMessageConverter() {
         return new ResourceHttpMessageConverter();
     }
 
+    public static HttpMessageConverter<?> createResourceRegionMessageConverter() {
+        return new ResourceRegionHttpMessageConverter();
+    }
+
     public static InputStream loadFile(String file) {
         return Environment.class.getClassLoader().getResourceAsStream(file);
     }
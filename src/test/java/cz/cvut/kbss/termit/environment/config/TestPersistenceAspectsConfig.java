@@ -1,5 +1,6 @@
 package cz.cvut.kbss.termit.environment.config;
 
+import cz.cvut.kbss.termit.aspect.AssetIndexingAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.service.changetracking.ChangeTracker;
 import org.aspectj.lang.Aspects;
@@ -15,6 +16,11 @@ public class TestPersistenceAspectsConfig {
         return Aspects.aspectOf(ChangeTrackingAspect.class);
     }
 
+    @Bean
+    public AssetIndexingAspect assetIndexingAspect() {
+        return Aspects.aspectOf(AssetIndexingAspect.class);
+    }
+
     @Bean
     public ChangeTracker changeTracker() {
         return mock(ChangeTracker.class);
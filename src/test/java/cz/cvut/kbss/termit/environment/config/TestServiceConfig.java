@@ -17,6 +17,7 @@
  */
 package cz.cvut.kbss.termit.environment.config;
 
+import cz.cvut.kbss.termit.aspect.AssetIndexingAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.model.selector.TermSelector;
@@ -91,6 +92,11 @@ public class TestServiceConfig {
         return Aspects.aspectOf(ChangeTrackingAspect.class);
     }
 
+    @Bean
+    AssetIndexingAspect assetIndexingAspect() {
+        return Aspects.aspectOf(AssetIndexingAspect.class);
+    }
+
     @Bean
     @Primary
     public HttpSession httpSession() {
@@ -19,12 +19,15 @@ import cz.cvut.kbss.jopa.vocabulary.OWL;
 import cz.cvut.kbss.termit.dto.RdfsResource;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.DataImportException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
@@ -41,8 +44,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -211,6 +219,82 @@ class DataDaoTest extends BaseDaoTestRunner {
         });
     }
 
+    @Test
+    void exportDataAndImportDataRoundTripPreservesContexts() {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Resource ctxOne = vf.createIRI(Generator.generateUri().toString());
+        final Resource ctxTwo = vf.createIRI(Generator.generateUri().toString());
+        final Statement stOne = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.LABEL,
+                vf.createLiteral("Term", "en"), ctxOne);
+        final Statement stTwo = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.COMMENT,
+                vf.createLiteral("Comment"), ctxTwo);
+        final Repository repo = em.unwrap(Repository.class);
+        for (RDFFormat format : Arrays.asList(RDFFormat.BINARY, RDFFormat.NQUADS, RDFFormat.TRIG)) {
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.add(Arrays.asList(stOne, stTwo));
+            }
+            final ByteArrayOutputStream dump = new ByteArrayOutputStream();
+            sut.exportData(format, dump, URI.create(ctxOne.stringValue()), URI.create(ctxTwo.stringValue()));
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.clear(ctxOne, ctxTwo);
+            }
+            assertEquals(2, sut.importData(format, new ByteArrayInputStream(dump.toByteArray())));
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                assertTrue(connection.hasStatement(stOne.getSubject(), stOne.getPredicate(), stOne.getObject(), false,
+                        ctxOne));
+                assertTrue(connection.hasStatement(stTwo.getSubject(), stTwo.getPredicate(), stTwo.getObject(), false,
+                        ctxTwo));
+                assertFalse(connection.hasStatement(stOne.getSubject(), stOne.getPredicate(), stOne.getObject(), false,
+                        ctxTwo));
+                connection.clear(ctxOne, ctxTwo);
+            }
+        }
+    }
+
+    @Test
+    void importDataReplacesContentOfContextsContainedInData() {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Resource ctx = vf.createIRI(Generator.generateUri().toString());
+        final Statement original = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.LABEL,
+                vf.createLiteral("Original"), ctx);
+        final Statement restored = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.LABEL,
+                vf.createLiteral("Restored"), ctx);
+        final Repository repo = em.unwrap(Repository.class);
+        try (final RepositoryConnection connection = repo.getConnection()) {
+            connection.add(original);
+        }
+        final ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        Rio.write(Collections.singletonList(restored), dump, RDFFormat.NQUADS);
+        sut.importData(RDFFormat.NQUADS, new ByteArrayInputStream(dump.toByteArray()));
+        try (final RepositoryConnection connection = repo.getConnection()) {
+            assertTrue(connection.hasStatement(restored, false, ctx));
+            assertFalse(connection.hasStatement(original, false, ctx));
+        }
+    }
+
+    @Test
+    void importDataLeavesRepositoryUnchangedWhenDataCannotBeParsed() {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Resource ctx = vf.createIRI(Generator.generateUri().toString());
+        final Statement original = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.LABEL,
+                vf.createLiteral("Original"), ctx);
+        final Statement restored = vf.createStatement(vf.createIRI(Vocabulary.s_c_term), RDFS.LABEL,
+                vf.createLiteral("Restored"), ctx);
+        final Repository repo = em.unwrap(Repository.class);
+        try (final RepositoryConnection connection = repo.getConnection()) {
+            connection.add(original);
+        }
+        final ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        Rio.write(Collections.singletonList(restored), dump, RDFFormat.NQUADS);
+        final byte[] invalid = (dump.toString() + "invalid").getBytes(StandardCharsets.UTF_8);
+        assertThrows(DataImportException.class,
+                () -> sut.importData(RDFFormat.NQUADS, new ByteArrayInputStream(invalid)));
+        try (final RepositoryConnection connection = repo.getConnection()) {
+            assertTrue(connection.hasStatement(original, false, ctx));
+            assertFalse(connection.hasStatement(restored, false, ctx));
+        }
+    }
+
     private static Model parseExportToModel(TypeAwareResource result) {
         final RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
         Model model = new LinkedHashModel();
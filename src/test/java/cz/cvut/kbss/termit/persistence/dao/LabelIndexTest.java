@@ -0,0 +1,168 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.termit.dto.Suggestion;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelIndexTest {
+
+    private static Suggestion suggestion(String label, int popularity) {
+        return new Suggestion(Generator.generateUri(), label, Vocabulary.s_c_term, null, popularity);
+    }
+
+    private static List<Suggestion> find(LabelIndex index, String prefix) {
+        return index.find(prefix, s -> true, 10, deadline());
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    @Test
+    void findMatchesPrefixOfAnyWordInLabel() {
+        final Suggestion s = suggestion("Building permit", 0);
+        final LabelIndex sut = LabelIndex.build(Collections.singleton(s));
+
+        assertEquals(Collections.singletonList(s), find(sut, "bui"));
+        assertEquals(Collections.singletonList(s), find(sut, "perm"));
+        assertEquals(Collections.singletonList(s), find(sut, "building pe"));
+        assertTrue(find(sut, "uilding").isEmpty());
+    }
+
+    @Test
+    void findIgnoresCaseAndDiacritics() {
+        final Suggestion s = suggestion("Stavební povolení", 0);
+        final LabelIndex sut = LabelIndex.build(Collections.singleton(s));
+
+        assertEquals(Collections.singletonList(s), find(sut, "POVOLENI"));
+        assertEquals(Collections.singletonList(s), find(sut, "stavebn"));
+    }
+
+    @Test
+    void findReturnsMostPopularSuggestionsUpToLimit() {
+        final List<Suggestion> suggestions = IntStream.range(0, 20).mapToObj(i -> suggestion("Building " + i, i))
+                                                      .collect(Collectors.toList());
+        final LabelIndex sut = LabelIndex.build(suggestions);
+
+        final List<Suggestion> result = sut.find("build", s -> true, 3, deadline());
+        assertEquals(Arrays.asList(suggestions.get(19), suggestions.get(18), suggestions.get(17)), result);
+    }
+
+    @Test
+    void findPrefersShorterLabelsWithSamePopularity() {
+        final Suggestion longer = suggestion("Building permit", 1);
+        final Suggestion shorter = suggestion("Building", 1);
+        final LabelIndex sut = LabelIndex.build(Arrays.asList(longer, shorter));
+
+        assertEquals(Arrays.asList(shorter, longer), find(sut, "build"));
+    }
+
+    @Test
+    void findReturnsEachAssetOnlyOnce() {
+        final Suggestion s = suggestion("Permit to build a building", 0);
+        final LabelIndex sut = LabelIndex.build(Collections.singleton(s));
+
+        assertEquals(Collections.singletonList(s), find(sut, "buil"));
+    }
+
+    @Test
+    void findSkipsSuggestionsNotMatchingFilter() {
+        final Suggestion matching = suggestion("Building", 0);
+        final Suggestion other = suggestion("Building permit", 5);
+        final LabelIndex sut = LabelIndex.build(Arrays.asList(matching, other));
+
+        assertEquals(Collections.singletonList(matching),
+                sut.find("build", s -> s.getUri().equals(matching.getUri()), 10, deadline()));
+    }
+
+    @Test
+    void findReturnsNothingForBlankPrefix() {
+        final LabelIndex sut = LabelIndex.build(Collections.singleton(suggestion("Building", 0)));
+
+        assertTrue(find(sut, " ").isEmpty());
+    }
+
+    @Test
+    void findReturnsPartialResultWhenDeadlinePasses() {
+        final List<Suggestion> suggestions = IntStream.range(0, 1000).mapToObj(i -> suggestion("Building " + i, i))
+                                                      .collect(Collectors.toList());
+        final LabelIndex sut = LabelIndex.build(suggestions);
+
+        final List<Suggestion> result = sut.find("build", s -> true, 1000, System.nanoTime() - 1);
+        assertFalse(result.isEmpty());
+        assertTrue(result.size() < suggestions.size());
+    }
+
+    @Test
+    void findReturnsMostPopularSuggestionsEvenWhenDeadlinePasses() {
+        final List<Suggestion> suggestions = IntStream.range(0, 1000).mapToObj(i -> suggestion("Building " + i, i))
+                                                      .collect(Collectors.toList());
+        final LabelIndex sut = LabelIndex.build(suggestions);
+
+        final List<Suggestion> result = sut.find("build", s -> true, 3, System.nanoTime() - 1);
+        assertEquals(Arrays.asList(suggestions.get(999), suggestions.get(998), suggestions.get(997)), result);
+    }
+
+    @Test
+    void findMatchesPrefixesLongerThanBucketPrefix() {
+        final Suggestion building = suggestion("Building", 5);
+        final Suggestion build = suggestion("Build", 1);
+        final LabelIndex sut = LabelIndex.build(Arrays.asList(building, build));
+
+        assertEquals(Collections.singletonList(building), find(sut, "buildi"));
+        assertEquals(Arrays.asList(building, build), find(sut, "b"));
+    }
+
+    @Test
+    void updateReplacesSuggestionsOfUpdatedAssets() {
+        final Suggestion original = suggestion("Building permit", 0);
+        final Suggestion unchanged = suggestion("Building site", 0);
+        final LabelIndex index = LabelIndex.build(Arrays.asList(original, unchanged));
+        final Suggestion updated = new Suggestion(original.getUri(), "Construction permit", original.getType(), null,
+                2);
+
+        final LabelIndex sut = index.update(Collections.singleton(original.getUri()),
+                Collections.singleton(updated));
+        assertEquals(Collections.singletonList(unchanged), find(sut, "build"));
+        assertEquals(Collections.singletonList(updated), find(sut, "constr"));
+        assertEquals(2, find(sut, "constr").get(0).getPopularity());
+        assertEquals(2, find(index, "build").size());
+    }
+
+    @Test
+    void updateRemovesSuggestionsOfRemovedAssets() {
+        final Suggestion removed = suggestion("Building permit", 0);
+        final LabelIndex index = LabelIndex.build(Collections.singleton(removed));
+
+        final LabelIndex sut = index.update(Collections.singleton(removed.getUri()), Collections.emptyList());
+        assertTrue(find(sut, "build").isEmpty());
+        assertEquals(0, sut.size());
+    }
+}
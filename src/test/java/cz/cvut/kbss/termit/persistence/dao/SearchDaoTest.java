@@ -24,6 +24,8 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +35,7 @@ import java.util.stream.IntStream;
 
 import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -142,4 +145,24 @@ class SearchDaoTest extends BaseDaoTestRunner {
             }
         }
     }
+
+    @Test
+    void defaultFullTextSearchReturnsRequestedPageOfResults() {
+        final List<Vocabulary> vocabularies = IntStream.range(0, 5).mapToObj(i -> {
+            final Vocabulary v = Generator.generateVocabularyWithId();
+            v.setLabel("Matching label " + i);
+            return v;
+        }).collect(Collectors.toList());
+        transactional(() -> vocabularies.forEach(em::persist));
+
+        final Page<FullTextSearchResult> firstPage = sut.fullTextSearch("matching", PageRequest.of(0, 2));
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertTrue(firstPage.hasNext());
+        assertEquals("Matching label 0", firstPage.getContent().get(0).getLabel());
+        final Page<FullTextSearchResult> lastPage = sut.fullTextSearch("matching", PageRequest.of(2, 2));
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertFalse(lastPage.hasNext());
+        assertEquals(vocabularies.size(), lastPage.getTotalElements());
+        assertEquals("Matching label 4", lastPage.getContent().get(0).getLabel());
+    }
 }
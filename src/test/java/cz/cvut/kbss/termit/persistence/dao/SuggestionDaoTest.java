@@ -0,0 +1,256 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.dto.Suggestion;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionDaoTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private SuggestionDao sut;
+
+    private Vocabulary vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setLabel("Building regulations");
+        transactional(() -> em.persist(vocabulary));
+    }
+
+    private Term persistTerm(String label, Vocabulary vocabulary, int assignmentCount) {
+        final Term term = Generator.generateTermWithId();
+        term.setLabel(label);
+        transactional(() -> em.persist(term));
+        final Repository repository = em.unwrap(Repository.class);
+        final ValueFactory vf = repository.getValueFactory();
+        final IRI termIri = vf.createIRI(term.getUri().toString());
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            conn.add(termIri, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku),
+                    vf.createIRI(vocabulary.getUri().toString()));
+            for (int i = 0; i < assignmentCount; i++) {
+                conn.add(vf.createIRI(Generator.generateUri().toString()),
+                        vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_prirazenim_termu), termIri);
+            }
+        }
+        return term;
+    }
+
+    private List<Suggestion> suggest(String prefix) {
+        return sut.suggest(prefix, null, null, 10);
+    }
+
+    @Test
+    void suggestFindsTermsAndVocabulariesByPrefixOfAnyWordInLabel() {
+        final Term term = persistTerm("Building permit", vocabulary, 0);
+        sut.rebuild();
+
+        final List<Suggestion> result = suggest("bui");
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(s -> s.getUri().equals(term.getUri()) &&
+                s.getType().equals(getOwlClassForEntity(Term.class)) &&
+                s.getVocabulary().equals(vocabulary.getUri())));
+        assertTrue(result.stream().anyMatch(s -> s.getUri().equals(vocabulary.getUri()) &&
+                s.getType().equals(getOwlClassForEntity(Vocabulary.class))));
+        final List<Suggestion> permitResult = suggest("Perm");
+        assertEquals(1, permitResult.size());
+        assertEquals(term.getUri(), permitResult.get(0).getUri());
+    }
+
+    @Test
+    void suggestRanksTermsByNumberOfAssignments() {
+        final Term rare = persistTerm("Building", vocabulary, 1);
+        final Term popular = persistTerm("Building permit", vocabulary, 3);
+        sut.rebuild();
+
+        final List<Suggestion> result = sut.suggest("build", null, vocabulary.getUri(), 2);
+        assertEquals(2, result.size());
+        assertEquals(popular.getUri(), result.get(0).getUri());
+        assertEquals(3, result.get(0).getPopularity());
+        assertEquals(rare.getUri(), result.get(1).getUri());
+    }
+
+    @Test
+    void suggestReturnsOnlySuggestionsFromSpecifiedVocabularies() {
+        final Vocabulary other = Generator.generateVocabularyWithId();
+        other.setLabel("Other");
+        transactional(() -> em.persist(other));
+        persistTerm("Building permit", vocabulary, 0);
+        final Term term = persistTerm("Building site", other, 0);
+        sut.rebuild();
+
+        final List<Suggestion> result = sut.suggest("building", null, other.getUri(), 10);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void suggestIncludesSuggestionsFromTransitivelyImportedVocabularies() {
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        imported.setLabel("Imported");
+        final Vocabulary importing = Generator.generateVocabularyWithId();
+        importing.setLabel("Importing");
+        importing.setImportedVocabularies(Collections.singleton(imported.getUri()));
+        vocabulary.setImportedVocabularies(Collections.singleton(importing.getUri()));
+        transactional(() -> {
+            em.persist(imported);
+            em.persist(importing);
+            em.merge(vocabulary);
+        });
+        final Term importedTerm = persistTerm("Building site", imported, 0);
+        final Term otherTerm = persistTerm("Building permit", Generator.generateVocabularyWithId(), 0);
+        sut.rebuild();
+
+        final List<Suggestion> result = sut.suggest("building", null, vocabulary.getUri(), 10);
+        assertTrue(result.stream().anyMatch(s -> s.getUri().equals(importedTerm.getUri())));
+        assertFalse(result.stream().anyMatch(s -> s.getUri().equals(otherTerm.getUri())));
+    }
+
+    @Test
+    void reindexUpdatesImportsOfReindexedVocabulary() {
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        imported.setLabel("Imported");
+        transactional(() -> em.persist(imported));
+        final Term term = persistTerm("Building site", imported, 0);
+        sut.rebuild();
+        assertTrue(sut.suggest("site", null, vocabulary.getUri(), 10).isEmpty());
+
+        vocabulary.setImportedVocabularies(Collections.singleton(imported.getUri()));
+        transactional(() -> {
+            em.merge(vocabulary);
+            sut.reindex(Collections.singleton(vocabulary.getUri()));
+        });
+        final List<Suggestion> result = sut.suggest("site", null, vocabulary.getUri(), 10);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void suggestCapsNumberOfSuggestionsAtConfiguredMaximum() {
+        final int max = Integer.parseInt(config.get(ConfigParam.SUGGESTION_MAX_COUNT));
+        for (int i = 0; i <= max; i++) {
+            persistTerm("Building " + i, vocabulary, 0);
+        }
+        sut.rebuild();
+
+        assertEquals(max, sut.suggest("building", null, null, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void suggestUsesLabelsInSpecifiedLanguage() {
+        final Term term = persistTerm("Building permit", vocabulary, 0);
+        final Repository repository = em.unwrap(Repository.class);
+        final ValueFactory vf = repository.getValueFactory();
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            conn.add(vf.createIRI(term.getUri().toString()), SKOS.PREF_LABEL,
+                    vf.createLiteral("Stavební povolení", "cs"));
+        }
+        sut.rebuild();
+
+        final List<Suggestion> result = sut.suggest("staveb", "cs", null, 10);
+        assertEquals(1, result.size());
+        assertEquals("Stavební povolení", result.get(0).getLabel());
+        assertTrue(sut.suggest("staveb", "en", null, 10).isEmpty());
+    }
+
+    @Test
+    void reindexUpdatesLoadedIndexAfterTransactionCommits() {
+        assertTrue(suggest("permit").isEmpty());
+        final Term term = Generator.generateTermWithId();
+        term.setLabel("Building permit");
+        transactional(() -> {
+            em.persist(term);
+            sut.reindex(Collections.singleton(term.getUri()));
+            assertTrue(suggest("permit").isEmpty());
+        });
+
+        final List<Suggestion> result = suggest("permit");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void reindexRemovesLabelsOfAssetsWhichNoLongerExist() {
+        final Term term = persistTerm("Building permit", vocabulary, 0);
+        sut.rebuild();
+        assertFalse(suggest("permit").isEmpty());
+
+        transactional(() -> {
+            em.remove(em.find(Term.class, term.getUri()));
+            sut.reindex(Collections.singleton(term.getUri()));
+        });
+        assertTrue(suggest("permit").isEmpty());
+    }
+
+    @Test
+    void openBuildsIndexFromRepositoryContent() {
+        final Term term = persistTerm("Building permit", vocabulary, 0);
+        final SuggestionDao dao = new SuggestionDao(emf, config);
+        dao.open();
+        try {
+            assertEquals(term.getUri(), dao.suggest("permit", null, null, 10).get(0).getUri());
+        } finally {
+            dao.close();
+        }
+    }
+
+    @Test
+    void refreshLastModifiedEventCausesIndexRebuildInBackground() throws Exception {
+        persistTerm("Building permit", vocabulary, 0);
+        assertTrue(suggest("permit").isEmpty());
+
+        sut.onRefreshLastModified(new RefreshLastModifiedEvent(this));
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (suggest("permit").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, suggest("permit").size());
+    }
+}
@@ -24,10 +24,12 @@ import cz.cvut.kbss.termit.dto.workspace.VocabularyInfo;
 import cz.cvut.kbss.termit.dto.workspace.WorkspaceMetadata;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
 import cz.cvut.kbss.termit.persistence.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.skos.TermStatementWriter;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.workspace.WorkspaceMetadataCache;
 import org.eclipse.rdf4j.common.iteration.Iterations;
@@ -47,8 +49,10 @@ import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.doReturn;
@@ -64,6 +68,9 @@ class TermDaoTest extends BaseDaoTestRunner {
     @Autowired
     private WorkspaceMetadataCache wsMetadataCache;
 
+    @Autowired
+    private VocabularyDao vocabularyDao;
+
     @Autowired
     private TermDao sut;
 
@@ -270,6 +277,21 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(terms, result);
     }
 
+    @Test
+    void streamAllReturnsAllTermsFromVocabularyOrderedByLabel() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(terms, vocabulary);
+
+        final List<Term> result = new ArrayList<>();
+        transactional(() -> {
+            try (final Stream<Term> stream = sut.streamAll(vocabulary)) {
+                stream.forEach(result::add);
+            }
+        });
+        terms.sort(Comparator.comparing(Term::getLabel));
+        assertEquals(terms, result);
+    }
+
     @Test
     void persistSavesTermIntoVocabularyContext() {
         final Term term = Generator.generateTermWithId();
@@ -280,6 +302,114 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(term, result);
     }
 
+    @Test
+    void persistAllSavesTermsIntoVocabularyContext() {
+        final List<Term> terms = IntStream.range(0, 3).mapToObj(i -> Generator.generateTermWithId())
+                                          .collect(Collectors.toList());
+        transactional(() -> sut.persistAll(terms, vocabulary));
+
+        terms.forEach(t -> {
+            final Term result = em.find(Term.class, t.getUri(), descriptorFactory.termDescriptor(vocabulary));
+            assertNotNull(result);
+            assertEquals(t, result);
+            assertEquals(vocabulary.getGlossary().getUri(), result.getGlossary());
+        });
+    }
+
+    @Test
+    void findExistingIdentifiersReturnsOnlyIdentifiersOfExistingTerms() {
+        final Term existing = Generator.generateTermWithId();
+        transactional(() -> sut.persist(existing, vocabulary));
+        final URI unknown = Generator.generateUri();
+
+        final Set<URI> result = sut.findExistingIdentifiers(Arrays.asList(existing.getUri(), unknown));
+        assertEquals(Collections.singleton(existing.getUri()), result);
+    }
+
+    @Test
+    void findExistingIdentifiersReturnsEmptySetForEmptyInput() {
+        assertTrue(sut.findExistingIdentifiers(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void openStatementWriterReturnsWriterWhoseTermsCanBeLoadedAsEntities() {
+        final Term parent = Generator.generateTermWithId();
+        final Term child = Generator.generateTermWithId();
+        try (final TermStatementWriter writer = sut.openStatementWriter(vocabulary)) {
+            writer.addTerm(parent);
+            writer.addTerm(child);
+            writer.addParent(child.getUri(), parent.getUri());
+            writer.flush();
+            assertEquals(new HashSet<>(Arrays.asList(parent.getUri(), child.getUri())),
+                    writer.findExisting(Arrays.asList(parent.getUri(), child.getUri(), Generator.generateUri())));
+            writer.assignTopConcepts();
+        }
+
+        final Term result = em.find(Term.class, child.getUri(), descriptorFactory.termDescriptor(vocabulary));
+        assertNotNull(result);
+        assertEquals(child.getLabel(), result.getLabel());
+        assertEquals(vocabulary.getGlossary().getUri(), result.getGlossary());
+        assertEquals(Collections.singleton(parent.getUri()),
+                result.getParentTerms().stream().map(Term::getUri).collect(Collectors.toSet()));
+        transactional(() -> {
+            final Glossary glossary = em.find(Glossary.class, vocabulary.getGlossary().getUri(),
+                    descriptorFactory.glossaryDescriptor(vocabulary));
+            assertTrue(glossary.getRootTerms().contains(parent.getUri()));
+            assertFalse(glossary.getRootTerms().contains(child.getUri()));
+        });
+    }
+
+    @Test
+    void evictVocabularyContextEvictsCachedInstancesChangedByStatementWriter() {
+        // Load the glossary into the second level cache
+        transactional(() -> assertNotNull(em.find(Glossary.class, vocabulary.getGlossary().getUri(),
+                descriptorFactory.glossaryDescriptor(vocabulary))));
+        final Term term = Generator.generateTermWithId();
+        try (final TermStatementWriter writer = sut.openStatementWriter(vocabulary)) {
+            writer.addTerm(term);
+            writer.flush();
+            writer.assignTopConcepts();
+        }
+
+        sut.evictVocabularyContext(vocabulary);
+        transactional(() -> {
+            final Glossary glossary = em.find(Glossary.class, vocabulary.getGlossary().getUri(),
+                    descriptorFactory.glossaryDescriptor(vocabulary));
+            assertTrue(glossary.getRootTerms().contains(term.getUri()));
+        });
+    }
+
+    @Test
+    void refreshLastModifiedWithinTransactionRefreshesValueAgainAfterCommit() {
+        final long[] withinTransaction = new long[1];
+        transactional(() -> {
+            sut.refreshLastModified();
+            withinTransaction[0] = sut.getLastModified();
+        });
+        assertThat(withinTransaction[0], lessThan(sut.getLastModified()));
+    }
+
+    @Test
+    void persistRefreshesLastModifiedTimestampOfTermVocabulary() {
+        final Vocabulary another = Generator.generateVocabularyWithId();
+        final long before = vocabularyDao.getLastModified(vocabulary.getUri());
+        final long anotherBefore = vocabularyDao.getLastModified(another.getUri());
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> sut.persist(term, vocabulary));
+        assertThat(vocabularyDao.getLastModified(vocabulary.getUri()), greaterThan(before));
+        assertEquals(anotherBefore, vocabularyDao.getLastModified(another.getUri()));
+    }
+
+    @Test
+    void removeRefreshesLastModifiedTimestampOfTermVocabulary() {
+        final Term term = Generator.generateTermWithId();
+        addTermsAndSave(Collections.singleton(term), vocabulary);
+        final long before = vocabularyDao.getLastModified(vocabulary.getUri());
+        transactional(() -> sut.remove(term));
+        assertFalse(sut.exists(term.getUri()));
+        assertThat(vocabularyDao.getLastModified(vocabulary.getUri()), greaterThan(before));
+    }
+
     @Test
     void updateUpdatesTermInVocabularyContext() {
         final Term term = Generator.generateTermWithId();
@@ -677,4 +807,31 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(term.getUri(), result.get(0).getUri());
         assertEquals(term.getVocabulary(), result.get(0).getVocabulary());
     }
+
+    @Test
+    void findAllLabelsReturnsPreferredAndAlternativeLabelsOfTermsInVocabulary() {
+        final List<Term> terms = generateTerms(3);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+        final Term withAltLabel = terms.get(0);
+        final String altLabel = "Alternative label";
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            final ValueFactory vf = repo.getValueFactory();
+            try (final RepositoryConnection conn = repo.getConnection()) {
+                conn.begin();
+                conn.add(vf.createIRI(withAltLabel.getUri().toString()), vf.createIRI(SKOS.ALT_LABEL),
+                        vf.createLiteral(altLabel, Constants.DEFAULT_LANGUAGE),
+                        vf.createIRI(descriptorFactory.termDescriptor(vocabulary).getContext().toString()));
+                conn.commit();
+            }
+        });
+
+        final List<TermInfo> result = sut.findAllLabels(vocabulary.getUri());
+        assertEquals(terms.size() + 1, result.size());
+        terms.forEach(t -> assertTrue(result.stream().anyMatch(
+                ti -> ti.getUri().equals(t.getUri()) && ti.getLabel().equals(t.getLabel()))));
+        assertTrue(result.stream()
+                         .anyMatch(ti -> ti.getUri().equals(withAltLabel.getUri()) && ti.getLabel().equals(altLabel)));
+        result.forEach(ti -> assertEquals(vocabulary.getUri(), ti.getVocabulary()));
+    }
 }
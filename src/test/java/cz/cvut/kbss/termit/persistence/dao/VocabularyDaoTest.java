@@ -347,6 +347,31 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         assertThat(after, greaterThan(before));
     }
 
+    @Test
+    void updateRefreshesLastModifiedTimestampOfUpdatedVocabularyOnly() {
+        final Vocabulary voc = Generator.generateVocabularyWithId();
+        final Vocabulary another = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(voc, descriptorFactory.vocabularyDescriptor(voc)));
+        final long before = sut.getLastModified(voc.getUri());
+        final long anotherBefore = sut.getLastModified(another.getUri());
+        voc.setLabel("New vocabulary label");
+        transactional(() -> sut.update(voc));
+        assertThat(sut.getLastModified(voc.getUri()), greaterThan(before));
+        assertEquals(anotherBefore, sut.getLastModified(another.getUri()));
+    }
+
+    @Test
+    void refreshLastModifiedEventRefreshesLastModifiedTimestampOfAllVocabularies() {
+        final Vocabulary voc = Generator.generateVocabularyWithId();
+        transactional(() -> sut.persist(voc));
+        final long before = sut.getLastModified(voc.getUri());
+        final URI another = Generator.generateUri();
+        final long anotherBefore = sut.getLastModified(another);
+        sut.refreshLastModified(new RefreshLastModifiedEvent(this));
+        assertThat(sut.getLastModified(voc.getUri()), greaterThan(before));
+        assertThat(sut.getLastModified(another), greaterThan(anotherBefore));
+    }
+
     @Test
     void findAllByWorkspaceLoadsVocabulariesInWorkspace() {
         enableRdfsInference(em);
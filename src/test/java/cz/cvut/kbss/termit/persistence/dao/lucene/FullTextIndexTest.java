@@ -0,0 +1,226 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Collections;
+import java.util.List;
+
+import static cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper.getOwlClassForEntity;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private Configuration config;
+
+    private Vocabulary vocabulary;
+
+    private FullTextIndex sut;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final User author = Generator.generateUserWithId();
+        transactional(() -> em.persist(author));
+        Environment.setCurrentUser(author);
+        this.vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setLabel("Building regulations");
+        transactional(() -> em.persist(vocabulary));
+        this.sut = new FullTextIndex(emf, config);
+        sut.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sut.close();
+    }
+
+    private Term persistTerm(String label, String definition) {
+        final Term term = Generator.generateTermWithId();
+        term.setLabel(label);
+        term.setDefinition(definition);
+        term.setVocabulary(vocabulary.getUri());
+        transactional(() -> em.persist(term));
+        return term;
+    }
+
+    private List<FullTextSearchResult> search(String searchString) {
+        return sut.search(searchString, PageRequest.of(0, 10)).getContent();
+    }
+
+    @Test
+    void openBuildsIndexFromRepositoryContent() throws Exception {
+        persistTerm("Building permit", "Permission to build a structure.");
+        final FullTextIndex index = new FullTextIndex(emf, config);
+        index.open();
+        try {
+            assertEquals(2, index.size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void searchFindsTermsAndVocabulariesByLabel() {
+        final Term term = persistTerm("Building permit", "Permission to build a structure.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = search("building");
+        assertEquals(2, result.size());
+        final FullTextSearchResult termResult = result.stream().filter(r -> r.getUri().equals(term.getUri()))
+                                                      .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(term.getLabel(), termResult.getLabel());
+        assertTrue(termResult.getTypes().contains(getOwlClassForEntity(Term.class)));
+        assertNotNull(termResult.getScore());
+        assertTrue(result.stream().anyMatch(r -> r.getUri().equals(vocabulary.getUri()) &&
+                r.getTypes().contains(getOwlClassForEntity(Vocabulary.class))));
+    }
+
+    @Test
+    void searchMatchesStemmedWordsAndIncompleteLastWord() {
+        final Term term = persistTerm("Building permits", "Permission to build a structure.");
+        sut.rebuild();
+
+        assertEquals(term.getUri(), search("permit").get(0).getUri());
+        assertEquals(term.getUri(), search("building perm").get(0).getUri());
+    }
+
+    @Test
+    void searchReturnsHighlightedSnippetOfMatchingDefinition() {
+        final Term term = persistTerm("Permit", "Document allowing construction of a house.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = search("construction");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals(FullTextIndex.SNIPPET_FIELD_DEFINITION, result.get(0).getSnippetField());
+        assertThat(result.get(0).getSnippetText(), containsString("<em>construction</em>"));
+    }
+
+    @Test
+    void searchRanksLabelMatchesAboveDefinitionMatches() {
+        final Term definitionMatch = persistTerm("Permit", "Permission to build a house.");
+        final Term labelMatch = persistTerm("House", "Building for human habitation.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = search("house");
+        assertEquals(2, result.size());
+        assertEquals(labelMatch.getUri(), result.get(0).getUri());
+        assertEquals(FullTextIndex.SNIPPET_FIELD_LABEL, result.get(0).getSnippetField());
+        assertEquals(definitionMatch.getUri(), result.get(1).getUri());
+        assertTrue(result.get(0).getScore() > result.get(1).getScore());
+    }
+
+    @Test
+    void searchMatchesLabelsInOtherLanguages() {
+        final Term term = persistTerm("Building permit", "Permission to build a structure.");
+        final Repository repository = em.unwrap(Repository.class);
+        final ValueFactory vf = repository.getValueFactory();
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            conn.add(vf.createIRI(term.getUri().toString()), SKOS.PREF_LABEL,
+                    vf.createLiteral("Stavební povolení", "cs"));
+        }
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = search("povolení");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals(term.getLabel(), result.get(0).getLabel());
+    }
+
+    @Test
+    void reindexUpdatesIndexAfterTransactionCommits() {
+        final Term term = Generator.generateTermWithId();
+        term.setLabel("Building permit");
+        term.setVocabulary(vocabulary.getUri());
+        transactional(() -> {
+            em.persist(term);
+            sut.reindex(Collections.singleton(term.getUri()));
+            assertTrue(search("permit").isEmpty());
+        });
+
+        final List<FullTextSearchResult> result = search("permit");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void reindexRemovesAssetsWhichNoLongerExist() {
+        final Term term = persistTerm("Building permit", "Permission to build a structure.");
+        sut.rebuild();
+        assertFalse(search("permit").isEmpty());
+
+        transactional(() -> {
+            em.remove(em.find(Term.class, term.getUri()));
+            sut.reindex(Collections.singleton(term.getUri()));
+        });
+        assertTrue(search("permit").isEmpty());
+    }
+
+    @Test
+    void searchReturnsRequestedPageWithTotalHitCount() {
+        for (int i = 0; i < 5; i++) {
+            persistTerm("Permit " + i, "Permission to build a structure.");
+        }
+        sut.rebuild();
+
+        final Page<FullTextSearchResult> firstPage = sut.search("permit", PageRequest.of(0, 2));
+        final Page<FullTextSearchResult> lastPage = sut.search("permit", PageRequest.of(2, 2));
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertTrue(firstPage.hasNext());
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertEquals(5, lastPage.getTotalElements());
+        assertTrue(firstPage.getContent().stream().noneMatch(lastPage.getContent()::contains));
+    }
+
+    @Test
+    void searchReturnsEmptyPageWhenOffsetExceedsIndexSize() {
+        persistTerm("Building permit", "Permission to build a structure.");
+        sut.rebuild();
+
+        assertTrue(sut.search("permit", PageRequest.of(10, 10)).isEmpty());
+    }
+}
@@ -56,6 +56,7 @@ class LuceneSearchDaoTest {
         when(emMock.createNativeQuery(any(), anyString())).thenReturn(queryMock);
         when(queryMock.setParameter(anyString(), any())).thenReturn(queryMock);
         when(queryMock.setParameter(anyString(), any(), any())).thenReturn(queryMock);
+        when(queryMock.setUntypedParameter(anyString(), any())).thenReturn(queryMock);
         when(queryMock.getResultList()).thenReturn(Collections.emptyList());
         when(configMock.get(ConfigParam.LANGUAGE)).thenReturn("cs");
         this.sut = new LuceneSearchDao(emMock, configMock);
@@ -0,0 +1,129 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BatchedStatementWriterTest {
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    @Mock
+    private RepositoryConnection connection;
+
+    private IRI context;
+
+    /**
+     * Simulates transaction state of the connection
+     */
+    private boolean active;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        this.context = vf.createIRI(Generator.generateUri().toString());
+        when(connection.isActive()).thenAnswer(inv -> active);
+        doAnswer(inv -> active = true).when(connection).begin();
+        doAnswer(inv -> active = false).when(connection).commit();
+        doAnswer(inv -> active = false).when(connection).rollback();
+    }
+
+    private Statement generateStatement() {
+        return vf.createStatement(vf.createIRI(Generator.generateUri().toString()), RDF.TYPE, SKOS.CONCEPT);
+    }
+
+    @Test
+    void addCommitsStatementsInBatchesOfConfiguredSize() {
+        final BatchedStatementWriter sut = new BatchedStatementWriter(connection, context, 5);
+        for (int i = 0; i < 12; i++) {
+            sut.add(generateStatement());
+        }
+        sut.flush();
+        verify(connection, times(12)).add(any(Statement.class), eq(context));
+        verify(connection, times(3)).begin();
+        verify(connection, times(3)).commit();
+        assertEquals(12, sut.getStatementCount());
+    }
+
+    @Test
+    void addCommitsAllStatementsInSingleTransactionWhenBatchSizeIsNotPositive() {
+        final BatchedStatementWriter sut = new BatchedStatementWriter(connection, context, 0);
+        for (int i = 0; i < 12; i++) {
+            sut.add(generateStatement());
+        }
+        sut.flush();
+        verify(connection).begin();
+        verify(connection).commit();
+    }
+
+    @Test
+    void removeCountsRemovalsIntoSameBatchesAsAdditions() {
+        final BatchedStatementWriter sut = new BatchedStatementWriter(connection, context, 5);
+        for (int i = 0; i < 3; i++) {
+            sut.add(generateStatement());
+        }
+        final Statement toRemove = generateStatement();
+        for (int i = 0; i < 3; i++) {
+            sut.remove(toRemove);
+        }
+        sut.flush();
+        verify(connection, times(3)).remove(toRemove.getSubject(), toRemove.getPredicate(), toRemove.getObject(),
+                context);
+        verify(connection, times(2)).commit();
+        assertEquals(3, sut.getStatementCount());
+        assertEquals(3, sut.getRemovedStatementCount());
+    }
+
+    @Test
+    void addPreservesStatementContextWhenWriterHasNoTargetContext() {
+        final BatchedStatementWriter sut = new BatchedStatementWriter(connection, 5);
+        final Statement statement = vf.createStatement(vf.createIRI(Generator.generateUri().toString()), RDF.TYPE,
+                SKOS.CONCEPT, context);
+        sut.add(statement);
+        sut.flush();
+        verify(connection).add(statement);
+        verify(connection).commit();
+    }
+
+    @Test
+    void closeRollsBackUncommittedStatements() {
+        final BatchedStatementWriter sut = new BatchedStatementWriter(connection, context, 5);
+        for (int i = 0; i < 7; i++) {
+            sut.add(generateStatement());
+        }
+        sut.close();
+        verify(connection).commit();
+        verify(connection).rollback();
+    }
+}
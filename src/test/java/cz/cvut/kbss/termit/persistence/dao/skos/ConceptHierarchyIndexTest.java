@@ -0,0 +1,113 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConceptHierarchyIndexTest {
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private final ConceptHierarchyIndex sut = new ConceptHierarchyIndex();
+
+    private Resource generateResource() {
+        return vf.createIRI(Generator.generateUri().toString());
+    }
+
+    private List<Resource> topConcepts() {
+        final List<Resource> result = new ArrayList<>();
+        sut.forEachTopConcept(result::add);
+        return result;
+    }
+
+    @Test
+    void addConceptReturnsFalseForAlreadyKnownConcept() {
+        final Resource concept = generateResource();
+        assertTrue(sut.addConcept(concept));
+        assertFalse(sut.addConcept(concept));
+    }
+
+    @Test
+    void forEachTopConceptSkipsConceptsWithBroaderConcept() {
+        final Resource parent = generateResource();
+        final Resource child = generateResource();
+        // Link registered before the parent is known to be a concept
+        sut.addBroader(child, parent);
+        sut.addConcept(child);
+        sut.addConcept(parent);
+        assertThat(topConcepts(), containsInAnyOrder(parent));
+    }
+
+    @Test
+    void forEachTopConceptIncludesConceptsWithBroaderResourceWhichIsNotConcept() {
+        final Resource concept = generateResource();
+        sut.addConcept(concept);
+        sut.addBroader(concept, generateResource());
+        assertThat(topConcepts(), containsInAnyOrder(concept));
+    }
+
+    @Test
+    void forEachTopConceptSkipsNarrowerConcepts() {
+        final Resource parent = generateResource();
+        final Resource child = generateResource();
+        sut.addConcept(parent);
+        sut.addConcept(child);
+        sut.addNarrower(parent, child);
+        assertThat(topConcepts(), containsInAnyOrder(parent));
+    }
+
+    @Test
+    void forEachTopConceptIncludesConceptsNarrowerOfResourceWhichIsNotConcept() {
+        final Resource concept = generateResource();
+        sut.addConcept(concept);
+        sut.addNarrower(generateResource(), concept);
+        assertThat(topConcepts(), containsInAnyOrder(concept));
+    }
+
+    @Test
+    void forEachTopConceptResolvesTopConceptsOfLargeHierarchy() {
+        final int rootCount = 1000;
+        final int depth = 100;
+        final List<Resource> roots = new ArrayList<>(rootCount);
+        for (int i = 0; i < rootCount; i++) {
+            Resource parent = generateResource();
+            roots.add(parent);
+            sut.addConcept(parent);
+            for (int j = 1; j < depth; j++) {
+                final Resource child = generateResource();
+                sut.addConcept(child);
+                sut.addBroader(child, parent);
+                parent = child;
+            }
+        }
+        final List<Resource> result = topConcepts();
+        assertEquals(rootCount, result.size());
+        assertThat(result, containsInAnyOrder(roots.toArray()));
+    }
+}
@@ -1,19 +1,28 @@
 package cz.cvut.kbss.termit.persistence.dao.skos;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
 import cz.cvut.kbss.termit.dto.workspace.VocabularyInfo;
 import cz.cvut.kbss.termit.dto.workspace.WorkspaceMetadata;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.UnsupportedImportMediaTypeException;
+import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import cz.cvut.kbss.termit.persistence.PersistenceUtils;
 import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.persistence.dao.changetracking.ChangeRecordDao;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import cz.cvut.kbss.termit.workspace.WorkspaceMetadataCache;
 import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
@@ -23,6 +32,9 @@ import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -30,7 +42,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +58,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
 
 class SKOSImporterTest extends BaseDaoTestRunner {
 
@@ -56,6 +74,15 @@ class SKOSImporterTest extends BaseDaoTestRunner {
     @Autowired
     private WorkspaceMetadataCache workspaceMetadataCache;
 
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private PersistenceUtils persistenceUtils;
+
+    @Autowired
+    private ChangeRecordDao changeRecordDao;
+
     private final ValueFactory vf = SimpleValueFactory.getInstance();
 
     @BeforeEach
@@ -214,6 +241,32 @@ class SKOSImporterTest extends BaseDaoTestRunner {
         });
     }
 
+    @Test
+    void importParsesEachSourceAccordingToItsOwnMediaType() throws Exception {
+        final Model glossary = Rio.parse(Environment.loadFile("data/test-glossary.ttl"), "", RDFFormat.TURTLE);
+        final ByteArrayOutputStream glossaryXml = new ByteArrayOutputStream();
+        Rio.write(glossary, glossaryXml, RDFFormat.RDFXML);
+        final List<ImportSource> sources = Arrays.asList(
+                new ImportSource("glossary.rdf", RDFFormat.RDFXML.getDefaultMIMEType(),
+                        () -> new ByteArrayInputStream(glossaryXml.toByteArray())),
+                new ImportSource("vocabulary.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> Environment.loadFile("data/test-vocabulary.ttl")));
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(sources);
+        });
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                final List<Resource> terms = Iterations.stream(conn.getStatements(null, RDF.TYPE, SKOS.CONCEPT))
+                                                       .map(Statement::getSubject).collect(Collectors.toList());
+                assertFalse(terms.isEmpty());
+                terms.forEach(t -> assertTrue(conn.getStatements(t, vf.createIRI(Vocabulary.s_p_je_pojmem_ze_slovniku),
+                        vf.createIRI(VOCABULARY_IRI)).hasNext()));
+                assertTrue(conn.hasStatement(null, SKOS.HAS_TOP_CONCEPT, null, false));
+            }
+        });
+    }
+
     @Test
     void importGeneratesTopConceptAssertions() {
         transactional(() -> {
@@ -266,4 +319,126 @@ class SKOSImporterTest extends BaseDaoTestRunner {
         assertThat(r, instanceOf(PersistChangeRecord.class));
         assertEquals(URI.create(VOCABULARY_IRI), r.getChangedEntity());
     }
+
+    @Test
+    void importRemovesCommittedBatchesWhenImportFails() throws Exception {
+        final StringBuilder data = new StringBuilder(loadAsString("data/test-glossary.ttl")).append('\n');
+        // Enough statements for several chunks of parsed data to be written before parsing fails
+        for (int i = 0; i < 3000; i++) {
+            data.append("<http://example.org/term-").append(i).append("> a <").append(SKOS.CONCEPT).append("> .\n");
+        }
+        final byte[] valid = data.toString().getBytes(StandardCharsets.UTF_8);
+        final byte[] invalid = data.append("invalid").toString().getBytes(StandardCharsets.UTF_8);
+        final AtomicInteger opened = new AtomicInteger();
+        // The data are valid when resolving the vocabulary, but fail to parse when being imported
+        final ImportSource source = new ImportSource("glossary.ttl", Constants.Turtle.MEDIA_TYPE,
+                () -> new ByteArrayInputStream(opened.incrementAndGet() == 1 ? valid : invalid));
+        final Configuration batchConfig = spy(config);
+        doReturn("100").when(batchConfig).get(ConfigParam.IMPORT_BATCH_SIZE);
+        final SKOSImporter sut = new SKOSImporter(batchConfig, persistenceUtils, changeRecordDao, em);
+
+        assertThrows(RDFParseException.class, () -> sut.importVocabulary(Collections.singletonList(source)));
+        assertEquals(2, opened.get());
+        try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+            assertFalse(conn.hasStatement(null, null, null, false, vf.createIRI(VOCABULARY_IRI)));
+        }
+    }
+
+    @Test
+    void reimportAppliesOnlyDifferenceAgainstCurrentVocabularyContent() throws Exception {
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(Constants.Turtle.MEDIA_TYPE, Environment.loadFile("data/test-glossary.ttl"),
+                    Environment.loadFile("data/test-vocabulary.ttl"));
+        });
+        final String updatedGlossary = loadAsString("data/test-glossary.ttl")
+                .replace("\"Limited TermIt user\"@en", "\"Restricted TermIt user\"@en");
+        final String newTerm = "@prefix termit-pojem: <http://onto.fel.cvut.cz/ontologies/application/termit/pojem/> .\n" +
+                "@prefix skos: <http://www.w3.org/2004/02/skos/core#> .\n" +
+                "termit-pojem:nový-pojem a skos:Concept ;\n" +
+                "skos:inScheme <" + GLOSSARY_IRI + "> ;\n" +
+                "skos:broader termit-pojem:uživatel-termitu ;\n" +
+                "skos:prefLabel \"New term\"@en .";
+        final List<ImportSource> sources = Arrays.asList(
+                new ImportSource("glossary.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> new ByteArrayInputStream(updatedGlossary.getBytes(StandardCharsets.UTF_8))),
+                new ImportSource("vocabulary.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> Environment.loadFile("data/test-vocabulary.ttl")),
+                new ImportSource("new-term.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> new ByteArrayInputStream(newTerm.getBytes(StandardCharsets.UTF_8))));
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.reimportVocabulary(sources);
+        });
+
+        final IRI limitedUser = vf.createIRI(Vocabulary.s_c_omezeny_uzivatel_termitu);
+        final IRI addedTerm = vf.createIRI("http://onto.fel.cvut.cz/ontologies/application/termit/pojem/nový-pojem");
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                assertTrue(conn.hasStatement(limitedUser, SKOS.PREF_LABEL,
+                        vf.createLiteral("Restricted TermIt user", "en"), false));
+                assertFalse(conn.hasStatement(limitedUser, SKOS.PREF_LABEL,
+                        vf.createLiteral("Limited TermIt user", "en"), false));
+                assertTrue(conn.hasStatement(addedTerm, vf.createIRI(Vocabulary.s_p_je_pojmem_ze_slovniku),
+                        vf.createIRI(VOCABULARY_IRI), false));
+                assertEquals(1, Iterations.asList(
+                        conn.getStatements(limitedUser, SKOS.PREF_LABEL, vf.createLiteral("Omezený uživatel TermItu",
+                                "cs"), false)).size());
+            }
+        });
+        final List<AbstractChangeRecord> changeRecords = em
+                .createQuery("SELECT r FROM AbstractChangeRecord r", AbstractChangeRecord.class).getResultList();
+        final List<AbstractChangeRecord> addedTermRecords = changeRecords.stream().filter(
+                r -> r.getChangedEntity().toString().equals(addedTerm.stringValue())).collect(Collectors.toList());
+        assertEquals(1, addedTermRecords.size());
+        assertThat(addedTermRecords.get(0), instanceOf(PersistChangeRecord.class));
+        final List<AbstractChangeRecord> limitedUserRecords = changeRecords.stream().filter(
+                r -> r.getChangedEntity().toString().equals(limitedUser.stringValue())).collect(Collectors.toList());
+        assertEquals(1, limitedUserRecords.size());
+        assertThat(limitedUserRecords.get(0), instanceOf(UpdateChangeRecord.class));
+        final UpdateChangeRecord update = (UpdateChangeRecord) limitedUserRecords.get(0);
+        assertEquals(URI.create(SKOS.PREF_LABEL.stringValue()), update.getChangedAttribute());
+        assertEquals(Collections.singleton("Limited TermIt user"), update.getOriginalValue());
+        assertEquals(Collections.singleton("Restricted TermIt user"), update.getNewValue());
+    }
+
+    @Test
+    void reimportEvictsCachedInstancesFromVocabularyContext() throws Exception {
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(Constants.Turtle.MEDIA_TYPE, Environment.loadFile("data/test-glossary.ttl"),
+                    Environment.loadFile("data/test-vocabulary.ttl"));
+        });
+        final URI limitedUser = URI.create(Vocabulary.s_c_omezeny_uzivatel_termitu);
+        final EntityDescriptor descriptor = new EntityDescriptor(URI.create(VOCABULARY_IRI));
+        // Load the term into the second level cache
+        transactional(
+                () -> assertEquals("Limited TermIt user", em.find(Term.class, limitedUser, descriptor).getLabel()));
+        final String updatedGlossary = loadAsString("data/test-glossary.ttl")
+                .replace("\"Limited TermIt user\"@en", "\"Restricted TermIt user\"@en");
+        final List<ImportSource> sources = Arrays.asList(
+                new ImportSource("glossary.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> new ByteArrayInputStream(updatedGlossary.getBytes(StandardCharsets.UTF_8))),
+                new ImportSource("vocabulary.ttl", Constants.Turtle.MEDIA_TYPE,
+                        () -> Environment.loadFile("data/test-vocabulary.ttl")));
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.reimportVocabulary(sources);
+        });
+
+        transactional(
+                () -> assertEquals("Restricted TermIt user", em.find(Term.class, limitedUser, descriptor).getLabel()));
+    }
+
+    private static String loadAsString(String file) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final InputStream in = Environment.loadFile(file)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
 }
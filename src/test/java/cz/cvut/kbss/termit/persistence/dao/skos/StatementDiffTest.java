@@ -0,0 +1,109 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementDiffTest {
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private Statement generateStatement(int i) {
+        final int variant = i % 3;
+        final Statement st;
+        if (variant == 0) {
+            st = vf.createStatement(vf.createIRI(Generator.generateUri().toString()), RDF.TYPE, SKOS.CONCEPT);
+        } else if (variant == 1) {
+            st = vf.createStatement(vf.createIRI(Generator.generateUri().toString()), SKOS.PREF_LABEL,
+                    vf.createLiteral("Label " + i + "\nwith new line", "cs"));
+        } else {
+            st = vf.createStatement(vf.createBNode(), RDFS.COMMENT, vf.createLiteral(Integer.toString(i),
+                    XMLSchema.INT));
+        }
+        return st;
+    }
+
+    @Test
+    void computeReportsIncomingStatementsMissingInExistingAsAdditionsAndViceVersaAsRemovals() {
+        verifyDifference(new StatementDiff(vf));
+    }
+
+    @Test
+    void computeReportsCorrectDifferenceWhenStatementsAreSpilledToDisk() {
+        verifyDifference(new StatementDiff(vf, 10));
+    }
+
+    private void verifyDifference(StatementDiff sut) {
+        final List<Statement> common = new ArrayList<>();
+        final List<Statement> added = new ArrayList<>();
+        final List<Statement> removed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            common.add(generateStatement(i));
+            added.add(generateStatement(i));
+            removed.add(generateStatement(i));
+        }
+        final List<Statement> resultAdditions = new ArrayList<>();
+        final List<Statement> resultRemovals = new ArrayList<>();
+        try (final StatementDiff diff = sut) {
+            common.forEach(diff::addIncoming);
+            added.forEach(diff::addIncoming);
+            // Statements from the repository have context
+            common.forEach(st -> diff.addExisting(vf.createStatement(st.getSubject(), st.getPredicate(),
+                    st.getObject(), vf.createIRI(Generator.generateUri().toString()))));
+            removed.forEach(diff::addExisting);
+            diff.compute(resultAdditions::add, resultRemovals::add);
+        }
+        assertEquals(added.size(), resultAdditions.size());
+        assertThat(resultAdditions, containsInAnyOrder(added.toArray()));
+        assertEquals(removed.size(), resultRemovals.size());
+        assertThat(resultRemovals, containsInAnyOrder(removed.toArray()));
+    }
+
+    @Test
+    void computeIgnoresDuplicateIncomingStatements() {
+        final Set<Statement> resultAdditions = new HashSet<>();
+        final List<Statement> resultRemovals = new ArrayList<>();
+        final Statement st = generateStatement(1);
+        try (final StatementDiff sut = new StatementDiff(vf)) {
+            sut.addIncoming(st);
+            sut.addIncoming(st);
+            sut.addExisting(st);
+            sut.compute(resultAdditions::add, resultRemovals::add);
+        }
+        assertThat(resultAdditions, empty());
+        assertThat(resultRemovals, empty());
+    }
+}
@@ -47,7 +47,9 @@ public class BaseControllerTestRunner {
         this.mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new RestExceptionHandler())
                                       .setMessageConverters(createJsonLdMessageConverter(),
                                               createDefaultMessageConverter(), createStringEncodingMessageConverter(),
-                                              createResourceMessageConverter())
+                                              createStreamingResourceMessageConverter(),
+                                              createResourceMessageConverter(),
+                                              createResourceRegionMessageConverter())
                                       .setUseSuffixPatternMatch(false)
                                       .setContentNegotiationManager(new ContentNegotiationManager())
                                       .build();
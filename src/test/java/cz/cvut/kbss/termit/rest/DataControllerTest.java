@@ -22,7 +22,11 @@ import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
 import cz.cvut.kbss.termit.dto.RdfsResource;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.service.repository.DataRepositoryService;
+import cz.cvut.kbss.termit.util.Constants.BinaryRdf;
+import cz.cvut.kbss.termit.util.Constants.NQuads;
+import cz.cvut.kbss.termit.util.Constants.TriG;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,7 +37,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +50,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -124,4 +133,77 @@ class DataControllerTest extends BaseControllerTestRunner {
                                            .andExpect(status().isCreated()).andReturn();
         assertThat(mvcResult.getResponse().getHeader(HttpHeaders.LOCATION), containsString("/data/properties"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void dumpStreamsDumpOfSpecifiedContextsInRequestedFormat() throws Exception {
+        final URI context = Generator.generateUri();
+        final String content = "<http://a> <http://b> <http://c> <" + context + "> .";
+        when(dataServiceMock.exportData(NQuads.MEDIA_TYPE, Collections.singletonList(context)))
+                .thenReturn(new TypeAwareStreamingResource(out -> out.write(content.getBytes(StandardCharsets.UTF_8)),
+                        NQuads.MEDIA_TYPE, NQuads.FILE_EXTENSION));
+        final MvcResult mvcResult = mockMvc.perform(get("/data/dump").param("context", context.toString())
+                                                                       .accept(NQuads.MEDIA_TYPE))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals(content, mvcResult.getResponse().getContentAsString());
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION),
+                containsString("termit-dump" + NQuads.FILE_EXTENSION));
+    }
+
+    @Test
+    void dumpExportsCurrentWorkspaceWhenWorkspaceIsRequested() throws Exception {
+        when(dataServiceMock.exportWorkspaceData(BinaryRdf.MEDIA_TYPE))
+                .thenReturn(new TypeAwareStreamingResource(out -> out.write(1), BinaryRdf.MEDIA_TYPE,
+                        BinaryRdf.FILE_EXTENSION));
+        mockMvc.perform(get("/data/dump").param("workspace", Boolean.TRUE.toString()).accept(BinaryRdf.MEDIA_TYPE))
+               .andExpect(status().isOk());
+        verify(dataServiceMock).exportWorkspaceData(BinaryRdf.MEDIA_TYPE);
+    }
+
+    @Test
+    void dumpExportsWholeRepositoryInBinaryRdfByDefault() throws Exception {
+        when(dataServiceMock.exportData(BinaryRdf.MEDIA_TYPE, Collections.emptyList()))
+                .thenReturn(new TypeAwareStreamingResource(out -> out.write(1), BinaryRdf.MEDIA_TYPE,
+                        BinaryRdf.FILE_EXTENSION));
+        mockMvc.perform(get("/data/dump")).andExpect(status().isOk());
+        verify(dataServiceMock).exportData(BinaryRdf.MEDIA_TYPE, Collections.emptyList());
+    }
+
+    @Test
+    void dumpExportsDataInFormatPreferredByAcceptHeaderWithQualityValues() throws Exception {
+        when(dataServiceMock.exportData(NQuads.MEDIA_TYPE, Collections.emptyList()))
+                .thenReturn(new TypeAwareStreamingResource(out -> out.write(1), NQuads.MEDIA_TYPE,
+                        NQuads.FILE_EXTENSION));
+        mockMvc.perform(get("/data/dump").header(HttpHeaders.ACCEPT,
+                TriG.MEDIA_TYPE + ";q=0.5, " + NQuads.MEDIA_TYPE + ";q=0.9, */*;q=0.8"))
+               .andExpect(status().isOk());
+        verify(dataServiceMock).exportData(NQuads.MEDIA_TYPE, Collections.emptyList());
+    }
+
+    @Test
+    void dumpExportsDataInBinaryRdfWhenAcceptHeaderContainsOnlyWildcard() throws Exception {
+        when(dataServiceMock.exportData(BinaryRdf.MEDIA_TYPE, Collections.emptyList()))
+                .thenReturn(new TypeAwareStreamingResource(out -> out.write(1), BinaryRdf.MEDIA_TYPE,
+                        BinaryRdf.FILE_EXTENSION));
+        mockMvc.perform(get("/data/dump").header(HttpHeaders.ACCEPT, "*/*;q=0.8")).andExpect(status().isOk());
+        verify(dataServiceMock).exportData(BinaryRdf.MEDIA_TYPE, Collections.emptyList());
+    }
+
+    @Test
+    void restorePassesRequestBodyToService() throws Exception {
+        final String content = "<http://a> <http://b> <http://c> <http://d> .";
+        final List<String> received = new ArrayList<>();
+        when(dataServiceMock.importData(eq(NQuads.MEDIA_TYPE), any())).thenAnswer(inv -> {
+            final InputStream is = inv.getArgument(1);
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            int b;
+            while ((b = is.read()) != -1) {
+                bos.write(b);
+            }
+            received.add(new String(bos.toByteArray(), StandardCharsets.UTF_8));
+            return 1L;
+        });
+        mockMvc.perform(post("/data/restore").content(content).contentType(NQuads.MEDIA_TYPE))
+               .andExpect(status().isNoContent());
+        assertEquals(Collections.singletonList(content), received);
+    }
+}
@@ -16,9 +16,11 @@ package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.FileSizeLimitExceededException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
 import cz.cvut.kbss.termit.model.*;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
@@ -28,6 +30,7 @@ import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.ResourceService;
+import cz.cvut.kbss.termit.service.document.TextAnalysisEngine;
 import cz.cvut.kbss.termit.service.document.util.TypeAwareFileSystemResource;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
@@ -74,6 +77,7 @@ class ResourceControllerTest extends BaseControllerTestRunner {
     private static final URI RESOURCE_URI = URI.create(RESOURCE_NAMESPACE + RESOURCE_NAME);
     private static final String FILE_NAME = "test.html";
     private static final String HTML_CONTENT = "<html><head><title>Test</title></head><body>test</body></html>";
+    private static final String CONTENT_HASH = "8c2574892063f995fdf756bce07f46c1a5193e54cd52837ed91e32008ccf41b";
 
     @Mock
     private ResourceService resourceServiceMock;
@@ -327,6 +331,63 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         assertEquals(MediaType.TEXT_HTML_VALUE, mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_TYPE));
     }
 
+    @Test
+    void getContentReturnsETagAndLastModifiedHeaders() throws Exception {
+        final File file = generateFile();
+        final java.io.File content = mockContent(file);
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + FILE_NAME + "/content"))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals("\"" + CONTENT_HASH + "\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(content.lastModified() / 1000 * 1000,
+                mvcResult.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals(HTML_CONTENT, mvcResult.getResponse().getContentAsString());
+    }
+
+    private java.io.File mockContent(File file) throws Exception {
+        when(identifierResolverMock.resolveIdentifier(any(ConfigParam.class), eq(FILE_NAME)))
+                .thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        when(resourceServiceMock.getContent(file))
+                .thenReturn(new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE));
+        when(resourceServiceMock.getContentHash(file)).thenReturn(CONTENT_HASH);
+        return content;
+    }
+
+    @Test
+    void getContentReturnsNotModifiedWhenETagMatches() throws Exception {
+        final File file = generateFile();
+        mockContent(file);
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + FILE_NAME + "/content")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + CONTENT_HASH + "\""))
+                .andExpect(status().isNotModified()).andReturn();
+        assertEquals(0, mvcResult.getResponse().getContentLength());
+    }
+
+    @Test
+    void getContentReturnsContentWhenETagDoesNotMatch() throws Exception {
+        final File file = generateFile();
+        mockContent(file);
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + FILE_NAME + "/content").header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals(HTML_CONTENT, mvcResult.getResponse().getContentAsString());
+    }
+
+    @Test
+    void getContentReturnsRequestedRangeOfContent() throws Exception {
+        final File file = generateFile();
+        mockContent(file);
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + FILE_NAME + "/content").header(HttpHeaders.RANGE, "bytes=6-11"))
+                .andExpect(status().isPartialContent()).andReturn();
+        assertEquals(HTML_CONTENT.substring(6, 12), mvcResult.getResponse().getContentAsString());
+        assertEquals("bytes 6-11/" + HTML_CONTENT.getBytes().length,
+                mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
     private static java.io.File createTemporaryHtmlFile() throws Exception {
         final java.io.File file = Files.createTempFile("document", ".html").toFile();
         file.deleteOnExit();
@@ -354,6 +415,25 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         verify(resourceServiceMock).saveContent(eq(file), any(InputStream.class));
     }
 
+    @Test
+    void saveContentReturnsPayloadTooLargeWhenContentExceedsMaximumFileSize() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(ConfigParam.class), eq(FILE_NAME)))
+                .thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        doThrow(new FileSizeLimitExceededException("Too large")).when(resourceServiceMock)
+                                                                 .saveContent(eq(file), any(InputStream.class));
+
+        final MockMultipartFile upload = new MockMultipartFile("file", file.getLabel(), MediaType.TEXT_HTML_VALUE,
+                HTML_CONTENT.getBytes());
+        mockMvc.perform(multipart(PATH + "/" + FILE_NAME + "/content").file(upload)
+                                                                      .with(req -> {
+                                                                          req.setMethod(HttpMethod.PUT.toString());
+                                                                          return req;
+                                                                      }))
+               .andExpect(status().isPayloadTooLarge());
+    }
+
     @Test
     void runTextAnalysisInvokesTextAnalysisOnSpecifiedResource() throws Exception {
         final File file = generateFile();
@@ -379,6 +459,57 @@ class ResourceControllerTest extends BaseControllerTestRunner {
                 .runTextAnalysis(file, vocabularies.stream().map(URI::create).collect(Collectors.toSet()));
     }
 
+    @Test
+    void scheduleTextAnalysisReturnsAcceptedWithScheduledJob() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), file.getUri(), 1);
+        when(resourceServiceMock.scheduleTextAnalysis(file, Collections.emptySet(), false, null)).thenReturn(job);
+        final MvcResult mvcResult = mockMvc.perform(post(PATH + "/" + FILE_NAME + "/text-analysis/jobs")
+                .param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)).andExpect(status().isAccepted()).andReturn();
+        assertThat(mvcResult.getResponse().getContentAsString(), containsString(job.getId()));
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.LOCATION), containsString(job.getId()));
+        verify(resourceServiceMock).scheduleTextAnalysis(file, Collections.emptySet(), false, null);
+    }
+
+    @Test
+    void scheduleTextAnalysisPassesSpecifiedEngineToService() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), file.getUri(), 1);
+        when(resourceServiceMock.scheduleTextAnalysis(any(), any(), anyBoolean(), any())).thenReturn(job);
+        mockMvc.perform(post(PATH + "/" + FILE_NAME + "/text-analysis/jobs")
+                .param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)
+                .param("engine", TextAnalysisEngine.LOCAL.name())).andExpect(status().isAccepted());
+        verify(resourceServiceMock)
+                .scheduleTextAnalysis(file, Collections.emptySet(), false, TextAnalysisEngine.LOCAL);
+    }
+
+    @Test
+    void getTextAnalysisJobReturnsJobFromService() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.getRequiredReference(file.getUri())).thenReturn(file);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), file.getUri(), 1);
+        when(resourceServiceMock.findTextAnalysisJob(file, job.getId())).thenReturn(job);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/text-analysis/jobs/" + job.getId())
+                .param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)).andExpect(status().isOk()).andReturn();
+        assertThat(mvcResult.getResponse().getContentAsString(), containsString(job.getId()));
+    }
+
+    @Test
+    void cancelTextAnalysisJobCancelsJobInService() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(RESOURCE_NAMESPACE, FILE_NAME)).thenReturn(file.getUri());
+        when(resourceServiceMock.getRequiredReference(file.getUri())).thenReturn(file);
+        final String jobId = UUID.randomUUID().toString();
+        mockMvc.perform(delete(PATH + "/" + FILE_NAME + "/text-analysis/jobs/" + jobId)
+                .param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE)).andExpect(status().isNoContent());
+        verify(resourceServiceMock).cancelTextAnalysisJob(file, jobId);
+    }
+
     @Test
     void generateIdentifierLetsServiceGenerateIdentifierUsingSpecifiedLabel() throws Exception {
         final String label = "Metropolitan plan";
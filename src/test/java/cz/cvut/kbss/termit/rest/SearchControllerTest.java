@@ -19,23 +19,36 @@ package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.Suggestion;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class SearchControllerTest extends BaseControllerTestRunner {
@@ -45,6 +58,9 @@ class SearchControllerTest extends BaseControllerTestRunner {
     @Mock
     private SearchService searchServiceMock;
 
+    @Mock
+    private IdentifierResolver idResolverMock;
+
     @InjectMocks
     private SearchController sut;
 
@@ -58,7 +74,7 @@ class SearchControllerTest extends BaseControllerTestRunner {
     void fullTextSearchExecutesSearchOnService() throws Exception {
         final List<FullTextSearchResult> expected = Collections
                 .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "test", "test", 1.0));
-        when(searchServiceMock.fullTextSearch(any())).thenReturn(expected);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected));
         final String searchString = "test";
         final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString))
                                            .andExpect(status().isOk()).andReturn();
@@ -69,4 +85,59 @@ class SearchControllerTest extends BaseControllerTestRunner {
         assertEquals(expected.get(0).getLabel(), result.get(0).getLabel());
         assertEquals(expected.get(0).getTypes(), result.get(0).getTypes());
     }
-}
\ No newline at end of file
+
+    @Test
+    void fullTextSearchPassesPageSpecificationToServiceAndReturnsTotalCountHeader() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "test", "test", 1.0));
+        final Pageable pageSpec = PageRequest.of(2, 1);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected, pageSpec, 117));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", "test")
+                                                                        .param(Constants.QueryParams.PAGE, "2")
+                                                                        .param(Constants.QueryParams.PAGE_SIZE, "1"))
+                                           .andExpect(status().isOk())
+                                           .andExpect(header().string(Constants.X_TOTAL_COUNT_HEADER, "117"))
+                                           .andReturn();
+        final List<FullTextSearchResult> result = readValue(mvcResult, new TypeReference<List<FullTextSearchResult>>() {
+        });
+        assertEquals(1, result.size());
+        verify(searchServiceMock).fullTextSearch("test", pageSpec);
+    }
+
+    @Test
+    void fullTextSearchUsesDefaultSearchPageSizeWhenNoneIsSpecified() throws Exception {
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(Collections.emptyList()));
+        mockMvc.perform(get(PATH + "/fts").param("searchString", "test")).andExpect(status().isOk());
+        verify(searchServiceMock).fullTextSearch("test", PageRequest.of(0, Constants.DEFAULT_SEARCH_PAGE_SIZE));
+    }
+
+    @Test
+    void suggestReturnsSuggestionsFromServiceWithDefaultLimit() throws Exception {
+        final Suggestion suggestion = new Suggestion(Generator.generateUri(), "Building", Vocabulary.s_c_term,
+                Generator.generateUri(), 5);
+        when(searchServiceMock.suggest(any(), any(), any(), anyInt())).thenReturn(Collections.singletonList(suggestion));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/suggest").param("prefix", "bui"))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<Map<String, Object>> result = readValue(mvcResult, new TypeReference<List<Map<String, Object>>>() {
+        });
+        assertEquals(1, result.size());
+        assertEquals(suggestion.getUri().toString(), result.get(0).get("uri"));
+        assertEquals(suggestion.getLabel(), result.get(0).get("label"));
+        assertEquals(suggestion.getPopularity(), result.get(0).get("popularity"));
+        verify(searchServiceMock).suggest(eq("bui"), isNull(), isNull(), eq(Constants.DEFAULT_SUGGESTION_COUNT));
+    }
+
+    @Test
+    void suggestResolvesVocabularyIdentifierAndPassesItToService() throws Exception {
+        final String namespace = Vocabulary.s_c_slovnik + "/";
+        final String fragment = "test-vocabulary";
+        final URI vocabularyUri = URI.create(namespace + fragment);
+        when(idResolverMock.resolveIdentifier(namespace, fragment)).thenReturn(vocabularyUri);
+        when(searchServiceMock.suggest(any(), any(), any(), anyInt())).thenReturn(Collections.emptyList());
+        mockMvc.perform(get(PATH + "/suggest").param("prefix", "bui").param("vocabulary", fragment)
+                                              .param(Constants.QueryParams.NAMESPACE, namespace)
+                                              .param("language", "cs").param("limit", "3"))
+               .andExpect(status().isOk());
+        verify(searchServiceMock).suggest("bui", "cs", vocabularyUri, 3);
+    }
+}
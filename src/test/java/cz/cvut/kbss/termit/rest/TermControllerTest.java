@@ -29,7 +29,9 @@ import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
+import cz.cvut.kbss.termit.service.export.util.CachedExportResource;
 import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.*;
 import cz.cvut.kbss.termit.util.Constants.Excel;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
@@ -49,12 +51,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -353,6 +359,80 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(content, mvcResult.getResponse().getContentAsString());
     }
 
+    @Test
+    void getAllStreamsExportWithoutContentLengthWhenExportIsStreamed() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(URI.create(VOCABULARY_URI));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final String content = String.join(",", Term.EXPORT_COLUMNS);
+        final TypeAwareStreamingResource export = new TypeAwareStreamingResource(
+                out -> out.write(content.getBytes(StandardCharsets.UTF_8)), CsvUtils.MEDIA_TYPE,
+                CsvUtils.FILE_EXTENSION);
+        when(termServiceMock.exportGlossary(vocabulary, CsvUtils.MEDIA_TYPE)).thenReturn(Optional.of(export));
+
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + VOCABULARY_NAME + "/terms").accept(CsvUtils.MEDIA_TYPE))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals(content, mvcResult.getResponse().getContentAsString());
+        assertNull(mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    void getAllReturnsETagAndLastModifiedForCachedExport() throws Exception {
+        final String content = String.join(",", Term.EXPORT_COLUMNS);
+        final CachedExportResource export = mockCachedCsvExport(content);
+
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + VOCABULARY_NAME + "/terms").accept(CsvUtils.MEDIA_TYPE))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals(content, mvcResult.getResponse().getContentAsString());
+        assertEquals("\"" + export.getTag() + "\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(export.getVersion() / 1000 * 1000,
+                mvcResult.getResponse().getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    private CachedExportResource mockCachedCsvExport(String content) throws Exception {
+        return mockCachedCsvExport(content, () -> {
+        });
+    }
+
+    private CachedExportResource mockCachedCsvExport(String content, Runnable onRelease) throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(URI.create(VOCABULARY_URI));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final File file = Files.createTempFile("export", CsvUtils.FILE_EXTENSION).toFile();
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        final CachedExportResource export = new CachedExportResource(file.toPath(), CsvUtils.MEDIA_TYPE,
+                CsvUtils.FILE_EXTENSION, "0123456789abcdef", System.currentTimeMillis() - 60 * 1000, onRelease);
+        when(termServiceMock.exportGlossary(vocabulary, CsvUtils.MEDIA_TYPE)).thenReturn(Optional.of(export));
+        return export;
+    }
+
+    @Test
+    void getAllReturnsNotModifiedWhenCachedExportETagMatches() throws Exception {
+        final CachedExportResource export = mockCachedCsvExport(String.join(",", Term.EXPORT_COLUMNS));
+
+        final MvcResult mvcResult = mockMvc
+                .perform(get(PATH + "/" + VOCABULARY_NAME + "/terms").accept(CsvUtils.MEDIA_TYPE)
+                                                                     .header(HttpHeaders.IF_NONE_MATCH,
+                                                                             "\"" + export.getTag() + "\""))
+                .andExpect(status().isNotModified()).andReturn();
+        assertEquals(0, mvcResult.getResponse().getContentLength());
+    }
+
+    @Test
+    void getAllReleasesCachedExportAfterResponseIsWritten() throws Exception {
+        final AtomicBoolean released = new AtomicBoolean();
+        mockCachedCsvExport(String.join(",", Term.EXPORT_COLUMNS), () -> released.set(true));
+
+        mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms").accept(CsvUtils.MEDIA_TYPE))
+               .andExpect(status().isOk());
+        assertTrue(released.get());
+    }
+
     @Test
     void getAllExportsTermsToExcelWhenAcceptMediaTypeIsExcel() throws Exception {
         initNamespaceAndIdentifierResolution();
@@ -452,6 +532,44 @@ class TermControllerTest extends BaseControllerTestRunner {
         verifyLocationEquals(PATH + "/" + VOCABULARY_NAME + "/terms/" + TERM_NAME, mvcResult);
     }
 
+    @Test
+    void createRootTermsPassesAllNewTermsToServiceAndReturnsTheirIdentifiers() throws Exception {
+        initNamespaceAndIdentifierResolution();
+
+        final List<Term> newTerms = IntStream.range(0, 3).mapToObj(i -> Generator.generateTermWithId())
+                                             .collect(Collectors.toList());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final MvcResult mvcResult = mockMvc
+                .perform(post(PATH + "/" + VOCABULARY_NAME + "/terms/bulk").content(toJson(newTerms))
+                                                                           .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated()).andReturn();
+        verify(termServiceMock).persistRoots(newTerms, vocabulary);
+        final List<URI> result = readValue(mvcResult, new TypeReference<List<URI>>() {
+        });
+        assertEquals(newTerms.stream().map(Term::getUri).collect(Collectors.toList()), result);
+    }
+
+    @Test
+    void createRootTermsFromCsvPassesParsedTermsToService() throws Exception {
+        initNamespaceAndIdentifierResolution();
+
+        final Term withId = Generator.generateTermWithId();
+        final String csv = "IRI,Label,Definition\n" +
+                withId.getUri() + "," + withId.getLabel() + ",\"Defined, with a comma\"\n" +
+                ",Generated term,\n";
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        mockMvc.perform(post(PATH + "/" + VOCABULARY_NAME + "/terms/bulk").content(csv)
+                                                                          .contentType(CsvUtils.MEDIA_TYPE))
+               .andExpect(status().isCreated());
+        final ArgumentCaptor<List<Term>> captor = ArgumentCaptor.forClass(List.class);
+        verify(termServiceMock).persistRoots(captor.capture(), eq(vocabulary));
+        assertEquals(2, captor.getValue().size());
+        assertEquals(withId.getUri(), captor.getValue().get(0).getUri());
+        assertEquals("Defined, with a comma", captor.getValue().get(0).getDefinition());
+        assertNull(captor.getValue().get(1).getUri());
+        assertEquals("Generated term", captor.getValue().get(1).getLabel());
+    }
+
     @Test
     void createSubTermPassesNewTermToServiceTogetherWithParentTerm() throws Exception {
         initNamespaceAndIdentifierResolution();
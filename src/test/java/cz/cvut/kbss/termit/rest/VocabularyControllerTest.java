@@ -16,6 +16,8 @@ package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.termit.dto.TermImportReport;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.VocabularyImportException;
@@ -25,6 +27,7 @@ import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.service.business.ResourceService;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
@@ -47,7 +50,9 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -70,6 +75,9 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
     @Mock
     private VocabularyService serviceMock;
 
+    @Mock
+    private ResourceService resourceServiceMock;
+
     @Mock
     private IdentifierResolver idResolverMock;
 
@@ -180,6 +188,44 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
         verify(serviceMock).importVocabulary(upload);
     }
 
+    @Test
+    void createVocabularyRunsDifferentialReimportWhenDeltaIsSpecified() throws Exception {
+        final Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(URI.create(NAMESPACE + FRAGMENT));
+        when(serviceMock.reimportVocabulary(any())).thenReturn(vocabulary);
+
+        final MockMultipartFile upload = new MockMultipartFile("file", "test-glossary.ttl",
+                Constants.Turtle.MEDIA_TYPE, Environment.loadFile("data/test-glossary.ttl"));
+        final MvcResult mvcResult = mockMvc.perform(multipart(PATH + "/import").file(upload).param("delta", "true"))
+                                           .andExpect(status().isCreated()).andReturn();
+        verifyLocationEquals(PATH + "/" + FRAGMENT, mvcResult);
+        verify(serviceMock).reimportVocabulary(upload);
+        verify(serviceMock, never()).importVocabulary(any());
+    }
+
+    @Test
+    void importTermsPassesUploadedFileToServiceAndReturnsReport() throws Exception {
+        when(idResolverMock.resolveIdentifier(ConfigParam.NAMESPACE_VOCABULARY, FRAGMENT)).thenReturn(VOCABULARY_URI);
+        final Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(VOCABULARY_URI);
+        when(serviceMock.getRequiredReference(VOCABULARY_URI)).thenReturn(vocabulary);
+        final TermImportReport report = new TermImportReport();
+        report.termImported();
+        report.addError(3, "Term with identifier http://example.org/term already exists.");
+        when(serviceMock.importTerms(any(), any())).thenReturn(report);
+
+        final MockMultipartFile upload = new MockMultipartFile("file", "terms.csv", "text/csv",
+                "IRI,Label\n".getBytes());
+        final MvcResult mvcResult = mockMvc.perform(multipart(PATH + "/" + FRAGMENT + "/terms/import").file(upload))
+                                           .andExpect(status().isOk()).andReturn();
+        verify(serviceMock).importTerms(vocabulary, upload);
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals(1, result.get("importedTermCount"));
+        assertEquals(1, result.get("errorCount"));
+        assertEquals(3, ((List<Map<String, Object>>) result.get("errors")).get(0).get("row"));
+    }
+
     @Test
     void getByIdLoadsVocabularyFromRepository() throws Exception {
         final Vocabulary vocabulary = generateVocabulary();
@@ -347,4 +393,21 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
             return record;
         }).collect(Collectors.toList());
     }
+
+    @Test
+    void scheduleTextAnalysisSchedulesAnalysisOfVocabularyFilesAndReturnsJob() throws Exception {
+        final Vocabulary vocabulary = generateVocabulary();
+        vocabulary.setUri(VOCABULARY_URI);
+        when(idResolverMock.resolveIdentifier(ConfigParam.NAMESPACE_VOCABULARY, FRAGMENT)).thenReturn(VOCABULARY_URI);
+        when(serviceMock.getRequiredReference(VOCABULARY_URI)).thenReturn(vocabulary);
+        final TextAnalysisJob job = new TextAnalysisJob(UUID.randomUUID().toString(), VOCABULARY_URI, 3);
+        when(resourceServiceMock.scheduleTextAnalysis(vocabulary, true, null)).thenReturn(job);
+
+        final MvcResult mvcResult = mockMvc.perform(post(PATH + "/" + FRAGMENT + "/text-analysis/jobs")
+                .param("force", Boolean.TRUE.toString()))
+                                           .andExpect(status().isAccepted()).andReturn();
+        assertThat(mvcResult.getResponse().getContentAsString(), containsString(job.getId()));
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.LOCATION), containsString(job.getId()));
+        verify(resourceServiceMock).scheduleTextAnalysis(vocabulary, true, null);
+    }
 }
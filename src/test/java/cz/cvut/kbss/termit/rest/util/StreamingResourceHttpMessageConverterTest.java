@@ -0,0 +1,59 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.util.CsvUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingResourceHttpMessageConverterTest {
+
+    private static final String CONTENT = "IRI,Label\nhttp://example.org/term,Term\n";
+
+    private final StreamingResourceHttpMessageConverter sut = new StreamingResourceHttpMessageConverter();
+
+    @Test
+    void canWriteSupportsOnlyStreamingResources() {
+        assertTrue(sut.canWrite(TypeAwareStreamingResource.class, MediaType.APPLICATION_OCTET_STREAM));
+        assertFalse(sut.canWrite(TypeAwareByteArrayResource.class, MediaType.APPLICATION_OCTET_STREAM));
+        assertFalse(sut.canRead(TypeAwareStreamingResource.class, MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    @Test
+    void writeWritesContentDirectlyIntoResponseBody() throws Exception {
+        final TypeAwareStreamingResource resource = new TypeAwareStreamingResource(
+                out -> out.write(CONTENT.getBytes(StandardCharsets.UTF_8)), CsvUtils.MEDIA_TYPE,
+                CsvUtils.FILE_EXTENSION) {
+            @Override
+            public InputStream getInputStream() {
+                throw new AssertionError("Content should not be buffered.");
+            }
+        };
+        final MockHttpOutputMessage message = new MockHttpOutputMessage();
+        sut.write(resource, MediaType.parseMediaType(CsvUtils.MEDIA_TYPE), message);
+        assertEquals(CONTENT, message.getBodyAsString(StandardCharsets.UTF_8));
+    }
+}
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
@@ -25,6 +26,7 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
+import cz.cvut.kbss.termit.service.document.TextAnalysisJobManager;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.ResourceRepositoryService;
@@ -59,6 +61,9 @@ class ResourceServiceTest {
     @Mock
     private ChangeRecordService changeRecordService;
 
+    @Mock
+    private TextAnalysisJobManager textAnalysisJobManager;
+
     @InjectMocks
     private ResourceService sut;
 
@@ -155,6 +160,23 @@ class ResourceServiceTest {
         verify(documentManager, never()).getAsResource(any());
     }
 
+    @Test
+    void getContentHashGetsHashOfFileContentFromDocumentManager() {
+        final File file = new File();
+        file.setLabel("Test");
+        file.setUri(Generator.generateUri());
+        when(documentManager.getContentHash(file)).thenReturn("abcd");
+        assertEquals("abcd", sut.getContentHash(file));
+        verify(documentManager).getContentHash(file);
+    }
+
+    @Test
+    void getContentHashThrowsUnsupportedAssetOperationWhenResourceIsNotFile() {
+        final Resource resource = Generator.generateResourceWithId();
+        assertThrows(UnsupportedAssetOperationException.class, () -> sut.getContentHash(resource));
+        verify(documentManager, never()).getContentHash(any());
+    }
+
     @Test
     void saveContentSavesFileContentViaDocumentManager() {
         final ByteArrayInputStream bis = new ByteArrayInputStream("test".getBytes());
@@ -225,6 +247,89 @@ class ResourceServiceTest {
         verify(textAnalysisService).analyzeFile(file, vocabularies);
     }
 
+    @Test
+    void scheduleTextAnalysisSubmitsJobForSpecifiedFile() {
+        final File file = new File();
+        file.setLabel("Test");
+        file.setUri(Generator.generateUri());
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final TextAnalysisJob job = new TextAnalysisJob("1", file.getUri(), 1);
+        when(textAnalysisJobManager.submit(file, vocabularies, false, null)).thenReturn(job);
+        assertEquals(job, sut.scheduleTextAnalysis(file, vocabularies, false, null));
+        verify(textAnalysisJobManager).submit(file, vocabularies, false, null);
+        verify(textAnalysisService, never()).analyzeFile(any(), any());
+    }
+
+    @Test
+    void scheduleTextAnalysisThrowsUnsupportedAssetOperationWhenResourceIsNotFile() {
+        final Resource resource = Generator.generateResourceWithId();
+        assertThrows(UnsupportedAssetOperationException.class,
+                () -> sut.scheduleTextAnalysis(resource, Collections.emptySet(), false, null));
+        verify(textAnalysisJobManager, never()).submit(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void scheduleTextAnalysisSubmitsBulkJobForFilesOfDocument() {
+        final Document document = new Document();
+        document.setUri(Generator.generateUri());
+        document.setLabel("Test document");
+        document.setVocabulary(Generator.generateUri());
+        final File fileOne = new File();
+        fileOne.setUri(Generator.generateUri());
+        fileOne.setLabel("b");
+        document.addFile(fileOne);
+        final File fileTwo = new File();
+        fileTwo.setUri(Generator.generateUri());
+        fileTwo.setLabel("a");
+        document.addFile(fileTwo);
+        when(resourceRepositoryService.findRequired(document.getUri())).thenReturn(document);
+        final TextAnalysisJob job = new TextAnalysisJob("1", document.getUri(), 2);
+        when(textAnalysisJobManager.submitBulk(eq(document.getUri()), any(), anyBoolean(), any())).thenReturn(job);
+
+        assertEquals(job, sut.scheduleTextAnalysis(document, Collections.emptySet(), true, null));
+        final ArgumentCaptor<Map<File, Set<URI>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(textAnalysisJobManager).submitBulk(eq(document.getUri()), captor.capture(), eq(true), isNull());
+        assertEquals(Arrays.asList(fileTwo, fileOne), new ArrayList<>(captor.getValue().keySet()));
+        captor.getValue().values()
+              .forEach(v -> assertEquals(Collections.singleton(document.getVocabulary()), v));
+    }
+
+    @Test
+    void scheduleTextAnalysisOfVocabularySubmitsBulkJobForFilesLastAnalyzedWithVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final File file = new File();
+        file.setUri(Generator.generateUri());
+        file.setLabel("Test");
+        final TextAnalysisRecord record = new TextAnalysisRecord(new Date(), file);
+        final Set<URI> vocabularies = new HashSet<>(Arrays.asList(vocabulary.getUri(), Generator.generateUri()));
+        record.setVocabularies(vocabularies);
+        when(textAnalysisService.findLatestAnalysisRecords(vocabulary.getUri()))
+                .thenReturn(Collections.singletonList(record));
+        final TextAnalysisJob job = new TextAnalysisJob("1", vocabulary.getUri(), 1);
+        when(textAnalysisJobManager.submitBulk(eq(vocabulary.getUri()), any(), anyBoolean(), any())).thenReturn(job);
+
+        assertEquals(job, sut.scheduleTextAnalysis(vocabulary, false, null));
+        verify(textAnalysisJobManager)
+                .submitBulk(vocabulary.getUri(), Collections.singletonMap(file, vocabularies), false, null);
+    }
+
+    @Test
+    void findTextAnalysisJobThrowsNotFoundExceptionForJobOfDifferentResource() {
+        final Resource resource = Generator.generateResourceWithId();
+        final TextAnalysisJob job = new TextAnalysisJob("1", Generator.generateUri(), 1);
+        when(textAnalysisJobManager.find(job.getId())).thenReturn(Optional.of(job));
+        assertThrows(NotFoundException.class, () -> sut.findTextAnalysisJob(resource, job.getId()));
+    }
+
+    @Test
+    void cancelTextAnalysisJobCancelsJobInJobManager() {
+        final Resource resource = Generator.generateResourceWithId();
+        final TextAnalysisJob job = new TextAnalysisJob("1", resource.getUri(), 1);
+        when(textAnalysisJobManager.find(job.getId())).thenReturn(Optional.of(job));
+        sut.cancelTextAnalysisJob(resource, job.getId());
+        verify(textAnalysisJobManager).cancel(job.getId());
+    }
+
     @Test
     void findAssignmentsDelegatesCallToRepositoryService() {
         final Resource resource = Generator.generateResourceWithId();
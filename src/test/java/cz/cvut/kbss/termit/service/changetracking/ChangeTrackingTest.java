@@ -22,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -86,6 +87,21 @@ public class ChangeTrackingTest extends BaseServiceTestRunner {
         assertThat(result.get(0), instanceOf(PersistChangeRecord.class));
     }
 
+    @Test
+    void persistingTermsInBulkCreatesCreationChangeRecordForEachTerm() {
+        enableRdfsInference(em);
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        final List<Term> terms = Arrays.asList(Generator.generateTermWithId(), Generator.generateTermWithId());
+        transactional(() -> termService.addRootTermsToVocabulary(terms, vocabulary));
+
+        terms.forEach(term -> {
+            final List<AbstractChangeRecord> result = changeRecordDao.findAll(term);
+            assertEquals(1, result.size());
+            assertEquals(term.getUri(), result.get(0).getChangedEntity());
+            assertThat(result.get(0), instanceOf(PersistChangeRecord.class));
+        });
+    }
+
     @Test
     void updatingVocabularyLiteralAttributeCreatesUpdateChangeRecord() {
         enableRdfsInference(em);
@@ -16,6 +16,7 @@ package cz.cvut.kbss.termit.service.document;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.environment.PropertyMockingApplicationContextInitializer;
 import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
@@ -26,7 +27,9 @@ import cz.cvut.kbss.termit.persistence.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.dao.TermDao;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
+import cz.cvut.kbss.termit.service.document.dictionary.DictionaryAnnotator;
 import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.jsoup.Jsoup;
@@ -44,6 +47,8 @@ import java.io.*;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -52,6 +57,8 @@ import static cz.cvut.kbss.termit.environment.Environment.loadFile;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 // Needed for the request-scoped occurrence resolver bean to work
 @WebAppConfiguration
@@ -77,6 +84,9 @@ class AnnotationGeneratorTest extends BaseServiceTestRunner {
     @Autowired
     private TermDao termDao;
 
+    @Autowired
+    private Configuration config;
+
     @Autowired
     private AnnotationGenerator sut;
 
@@ -463,4 +473,29 @@ class AnnotationGeneratorTest extends BaseServiceTestRunner {
         assertEquals(occurrencesOne.size(), occurrencesTwo.size());
         confirmed.forEach(to -> assertTrue(occurrencesTwo.stream().anyMatch(toA -> toA.getUri().equals(to.getUri()))));
     }
+
+    @Test
+    void generateAnnotationsCreatesTermAssignmentsFromDictionaryAnnotatorOutput() throws Exception {
+        final TermDao labelSource = mock(TermDao.class);
+        when(labelSource.findAllLabels(vocabulary.getUri())).thenReturn(Arrays.asList(
+                new TermInfo(TERM_ID, term.getLabel(), vocabulary.getUri()),
+                new TermInfo(TERM_TWO_ID, termTwo.getLabel(), vocabulary.getUri())));
+        final DictionaryAnnotator annotator = new DictionaryAnnotator(labelSource, config);
+        final StringWriter annotated = new StringWriter();
+        annotator.annotate(new ByteArrayInputStream(
+                        "<html><body><p>Územní plán hlavního města Prahy nahrazuje územní plán obce.</p></body></html>"
+                                .getBytes(StandardCharsets.UTF_8)), Collections.singleton(vocabulary.getUri()),
+                Instant.now(), annotated);
+        generateFile();
+
+        sut.generateAnnotations(new ByteArrayInputStream(annotated.toString().getBytes(StandardCharsets.UTF_8)),
+                file);
+        assertEquals(1, termOccurrenceDao.findAll(term).size());
+        assertEquals(1, termOccurrenceDao.findAll(termTwo).size());
+        final List<TermAssignment> result = em
+                .createNativeQuery("SELECT ?x WHERE { ?x a ?assignment . }", TermAssignment.class)
+                .setParameter("assignment", URI.create(
+                        Vocabulary.s_c_prirazeni_termu)).getResultList();
+        assertEquals(2, result.size());
+    }
 }
@@ -16,6 +16,7 @@ package cz.cvut.kbss.termit.service.document;
 
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.environment.PropertyMockingApplicationContextInitializer;
+import cz.cvut.kbss.termit.exception.FileSizeLimitExceededException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
@@ -23,7 +24,10 @@ import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.Utils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,12 +37,24 @@ import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.util.MimeTypeUtils;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static cz.cvut.kbss.termit.environment.Environment.loadFile;
 import static cz.cvut.kbss.termit.util.ConfigParam.FILE_STORAGE;
@@ -46,6 +62,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @ContextConfiguration(initializers = PropertyMockingApplicationContextInitializer.class)
 class DefaultDocumentManagerTest extends BaseServiceTestRunner {
@@ -68,6 +85,16 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         document.setUri(Generator.generateUri());
     }
 
+    @AfterEach
+    void tearDown() {
+        final MockEnvironment env = (MockEnvironment) environment;
+        env.setProperty(ConfigParam.FILE_MAX_SIZE.toString(), Long.toString(Constants.DEFAULT_FILE_MAX_SIZE));
+        env.setProperty(ConfigParam.FILE_BACKUP_MAX_COUNT.toString(),
+                Integer.toString(Constants.DEFAULT_FILE_BACKUP_MAX_COUNT));
+        env.setProperty(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT.toString(),
+                Integer.toString(Constants.DEFAULT_FILE_BACKUP_UNCOMPRESSED_COUNT));
+    }
+
     private java.io.File generateFile() throws Exception {
         final java.io.File dir = Files.createTempDirectory("termit").toFile();
         dir.deleteOnExit();
@@ -184,6 +211,146 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    void saveFileContentLeavesNoTemporaryFilesInDocumentDirectory() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.saveFileContent(file, loadFile("data/rdfa-simple.html"));
+        final java.io.File[] files = physicalFile.getParentFile().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertEquals(physicalFile, files[0]);
+    }
+
+    @Test
+    void saveFileContentRemembersHashOfSavedContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final byte[] content = "<html><body>Updated</body></html>".getBytes(StandardCharsets.UTF_8);
+        sut.saveFileContent(file, new ByteArrayInputStream(content));
+        final MessageDigest digest = Utils.createContentDigest();
+        assertEquals(Utils.toHexString(digest.digest(content)), sut.getContentHash(file));
+    }
+
+    @Test
+    void saveFileContentThrowsFileSizeLimitExceededExceptionAndKeepsOriginalContentWhenContentIsTooLarge()
+            throws Exception {
+        ((MockEnvironment) environment).setProperty(ConfigParam.FILE_MAX_SIZE.toString(), "16");
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final InputStream content = loadFile("data/rdfa-simple.html");
+        assertThrows(FileSizeLimitExceededException.class, () -> sut.saveFileContent(file, content));
+        assertEquals(CONTENT, String.join("\n", Files.readAllLines(physicalFile.toPath())));
+        final java.io.File[] files = physicalFile.getParentFile().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+    }
+
+    @Test
+    void writeFileContentReplacesExistingFileContentWithWrittenContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final String newContent = "<html><body><h1>Územní plán</h1></body></html>";
+        sut.writeFileContent(file, writer -> {
+            try {
+                writer.write(newContent);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertEquals(newContent, new String(Files.readAllBytes(physicalFile.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, physicalFile.getParentFile().listFiles().length);
+    }
+
+    @Test
+    void writeFileContentLeavesOriginalContentIntactWhenWritingFails() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        assertThrows(IllegalStateException.class, () -> sut.writeFileContent(file, writer -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(CONTENT, String.join("\n", Files.readAllLines(physicalFile.toPath())));
+        assertEquals(1, physicalFile.getParentFile().listFiles().length);
+    }
+
+    @Test
+    void getContentHashReturnsSha256HashOfFileContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        assertEquals(sha256(Files.readAllBytes(physicalFile.toPath())), sut.getContentHash(file));
+    }
+
+    private static String sha256(byte[] content) {
+        return Utils.toHexString(Utils.createContentDigest().digest(content));
+    }
+
+    @Test
+    void getContentHashReturnsHashOfContentWrittenByWriteFileContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final String original = sut.getContentHash(file);
+        final String newContent = "<html><body><h1>Územní plán</h1></body></html>";
+        sut.writeFileContent(file, writer -> {
+            try {
+                writer.write(newContent);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        final String result = sut.getContentHash(file);
+        assertNotEquals(original, result);
+        assertEquals(sha256(newContent.getBytes(StandardCharsets.UTF_8)), result);
+    }
+
+    @Test
+    void getContentHashReturnsHashOfContentSavedBySaveFileContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final byte[] newContent = "<html><body>Saved content</body></html>".getBytes(StandardCharsets.UTF_8);
+        sut.saveFileContent(file, new ByteArrayInputStream(newContent));
+        assertEquals(sha256(newContent), sut.getContentHash(file));
+    }
+
+    @Test
+    void getContentHashDetectsContentModifiedOutsideOfDocumentManager() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final String original = sut.getContentHash(file);
+        final byte[] newContent = "<html><body>Modified content, longer than before</body></html>"
+                .getBytes(StandardCharsets.UTF_8);
+        Files.write(physicalFile.toPath(), newContent);
+        final String result = sut.getContentHash(file);
+        assertNotEquals(original, result);
+        assertEquals(sha256(newContent), result);
+    }
+
     @Test
     void createBackupCreatesBackupFileWithIdenticalContent() throws Exception {
         final File file = new File();
@@ -224,6 +391,149 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         }
     }
 
+    @Test
+    void createBackupStoresUnchangedContentOnlyOnce() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        sut.createBackup(file);
+        final String backupPrefix = physicalFile.getName() + "~";
+        final java.io.File[] backups = physicalFile.getParentFile()
+                                                   .listFiles((d, name) -> name.startsWith(backupPrefix));
+        assertNotNull(backups);
+        assertEquals(2, backups.length);
+        assertTrue(Files.isSameFile(backups[0].toPath(), backups[1].toPath()));
+        for (java.io.File f : backups) {
+            f.deleteOnExit();
+            assertEquals(CONTENT, String.join("\n", Files.readAllLines(f.toPath())));
+        }
+    }
+
+    @Test
+    void createBackupKeepsBackupContentWhenFileContentChanges() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        sut.saveFileContent(file, new ByteArrayInputStream("Updated content".getBytes(StandardCharsets.UTF_8)));
+        final String backupPrefix = physicalFile.getName() + "~";
+        final java.io.File[] backups = physicalFile.getParentFile()
+                                                   .listFiles((d, name) -> name.startsWith(backupPrefix));
+        assertNotNull(backups);
+        assertEquals(1, backups.length);
+        backups[0].deleteOnExit();
+        assertEquals(CONTENT, String.join("\n", Files.readAllLines(backups[0].toPath())));
+    }
+
+    @Test
+    void removeRemovesBackupContentNoLongerReferencedByAnyBackup() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+
+        sut.remove(file);
+        final Path blobDir = Paths.get(environment.getProperty(FILE_STORAGE.toString()), BlobStore.BLOB_DIRECTORY);
+        if (Files.exists(blobDir)) {
+            try (final Stream<Path> blobs = Files.walk(blobDir)) {
+                assertFalse(blobs.anyMatch(Files::isRegularFile));
+            }
+        }
+    }
+
+    @Test
+    void applyBackupRetentionPolicyRemovesBackupsExceedingMaxCount() throws Exception {
+        ((MockEnvironment) environment).setProperty(ConfigParam.FILE_BACKUP_MAX_COUNT.toString(), "2");
+        ((MockEnvironment) environment).setProperty(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT.toString(), "2");
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        sut.createBackup(file);
+        sut.createBackup(file);
+
+        ((DefaultDocumentManager) sut).applyBackupRetentionPolicy();
+        final java.io.File[] backups = listBackups(physicalFile);
+        assertEquals(2, backups.length);
+        for (java.io.File f : backups) {
+            f.deleteOnExit();
+            assertEquals(CONTENT, String.join("\n", Files.readAllLines(f.toPath())));
+        }
+    }
+
+    private static java.io.File[] listBackups(java.io.File physicalFile) {
+        final String backupPrefix = physicalFile.getName() + "~";
+        final java.io.File[] backups = physicalFile.getParentFile()
+                                                   .listFiles((d, name) -> name.startsWith(backupPrefix));
+        assertNotNull(backups);
+        return backups;
+    }
+
+    @Test
+    void applyBackupRetentionPolicyCompressesBackupsExceptForMostRecentOnes() throws Exception {
+        ((MockEnvironment) environment).setProperty(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT.toString(), "1");
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        final String updatedContent = "Updated content";
+        sut.saveFileContent(file, new ByteArrayInputStream(updatedContent.getBytes(StandardCharsets.UTF_8)));
+        sut.createBackup(file);
+
+        ((DefaultDocumentManager) sut).applyBackupRetentionPolicy();
+        final java.io.File[] backups = listBackups(physicalFile);
+        assertEquals(2, backups.length);
+        for (java.io.File f : backups) {
+            f.deleteOnExit();
+            if (f.getName().endsWith(FileBackups.COMPRESSED_EXTENSION)) {
+                assertEquals(CONTENT, readCompressed(f));
+            } else {
+                assertEquals(updatedContent, String.join("\n", Files.readAllLines(f.toPath())));
+            }
+        }
+    }
+
+    private static String readCompressed(java.io.File file) throws IOException {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file.toPath())), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    @Test
+    void removeRemovesCompressedBackups() throws Exception {
+        ((MockEnvironment) environment).setProperty(ConfigParam.FILE_BACKUP_UNCOMPRESSED_COUNT.toString(), "0");
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        ((DefaultDocumentManager) sut).applyBackupRetentionPolicy();
+        assertEquals(1, listBackups(physicalFile).length);
+
+        sut.remove(file);
+        assertEquals(0, listBackups(physicalFile).length);
+        final Path blobDir = Paths.get(environment.getProperty(FILE_STORAGE.toString()), BlobStore.BLOB_DIRECTORY);
+        if (Files.exists(blobDir)) {
+            try (final Stream<Path> blobs = Files.walk(blobDir)) {
+                assertFalse(blobs.anyMatch(Files::isRegularFile));
+            }
+        }
+    }
+
     @Test
     void existsReturnsTrueForExistingFile() throws Exception {
         final File file = new File();
@@ -255,6 +565,31 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertEquals(MimeTypeUtils.TEXT_HTML_VALUE, result.get());
     }
 
+    @Test
+    void getContentTypeDetectsContentTypeFromContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        Files.write(physicalFile.toPath(), "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII));
+        final Optional<String> result = sut.getContentType(file);
+        assertEquals(Optional.of("application/pdf"), result);
+    }
+
+    @Test
+    void getContentTypeReturnsContentTypeOfUpdatedContentAfterContentChanges() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        assertEquals(Optional.of(MimeTypeUtils.TEXT_HTML_VALUE), sut.getContentType(file));
+        sut.saveFileContent(file, new ByteArrayInputStream("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(Optional.of("application/pdf"), sut.getContentType(file));
+        assertEquals(Optional.of("application/pdf"), sut.getAsResource(file).getMediaType());
+    }
+
     @Test
     void getContentTypeThrowsNotFoundExceptionWhenFileDoesNotExist() {
         final File file = new File();
@@ -0,0 +1,270 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.dto.TextAnalysisJob;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.TextAnalysisJobRejectedException;
+import cz.cvut.kbss.termit.exception.WebServiceIntegrationException;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TextAnalysisJobManagerTest {
+
+    @Mock
+    private TextAnalysisService textAnalysisService;
+
+    @Mock
+    private Configuration config;
+
+    private TextAnalysisJobManager sut;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.TEXT_ANALYSIS_MAX_CONCURRENT)).thenReturn("1");
+        when(config.get(ConfigParam.TEXT_ANALYSIS_QUEUE_CAPACITY)).thenReturn("1");
+        when(config.get(ConfigParam.TEXT_ANALYSIS_BULK_PARALLELISM)).thenReturn("2");
+        this.sut = new TextAnalysisJobManager(textAnalysisService, config);
+        this.file = new File();
+        file.setUri(Generator.generateUri());
+        file.setLabel("test.html");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void submitRunsTextAnalysisOfFileAsynchronously() throws Exception {
+        when(textAnalysisService.analyzeFile(eq(file), any(), any(), anyBoolean(), any())).thenReturn(true);
+        final TextAnalysisJob job = sut.submit(file, Collections.emptySet(), false, null);
+        assertNotNull(job.getId());
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FINISHED, job.getStatus());
+        assertEquals(1.0, job.getProgress());
+        assertEquals(0, job.getSkipped());
+        verify(textAnalysisService).analyzeFile(eq(file), eq(Collections.emptySet()), any(), eq(false), any());
+    }
+
+    private static void awaitDone(TextAnalysisJob job) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!job.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isDone());
+    }
+
+    @Test
+    void submitPassesSpecifiedVocabulariesToTextAnalysis() throws Exception {
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final TextAnalysisJob job = sut.submit(file, vocabularies, false, null);
+        awaitDone(job);
+        verify(textAnalysisService).analyzeFile(eq(file), eq(vocabularies), any(), eq(false), any());
+    }
+
+    @Test
+    void submitRecordsSkippedFileWhenAnalysisIsNotNecessary() throws Exception {
+        when(textAnalysisService.analyzeFile(eq(file), any(), any(), anyBoolean(), any())).thenReturn(false);
+        final TextAnalysisJob job = sut.submit(file, Collections.emptySet(), false, null);
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FINISHED, job.getStatus());
+        assertEquals(1, job.getSkipped());
+        assertEquals(1.0, job.getProgress());
+    }
+
+    @Test
+    void submitPassesForceFlagToTextAnalysis() throws Exception {
+        final TextAnalysisJob job = sut.submit(file, Collections.emptySet(), true, null);
+        awaitDone(job);
+        verify(textAnalysisService).analyzeFile(eq(file), eq(Collections.emptySet()), any(), eq(true), any());
+    }
+
+    @Test
+    void jobFailureIsRecordedInJob() throws Exception {
+        doThrow(new WebServiceIntegrationException("Service unavailable.")).when(textAnalysisService)
+                                                                            .analyzeFile(eq(file), any(), any(),
+                                                                                    anyBoolean(), any());
+        final TextAnalysisJob job = sut.submit(file, Collections.emptySet(), false, null);
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FAILED, job.getStatus());
+        assertEquals("Service unavailable.", job.getError());
+    }
+
+    @Test
+    void findReturnsSubmittedJob() {
+        final TextAnalysisJob job = sut.submit(file, Collections.emptySet(), false, null);
+        final Optional<TextAnalysisJob> result = sut.find(job.getId());
+        assertTrue(result.isPresent());
+        assertSame(job, result.get());
+        assertFalse(sut.find("unknown").isPresent());
+    }
+
+    @Test
+    void submitThrowsJobRejectedExceptionWhenQueueIsFull() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(inv -> {
+            latch.await();
+            return true;
+        }).when(textAnalysisService).analyzeFile(eq(file), any(), any(), anyBoolean(), any());
+        try {
+            final TextAnalysisJob running = sut.submit(file, Collections.emptySet(), false, null);
+            while (running.getStatus() == TextAnalysisJob.Status.QUEUED) {
+                Thread.sleep(10);
+            }
+            sut.submit(file, Collections.emptySet(), false, null);
+            assertThrows(TextAnalysisJobRejectedException.class, () -> sut.submit(file, Collections.emptySet(), false, null));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    void cancelPreventsQueuedJobFromRunning() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final File other = new File();
+        other.setUri(Generator.generateUri());
+        doAnswer(inv -> {
+            latch.await();
+            return true;
+        }).when(textAnalysisService).analyzeFile(eq(file), any(), any(), anyBoolean(), any());
+        final TextAnalysisJob running = sut.submit(file, Collections.emptySet(), false, null);
+        final TextAnalysisJob queued = sut.submit(other, Collections.emptySet(), false, null);
+        assertTrue(sut.cancel(queued.getId()));
+        latch.countDown();
+        awaitDone(running);
+        assertEquals(TextAnalysisJob.Status.CANCELLED, queued.getStatus());
+        verify(textAnalysisService, never()).analyzeFile(eq(other), any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void submitBulkAnalyzesAllSpecifiedFiles() throws Exception {
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final Map<File, Set<URI>> files = generateFiles(5, vocabularies);
+        final URI subject = Generator.generateUri();
+        final TextAnalysisJob job = sut.submitBulk(subject, files, false, null);
+        assertEquals(subject, job.getResource());
+        assertEquals(files.size(), job.getTotal());
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FINISHED, job.getStatus());
+        assertEquals(1.0, job.getProgress());
+        assertTrue(job.getFailures().isEmpty());
+        files.keySet().forEach(
+                f -> verify(textAnalysisService).analyzeFile(eq(f), eq(vocabularies), any(), eq(false), any()));
+    }
+
+    private static Map<File, Set<URI>> generateFiles(int count, Set<URI> vocabularies) {
+        final Map<File, Set<URI>> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final File f = new File();
+            f.setUri(Generator.generateUri());
+            f.setLabel("test-" + i + ".html");
+            files.put(f, vocabularies);
+        }
+        return files;
+    }
+
+    @Test
+    void submitBulkRecordsFailureOfFileAndContinuesWithOtherFiles() throws Exception {
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final Map<File, Set<URI>> files = generateFiles(3, vocabularies);
+        final File failing = files.keySet().iterator().next();
+        doThrow(new WebServiceIntegrationException("Service unavailable.")).when(textAnalysisService)
+                                                                            .analyzeFile(eq(failing), any(), any(), anyBoolean(), any());
+        final TextAnalysisJob job = sut.submitBulk(Generator.generateUri(), files, false, null);
+        awaitDone(job);
+        assertEquals(TextAnalysisJob.Status.FINISHED, job.getStatus());
+        assertEquals(files.size(), job.getProcessed());
+        assertEquals(Collections.singletonMap(failing.getUri(), "Service unavailable."), job.getFailures());
+        files.keySet().forEach(
+                f -> verify(textAnalysisService).analyzeFile(eq(f), eq(vocabularies), any(), eq(false), any()));
+    }
+
+    @Test
+    void submitBulkSharesTermExistenceCacheBetweenFilesWithSameVocabularies() throws Exception {
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final Map<File, Set<URI>> files = generateFiles(2, vocabularies);
+        final TextAnalysisJob job = sut.submitBulk(Generator.generateUri(), files, false, null);
+        awaitDone(job);
+        final ArgumentCaptor<TermExistenceCache> captor = ArgumentCaptor.forClass(TermExistenceCache.class);
+        verify(textAnalysisService, times(2)).analyzeFile(any(), eq(vocabularies), captor.capture(), eq(false), any());
+        assertSame(captor.getAllValues().get(0), captor.getAllValues().get(1));
+    }
+
+    @Test
+    void submitBulkPassesSpecifiedEngineToTextAnalysis() throws Exception {
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final Map<File, Set<URI>> files = generateFiles(2, vocabularies);
+        final TextAnalysisJob job = sut.submitBulk(Generator.generateUri(), files, false, TextAnalysisEngine.LOCAL);
+        awaitDone(job);
+        files.keySet().forEach(f -> verify(textAnalysisService)
+                .analyzeFile(eq(f), eq(vocabularies), any(), eq(false), eq(TextAnalysisEngine.LOCAL)));
+    }
+
+    @Test
+    void bulkJobsDoNotExceedMaximumNumberOfConcurrentAnalyses() throws Exception {
+        sut.shutdown();
+        when(config.get(ConfigParam.TEXT_ANALYSIS_MAX_CONCURRENT)).thenReturn("2");
+        when(config.get(ConfigParam.TEXT_ANALYSIS_QUEUE_CAPACITY)).thenReturn("2");
+        this.sut = new TextAnalysisJobManager(textAnalysisService, config);
+        final AtomicInteger current = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        doAnswer(inv -> {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            current.decrementAndGet();
+            return true;
+        }).when(textAnalysisService).analyzeFile(any(), any(), any(), anyBoolean(), any());
+        final Set<URI> vocabularies = Collections.singleton(Generator.generateUri());
+        final TextAnalysisJob jobOne = sut.submitBulk(Generator.generateUri(), generateFiles(4, vocabularies), false,
+                null);
+        final TextAnalysisJob jobTwo = sut.submitBulk(Generator.generateUri(), generateFiles(4, vocabularies), false,
+                null);
+        final TextAnalysisJob single = sut.submit(file, Collections.emptySet(), false, null);
+        awaitDone(jobOne);
+        awaitDone(jobTwo);
+        awaitDone(single);
+        assertEquals(TextAnalysisJob.Status.FINISHED, jobOne.getStatus());
+        assertEquals(TextAnalysisJob.Status.FINISHED, jobTwo.getStatus());
+        assertTrue(max.get() <= 2);
+        verify(textAnalysisService, times(9)).analyzeFile(any(), any(), any(), anyBoolean(), any());
+    }
+}
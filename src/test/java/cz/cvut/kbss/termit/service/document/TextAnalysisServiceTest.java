@@ -29,7 +29,9 @@ import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
+import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
+import cz.cvut.kbss.termit.service.document.dictionary.DictionaryAnnotator;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.junit.jupiter.api.BeforeEach;
@@ -50,11 +52,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -98,6 +103,12 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
     @Mock
     private TextAnalysisRecordDao textAnalysisRecordDao;
 
+    @Mock
+    private VocabularyDao vocabularyDao;
+
+    @Mock
+    private DictionaryAnnotator dictionaryAnnotator;
+
     private TextAnalysisService sut;
 
     private MockRestServiceServer mockServer;
@@ -131,7 +142,7 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         doCallRealMethod().when(documentManagerSpy).loadFileContent(any());
         doNothing().when(documentManagerSpy).createBackup(any());
         this.sut = new TextAnalysisService(restTemplate, config, documentManagerSpy, annotationGeneratorMock,
-                textAnalysisRecordDao);
+                textAnalysisRecordDao, vocabularyDao, dictionaryAnnotator, objectMapper);
     }
 
     @Test
@@ -170,6 +181,22 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         mockServer.verify();
     }
 
+    @Test
+    void analyzeFileEscapesStreamedContentInRequestBody() throws Exception {
+        final String content = "<html><body><p class=\"test\">Příliš \\ \"žluťoučký\"\n\tkůň</p></body></html>";
+        Files.write(new java.io.File(config.get(ConfigParam.FILE_STORAGE) + java.io.File.separator +
+                document.getDirectoryName() + java.io.File.separator + FILE_NAME).toPath(),
+                content.getBytes(StandardCharsets.UTF_8));
+        final TextAnalysisInput input = textAnalysisInput();
+        input.setContent(content);
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andExpect(content().string(objectMapper.writeValueAsString(input)))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeFile(file);
+        mockServer.verify();
+    }
+
     private TextAnalysisInput textAnalysisInput() {
         final TextAnalysisInput input = new TextAnalysisInput();
         input.setContent(CONTENT);
@@ -299,4 +326,125 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         assertEquals(record, result.get());
         verify(textAnalysisRecordDao).findLatest(file);
     }
+
+    @Test
+    void analyzeFileStoresContentHashAndVocabularyVersionInTextAnalysisRecord() {
+        final Instant version = Instant.ofEpochMilli(System.currentTimeMillis());
+        when(vocabularyDao.getLastModified(vocabulary.getUri())).thenReturn(version.toEpochMilli());
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeFile(file);
+        final ArgumentCaptor<TextAnalysisRecord> captor = ArgumentCaptor.forClass(TextAnalysisRecord.class);
+        verify(textAnalysisRecordDao).persist(captor.capture());
+        assertEquals(documentManager.getContentHash(file), captor.getValue().getContentHash());
+        assertEquals(version, captor.getValue().getVocabularyVersion());
+    }
+
+    @Test
+    void analyzeFileSkipsAnalysisWhenNeitherFileNorVocabulariesChangedSinceLatestAnalysis() {
+        final Instant version = Instant.ofEpochMilli(System.currentTimeMillis());
+        when(vocabularyDao.getLastModified(vocabulary.getUri())).thenReturn(version.toEpochMilli());
+        final TextAnalysisRecord record = latestRecord(version);
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+
+        assertFalse(sut.analyzeFile(file, Collections.emptySet(), new TermExistenceCache(), false, null));
+        mockServer.verify();
+        verify(annotationGeneratorMock, never()).generateAnnotations(any(), any(), any());
+        verify(textAnalysisRecordDao, never()).persist(any());
+    }
+
+    private TextAnalysisRecord latestRecord(Instant vocabularyVersion) {
+        final TextAnalysisRecord record = new TextAnalysisRecord(new Date(), file);
+        record.setVocabularies(Collections.singleton(vocabulary.getUri()));
+        record.setContentHash(documentManager.getContentHash(file));
+        record.setVocabularyVersion(vocabularyVersion);
+        return record;
+    }
+
+    @Test
+    void analyzeFileAnalyzesUnchangedFileWhenForced() {
+        final Instant version = Instant.ofEpochMilli(System.currentTimeMillis());
+        when(vocabularyDao.getLastModified(vocabulary.getUri())).thenReturn(version.toEpochMilli());
+        final TextAnalysisRecord record = latestRecord(version);
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        final TermExistenceCache termCache = new TermExistenceCache();
+
+        assertTrue(sut.analyzeFile(file, Collections.emptySet(), termCache, true, null));
+        mockServer.verify();
+        verify(annotationGeneratorMock).generateAnnotations(any(), eq(file), eq(termCache));
+    }
+
+    @Test
+    void analyzeFileAnalyzesFileWhenVocabularyChangedSinceLatestAnalysis() {
+        final Instant version = Instant.ofEpochMilli(System.currentTimeMillis());
+        when(vocabularyDao.getLastModified(vocabulary.getUri())).thenReturn(version.toEpochMilli() + 1);
+        final TextAnalysisRecord record = latestRecord(version);
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        assertTrue(sut.analyzeFile(file, Collections.emptySet(), new TermExistenceCache(), false, null));
+        mockServer.verify();
+    }
+
+    @Test
+    void analyzeFileAnalyzesFileWhenContentChangedSinceLatestAnalysis() throws Exception {
+        final TextAnalysisRecord record = latestRecord(null);
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+        documentManager.saveFileContent(file, new java.io.ByteArrayInputStream(
+                "<html><body>Changed content</body></html>".getBytes()));
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        assertTrue(sut.analyzeFile(file, Collections.emptySet(), new TermExistenceCache(), false, null));
+        mockServer.verify();
+    }
+
+    @Test
+    void analyzeFileUsesDictionaryAnnotatorWhenLocalEngineIsSpecified() throws Exception {
+        final Instant version = Instant.ofEpochMilli(System.currentTimeMillis());
+        when(vocabularyDao.getLastModified(vocabulary.getUri())).thenReturn(version.toEpochMilli());
+        final String annotated = "<html><body>Annotated</body></html>";
+        doAnswer(inv -> {
+            final java.io.Writer writer = inv.getArgument(3);
+            writer.write(annotated);
+            return null;
+        }).when(dictionaryAnnotator).annotate(any(), any(), any(), any());
+        final TermExistenceCache termCache = new TermExistenceCache();
+        final AtomicReference<String> generatorInput = new AtomicReference<>();
+        doAnswer(inv -> {
+            final BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(inv.getArgument(0), StandardCharsets.UTF_8));
+            generatorInput.set(reader.lines().collect(Collectors.joining("\n")));
+            return null;
+        }).when(annotationGeneratorMock).generateAnnotations(any(), eq(file), eq(termCache));
+
+        assertTrue(sut.analyzeFile(file, Collections.emptySet(), termCache, true, TextAnalysisEngine.LOCAL));
+        mockServer.verify();
+        verify(dictionaryAnnotator).annotate(any(), eq(Collections.singleton(vocabulary.getUri())), eq(version),
+                any());
+        verify(annotationGeneratorMock).generateAnnotations(any(), eq(file), eq(termCache));
+        assertEquals(annotated, generatorInput.get());
+        // Annotated content is stored in the file before annotations are generated from it
+        verify(documentManagerSpy).writeFileContent(eq(file), any());
+        assertEquals(annotated, documentManager.loadFileContent(file));
+        verify(textAnalysisRecordDao).persist(any(TextAnalysisRecord.class));
+    }
+
+    @Test
+    void analyzeFileUsesRemoteServiceByDefault() throws Exception {
+        mockServer.expect(requestTo(config.get(TEXT_ANALYSIS_SERVICE_URL)))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        assertTrue(sut.analyzeFile(file, Collections.emptySet(), new TermExistenceCache(), true, null));
+        mockServer.verify();
+        verify(dictionaryAnnotator, never()).annotate(any(), any(), any(), any());
+    }
 }
@@ -0,0 +1,163 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.dictionary;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DictionaryAnnotatorTest {
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private Configuration config;
+
+    private final URI vocabulary = Generator.generateUri();
+
+    private final URI term = Generator.generateUri();
+
+    private DictionaryAnnotator sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.LANGUAGE)).thenReturn(Constants.DEFAULT_LANGUAGE);
+        when(termDao.findAllLabels(vocabulary)).thenReturn(
+                Collections.singletonList(new TermInfo(term, "Metropolitan plan", vocabulary)));
+        this.sut = new DictionaryAnnotator(termDao, config);
+    }
+
+    private Document annotate(String html, Instant version) throws Exception {
+        final StringWriter out = new StringWriter();
+        sut.annotate(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)),
+                Collections.singleton(vocabulary), version, out);
+        return Jsoup.parse(out.toString());
+    }
+
+    @Test
+    void annotateMarksTermOccurrencesWithRdfa() throws Exception {
+        final Document result = annotate(
+                "<html><body><p>The metropolitan plan of Prague.</p></body></html>", Instant.now());
+        final Elements occurrences = result.getElementsByAttribute(Constants.RDFa.ABOUT);
+        assertEquals(1, occurrences.size());
+        final Element occurrence = occurrences.get(0);
+        assertEquals("metropolitan plan", occurrence.text());
+        assertEquals(term.toString(), occurrence.attr(Constants.RDFa.RESOURCE));
+        assertEquals(Vocabulary.s_c_vyskyt_termu, occurrence.attr(Constants.RDFa.TYPE));
+        assertEquals(DictionaryAnnotator.EXACT_MATCH_SCORE, Double.parseDouble(occurrence.attr("score")));
+        assertEquals("The metropolitan plan of Prague.", result.select("p").text());
+    }
+
+    @Test
+    void annotateGeneratesUniqueIdentifiersOfOccurrences() throws Exception {
+        final Document result = annotate("<html><body><p about=\"_:d0\">Metropolitan plan</p>" +
+                "<p>Metropolitan plan and metropolitan plan</p></body></html>", Instant.now());
+        final Elements occurrences = result.select("span[" + Constants.RDFa.ABOUT + "]");
+        assertEquals(2, occurrences.size());
+        final Set<String> ids = new java.util.HashSet<>(Arrays.asList("_:d0", occurrences.get(0).attr("about"),
+                occurrences.get(1).attr("about")));
+        assertEquals(3, ids.size());
+    }
+
+    @Test
+    void annotateSkipsExistingAnnotationsAndScripts() throws Exception {
+        final Document result = annotate("<html><head><title>Metropolitan plan</title></head><body>" +
+                "<span about=\"_:1\" resource=\"" + Generator.generateUri() + "\">Metropolitan plan</span>" +
+                "<script>var s = 'Metropolitan plan';</script></body></html>", Instant.now());
+        assertEquals(1, result.getElementsByAttribute(Constants.RDFa.ABOUT).size());
+    }
+
+    @Test
+    void annotateReusesDictionaryForSameVocabularyVersion() throws Exception {
+        final Instant version = Instant.now();
+        annotate("<html><body>Metropolitan plan</body></html>", version);
+        annotate("<html><body>Metropolitan plan</body></html>", version);
+        verify(termDao).findAllLabels(vocabulary);
+    }
+
+    @Test
+    void annotateRebuildsDictionaryWhenVocabularyVersionChanges() throws Exception {
+        final Instant version = Instant.now();
+        annotate("<html><body>Metropolitan plan</body></html>", version);
+        annotate("<html><body>Metropolitan plan</body></html>", version.plusSeconds(10));
+        verify(termDao, times(2)).findAllLabels(vocabulary);
+    }
+
+    @Test
+    void annotateUsesLemmatizerWhenAvailable() throws Exception {
+        sut.setLemmatizer((word, language) -> word.endsWith("s") ? word.substring(0, word.length() - 1) : word);
+        final Document result = annotate("<html><body>Metropolitan plans</body></html>", Instant.now());
+        assertEquals(1, result.getElementsByAttribute(Constants.RDFa.ABOUT).size());
+    }
+
+    @Test
+    void getDictionarySharesSingleBuildBetweenConcurrentAnalyses() throws Exception {
+        final CountDownLatch building = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(termDao.findAllLabels(vocabulary)).thenAnswer(inv -> {
+            building.countDown();
+            release.await();
+            return Collections.singletonList(new TermInfo(term, "Metropolitan plan", vocabulary));
+        });
+        final Instant version = Instant.now();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<LabelDictionary> first = executor.submit(
+                    () -> sut.getDictionary(Collections.singleton(vocabulary), version));
+            assertTrue(building.await(10, TimeUnit.SECONDS));
+            final Future<LabelDictionary> second = executor.submit(
+                    () -> sut.getDictionary(Collections.singleton(vocabulary), version));
+            release.countDown();
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            verify(termDao).findAllLabels(vocabulary);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
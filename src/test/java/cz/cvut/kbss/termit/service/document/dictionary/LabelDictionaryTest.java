@@ -0,0 +1,99 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.dictionary;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelDictionaryTest {
+
+    private static LabelDictionary dictionary(Map<String, URI> labels) {
+        return new LabelDictionary(labels, String::toLowerCase);
+    }
+
+    @Test
+    void findMatchesFindsAllOccurrencesOfSingleWordLabel() {
+        final URI term = Generator.generateUri();
+        final LabelDictionary sut = dictionary(Collections.singletonMap("plan", term));
+        final String text = "Plan is a plan.";
+        final List<LabelDictionary.Match> result = sut.findMatches(text);
+        assertEquals(Arrays.asList(new LabelDictionary.Match(0, 4, term), new LabelDictionary.Match(10, 14, term)),
+                result);
+    }
+
+    @Test
+    void findMatchesMatchesWholeWordsOnly() {
+        final LabelDictionary sut = dictionary(Collections.singletonMap("plan", Generator.generateUri()));
+        assertTrue(sut.findMatches("Planning and airplanes.").isEmpty());
+    }
+
+    @Test
+    void findMatchesFindsMultiWordLabelsRegardlessOfWhitespaceAndPunctuation() {
+        final URI term = Generator.generateUri();
+        final LabelDictionary sut = dictionary(Collections.singletonMap("Metropolitan plan", term));
+        final String text = "The metropolitan\n  plan of Prague";
+        final List<LabelDictionary.Match> result = sut.findMatches(text);
+        assertEquals(1, result.size());
+        assertEquals("metropolitan\n  plan", text.substring(result.get(0).getStart(), result.get(0).getEnd()));
+        assertEquals(term, result.get(0).getTerm());
+    }
+
+    @Test
+    void findMatchesPrefersLongestOfOverlappingMatches() {
+        final URI plan = Generator.generateUri();
+        final URI metropolitanPlan = Generator.generateUri();
+        final Map<String, URI> labels = new HashMap<>();
+        labels.put("plan", plan);
+        labels.put("metropolitan plan", metropolitanPlan);
+        final LabelDictionary sut = dictionary(labels);
+        final List<LabelDictionary.Match> result = sut.findMatches("Metropolitan plan and land use plan");
+        assertEquals(Arrays.asList(new LabelDictionary.Match(0, 17, metropolitanPlan),
+                new LabelDictionary.Match(31, 35, plan)), result);
+    }
+
+    @Test
+    void findMatchesFindsLabelWhichIsSuffixOfPartiallyMatchedLabel() {
+        final URI landUse = Generator.generateUri();
+        final Map<String, URI> labels = new HashMap<>();
+        labels.put("land use plan", Generator.generateUri());
+        labels.put("use", landUse);
+        final LabelDictionary sut = dictionary(labels);
+        final List<LabelDictionary.Match> result = sut.findMatches("land use map");
+        assertEquals(Collections.singletonList(new LabelDictionary.Match(5, 8, landUse)), result);
+    }
+
+    @Test
+    void findMatchesAppliesNormalizerToLabelsAndText() {
+        final URI term = Generator.generateUri();
+        final LabelDictionary sut = new LabelDictionary(Collections.singletonMap("Plans", term),
+                word -> word.toLowerCase().replaceAll("s$", ""));
+        assertEquals(Collections.singletonList(new LabelDictionary.Match(4, 8, term)), sut.findMatches("the plan"));
+    }
+
+    @Test
+    void findMatchesReturnsEmptyListForEmptyDictionary() {
+        final LabelDictionary sut = dictionary(Collections.emptyMap());
+        assertEquals(0, sut.size());
+        assertTrue(sut.findMatches("Any text").isEmpty());
+    }
+}
@@ -27,6 +27,8 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Constants;
+import org.jsoup.Jsoup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
@@ -38,6 +40,7 @@ import org.springframework.test.context.ContextConfiguration;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -152,4 +155,17 @@ class HtmlTermOccurrenceResolverTest extends BaseServiceTestRunner {
         final List<TermOccurrence> result = sut.findTermOccurrences();
         result.forEach(to -> assertNull(to.getScore()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeContentWritesOutParsedDocument() {
+        createTerm();
+        final File file = new File();
+        file.setLabel("rdfa-simple.html");
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html");
+        sut.parseContent(is, file);
+        final StringWriter writer = new StringWriter();
+        sut.writeContent(writer);
+        final org.jsoup.nodes.Document result = Jsoup.parse(writer.toString());
+        assertFalse(result.getElementsByAttribute(Constants.RDFa.ABOUT).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MediaTypeDetectorTest {
+
+    private static Optional<String> detect(String content, String fileName) {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return MediaTypeDetector.detect(bytes, bytes.length, fileName);
+    }
+
+    @Test
+    void detectRecognizesHtmlRegardlessOfFileExtension() {
+        assertEquals(Optional.of(MediaType.TEXT_HTML_VALUE),
+                detect("\n  <!DOCTYPE html><html><body>Test</body></html>", "document"));
+        assertEquals(Optional.of(MediaType.TEXT_HTML_VALUE), detect("<HTML lang=\"cs\"></HTML>", "document.txt"));
+    }
+
+    @Test
+    void detectRecognizesHtmlPrecededByByteOrderMark() {
+        final byte[] bytes = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '<', 'h', 't', 'm', 'l', '>'};
+        assertEquals(Optional.of(MediaType.TEXT_HTML_VALUE), MediaTypeDetector.detect(bytes, bytes.length, "doc"));
+    }
+
+    @Test
+    void detectRecognizesPdfByMagicBytes() {
+        assertEquals(Optional.of("application/pdf"), detect("%PDF-1.7\n", "document.html"));
+    }
+
+    @Test
+    void detectUsesExtensionToRecognizeZipBasedDocuments() {
+        final byte[] bytes = {'P', 'K', 3, 4, 0, 0};
+        assertEquals(Optional.of("application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+                MediaTypeDetector.detect(bytes, bytes.length, "document.docx"));
+        assertEquals(Optional.of("application/zip"), MediaTypeDetector.detect(bytes, bytes.length, "document"));
+    }
+
+    @Test
+    void detectUsesExtensionToDistinguishXhtmlFromXml() {
+        final String content = "<?xml version=\"1.0\"?><html xmlns=\"http://www.w3.org/1999/xhtml\"></html>";
+        assertEquals(Optional.of(MediaType.TEXT_HTML_VALUE), detect(content, "document.html"));
+        assertEquals(Optional.of(MediaType.APPLICATION_XML_VALUE), detect(content, "document"));
+    }
+
+    @Test
+    void detectFallsBackToFileExtensionForUnrecognizedContent() {
+        assertEquals(Optional.of(MediaType.TEXT_PLAIN_VALUE), detect("Plain text", "document.txt"));
+    }
+
+    @Test
+    void detectReturnsEmptyOptionalForUnrecognizedContentWithoutExtension() {
+        assertFalse(detect("Plain text", "document").isPresent());
+    }
+
+    @Test
+    void detectConsidersOnlySpecifiedNumberOfHeaderBytes() {
+        final byte[] bytes = "%PDF-1.7".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Optional.of(MediaType.TEXT_PLAIN_VALUE), MediaTypeDetector.detect(bytes, 3, "document.txt"));
+    }
+}
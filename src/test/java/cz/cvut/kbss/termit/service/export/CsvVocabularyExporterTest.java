@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.service.export;
 
 import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.CsvUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,12 +27,17 @@ import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CsvVocabularyExporterTest extends VocabularyExporterTestBase {
@@ -84,6 +90,21 @@ class CsvVocabularyExporterTest extends VocabularyExporterTestBase {
         }
     }
 
+    @Test
+    void exportVocabularyGlossaryWritesTermsAsUtf8EncodedCsvIntoOutputStream() throws Exception {
+        final List<Term> terms = generateTerms();
+        final Term term = terms.get(0);
+        term.setLabel("Územní plán");
+        transactional(() -> em.merge(term, descriptorFactory.termDescriptor(vocabulary)));
+        final Resource result = sut.exportVocabularyGlossary(vocabulary);
+        assertThat(result, instanceOf(TypeAwareStreamingResource.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((TypeAwareStreamingResource) result).writeTo(out);
+        final List<String> lines = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+        assertEquals(terms.size() + 1, lines.size());
+        assertTrue(lines.stream().anyMatch(l -> l.startsWith(term.getUri() + ",Územní plán,")));
+    }
+
     @Test
     void supportsReturnsTrueForCsvMediaType() {
         assertTrue(sut.supports(CsvUtils.MEDIA_TYPE));
@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.service.export;
 
 import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.Constants;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -28,10 +29,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Comparator;
 import java.util.List;
 
 import static cz.cvut.kbss.termit.service.export.ExcelVocabularyExporter.SHEET_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ExcelVocabularyExporterTest extends VocabularyExporterTestBase {
@@ -99,6 +104,19 @@ class ExcelVocabularyExporterTest extends VocabularyExporterTestBase {
         }
     }
 
+    @Test
+    void exportVocabularyGlossaryWritesWorkbookIntoOutputStream() throws Exception {
+        final List<Term> terms = generateTerms();
+        final Resource result = sut.exportVocabularyGlossary(vocabulary);
+        assertThat(result, instanceOf(TypeAwareStreamingResource.class));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((TypeAwareStreamingResource) result).writeTo(out);
+        final XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        final XSSFSheet sheet = wb.getSheet(SHEET_NAME);
+        assertNotNull(sheet);
+        assertEquals(terms.size(), sheet.getLastRowNum());
+    }
+
     @Test
     void supportsReturnsTrueForExcelMediaType() {
         assertTrue(sut.supports(Constants.Excel.MEDIA_TYPE));
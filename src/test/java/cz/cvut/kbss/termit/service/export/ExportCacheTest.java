@@ -0,0 +1,266 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.export;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.PersistenceUtils;
+import cz.cvut.kbss.termit.service.export.util.CachedExportResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.service.repository.VocabularyRepositoryService;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.CsvUtils;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.StreamUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ExportCacheTest {
+
+    private static final String CONTENT = "IRI,Label\nhttp://example.org/term,Term\n";
+
+    @Mock
+    private VocabularyRepositoryService vocabularyService;
+
+    @Mock
+    private PersistenceUtils persistenceUtils;
+
+    @Mock
+    private Configuration config;
+
+    private Path storage;
+
+    private Vocabulary vocabulary;
+
+    private ExportCache sut;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        this.storage = Files.createTempDirectory("termit");
+        when(config.get(ConfigParam.FILE_STORAGE)).thenReturn(storage.toString());
+        when(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE)).thenReturn(Long.toString(10 * 1024));
+        when(persistenceUtils.resolveVocabularyContext(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(vocabularyService.getLastModified(any(Vocabulary.class))).thenReturn(System.currentTimeMillis());
+        this.vocabulary = Generator.generateVocabularyWithId();
+        this.sut = new ExportCache(vocabularyService, persistenceUtils, config);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (final Stream<Path> files = Files.walk(storage)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static Supplier<TypeAwareResource> generator(AtomicInteger counter, String content) {
+        return () -> {
+            counter.incrementAndGet();
+            return new TypeAwareByteArrayResource(content.getBytes(StandardCharsets.UTF_8), CsvUtils.MEDIA_TYPE,
+                    CsvUtils.FILE_EXTENSION);
+        };
+    }
+
+    private static String readContent(TypeAwareResource resource) throws Exception {
+        try (final InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void getGeneratesExportOnceAndReturnsCachedExportOnSubsequentCalls() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final TypeAwareResource first = sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        final TypeAwareResource second = sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(1, counter.get());
+        assertThat(second, instanceOf(CachedExportResource.class));
+        assertEquals(CONTENT, readContent(second));
+        assertEquals(((CachedExportResource) first).getTag(), ((CachedExportResource) second).getTag());
+        assertEquals(CsvUtils.MEDIA_TYPE, second.getMediaType().get());
+        assertEquals(CsvUtils.FILE_EXTENSION, second.getFileExtension().get());
+    }
+
+    @Test
+    void getStoresStreamedExportInCache() throws Exception {
+        final TypeAwareResource result = sut.get(vocabulary, CsvUtils.MEDIA_TYPE,
+                () -> new TypeAwareStreamingResource(out -> out.write(CONTENT.getBytes(StandardCharsets.UTF_8)),
+                        CsvUtils.MEDIA_TYPE, CsvUtils.FILE_EXTENSION));
+        assertThat(result, instanceOf(CachedExportResource.class));
+        assertEquals(CONTENT.length(), result.contentLength());
+        assertEquals(CONTENT, readContent(result));
+    }
+
+    @Test
+    void getRegeneratesExportWhenVocabularyHasBeenModified() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final CachedExportResource first =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        when(vocabularyService.getLastModified(vocabulary)).thenReturn(first.getVersion() + 1000);
+        final CachedExportResource second =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT + "x"));
+        assertEquals(2, counter.get());
+        assertNotEquals(first.getTag(), second.getTag());
+        assertEquals(first.getVersion() + 1000, second.getVersion());
+        assertEquals(CONTENT + "x", readContent(second));
+    }
+
+    @Test
+    void getReturnsCachedExportWhenAnotherVocabularyHasBeenModified() {
+        final AtomicInteger counter = new AtomicInteger();
+        final Vocabulary another = Generator.generateVocabularyWithId();
+        final long version = vocabularyService.getLastModified(vocabulary);
+        final CachedExportResource first =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        when(vocabularyService.getLastModified(another)).thenReturn(version + 1000);
+        final CachedExportResource second =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(1, counter.get());
+        assertEquals(first.getTag(), second.getTag());
+    }
+
+    @Test
+    void getCachesExportsOfDifferentMediaTypesSeparately() {
+        final AtomicInteger counter = new AtomicInteger();
+        final CachedExportResource csv =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        final CachedExportResource other =
+                (CachedExportResource) sut.get(vocabulary, "text/turtle", generator(counter, CONTENT));
+        assertEquals(2, counter.get());
+        assertNotEquals(csv.getTag(), other.getTag());
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedExportsWhenSizeLimitIsExceeded() throws Exception {
+        when(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE)).thenReturn(Integer.toString(CONTENT.length() * 2));
+        final AtomicInteger counter = new AtomicInteger();
+        final Vocabulary another = Generator.generateVocabularyWithId();
+        final Vocabulary third = Generator.generateVocabularyWithId();
+        final CachedExportResource first =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        ((CachedExportResource) sut.get(another, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT))).release();
+        // Access the first export, making the second the least recently used
+        sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        sut.get(third, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(3, counter.get());
+        assertTrue(first.exists());
+        try (final Stream<Path> files = Files.list(storage.resolve(ExportCache.CACHE_DIRECTORY))) {
+            assertEquals(2, files.count());
+        }
+        sut.get(another, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(4, counter.get());
+    }
+
+    @Test
+    void evictionDeletesLeasedExportOnlyAfterItHasBeenReleased() throws Exception {
+        when(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE)).thenReturn(Integer.toString(CONTENT.length()));
+        final AtomicInteger counter = new AtomicInteger();
+        final CachedExportResource leased =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        // Evicts the leased export
+        sut.get(Generator.generateVocabularyWithId(), CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertTrue(leased.exists());
+        assertEquals(CONTENT, readContent(leased));
+        leased.release();
+        assertFalse(leased.exists());
+    }
+
+    @Test
+    void releasingEvictedExportDoesNotDeleteItsRegeneratedVersion() throws Exception {
+        when(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE)).thenReturn(Integer.toString(CONTENT.length()));
+        final AtomicInteger counter = new AtomicInteger();
+        final CachedExportResource leased =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        // Evicts the leased export, which is then generated again
+        sut.get(Generator.generateVocabularyWithId(), CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        final CachedExportResource regenerated =
+                (CachedExportResource) sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(3, counter.get());
+        leased.release();
+        assertFalse(leased.exists());
+        assertTrue(regenerated.exists());
+        final TypeAwareResource cached = sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertEquals(3, counter.get());
+        assertEquals(CONTENT, readContent(cached));
+    }
+
+    @Test
+    void getGeneratesExportOnlyOnceForConcurrentRequests() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final CountDownLatch generationStarted = new CountDownLatch(1);
+        final CountDownLatch finishGeneration = new CountDownLatch(1);
+        final Supplier<TypeAwareResource> slowGenerator = () -> {
+            generationStarted.countDown();
+            try {
+                assertTrue(finishGeneration.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return generator(counter, CONTENT).get();
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<TypeAwareResource> first =
+                    executor.submit(() -> sut.get(vocabulary, CsvUtils.MEDIA_TYPE, slowGenerator));
+            assertTrue(generationStarted.await(10, TimeUnit.SECONDS));
+            final Future<TypeAwareResource> second =
+                    executor.submit(() -> sut.get(vocabulary, CsvUtils.MEDIA_TYPE, slowGenerator));
+            finishGeneration.countDown();
+            assertEquals(CONTENT, readContent(first.get(10, TimeUnit.SECONDS)));
+            assertEquals(CONTENT, readContent(second.get(10, TimeUnit.SECONDS)));
+            assertEquals(1, counter.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getReturnsGeneratedExportDirectlyWhenCacheIsDisabled() {
+        when(config.get(ConfigParam.EXPORT_CACHE_MAX_SIZE)).thenReturn("0");
+        final AtomicInteger counter = new AtomicInteger();
+        final TypeAwareResource result = sut.get(vocabulary, CsvUtils.MEDIA_TYPE, generator(counter, CONTENT));
+        assertThat(result, not(instanceOf(CachedExportResource.class)));
+        assertEquals(1, counter.get());
+    }
+}
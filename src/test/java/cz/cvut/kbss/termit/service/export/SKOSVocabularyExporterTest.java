@@ -3,6 +3,7 @@ package cz.cvut.kbss.termit.service.export;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.service.export.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
@@ -24,14 +25,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -60,6 +66,29 @@ class SKOSVocabularyExporterTest extends VocabularyExporterTestBase {
         assertFalse(sut.supports(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    void supportsReturnsTrueForNTriplesRdfXmlAndBinaryRdfMediaTypes() {
+        assertTrue(sut.supports(Constants.NTriples.MEDIA_TYPE));
+        assertTrue(sut.supports(Constants.RdfXml.MEDIA_TYPE));
+        assertTrue(sut.supports(Constants.BinaryRdf.MEDIA_TYPE));
+    }
+
+    @Test
+    void exportVocabularyGlossaryWritesGlossaryInSpecifiedFormatIntoOutputStream() throws Exception {
+        final TypeAwareResource result = sut.exportVocabularyGlossary(vocabulary, Constants.NTriples.MEDIA_TYPE);
+        assertThat(result, instanceOf(TypeAwareStreamingResource.class));
+        assertEquals(Optional.of(Constants.NTriples.MEDIA_TYPE), result.getMediaType());
+        assertEquals(Optional.of(Constants.NTriples.FILE_EXTENSION), result.getFileExtension());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((TypeAwareStreamingResource) result).writeTo(out);
+        final Model model = new LinkedHashModel();
+        final RDFParser parser = Rio.createParser(RDFFormat.NTRIPLES);
+        parser.setRDFHandler(new StatementCollector(model));
+        parser.parse(new ByteArrayInputStream(out.toByteArray()), "");
+        assertThat(model, hasItem(vf
+                .createStatement(glossaryIri(vocabulary), RDF.TYPE, SKOS.CONCEPT_SCHEME)));
+    }
+
     @Test
     void exportVocabularyGlossaryExportsGlossaryInfo() throws IOException {
         final TypeAwareResource result = sut.exportVocabularyGlossary(vocabulary);
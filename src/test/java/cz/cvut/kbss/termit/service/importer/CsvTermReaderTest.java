@@ -0,0 +1,85 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.DataImportException;
+import cz.cvut.kbss.termit.model.Term;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTermReaderTest {
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readMapsColumnsOfExportLayoutToTermAttributes() {
+        final URI uri = Generator.generateUri();
+        final List<Term> result = CsvTermReader.read(csv(String.join(",", Term.EXPORT_COLUMNS) + "\n" +
+                uri + ",Building,A structure,\"Walls, roof\",http://example.org/TypeOne;http://example.org/TypeTwo," +
+                "Act 183/2006,,\n"));
+
+        assertEquals(1, result.size());
+        final Term term = result.get(0);
+        assertEquals(uri, term.getUri());
+        assertEquals("Building", term.getLabel());
+        assertEquals("A structure", term.getDefinition());
+        assertEquals("Walls, roof", term.getDescription());
+        assertEquals(new HashSet<>(Arrays.asList("http://example.org/TypeOne", "http://example.org/TypeTwo")),
+                term.getTypes());
+        assertEquals(new HashSet<>(Arrays.asList("Act 183/2006")), term.getSources());
+        assertNull(term.getParentTerms());
+    }
+
+    @Test
+    void readResolvesColumnsByHeaderNamesRegardlessOfOrderAndCase() {
+        final List<Term> result = CsvTermReader.read(csv("definition,LABEL\nA structure,Building\n"));
+
+        assertEquals(1, result.size());
+        assertEquals("Building", result.get(0).getLabel());
+        assertEquals("A structure", result.get(0).getDefinition());
+        assertNull(result.get(0).getUri());
+    }
+
+    @Test
+    void readSkipsEmptyRows() {
+        final List<Term> result = CsvTermReader.read(csv("Label\nBuilding\n\nRoad\n"));
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void readThrowsDataImportExceptionWhenLabelColumnIsMissing() {
+        assertThrows(DataImportException.class, () -> CsvTermReader.read(csv("IRI,Definition\n")));
+    }
+
+    @Test
+    void readThrowsDataImportExceptionForInvalidIdentifier() {
+        assertThrows(DataImportException.class, () -> CsvTermReader.read(csv("IRI,Label\nnot an iri,Building\n")));
+    }
+}
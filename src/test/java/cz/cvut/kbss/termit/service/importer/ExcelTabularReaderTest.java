@@ -0,0 +1,100 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExcelTabularReaderTest {
+
+    private Path file;
+
+    private final ExcelTabularReader sut = new ExcelTabularReader();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.file = Files.createTempFile("tabular", ".xlsx");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void writeWorkbook(XSSFWorkbook wb) throws IOException {
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            wb.write(out);
+        } finally {
+            wb.close();
+        }
+    }
+
+    @Test
+    void readPassesRowsOfFirstSheetWithTheirNumbers() throws Exception {
+        final XSSFWorkbook wb = new XSSFWorkbook();
+        final Sheet sheet = wb.createSheet("Glossary");
+        final Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("IRI");
+        header.createCell(1).setCellValue("Label");
+        final Row data = sheet.createRow(2);
+        data.createCell(0).setCellValue("http://example.org/term");
+        data.createCell(1).setCellValue("Term");
+        wb.createSheet("Other").createRow(0).createCell(0).setCellValue("Ignored");
+        writeWorkbook(wb);
+
+        final List<Integer> numbers = new ArrayList<>();
+        final List<String[]> rows = new ArrayList<>();
+        sut.read(file, (rowNumber, cells) -> {
+            numbers.add(rowNumber);
+            rows.add(cells);
+        });
+        assertEquals(2, rows.size());
+        assertEquals(1, numbers.get(0).intValue());
+        assertEquals(3, numbers.get(1).intValue());
+        assertArrayEquals(new String[]{"IRI", "Label"}, rows.get(0));
+        assertArrayEquals(new String[]{"http://example.org/term", "Term"}, rows.get(1));
+    }
+
+    @Test
+    void readFillsMissingCellsWithEmptyStringsAndFormatsNumbers() throws Exception {
+        final XSSFWorkbook wb = new XSSFWorkbook();
+        final Row row = wb.createSheet("Glossary").createRow(0);
+        row.createCell(0).setCellValue("First");
+        row.createCell(2).setCellValue(42);
+        writeWorkbook(wb);
+
+        final List<String[]> rows = new ArrayList<>();
+        sut.read(file, (rowNumber, cells) -> rows.add(cells));
+        assertEquals(1, rows.size());
+        assertArrayEquals(new String[]{"First", "", "42"}, rows.get(0));
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.dto.TermImportReport;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.DataImportException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.skos.TermStatementWriter;
+import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class TabularTermImporterTest {
+
+    private static final String HEADER = "IRI,Label,Definition,Parent term\n";
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private TermStatementWriter writer;
+
+    @Mock
+    private Configuration config;
+
+    private final Set<URI> writtenTerms = new HashSet<>();
+
+    private Vocabulary vocabulary;
+
+    private Path file;
+
+    private TabularTermImporter sut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.IMPORT_BATCH_SIZE)).thenReturn("2");
+        when(config.get(ConfigParam.TERM_NAMESPACE_SEPARATOR)).thenReturn(Constants.DEFAULT_TERM_NAMESPACE_SEPARATOR);
+        this.vocabulary = Generator.generateVocabularyWithId();
+        when(termDao.openStatementWriter(vocabulary)).thenReturn(writer);
+        doAnswer(inv -> writtenTerms.add(((Term) inv.getArgument(0)).getUri())).when(writer).addTerm(any());
+        when(writer.findExisting(anyCollection())).thenAnswer(inv -> {
+            final Collection<URI> ids = inv.getArgument(0);
+            return ids.stream().filter(writtenTerms::contains).collect(Collectors.toSet());
+        });
+        this.file = Files.createTempFile("term-import", ".csv");
+        this.sut = new TabularTermImporter(termDao, new IdentifierResolver(config), config,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private TermImportReport importCsv(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return sut.importTerms(vocabulary, file, new CsvTabularReader());
+    }
+
+    @Test
+    void importTermsWritesTermsAndParentLinksInBatches() throws Exception {
+        final URI child = Generator.generateUri();
+        final URI parent = Generator.generateUri();
+        final TermImportReport report = importCsv(HEADER +
+                child + ",Child,Defined by parent," + parent + "\n" +
+                parent + ",Parent,,\n" +
+                ",Standalone,,\n");
+
+        final ArgumentCaptor<Term> captor = ArgumentCaptor.forClass(Term.class);
+        verify(writer, times(3)).addTerm(captor.capture());
+        assertEquals(Arrays.asList(child, parent), captor.getAllValues().subList(0, 2).stream().map(Term::getUri)
+                                                         .collect(Collectors.toList()));
+        assertEquals("Defined by parent", captor.getAllValues().get(0).getDefinition());
+        // Identifier of the third term is generated
+        assertEquals(URI.create(vocabulary.getUri() + Constants.DEFAULT_TERM_NAMESPACE_SEPARATOR + "/standalone"),
+                captor.getAllValues().get(2).getUri());
+        verify(writer).addParent(child, parent);
+        // Two batches of terms and one batch of parent links
+        verify(writer, times(3)).flush();
+        verify(writer).assignTopConcepts();
+        verify(writer).close();
+        verify(termDao).evictVocabularyContext(vocabulary);
+        assertEquals(3, report.getImportedTermCount());
+        assertEquals(1, report.getParentLinkCount());
+        assertEquals(0, report.getErrorCount());
+    }
+
+    @Test
+    void importTermsReportsInvalidRowsAndImportsTheRest() throws Exception {
+        final URI existing = Generator.generateUri();
+        writtenTerms.add(existing);
+        final URI valid = Generator.generateUri();
+        final URI unknownParent = Generator.generateUri();
+        final TermImportReport report = importCsv(HEADER +
+                valid + ",Valid,,\n" +
+                ",,Missing label,\n" +
+                "not an iri,Invalid,,\n" +
+                existing + ",Existing,,\n" +
+                ",Orphan,," + unknownParent + "\n");
+
+        assertEquals(2, report.getImportedTermCount());
+        assertEquals(0, report.getParentLinkCount());
+        assertEquals(4, report.getErrorCount());
+        assertEquals(Arrays.asList(3, 4, 5, 6),
+                report.getErrors().stream().map(TermImportReport.RowError::getRow).collect(Collectors.toList()));
+        assertThat(report.getErrors().get(0).getMessage(), containsString("label"));
+        assertThat(report.getErrors().get(2).getMessage(), containsString("already exists"));
+        assertThat(report.getErrors().get(3).getMessage(), containsString(unknownParent.toString()));
+        verify(writer, never()).addParent(any(), any());
+    }
+
+    @Test
+    void importTermsReportsInvalidParentAndContinuesWithOtherRows() throws Exception {
+        final URI child = Generator.generateUri();
+        final URI parent = Generator.generateUri();
+        final URI other = Generator.generateUri();
+        final TermImportReport report = importCsv(HEADER +
+                parent + ",Parent,,\n" +
+                child + ",Child,,Parent term\n" +
+                other + ",Other,," + parent + "\n");
+
+        assertEquals(3, report.getImportedTermCount());
+        assertEquals(1, report.getParentLinkCount());
+        assertEquals(1, report.getErrorCount());
+        assertEquals(3, report.getErrors().get(0).getRow());
+        assertThat(report.getErrors().get(0).getMessage(), containsString("Parent term"));
+        verify(writer).addParent(other, parent);
+        verify(writer, never()).addParent(eq(child), any());
+        verify(writer).assignTopConcepts();
+    }
+
+    @Test
+    void importTermsReportsTermsRepeatedInInputAsExisting() throws Exception {
+        final URI uri = Generator.generateUri();
+        final TermImportReport report = importCsv(HEADER + uri + ",First,,\n" + uri + ",Second,,\n");
+
+        verify(writer).addTerm(any());
+        assertEquals(1, report.getImportedTermCount());
+        assertEquals(1, report.getErrorCount());
+        assertEquals(3, report.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void importTermsThrowsDataImportExceptionWhenHeaderIsMissingLabelColumn() throws Exception {
+        Files.write(file, "IRI,Definition\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(DataImportException.class, () -> sut.importTerms(vocabulary, file, new CsvTabularReader()));
+        verify(writer, never()).addTerm(any());
+        verify(writer).close();
+        verify(termDao).evictVocabularyContext(vocabulary);
+    }
+}
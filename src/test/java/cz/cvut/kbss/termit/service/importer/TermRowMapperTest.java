@@ -0,0 +1,63 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.importer;
+
+import cz.cvut.kbss.termit.exception.DataImportException;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermRowMapperTest {
+
+    @Test
+    void parentsReturnsIdentifiersFromParentColumnInOrder() {
+        final TermRowMapper sut = new TermRowMapper(new String[]{"Label", "Parent term"});
+        assertEquals(new LinkedHashSet<>(
+                        Arrays.asList(URI.create("http://example.org/b"), URI.create("http://example.org/a"))),
+                sut.parents(new String[]{"Term", "http://example.org/b; http://example.org/a"}));
+    }
+
+    @Test
+    void parentsReturnsEmptySetWhenParentColumnIsMissing() {
+        final TermRowMapper sut = new TermRowMapper(new String[]{"Label"});
+        assertTrue(sut.parents(new String[]{"Term"}).isEmpty());
+    }
+
+    @Test
+    void constructorIgnoresByteOrderMarkInHeader() {
+        final TermRowMapper sut = new TermRowMapper(new String[]{"\uFEFFIRI", "Label"});
+        assertEquals(URI.create("http://example.org/term"),
+                sut.toTerm(new String[]{"http://example.org/term", "Term"}).getUri());
+    }
+
+    @Test
+    void toTermIgnoresMissingTrailingCells() {
+        final TermRowMapper sut = new TermRowMapper(new String[]{"Label", "Definition"});
+        assertNull(sut.toTerm(new String[]{"Term"}).getDefinition());
+    }
+
+    @Test
+    void parentsThrowsDataImportExceptionForInvalidIdentifier() {
+        final TermRowMapper sut = new TermRowMapper(new String[]{"Label", "Parent term"});
+        assertThrows(DataImportException.class, () -> sut.parents(new String[]{"Term", "not an iri"}));
+    }
+}
@@ -1,10 +1,16 @@
 package cz.cvut.kbss.termit.service.importer;
 
+import cz.cvut.kbss.termit.dto.TermImportReport;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.exception.UnsupportedImportMediaTypeException;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.skos.ImportSource;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSImporter;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.CsvUtils;
+import org.eclipse.rdf4j.rio.RDFFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -12,19 +18,33 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +56,9 @@ class VocabularyImportServiceTest {
     @Mock
     private ApplicationContext context;
 
+    @Mock
+    private TabularTermImporter tabularImporter;
+
     @InjectMocks
     private VocabularyImportService sut;
 
@@ -59,42 +82,140 @@ class VocabularyImportServiceTest {
     }
 
     @Test
-    void extractsIndividualFilesFromZipAndPassesTheirInputStreamsToImporter() throws IOException {
+    void passesIndividualFilesFromZipToImporterAsSeparateSources() throws IOException {
         final MultipartFile input = new MockMultipartFile("vocabulary.zip", "vocabulary.zip",
-                Constants.ZIP_MEDIA_TYPE, generateZipFile().toByteArray());
+                Constants.ZIP_MEDIA_TYPE, generateZipFile("vocabulary.ttl", "vocabulary2.ttl").toByteArray());
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
-        when(importer.importVocabulary(any())).thenReturn(vocabulary);
+        final List<Integer> readBytes = new ArrayList<>();
+        when(importer.importVocabulary(anyList())).thenAnswer(inv -> {
+            final List<ImportSource> sources = inv.getArgument(0);
+            // Sources are only readable during the import
+            for (ImportSource source : sources) {
+                try (final InputStream is = source.openStream()) {
+                    readBytes.add(is.read());
+                }
+            }
+            return vocabulary;
+        });
+        final Vocabulary result = sut.importVocabulary(input);
+        assertEquals(vocabulary, result);
+        final ArgumentCaptor<List<ImportSource>> captor = ArgumentCaptor.forClass(List.class);
+        verify(importer).importVocabulary(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(Arrays.asList("vocabulary.ttl", "vocabulary2.ttl"),
+                captor.getValue().stream().map(ImportSource::getName).collect(Collectors.toList()));
+        captor.getValue().forEach(s -> assertEquals(Constants.Turtle.MEDIA_TYPE, s.getMediaType()));
+        readBytes.forEach(b -> assertNotEquals(-1, b));
+    }
+
+    @Test
+    void guessesMediaTypeOfEachFileFromZipSeparately() throws IOException {
+        final MultipartFile input = new MockMultipartFile("vocabulary.zip", "vocabulary.zip",
+                Constants.ZIP_MEDIA_TYPE, generateZipFile("glossary.ttl", "vocabulary.rdf").toByteArray());
+        when(importer.importVocabulary(anyList())).thenReturn(Generator.generateVocabularyWithId());
         sut.importVocabulary(input);
-        final ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
-        verify(importer).importVocabulary(eq(Constants.Turtle.MEDIA_TYPE), captor.capture());
-        assertEquals(2, captor.getAllValues().size());
+        final ArgumentCaptor<List<ImportSource>> captor = ArgumentCaptor.forClass(List.class);
+        verify(importer).importVocabulary(captor.capture());
+        assertEquals(Constants.Turtle.MEDIA_TYPE, captor.getValue().get(0).getMediaType());
+        assertEquals(RDFFormat.RDFXML.getDefaultMIMEType(), captor.getValue().get(1).getMediaType());
     }
 
-    private ByteArrayOutputStream generateZipFile() throws IOException {
+    @Test
+    void skipsFilesFromZipWhichAreNotInSupportedRdfFormat() throws IOException {
+        final MultipartFile input = new MockMultipartFile("vocabulary.zip", "vocabulary.zip",
+                Constants.ZIP_MEDIA_TYPE,
+                generateZipFile("README", "vocabulary.ttl", ".DS_Store", "LICENSE.txt").toByteArray());
+        when(importer.importVocabulary(anyList())).thenReturn(Generator.generateVocabularyWithId());
+        sut.importVocabulary(input);
+        final ArgumentCaptor<List<ImportSource>> captor = ArgumentCaptor.forClass(List.class);
+        verify(importer).importVocabulary(captor.capture());
+        assertEquals(Collections.singletonList("vocabulary.ttl"),
+                captor.getValue().stream().map(ImportSource::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void throwsUnsupportedImportMediaTypeExceptionWhenZipContainsNoFileInSupportedRdfFormat() throws IOException {
+        final MultipartFile input = new MockMultipartFile("vocabulary.zip", "vocabulary.zip",
+                Constants.ZIP_MEDIA_TYPE, generateZipFile("README", "LICENSE.txt").toByteArray());
+        assertThrows(UnsupportedImportMediaTypeException.class, () -> sut.importVocabulary(input));
+        verify(importer, never()).importVocabulary(anyList());
+    }
+
+    @Test
+    void reimportPassesUploadedFileToImporterForDifferentialImport() throws IOException {
+        final MultipartFile input = new MockMultipartFile("vocabulary.ttl", "vocabulary.ttl",
+                Constants.Turtle.MEDIA_TYPE, Environment.loadFile("vocabularies/ipr-glossaries.ttl"));
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        when(importer.reimportVocabulary(anyList())).thenReturn(vocabulary);
+        final Vocabulary result = sut.reimportVocabulary(input);
+        assertEquals(vocabulary, result);
+        final ArgumentCaptor<List<ImportSource>> captor = ArgumentCaptor.forClass(List.class);
+        verify(importer).reimportVocabulary(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(Constants.Turtle.MEDIA_TYPE, captor.getValue().get(0).getMediaType());
+        verify(context).publishEvent(any(RefreshLastModifiedEvent.class));
+    }
+
+    @Test
+    void publishesLastModifiedRefreshEventAfterImport() throws IOException {
+        final MultipartFile input = new MockMultipartFile("vocabulary.ttl", "vocabulary.ttl",
+                Constants.Turtle.MEDIA_TYPE, Environment.loadFile("vocabularies/ipr-glossaries.ttl"));
+        when(importer.importVocabulary(any(), any())).thenReturn(Generator.generateVocabularyWithId());
+        sut.importVocabulary(input);
+        verify(context).publishEvent(any(RefreshLastModifiedEvent.class));
+    }
+
+    @Test
+    void importTermsPassesCopyOfUploadedCsvToTabularImporter() {
+        final String content = "IRI,Label\nhttp://example.org/term,Term\n";
+        final MultipartFile input = new MockMultipartFile("terms.csv", "terms.csv", CsvUtils.MEDIA_TYPE,
+                content.getBytes(StandardCharsets.UTF_8));
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final TermImportReport report = new TermImportReport();
+        when(tabularImporter.importTerms(eq(vocabulary), any(), any())).thenAnswer(inv -> {
+            // The file exists only during the import
+            assertEquals(content, new String(Files.readAllBytes(inv.getArgument(1)), StandardCharsets.UTF_8));
+            return report;
+        });
+
+        assertSame(report, sut.importTerms(vocabulary, input));
+        verify(tabularImporter).importTerms(eq(vocabulary), any(Path.class), any(CsvTabularReader.class));
+        verify(context).publishEvent(any(RefreshLastModifiedEvent.class));
+    }
+
+    @Test
+    void importTermsResolvesExcelReaderFromFileNameWhenContentTypeIsUnknown() {
+        final MultipartFile input = new MockMultipartFile("terms.xlsx", "terms.xlsx",
+                MediaType.APPLICATION_OCTET_STREAM_VALUE, new byte[0]);
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+
+        sut.importTerms(vocabulary, input);
+        verify(tabularImporter).importTerms(eq(vocabulary), any(Path.class), any(ExcelTabularReader.class));
+    }
+
+    @Test
+    void importTermsThrowsUnsupportedImportMediaTypeExceptionForUnknownFileFormat() {
+        final MultipartFile input = new MockMultipartFile("terms.ttl", "terms.ttl", Constants.Turtle.MEDIA_TYPE,
+                new byte[0]);
+        assertThrows(UnsupportedImportMediaTypeException.class,
+                () -> sut.importTerms(Generator.generateVocabularyWithId(), input));
+        verify(tabularImporter, never()).importTerms(any(), any(), any());
+    }
+
+    private ByteArrayOutputStream generateZipFile(String... entryNames) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-            ZipEntry entry = new ZipEntry("vocabulary.ttl");
-
-            zos.putNextEntry(entry);
-            try (InputStream is = Environment.loadFile("vocabularies/ipr-glossaries.ttl")) {
-                byte[] bytes = new byte[1024];
-                int length;
-                while ((length = is.read(bytes)) >= 0) {
-                    zos.write(bytes, 0, length);
-                }
-            }
-            zos.closeEntry();
-
-            entry = new ZipEntry("vocabulary2.ttl");
-            zos.putNextEntry(entry);
-            try (InputStream is = Environment.loadFile("vocabularies/ipr-glossaries.ttl")) {
-                byte[] bytes = new byte[1024];
-                int length;
-                while ((length = is.read(bytes)) >= 0) {
-                    zos.write(bytes, 0, length);
+            for (String name : entryNames) {
+                zos.putNextEntry(new ZipEntry(name));
+                try (InputStream is = Environment.loadFile("vocabularies/ipr-glossaries.ttl")) {
+                    byte[] bytes = new byte[1024];
+                    int length;
+                    while ((length = is.read(bytes)) >= 0) {
+                        zos.write(bytes, 0, length);
+                    }
                 }
+                zos.closeEntry();
             }
-            zos.closeEntry();
         }
         return baos;
     }
@@ -23,12 +23,14 @@ import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.persistence.dao.lucene.FullTextIndex;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
@@ -38,6 +40,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class AppAdminBeanTest extends BaseServiceTestRunner {
 
@@ -50,12 +53,18 @@ class AppAdminBeanTest extends BaseServiceTestRunner {
     @Mock
     private ApplicationEventPublisher eventPublisherMock;
 
+    @Mock
+    private ObjectProvider<FullTextIndex> fullTextIndexProviderMock;
+
+    @Mock
+    private FullTextIndex fullTextIndexMock;
+
     private AppAdminBean sut;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
-        this.sut = new AppAdminBean(eventPublisherMock, emf);
+        this.sut = new AppAdminBean(eventPublisherMock, emf, fullTextIndexProviderMock);
     }
 
     @Test
@@ -74,4 +83,11 @@ class AppAdminBeanTest extends BaseServiceTestRunner {
         verify(eventPublisherMock).publishEvent(captor.capture());
         assertThat(captor.getValue(), instanceOf(RefreshLastModifiedEvent.class));
     }
+
+    @Test
+    void rebuildFullTextIndexRebuildsEmbeddedIndexWhenAvailable() {
+        when(fullTextIndexProviderMock.getIfAvailable()).thenReturn(fullTextIndexMock);
+        sut.rebuildFullTextIndex();
+        verify(fullTextIndexMock).rebuild();
+    }
 }
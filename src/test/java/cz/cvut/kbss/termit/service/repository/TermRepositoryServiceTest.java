@@ -33,9 +33,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -160,6 +162,59 @@ class TermRepositoryServiceTest extends BaseServiceTestRunner {
         });
     }
 
+    @Test
+    void addRootTermsToVocabularySavesAllTermsAsRootsInVocabularyContext() {
+        final List<Term> terms = IntStream.range(0, 5).mapToObj(i -> Generator.generateTermWithId())
+                                          .collect(Collectors.toList());
+
+        transactional(() -> sut.addRootTermsToVocabulary(terms, vocabulary));
+
+        transactional(() -> {
+            final Glossary result = em.find(Glossary.class, vocabulary.getGlossary().getUri());
+            assertNotNull(result);
+            terms.forEach(t -> {
+                assertTrue(result.getRootTerms().contains(t.getUri()));
+                assertEquals(t, em.find(Term.class, t.getUri(), descriptorFactory.termDescriptor(vocabulary)));
+            });
+        });
+    }
+
+    @Test
+    void addRootTermsToVocabularyGeneratesMissingTermIdentifiers() {
+        final List<Term> terms = Arrays.asList(Generator.generateTerm(), Generator.generateTerm());
+
+        transactional(() -> sut.addRootTermsToVocabulary(terms, vocabulary));
+
+        terms.forEach(t -> {
+            assertNotNull(t.getUri());
+            assertEquals(sut.generateIdentifier(vocabulary.getUri(), t.getLabel()), t.getUri());
+            assertNotNull(em.find(Term.class, t.getUri()));
+        });
+    }
+
+    @Test
+    void addRootTermsToVocabularyThrowsResourceExistsExceptionAndPersistsNothingWhenAnyIdentifierExists() {
+        final Term existing = Generator.generateTermWithId();
+        transactional(() -> sut.addRootTermToVocabulary(existing, vocabulary));
+        final Term newOne = Generator.generateTermWithId();
+        final Term duplicate = Generator.generateTerm();
+        duplicate.setUri(existing.getUri());
+
+        assertThrows(ResourceExistsException.class,
+                () -> transactional(() -> sut.addRootTermsToVocabulary(Arrays.asList(newOne, duplicate), vocabulary)));
+        assertNull(em.find(Term.class, newOne.getUri()));
+    }
+
+    @Test
+    void addRootTermsToVocabularyThrowsResourceExistsExceptionWhenIdentifierRepeatsInBatch() {
+        final Term first = Generator.generateTermWithId();
+        final Term second = Generator.generateTerm();
+        second.setUri(first.getUri());
+
+        assertThrows(ResourceExistsException.class,
+                () -> sut.addRootTermsToVocabulary(Arrays.asList(first, second), vocabulary));
+    }
+
     @Test
     void generateIdentifierGeneratesTermIdentifierBasedOnVocabularyUriAndTermLabel() {
         final URI vocabularyUri = vocabulary.getUri();